@@ -1,9 +1,18 @@
 package com.diit.example.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
 /**
  * 日志接收控制器
@@ -16,6 +25,9 @@ import java.util.Map;
 @RequestMapping("/api/logs")
 public class LogReceiverController {
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     /**
      * 接收日志数据
      */
@@ -38,6 +50,47 @@ public class LogReceiverController {
         );
     }
     
+    /**
+     * 批量接收日志
+     * 请求体为NDJSON（每行一条）或JSON数组，按Content-Encoding解压gzip/zstd
+     */
+    @PostMapping("/batch")
+    public Map<String, Object> receiveBatch(HttpServletRequest request,
+                                            @RequestHeader(value = "Content-Encoding", required = false) String contentEncoding,
+                                            @RequestHeader(value = "X-Log-Source", required = false) String logSource) throws IOException {
+        
+        int received = 0;
+        ObjectReader reader = objectMapper.readerFor(Map.class);
+        try (InputStream in = decode(request.getInputStream(), contentEncoding);
+             MappingIterator<Map<String, Object>> logs = reader.readValues(in)) {
+            // readValues同时支持以空白分隔的多个JSON对象和顶层JSON数组
+            while (logs.hasNextValue()) {
+                Map<String, Object> logData = logs.nextValue();
+                received++;
+                log.debug("   数据: {}", logData);
+            }
+        }
+        
+        log.info("📥 接收到HTTP批量日志: 来源={}, 编码={}, 条数={}", logSource, contentEncoding, received);
+        
+        return Map.of(
+            "success", true,
+            "message", "日志接收成功",
+            "timestamp", System.currentTimeMillis(),
+            "received", received
+        );
+    }
+    
+    private InputStream decode(InputStream in, String contentEncoding) throws IOException {
+        if ("gzip".equalsIgnoreCase(contentEncoding)) {
+            return new GZIPInputStream(in, 8192);
+        }
+        if ("zstd".equalsIgnoreCase(contentEncoding)) {
+            return new ZstdInputStream(in);
+        }
+        return in;
+    }
+    
     /**
      * 健康检查
      */
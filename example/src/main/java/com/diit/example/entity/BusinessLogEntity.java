@@ -1,5 +1,6 @@
 package com.diit.example.entity;
 
+import com.diit.common.log.annotation.LogEntity;
 import com.diit.common.log.entity.BaseLogEntity;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -12,6 +13,7 @@ import lombok.EqualsAndHashCode;
  * @author zzx
  */
 @Data
+@LogEntity
 @EqualsAndHashCode(callSuper = true)
 public class BusinessLogEntity extends BaseLogEntity {
     
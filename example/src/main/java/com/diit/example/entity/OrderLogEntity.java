@@ -1,5 +1,6 @@
 package com.diit.example.entity;
 
+import com.diit.common.log.annotation.LogEntity;
 import com.diit.common.log.entity.BaseLogEntity;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -15,6 +16,7 @@ import java.util.Map;
  * @author zzx
  */
 @Data
+@LogEntity
 @EqualsAndHashCode(callSuper = true)
 public class OrderLogEntity extends BaseLogEntity {
     
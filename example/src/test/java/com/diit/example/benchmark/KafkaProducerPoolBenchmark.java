@@ -0,0 +1,114 @@
+package com.diit.example.benchmark;
+
+import com.diit.common.log.config.LogConfiguration;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.sender.kafka.KafkaProducerPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kafka生产者池吞吐量基准
+ * 在嵌入式Broker上用真实KafkaProducer对比不同生产者数量下多线程并发发送的吞吐量，
+ * 生产者工厂和生产者池与Starter的自动配置相同，每轮发送完成后flush并核对失败条数
+ *
+ * 默认跳过，运行：mvn test -Dtest=KafkaProducerPoolBenchmark -Dbenchmark=true
+ * 可选参数：-Dbenchmark.threads=64 -Dbenchmark.records=10000 -Dbenchmark.producers=1,2,4,8 -Dbenchmark.throughput=true
+ *
+ * @author zzx
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@EmbeddedKafka(partitions = 16, topics = KafkaProducerPoolBenchmark.TOPIC)
+class KafkaProducerPoolBenchmark {
+    
+    static final String TOPIC = "log_benchmark";
+    
+    private static final byte[] PAYLOAD = ("{\"id\":\"00000000-0000-0000-0000-000000000000\",\"timestamp\":\"2024-01-01T00:00:00\","
+            + "\"content\":\"benchmark\",\"level\":\"INFO\",\"module\":\"订单管理\",\"username\":\"user\"}")
+            .getBytes(StandardCharsets.UTF_8);
+    
+    @Test
+    void compareProducerCounts(EmbeddedKafkaBroker broker) throws Exception {
+        int threads = Integer.getInteger("benchmark.threads", 64);
+        int recordsPerThread = Integer.getInteger("benchmark.records", 10000);
+        String[] producerCounts = System.getProperty("benchmark.producers", "1,2,4,8").split(",");
+        
+        LogProperties properties = new LogProperties();
+        properties.getKafka().setBootstrapServers(broker.getBrokersAsString());
+        properties.getKafka().getThroughput().setEnabled(Boolean.getBoolean("benchmark.throughput"));
+        
+        System.out.printf("线程数: %d, 每线程条数: %d, 消息大小: %d bytes, 高吞吐模式: %s%n", threads, recordsPerThread,
+                PAYLOAD.length, properties.getKafka().getThroughput().isEnabled());
+        
+        // 预热一轮，避免JIT和Broker建立连接影响第一组结果
+        run(properties, 2, threads, recordsPerThread / 4);
+        
+        for (String producerCount : producerCounts) {
+            int producers = Integer.parseInt(producerCount.trim());
+            long elapsed = run(properties, producers, threads, recordsPerThread);
+            long total = (long) threads * recordsPerThread;
+            System.out.printf("生产者数量: %2d, 耗时: %6d ms, 吞吐量: %,12.0f 条/秒%n",
+                    producers, elapsed / 1_000_000, total * 1e9 / elapsed);
+        }
+    }
+    
+    private long run(LogProperties properties, int producers, int threads, int recordsPerThread) throws Exception {
+        properties.getKafka().getPool().setSize(producers);
+        LogConfiguration configuration = new LogConfiguration();
+        ProducerFactory<String, byte[]> producerFactory = configuration.kafkaProducerFactory(properties);
+        KafkaProducerPool pool = configuration.kafkaProducerPool(producerFactory, properties,
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        
+        AtomicLong failures = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            String key = "user-" + t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < recordsPerThread; i++) {
+                        pool.select(key).send(new ProducerRecord<>(TOPIC, key, PAYLOAD))
+                                .whenComplete((result, failure) -> {
+                                    if (failure != null) {
+                                        failures.incrementAndGet();
+                                    }
+                                });
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+        
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        // 计时包含Broker确认：flush等待累加器中的批次全部完成
+        for (int i = 0; i < pool.size(); i++) {
+            KafkaTemplate<String, byte[]> template = pool.getTemplate(i);
+            template.flush();
+        }
+        long elapsed = System.nanoTime() - begin;
+        
+        System.out.printf("   生产者统计: %s%n", pool.producerStats());
+        pool.destroy();
+        assertThat(failures).hasValue(0);
+        return elapsed;
+    }
+}
@@ -0,0 +1,129 @@
+package com.diit.example.benchmark;
+
+import com.diit.common.log.entity.OperationLogEntity;
+import com.diit.common.log.metadata.FieldDescriptor;
+import com.diit.common.log.metadata.LogEntityMetadataRegistry;
+import com.diit.common.log.sender.database.CopyFormat;
+import com.diit.common.log.sender.database.InsertPlan;
+import com.diit.common.log.sender.database.PostgresCopyWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PostgreSQL批量INSERT与COPY写入吞吐量基准
+ * 连接本地PostgreSQL（docker-compose中的postgres服务，端口5433），用操作日志实体分别以
+ * batchUpdate、COPY csv、COPY binary写入同样数量的行，每轮写入后核对表中行数
+ *
+ * 默认跳过，运行：mvn test -Dtest=PostgresCopyBenchmark -Dbenchmark=true
+ * 可选参数：-Dbenchmark.jdbc-url=jdbc:postgresql://localhost:5433/log_test -Dbenchmark.username=postgres
+ * -Dbenchmark.password=postgres -Dbenchmark.rows=200000 -Dbenchmark.batch-size=5000
+ *
+ * @author zzx
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PostgresCopyBenchmark {
+    
+    private static final String TABLE = "log_copy_benchmark";
+    
+    @Test
+    void compareBatchInsertAndCopy() {
+        String url = System.getProperty("benchmark.jdbc-url", "jdbc:postgresql://localhost:5433/log_test");
+        String username = System.getProperty("benchmark.username", "postgres");
+        String password = System.getProperty("benchmark.password", "postgres");
+        int total = Integer.getInteger("benchmark.rows", 200000);
+        int batchSize = Integer.getInteger("benchmark.batch-size", 5000);
+        
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(url, username, password, true);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            createTable(jdbcTemplate);
+            InsertPlan plan = InsertPlan.of(TABLE, OperationLogEntity.class);
+            List<Object[]> rows = new ArrayList<>(total);
+            
+            System.out.printf("总行数: %d, 每批行数: %d, 列数: %d%n", total, batchSize, plan.getColumns().size());
+            
+            // 预热一轮，避免JIT和服务端缓存影响第一组结果
+            run("预热", jdbcTemplate, plan, rows, Math.min(total, 20000), batchSize, null);
+            run("batchUpdate", jdbcTemplate, plan, rows, total, batchSize, null);
+            run("COPY csv", jdbcTemplate, plan, rows, total, batchSize, new PostgresCopyWriter(jdbcTemplate, CopyFormat.CSV));
+            run("COPY binary", jdbcTemplate, plan, rows, total, batchSize, new PostgresCopyWriter(jdbcTemplate, CopyFormat.BINARY));
+        } finally {
+            dataSource.destroy();
+        }
+    }
+    
+    private static void run(String name, JdbcTemplate jdbcTemplate, InsertPlan plan, List<Object[]> rows,
+                            int total, int batchSize, PostgresCopyWriter copyWriter) {
+        jdbcTemplate.execute("TRUNCATE TABLE " + TABLE);
+        rows.clear();
+        for (int i = 0; i < total; i++) {
+            rows.add(plan.bind(sample(i)));
+        }
+        if (copyWriter != null && !copyWriter.isAvailable()) {
+            System.out.printf("%-12s 不可用（数据库不是PostgreSQL）%n", name);
+            return;
+        }
+        
+        long begin = System.nanoTime();
+        for (int from = 0; from < total; from += batchSize) {
+            List<Object[]> batch = rows.subList(from, Math.min(from + batchSize, total));
+            if (copyWriter != null) {
+                copyWriter.copy(plan, batch);
+            } else {
+                for (int i = 0; i < batch.size(); i += 500) {
+                    jdbcTemplate.batchUpdate(plan.getSql(), batch.subList(i, Math.min(i + 500, batch.size())),
+                            plan.getArgTypes());
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - begin;
+        
+        Long count = jdbcTemplate.queryForObject("SELECT count(*) FROM " + TABLE, Long.class);
+        System.out.printf("%-12s 耗时: %6d ms, 吞吐量: %,10.0f 行/秒, 表中行数: %d%n", name, elapsed / 1_000_000,
+                total * 1e9 / elapsed, count);
+        assertThat(count).isEqualTo((long) total);
+    }
+    
+    private static void createTable(JdbcTemplate jdbcTemplate) {
+        StringBuilder ddl = new StringBuilder("CREATE TABLE IF NOT EXISTS ").append(TABLE).append(" (")
+                .append("id VARCHAR(50) PRIMARY KEY, timestamp TIMESTAMP, content TEXT, level VARCHAR(20), entity_type VARCHAR(100)");
+        for (FieldDescriptor field : LogEntityMetadataRegistry.get(OperationLogEntity.class).getFields()) {
+            ddl.append(", ").append(field.getColumnName()).append(' ').append(field.getColumnType());
+        }
+        jdbcTemplate.execute(ddl.append(')').toString());
+    }
+    
+    private static OperationLogEntity sample(int i) {
+        OperationLogEntity entity = OperationLogEntity.builder()
+                .username("user-" + (i % 1000))
+                .realName("用户" + (i % 1000))
+                .operationType("UPDATE")
+                .description("修改订单状态, \"批量\"操作")
+                .operationTimestamp(LocalDateTime.now())
+                .clientIp("192.168.1." + (i % 255))
+                .browser("Chrome")
+                .operatingSystem("Windows 10")
+                .status("SUCCESS")
+                .responseTime((long) (i % 500))
+                .requestUri("/api/orders/" + i)
+                .requestMethod("PUT")
+                .module("订单管理")
+                .createTime(LocalDateTime.now())
+                .build();
+        entity.setId(UUID.randomUUID().toString());
+        entity.setTimestamp(LocalDateTime.now());
+        entity.setContent("benchmark " + i);
+        entity.setLevel(LogLevel.INFO);
+        return entity;
+    }
+}
@@ -0,0 +1,21 @@
+package com.diit.gateway;
+
+import com.diit.gateway.config.GatewayProperties;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+/**
+ * 日志采集网关主类
+ * 无状态，可在负载均衡后水平扩展多个实例
+ * 
+ * @author zzx
+ */
+@SpringBootApplication
+@EnableConfigurationProperties(GatewayProperties.class)
+public class LogGatewayApplication {
+    
+    public static void main(String[] args) {
+        SpringApplication.run(LogGatewayApplication.class, args);
+    }
+}
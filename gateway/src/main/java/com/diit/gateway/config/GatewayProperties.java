@@ -0,0 +1,74 @@
+package com.diit.gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 网关配置属性
+ * 
+ * @author zzx
+ */
+@Data
+@ConfigurationProperties(prefix = "diit.gateway")
+public class GatewayProperties {
+    
+    /**
+     * 单个请求最多包含的日志条数，超过时返回413
+     */
+    private int maxEventsPerRequest = 10000;
+    
+    /**
+     * 已接收但尚未写入下游的日志上限，超过时返回429
+     */
+    private int maxPendingEvents = 200000;
+    
+    /**
+     * 返回429时建议客户端等待的秒数（Retry-After）
+     */
+    private int retryAfterSeconds = 1;
+    
+    /**
+     * 转发线程数
+     */
+    private int forwardThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+    
+    /**
+     * 每次调用发送器sendBatch的最大条数
+     */
+    private int forwardBatchSize = 1000;
+    
+    /**
+     * 写入下游失败时的重试次数，重试用尽后丢弃并计入dropped
+     */
+    private int forwardRetries = 3;
+    
+    /**
+     * 首次重试前的等待时间（毫秒），之后每次翻倍
+     */
+    private long forwardRetryBackoff = 200;
+    
+    /**
+     * 关闭时等待已接收日志写完的时间（毫秒）
+     */
+    private long shutdownTimeout = 30000;
+    
+    /**
+     * 默认发送器类型：kafka, elasticsearch, database；为空时使用diit.log.storage.type
+     */
+    private String senderType;
+    
+    /**
+     * 按实体类型路由到发送器
+     * key: 实体类名（简单名或全名）, value: 发送器类型
+     */
+    private Map<String, String> routes = new LinkedHashMap<>();
+    
+    /**
+     * 自定义实体类型
+     * key: X-Entity-Type请求头中的简单名, value: 实体类全名
+     */
+    private Map<String, String> entityTypes = new LinkedHashMap<>();
+}
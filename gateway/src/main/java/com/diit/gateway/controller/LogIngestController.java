@@ -0,0 +1,143 @@
+package com.diit.gateway.controller;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.serialize.PayloadFormat;
+import com.diit.common.log.serialize.PayloadHeaders;
+import com.diit.gateway.config.GatewayProperties;
+import com.diit.gateway.service.LogBatchParser;
+import com.diit.gateway.service.LogIngestService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 日志接收接口
+ * 与Starter的HTTP发送器配套：/batch 接收批量发送（http.batch）的NDJSON/JSON数组请求体，
+ * /receive 接收逐条发送的日志；请求体按Content-Encoding解压gzip/zstd，
+ * 按X-Log-Format或Content-Type解析JSON、Smile或CBOR
+ * <ul>
+ *     <li>202：已接收，异步写入下游，写入失败重试用尽后丢弃，计入/health的dropped</li>
+ *     <li>400：请求体无法解析或实体类型未知</li>
+ *     <li>413：单个请求日志条数超过上限</li>
+ *     <li>415：请求体格式不支持（如Avro）</li>
+ *     <li>429：待写入日志已达上限，按Retry-After退避后重试整个请求</li>
+ * </ul>
+ * 
+ * @author zzx
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/logs")
+public class LogIngestController {
+    
+    @Autowired
+    private LogBatchParser logBatchParser;
+    
+    @Autowired
+    private LogIngestService logIngestService;
+    
+    @Autowired
+    private GatewayProperties gatewayProperties;
+    
+    /**
+     * 批量接收日志
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> receiveBatch(HttpServletRequest request,
+                                                            @RequestHeader(value = "Content-Encoding", required = false) String contentEncoding,
+                                                            @RequestHeader(value = "X-Entity-Type", required = false) String entityType) {
+        return ingest(request, contentEncoding, entityType, gatewayProperties.getMaxEventsPerRequest());
+    }
+    
+    /**
+     * 接收单条日志
+     */
+    @PostMapping("/receive")
+    public ResponseEntity<Map<String, Object>> receive(HttpServletRequest request,
+                                                       @RequestHeader(value = "Content-Encoding", required = false) String contentEncoding,
+                                                       @RequestHeader(value = "X-Entity-Type", required = false) String entityType) {
+        return ingest(request, contentEncoding, entityType, 1);
+    }
+    
+    /**
+     * 网关状态
+     */
+    @GetMapping("/health")
+    public Map<String, Object> health() {
+        return Map.of(
+            "status", "UP",
+            "pending", logIngestService.getPendingEvents(),
+            "accepted", logIngestService.getAcceptedEvents(),
+            "rejected", logIngestService.getRejectedEvents(),
+            "retried", logIngestService.getRetriedEvents(),
+            "dropped", logIngestService.getDroppedEvents()
+        );
+    }
+    
+    private ResponseEntity<Map<String, Object>> ingest(HttpServletRequest request, String contentEncoding,
+                                                       String entityTypeName, int maxEvents) {
+        Class<? extends BaseLogEntity> entityType = logBatchParser.resolveEntityType(entityTypeName);
+        if (entityType == null) {
+            return error(HttpStatus.BAD_REQUEST, "未知的实体类型: " + entityTypeName);
+        }
+        String formatHeader = request.getHeader(PayloadHeaders.HTTP_FORMAT);
+        PayloadFormat format = logBatchParser.resolveFormat(request.getContentType(), formatHeader);
+        if (format == null) {
+            return error(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "不支持的日志格式: "
+                    + (formatHeader != null ? formatHeader : request.getContentType()));
+        }
+        
+        List<BaseLogEntity> entities;
+        try (InputStream in = decode(request.getInputStream(), contentEncoding)) {
+            entities = logBatchParser.parse(in, entityType, format, maxEvents);
+        } catch (LogBatchParser.TooManyEventsException e) {
+            return error(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage());
+        } catch (JsonProcessingException e) {
+            return error(HttpStatus.BAD_REQUEST, "请求体解析失败: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            return error(HttpStatus.BAD_REQUEST, "请求体读取失败: " + e.getMessage());
+        }
+        
+        if (!logIngestService.ingest(entities, entityType)) {
+            log.debug("待写入日志已达上限，拒绝{}条日志", entities.size());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(gatewayProperties.getRetryAfterSeconds()))
+                    .body(Map.of("success", false, "message", "日志网关繁忙，请稍后重试"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(Map.of("success", true, "received", entities.size()));
+    }
+    
+    private static InputStream decode(InputStream in, String contentEncoding) throws IOException {
+        if (contentEncoding == null || "identity".equalsIgnoreCase(contentEncoding)) {
+            return in;
+        }
+        if ("gzip".equalsIgnoreCase(contentEncoding)) {
+            return new GZIPInputStream(in, 8192);
+        }
+        if ("zstd".equalsIgnoreCase(contentEncoding)) {
+            return new ZstdInputStream(in);
+        }
+        throw new IOException("Unsupported Content-Encoding: " + contentEncoding);
+    }
+    
+    private static ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("success", false, "message", message));
+    }
+}
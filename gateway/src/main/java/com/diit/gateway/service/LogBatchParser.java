@@ -0,0 +1,212 @@
+package com.diit.gateway.service;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.entity.OperationLogEntity;
+import com.diit.common.log.entity.UserAccessLogEntity;
+import com.diit.common.log.serialize.PayloadFormat;
+import com.diit.common.log.service.LogSerializer;
+import com.diit.gateway.config.GatewayProperties;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 批量日志解析器
+ * 用Jackson流式解析器逐条读取NDJSON（以换行或空白分隔的多个对象）或顶层JSON数组，
+ * 每个对象直接绑定到X-Entity-Type指定的实体类，不经过Map中间结构；未知字段忽略。
+ * 请求体格式由X-Log-Format请求头或Content-Type决定，支持JSON、Smile和CBOR；
+ * Avro需要发送方的Schema，网关不解码
+ *
+ * @author zzx
+ */
+@Slf4j
+@Component
+public class LogBatchParser {
+    
+    @Autowired
+    private LogSerializer logSerializer;
+    
+    @Autowired
+    private GatewayProperties gatewayProperties;
+    
+    /**
+     * JSON兼容的Content-Type
+     */
+    private static final List<MediaType> JSON_TYPES = List.of(
+            MediaType.APPLICATION_JSON,
+            MediaType.parseMediaType("application/*+json"),
+            MediaType.APPLICATION_NDJSON,
+            MediaType.parseMediaType("application/x-ndjson"),
+            MediaType.TEXT_PLAIN);
+    
+    /**
+     * 实体类型
+     * key: X-Entity-Type请求头（简单名或全名）, value: 实体类
+     */
+    private final Map<String, Class<? extends BaseLogEntity>> entityTypes = new ConcurrentHashMap<>();
+    
+    /**
+     * 反序列化器缓存
+     * key: 实体类, value: 忽略未知字段的ObjectReader
+     */
+    private final Map<Class<?>, ObjectReader> readerCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 各请求体格式的解析器工厂
+     */
+    private final Map<PayloadFormat, JsonFactory> factories = new EnumMap<>(PayloadFormat.class);
+    
+    @PostConstruct
+    public void init() {
+        factories.put(PayloadFormat.JSON, logSerializer.getObjectMapper().getFactory());
+        factories.put(PayloadFormat.SMILE, new SmileFactory());
+        factories.put(PayloadFormat.CBOR, new CBORFactory());
+        register(DefaultLogEntity.class);
+        register(OperationLogEntity.class);
+        register(UserAccessLogEntity.class);
+        for (Map.Entry<String, String> entry : gatewayProperties.getEntityTypes().entrySet()) {
+            Class<? extends BaseLogEntity> type = loadEntityType(entry.getValue());
+            entityTypes.put(entry.getKey(), type);
+            entityTypes.put(type.getName(), type);
+        }
+        log.info("日志网关支持的实体类型: {}", entityTypes.keySet());
+    }
+    
+    private void register(Class<? extends BaseLogEntity> type) {
+        entityTypes.put(type.getSimpleName(), type);
+        entityTypes.put(type.getName(), type);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Class<? extends BaseLogEntity> loadEntityType(String className) {
+        try {
+            Class<?> type = ClassUtils.forName(className, LogBatchParser.class.getClassLoader());
+            if (!BaseLogEntity.class.isAssignableFrom(type)) {
+                throw new IllegalArgumentException(className + " 不是BaseLogEntity的子类");
+            }
+            return (Class<? extends BaseLogEntity>) type;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("未找到日志实体类: " + className, e);
+        }
+    }
+    
+    /**
+     * 解析实体类型，未指定时为DefaultLogEntity
+     *
+     * @return 实体类，无法识别时返回null
+     */
+    public Class<? extends BaseLogEntity> resolveEntityType(String entityType) {
+        if (!StringUtils.hasText(entityType)) {
+            return DefaultLogEntity.class;
+        }
+        return entityTypes.get(entityType.trim());
+    }
+    
+    /**
+     * 解析请求体格式，X-Log-Format请求头优先，其次按Content-Type，两者都没有时按JSON
+     *
+     * @param contentType  Content-Type请求头
+     * @param formatHeader X-Log-Format请求头
+     * @return 请求体格式，Avro或无法识别的格式返回null
+     */
+    public PayloadFormat resolveFormat(String contentType, String formatHeader) {
+        PayloadFormat format = null;
+        if (StringUtils.hasText(formatHeader)) {
+            for (PayloadFormat candidate : PayloadFormat.values()) {
+                if (candidate.getId().equalsIgnoreCase(formatHeader.trim())) {
+                    format = candidate;
+                }
+            }
+        } else if (!StringUtils.hasText(contentType)) {
+            format = PayloadFormat.JSON;
+        } else {
+            MediaType mediaType;
+            try {
+                mediaType = MediaType.parseMediaType(contentType);
+            } catch (InvalidMediaTypeException e) {
+                return null;
+            }
+            if (JSON_TYPES.stream().anyMatch(type -> type.includes(mediaType))) {
+                format = PayloadFormat.JSON;
+            } else {
+                for (PayloadFormat candidate : PayloadFormat.values()) {
+                    if (MediaType.parseMediaType(candidate.getContentType()).equalsTypeAndSubtype(mediaType)) {
+                        format = candidate;
+                    }
+                }
+            }
+        }
+        return format != null && factories.containsKey(format) ? format : null;
+    }
+    
+    /**
+     * 解析请求体
+     *
+     * @param in         已解压的请求体
+     * @param entityType 实体类
+     * @param format     请求体格式，见{@link #resolveFormat(String, String)}
+     * @param maxEvents  最多解析的条数
+     * @return 日志实体列表
+     * @throws TooManyEventsException 条数超过maxEvents
+     */
+    public List<BaseLogEntity> parse(InputStream in, Class<? extends BaseLogEntity> entityType, PayloadFormat format,
+                                     int maxEvents) throws IOException {
+        JsonFactory factory = factories.get(format);
+        if (factory == null) {
+            throw new IOException("Unsupported log format: " + format);
+        }
+        ObjectReader reader = readerCache.computeIfAbsent(entityType, type -> logSerializer.getObjectMapper()
+                .readerFor(type)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+        List<BaseLogEntity> entities = new ArrayList<>();
+        try (JsonParser parser = factory.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token != null && token != JsonToken.END_ARRAY) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw new IOException("Expected an object but found " + token);
+                }
+                if (entities.size() >= maxEvents) {
+                    throw new TooManyEventsException(maxEvents);
+                }
+                entities.add(reader.readValue(parser));
+                token = parser.nextToken();
+            }
+        }
+        return entities;
+    }
+    
+    /**
+     * 单个请求的日志条数超过上限
+     */
+    public static class TooManyEventsException extends IOException {
+        
+        public TooManyEventsException(int maxEvents) {
+            super("Request contains more than " + maxEvents + " logs");
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.diit.gateway.service;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.service.LogSenderService;
+import com.diit.gateway.config.GatewayProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 日志接收服务
+ * 接收的日志先占用待写入配额（maxPendingEvents），配额不足时整批拒绝，由调用方返回429让客户端退避重试；
+ * 接收成功的批次交给转发线程，按forwardBatchSize分片调用Starter发送器的sendBatch写入Kafka、Elasticsearch或数据库，
+ * 写完后归还配额。下游变慢时配额耗尽，背压经429传回各客户端。
+ * 202只表示已接收：写入失败的分片按forwardRetries退避重试（可能重复写入），重试用尽后丢弃并计入dropped
+ *
+ * @author zzx
+ */
+@Slf4j
+@Service
+public class LogIngestService {
+    
+    @Autowired
+    private LogSenderService logSenderService;
+    
+    @Autowired
+    private GatewayProperties gatewayProperties;
+    
+    private Semaphore pendingPermits;
+    
+    private ExecutorService forwarder;
+    
+    private final LongAdder accepted = new LongAdder();
+    
+    private final LongAdder rejected = new LongAdder();
+    
+    private final LongAdder retried = new LongAdder();
+    
+    private final LongAdder dropped = new LongAdder();
+    
+    @PostConstruct
+    public void start() {
+        pendingPermits = new Semaphore(Math.max(1, gatewayProperties.getMaxPendingEvents()));
+        forwarder = Executors.newFixedThreadPool(Math.max(1, gatewayProperties.getForwardThreads()), new ForwarderThreadFactory());
+        log.info("日志网关启动完成: maxPendingEvents={}, forwardThreads={}, senderType={}",
+                gatewayProperties.getMaxPendingEvents(), gatewayProperties.getForwardThreads(),
+                StringUtils.hasText(gatewayProperties.getSenderType()) ? gatewayProperties.getSenderType() : "默认");
+    }
+    
+    @PreDestroy
+    public void stop() {
+        forwarder.shutdown();
+        try {
+            if (!forwarder.awaitTermination(gatewayProperties.getShutdownTimeout(), TimeUnit.MILLISECONDS)) {
+                log.warn("日志网关关闭超时，剩余{}条日志未写入", getPendingEvents());
+                forwarder.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            forwarder.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * 接收一批同类型的日志
+     *
+     * @return 是否接收；待写入日志已达上限时返回false，此时没有任何日志被接收
+     */
+    public boolean ingest(List<BaseLogEntity> entities, Class<? extends BaseLogEntity> entityType) {
+        if (entities.isEmpty()) {
+            return true;
+        }
+        int count = entities.size();
+        if (!pendingPermits.tryAcquire(count)) {
+            rejected.add(count);
+            return false;
+        }
+        accepted.add(count);
+        String senderType = route(entityType);
+        try {
+            forwarder.execute(() -> forward(entities, senderType));
+        } catch (RuntimeException e) {
+            // 网关正在关闭
+            pendingPermits.release(count);
+            accepted.add(-count);
+            throw e;
+        }
+        return true;
+    }
+    
+    private void forward(List<BaseLogEntity> entities, String senderType) {
+        int batchSize = Math.max(1, gatewayProperties.getForwardBatchSize());
+        try {
+            for (int from = 0; from < entities.size(); from += batchSize) {
+                List<BaseLogEntity> chunk = entities.subList(from, Math.min(from + batchSize, entities.size()));
+                if (!send(chunk, senderType)) {
+                    dropped.add(chunk.size());
+                }
+            }
+        } finally {
+            pendingPermits.release(entities.size());
+        }
+    }
+    
+    /**
+     * 写入一个分片，失败时按forwardRetryBackoff指数退避重试，期间一直占用配额
+     *
+     * @return 是否写入成功
+     */
+    private boolean send(List<BaseLogEntity> chunk, String senderType) {
+        int retries = Math.max(0, gatewayProperties.getForwardRetries());
+        for (int attempt = 0; ; attempt++) {
+            try {
+                logSenderService.sendBatchOrThrow(chunk, senderType);
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= retries || Thread.currentThread().isInterrupted()) {
+                    log.error("日志写入下游失败，丢弃{}条日志: senderType={}, 重试次数={}", chunk.size(), senderType, attempt, e);
+                    return false;
+                }
+                long backoff = gatewayProperties.getForwardRetryBackoff() << attempt;
+                log.warn("日志写入下游失败，{}毫秒后重试: senderType={}, count={}, Error: {}",
+                        backoff, senderType, chunk.size(), e.getMessage());
+                retried.add(chunk.size());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    // 网关强制关闭
+                    Thread.currentThread().interrupt();
+                    log.error("日志网关关闭，丢弃{}条未写入的日志: senderType={}", chunk.size(), senderType);
+                    return false;
+                }
+            }
+        }
+    }
+    
+    /**
+     * 按实体类型选择发送器，未配置路由时使用默认发送器
+     */
+    private String route(Class<? extends BaseLogEntity> entityType) {
+        String senderType = gatewayProperties.getRoutes().get(entityType.getSimpleName());
+        if (senderType == null) {
+            senderType = gatewayProperties.getRoutes().get(entityType.getName());
+        }
+        if (senderType == null && StringUtils.hasText(gatewayProperties.getSenderType())) {
+            senderType = gatewayProperties.getSenderType();
+        }
+        return senderType;
+    }
+    
+    /**
+     * 已接收但尚未写入下游的日志条数
+     */
+    public int getPendingEvents() {
+        return Math.max(1, gatewayProperties.getMaxPendingEvents()) - pendingPermits.availablePermits();
+    }
+    
+    public long getAcceptedEvents() {
+        return accepted.sum();
+    }
+    
+    public long getRejectedEvents() {
+        return rejected.sum();
+    }
+    
+    /**
+     * 写入失败后重试的日志条数（每次重试累计）
+     */
+    public long getRetriedEvents() {
+        return retried.sum();
+    }
+    
+    /**
+     * 重试用尽或关闭时丢弃的日志条数
+     */
+    public long getDroppedEvents() {
+        return dropped.sum();
+    }
+    
+    /**
+     * 转发线程工厂
+     */
+    private static class ForwarderThreadFactory implements ThreadFactory {
+        
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, "log-gateway-forwarder-" + counter.incrementAndGet());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.diit.gateway.controller;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.serialize.PayloadHeaders;
+import com.diit.common.log.service.LogSerializer;
+import com.diit.gateway.config.GatewayProperties;
+import com.diit.gateway.service.LogBatchParser;
+import com.diit.gateway.service.LogIngestService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * LogIngestController状态码测试
+ *
+ * @author zzx
+ */
+class LogIngestControllerTest {
+    
+    private static final String NDJSON = "{\"id\":\"1\"}\n{\"id\":\"2\"}\n{\"id\":\"3\"}\n";
+    
+    private final GatewayProperties properties = new GatewayProperties();
+    
+    private final LogIngestService ingestService = mock(LogIngestService.class);
+    
+    private MockMvc mvc;
+    
+    @BeforeEach
+    void setUp() {
+        properties.setMaxEventsPerRequest(3);
+        properties.setRetryAfterSeconds(2);
+        
+        LogSerializer serializer = new LogSerializer();
+        ReflectionTestUtils.setField(serializer, "logProperties", new LogProperties());
+        serializer.init();
+        LogBatchParser parser = new LogBatchParser();
+        ReflectionTestUtils.setField(parser, "logSerializer", serializer);
+        ReflectionTestUtils.setField(parser, "gatewayProperties", properties);
+        parser.init();
+        
+        LogIngestController controller = new LogIngestController();
+        ReflectionTestUtils.setField(controller, "logBatchParser", parser);
+        ReflectionTestUtils.setField(controller, "logIngestService", ingestService);
+        ReflectionTestUtils.setField(controller, "gatewayProperties", properties);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+        
+        when(ingestService.ingest(anyList(), any())).thenReturn(true);
+    }
+    
+    @Test
+    void acceptsNdjsonBatch() throws Exception {
+        mvc.perform(post("/api/logs/batch").contentType("application/x-ndjson").content(NDJSON))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.received").value(3));
+        
+        assertThat(ingested()).extracting(BaseLogEntity::getId).containsExactly("1", "2", "3");
+    }
+    
+    @Test
+    void acceptsGzipJsonArray() throws Exception {
+        byte[] body = gzip("[{\"id\":\"1\"},{\"id\":\"2\"}]");
+        
+        mvc.perform(post("/api/logs/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(body))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.received").value(2));
+        
+        assertThat(ingested()).extracting(BaseLogEntity::getId).containsExactly("1", "2");
+    }
+    
+    @Test
+    void rejectsTooManyEventsWith413() throws Exception {
+        mvc.perform(post("/api/logs/batch").content(NDJSON + "{\"id\":\"4\"}"))
+                .andExpect(status().isPayloadTooLarge());
+        // 单条接口只接收一条
+        mvc.perform(post("/api/logs/receive").content("{\"id\":\"1\"}{\"id\":\"2\"}"))
+                .andExpect(status().isPayloadTooLarge());
+        
+        verify(ingestService, never()).ingest(anyList(), any());
+    }
+    
+    @Test
+    void returns429WithRetryAfterWhenPendingLimitReached() throws Exception {
+        when(ingestService.ingest(anyList(), any())).thenReturn(false);
+        
+        mvc.perform(post("/api/logs/batch").content(NDJSON))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+    
+    @Test
+    void rejectsMalformedBodyAndUnknownEntityTypeWith400() throws Exception {
+        mvc.perform(post("/api/logs/batch").content("{\"id\":"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/logs/batch").header(HttpHeaders.CONTENT_ENCODING, "gzip").content(NDJSON))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/logs/batch").header("X-Entity-Type", "Missing").content(NDJSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("未知的实体类型: Missing"));
+        
+        verify(ingestService, never()).ingest(anyList(), any());
+    }
+    
+    @Test
+    void rejectsUnsupportedFormatWith415() throws Exception {
+        mvc.perform(post("/api/logs/receive").contentType("avro/binary")
+                        .header(PayloadHeaders.HTTP_FORMAT, "avro").content(new byte[]{1, 2, 3}))
+                .andExpect(status().isUnsupportedMediaType());
+        mvc.perform(post("/api/logs/batch").contentType(MediaType.APPLICATION_XML).content("<log/>"))
+                .andExpect(status().isUnsupportedMediaType());
+        
+        verify(ingestService, never()).ingest(anyList(), any());
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<BaseLogEntity> ingested() {
+        ArgumentCaptor<List<BaseLogEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(ingestService).ingest(captor.capture(), eq(DefaultLogEntity.class));
+        return captor.getValue();
+    }
+    
+    private static byte[] gzip(String body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,135 @@
+package com.diit.gateway.service;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.entity.OperationLogEntity;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.serialize.PayloadFormat;
+import com.diit.common.log.service.LogSerializer;
+import com.diit.gateway.config.GatewayProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * LogBatchParser格式识别和流式解析测试
+ *
+ * @author zzx
+ */
+class LogBatchParserTest {
+    
+    private LogSerializer serializer;
+    
+    private LogBatchParser parser;
+    
+    @BeforeEach
+    void setUp() {
+        serializer = new LogSerializer();
+        ReflectionTestUtils.setField(serializer, "logProperties", new LogProperties());
+        serializer.init();
+        parser = new LogBatchParser();
+        ReflectionTestUtils.setField(parser, "logSerializer", serializer);
+        ReflectionTestUtils.setField(parser, "gatewayProperties", new GatewayProperties());
+        parser.init();
+    }
+    
+    @Test
+    void parsesNdjsonAndJsonArray() throws IOException {
+        String ndjson = "{\"id\":\"1\",\"content\":\"a\"}\n{\"id\":\"2\",\"content\":\"b\",\"unknown\":true}\n\n";
+        String array = "[{\"id\":\"1\",\"content\":\"a\"},{\"id\":\"2\",\"content\":\"b\"}]";
+        
+        assertThat(ids(parse(ndjson, 10))).containsExactly("1", "2");
+        assertThat(ids(parse(array, 10))).containsExactly("1", "2");
+        assertThat(parse("", 10)).isEmpty();
+        assertThat(parse("[]", 10)).isEmpty();
+    }
+    
+    @Test
+    void bindsRequestedEntityType() throws IOException {
+        List<BaseLogEntity> entities = parser.parse(stream("{\"id\":\"1\",\"operationType\":\"CREATE\"}"),
+                parser.resolveEntityType("OperationLogEntity"), PayloadFormat.JSON, 10);
+        
+        assertThat(entities).singleElement().isInstanceOf(OperationLogEntity.class);
+        assertThat(parser.resolveEntityType(null)).isEqualTo(DefaultLogEntity.class);
+        assertThat(parser.resolveEntityType(OperationLogEntity.class.getName())).isEqualTo(OperationLogEntity.class);
+        assertThat(parser.resolveEntityType("Missing")).isNull();
+    }
+    
+    @Test
+    void rejectsTooManyEventsAndNonObjects() {
+        assertThatThrownBy(() -> parse("{\"id\":\"1\"}{\"id\":\"2\"}{\"id\":\"3\"}", 2))
+                .isInstanceOf(LogBatchParser.TooManyEventsException.class);
+        assertThatThrownBy(() -> parse("[1,2]", 10))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Expected an object");
+        assertThatThrownBy(() -> parse("{\"id\":", 10))
+                .isInstanceOf(JsonProcessingException.class);
+    }
+    
+    @Test
+    void parsesSmileAndCbor() throws IOException {
+        for (PayloadFormat format : List.of(PayloadFormat.SMILE, PayloadFormat.CBOR)) {
+            ObjectMapper mapper = serializer.getObjectMapper()
+                    .copyWith(format == PayloadFormat.SMILE ? new SmileFactory() : new CBORFactory());
+            // 逐条发送的单个对象和连续写出的多个对象
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            body.write(mapper.writeValueAsBytes(entity("1")));
+            body.write(mapper.writeValueAsBytes(entity("2")));
+            
+            List<BaseLogEntity> entities = parser.parse(new ByteArrayInputStream(body.toByteArray()),
+                    DefaultLogEntity.class, format, 10);
+            
+            assertThat(ids(entities)).as(format.getId()).containsExactly("1", "2");
+        }
+    }
+    
+    @Test
+    void resolvesFormatFromHeaderThenContentType() {
+        assertThat(parser.resolveFormat(null, null)).isEqualTo(PayloadFormat.JSON);
+        assertThat(parser.resolveFormat("application/json;charset=UTF-8", null)).isEqualTo(PayloadFormat.JSON);
+        assertThat(parser.resolveFormat("application/x-ndjson", null)).isEqualTo(PayloadFormat.JSON);
+        assertThat(parser.resolveFormat("application/vnd.log+json", null)).isEqualTo(PayloadFormat.JSON);
+        assertThat(parser.resolveFormat("application/x-jackson-smile", null)).isEqualTo(PayloadFormat.SMILE);
+        assertThat(parser.resolveFormat("application/cbor", null)).isEqualTo(PayloadFormat.CBOR);
+        assertThat(parser.resolveFormat("application/json", "cbor")).isEqualTo(PayloadFormat.CBOR);
+        
+        // Avro需要Schema，其他格式无法识别
+        assertThat(parser.resolveFormat("avro/binary", null)).isNull();
+        assertThat(parser.resolveFormat("application/json", "avro")).isNull();
+        assertThat(parser.resolveFormat(null, "protobuf")).isNull();
+        assertThat(parser.resolveFormat("application/xml", null)).isNull();
+        assertThat(parser.resolveFormat("not a media type", null)).isNull();
+    }
+    
+    private List<BaseLogEntity> parse(String body, int maxEvents) throws IOException {
+        return parser.parse(stream(body), DefaultLogEntity.class, PayloadFormat.JSON, maxEvents);
+    }
+    
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static DefaultLogEntity entity(String id) {
+        DefaultLogEntity entity = new DefaultLogEntity();
+        entity.setId(id);
+        entity.setContent("content-" + id);
+        return entity;
+    }
+    
+    private static List<String> ids(List<BaseLogEntity> entities) {
+        return entities.stream().map(BaseLogEntity::getId).toList();
+    }
+}
@@ -0,0 +1,132 @@
+package com.diit.gateway.service;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.entity.OperationLogEntity;
+import com.diit.common.log.service.LogSenderService;
+import com.diit.gateway.config.GatewayProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * LogIngestService配额、分片、重试和丢弃计数测试
+ *
+ * @author zzx
+ */
+class LogIngestServiceTest {
+    
+    private final GatewayProperties properties = new GatewayProperties();
+    
+    private final LogSenderService senderService = mock(LogSenderService.class);
+    
+    private LogIngestService service;
+    
+    @BeforeEach
+    void setUp() {
+        properties.setMaxPendingEvents(5);
+        properties.setForwardThreads(1);
+        properties.setForwardBatchSize(2);
+        properties.setForwardRetries(2);
+        properties.setForwardRetryBackoff(1);
+        properties.setSenderType("kafka");
+        properties.getRoutes().put("OperationLogEntity", "database");
+        
+        service = new LogIngestService();
+        ReflectionTestUtils.setField(service, "logSenderService", senderService);
+        ReflectionTestUtils.setField(service, "gatewayProperties", properties);
+        service.start();
+    }
+    
+    @Test
+    void forwardsInChunksToRoutedSender() {
+        assertThat(service.ingest(entities(3), DefaultLogEntity.class)).isTrue();
+        assertThat(service.ingest(entities(1), OperationLogEntity.class)).isTrue();
+        service.stop();
+        
+        verify(senderService, times(2)).sendBatchOrThrow(anyList(), eq("kafka"));
+        verify(senderService).sendBatchOrThrow(anyList(), eq("database"));
+        assertThat(service.getAcceptedEvents()).isEqualTo(4);
+        assertThat(service.getPendingEvents()).isZero();
+        assertThat(service.getDroppedEvents()).isZero();
+    }
+    
+    @Test
+    void retriesFailedChunkThenSucceeds() {
+        doThrow(new RuntimeException("broker unavailable")).doNothing()
+                .when(senderService).sendBatchOrThrow(anyList(), eq("kafka"));
+        
+        service.ingest(entities(2), DefaultLogEntity.class);
+        service.stop();
+        
+        verify(senderService, times(2)).sendBatchOrThrow(anyList(), eq("kafka"));
+        assertThat(service.getRetriedEvents()).isEqualTo(2);
+        assertThat(service.getDroppedEvents()).isZero();
+    }
+    
+    @Test
+    void countsChunkAsDroppedAfterRetriesExhausted() {
+        // 第一个分片一直失败，第二个分片正常写入
+        doThrow(new RuntimeException("broker unavailable")).doThrow(new RuntimeException("broker unavailable"))
+                .doThrow(new RuntimeException("broker unavailable")).doNothing()
+                .when(senderService).sendBatchOrThrow(anyList(), eq("kafka"));
+        
+        service.ingest(entities(3), DefaultLogEntity.class);
+        service.stop();
+        
+        verify(senderService, times(4)).sendBatchOrThrow(anyList(), eq("kafka"));
+        assertThat(service.getRetriedEvents()).isEqualTo(4);
+        assertThat(service.getDroppedEvents()).isEqualTo(2);
+        assertThat(service.getPendingEvents()).isZero();
+    }
+    
+    @Test
+    void rejectsWholeBatchWhenPendingLimitReached() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(senderService).sendBatchOrThrow(anyList(), eq("kafka"));
+        
+        assertThat(service.ingest(entities(4), DefaultLogEntity.class)).isTrue();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.getPendingEvents()).isEqualTo(4);
+        
+        // 剩余配额只有1条，整批拒绝
+        assertThat(service.ingest(entities(2), DefaultLogEntity.class)).isFalse();
+        assertThat(service.getRejectedEvents()).isEqualTo(2);
+        assertThat(service.ingest(entities(1), DefaultLogEntity.class)).isTrue();
+        
+        release.countDown();
+        service.stop();
+        assertThat(service.getPendingEvents()).isZero();
+        assertThat(service.getAcceptedEvents()).isEqualTo(5);
+    }
+    
+    private static List<BaseLogEntity> entities(int count) {
+        List<BaseLogEntity> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DefaultLogEntity entity = new DefaultLogEntity();
+            entity.setId(String.valueOf(i));
+            entities.add(entity);
+        }
+        return entities;
+    }
+}
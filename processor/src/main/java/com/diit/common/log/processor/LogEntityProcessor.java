@@ -0,0 +1,529 @@
+package com.diit.common.log.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * &#64;LogEntity注解处理器
+ * 为每个标注的BaseLogEntity子类生成{实体类名}_LogMetadata，包含：
+ * <ul>
+ *     <li>字段描述表：BaseLogEntity之外声明的实例字段，按父类到子类、声明顺序排列</li>
+ *     <li>列映射：字段名转下划线列名，与运行时规则一致</li>
+ *     <li>JSON写出器：按getter直接写出字段，字段名预编码；实体带有Jackson注解等无法确定输出结构时不生成</li>
+ *     <li>JDBC参数绑定器：按字段顺序写入参数数组，枚举写入名称</li>
+ * </ul>
+ * 无法生成时输出警告并跳过，运行时回退为反射解析
+ *
+ * @author zzx
+ */
+@SupportedAnnotationTypes(LogEntityProcessor.LOG_ENTITY)
+public class LogEntityProcessor extends AbstractProcessor {
+    
+    static final String LOG_ENTITY = "com.diit.common.log.annotation.LogEntity";
+    
+    private static final String BASE_LOG_ENTITY = "com.diit.common.log.entity.BaseLogEntity";
+    
+    private static final String METADATA_SUFFIX = "_LogMetadata";
+    
+    private static final String JACKSON_ANNOTATION_PACKAGE = "com.fasterxml.jackson.annotation.";
+    
+    private static final String JACKSON_DATABIND_ANNOTATION_PACKAGE = "com.fasterxml.jackson.databind.annotation.";
+    
+    private static final String JSON_PROPERTY = "com.fasterxml.jackson.annotation.JsonProperty";
+    
+    private static final String JSON_IGNORE = "com.fasterxml.jackson.annotation.JsonIgnore";
+    
+    private static final Set<String> LOMBOK_GETTER_ANNOTATIONS = Set.of("lombok.Data", "lombok.Getter", "lombok.Value");
+    
+    private static final Set<String> LOMBOK_CONSTRUCTOR_ANNOTATIONS = Set.of("lombok.AllArgsConstructor",
+            "lombok.RequiredArgsConstructor", "lombok.Builder", "lombok.Value");
+    
+    private Elements elements;
+    
+    private Types types;
+    
+    private Messager messager;
+    
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+    
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.elements = processingEnv.getElementUtils();
+        this.types = processingEnv.getTypeUtils();
+        this.messager = processingEnv.getMessager();
+    }
+    
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement annotation = elements.getTypeElement(LOG_ENTITY);
+        if (annotation == null) {
+            return false;
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "@LogEntity只能标注在类上", element);
+                continue;
+            }
+            try {
+                generate((TypeElement) element);
+            } catch (IOException e) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "生成日志实体元数据失败: " + e.getMessage(), element);
+            }
+        }
+        return true;
+    }
+    
+    private void generate(TypeElement entity) throws IOException {
+        if (!entity.getTypeParameters().isEmpty()) {
+            warn(entity, "泛型实体不支持生成元数据");
+            return;
+        }
+        if (!isAccessible(entity)) {
+            warn(entity, "实体类及其外部类不能为private，嵌套类必须为static");
+            return;
+        }
+        
+        // 从实体类向上收集到BaseLogEntity为止
+        List<TypeElement> hierarchy = new ArrayList<>();
+        TypeElement current = entity;
+        while (!current.getQualifiedName().contentEquals(BASE_LOG_ENTITY)) {
+            hierarchy.add(0, current);
+            TypeMirror superclass = current.getSuperclass();
+            if (superclass.getKind() != TypeKind.DECLARED) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "@LogEntity只能标注在BaseLogEntity的子类上", entity);
+                return;
+            }
+            current = (TypeElement) ((DeclaredType) superclass).asElement();
+        }
+        
+        String packageName = elements.getPackageOf(entity).getQualifiedName().toString();
+        Set<String> declaredFields = new HashSet<>();
+        for (TypeElement type : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                declaredFields.add(field.getSimpleName().toString());
+            }
+        }
+        boolean jsonWriter = true;
+        Set<String> fieldNames = new HashSet<>();
+        List<FieldModel> fields = new ArrayList<>();
+        for (TypeElement type : hierarchy) {
+            if (hasJacksonAnnotation(type)) {
+                jsonWriter = false;
+            }
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                FieldModel model = resolveField(entity, type, field, packageName);
+                if (model == null) {
+                    return;
+                }
+                if (!fieldNames.add(model.name) || !model.jsonCompatible) {
+                    jsonWriter = false;
+                }
+                fields.add(model);
+            }
+            // 非字段对应的getter会被Jackson输出为额外属性
+            for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+                if (hasJacksonAnnotation(method)) {
+                    jsonWriter = false;
+                }
+                String property = propertyOfGetter(method);
+                if (property != null && !containsField(declaredFields, property)) {
+                    jsonWriter = false;
+                }
+            }
+        }
+        
+        write(entity, hierarchy, packageName, fields, jsonWriter);
+    }
+    
+    /**
+     * 解析字段的读取方式和输出方式，无法读取时返回null
+     */
+    private FieldModel resolveField(TypeElement entity, TypeElement declaringType, VariableElement field, String packageName) {
+        String name = field.getSimpleName().toString();
+        TypeMirror fieldType = field.asType();
+        boolean primitiveBoolean = fieldType.getKind() == TypeKind.BOOLEAN;
+        
+        FieldModel model = new FieldModel();
+        model.name = name;
+        model.columnName = columnName(name);
+        model.typeLiteral = types.erasure(fieldType).toString() + ".class";
+        model.jsonName = name;
+        model.jsonCompatible = true;
+        
+        // Jackson会把xAxis这类字段的getter解析为xaxis，boolean isXxx解析为xxx，输出名与字段名不一致
+        if (name.length() > 1 && Character.isUpperCase(name.charAt(1))) {
+            model.jsonCompatible = false;
+        }
+        if (primitiveBoolean && name.startsWith("is") && name.length() > 2 && Character.isUpperCase(name.charAt(2))) {
+            model.jsonCompatible = false;
+        }
+        
+        for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+            String annotationName = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (JSON_IGNORE.equals(annotationName)) {
+                model.jsonIgnored = !Boolean.FALSE.equals(annotationValue(mirror, "value"));
+            } else if (JSON_PROPERTY.equals(annotationName) && mirror.getElementValues().size() <= 1) {
+                Object value = annotationValue(mirror, "value");
+                if (mirror.getElementValues().size() == 1 && value == null) {
+                    model.jsonCompatible = false;
+                } else if (value != null && !value.toString().isEmpty()) {
+                    model.jsonName = value.toString();
+                }
+            } else if (isJacksonAnnotation(annotationName)) {
+                model.jsonCompatible = false;
+            }
+        }
+        
+        String getter = getterName(name, primitiveBoolean);
+        if (hasAccessibleGetter(entity, getter, packageName) || hasLombokGetter(declaringType, field)) {
+            model.accessor = "entity." + getter + "()";
+        } else if (field.getModifiers().contains(Modifier.PUBLIC)
+                || (!field.getModifiers().contains(Modifier.PRIVATE) && samePackage(declaringType, packageName))) {
+            model.accessor = "entity." + name;
+            // Jackson默认只探测public字段
+            if (!field.getModifiers().contains(Modifier.PUBLIC)) {
+                model.jsonCompatible = false;
+            }
+        } else {
+            warn(field, "字段" + name + "没有可访问的getter，实体" + entity.getSimpleName() + "将使用反射解析");
+            return null;
+        }
+        
+        model.bindExpression = isEnum(fieldType) ? "enumName(" + model.accessor + ")" : model.accessor;
+        model.writeStatement = writeStatement(fieldType, model.accessor);
+        return model;
+    }
+    
+    private String writeStatement(TypeMirror fieldType, String accessor) {
+        switch (fieldType.getKind()) {
+            case INT:
+            case LONG:
+            case SHORT:
+            case DOUBLE:
+            case FLOAT:
+                return "generator.writeNumber(" + accessor + ");";
+            case BOOLEAN:
+                return "generator.writeBoolean(" + accessor + ");";
+            case DECLARED:
+                String typeName = ((TypeElement) ((DeclaredType) fieldType).asElement()).getQualifiedName().toString();
+                switch (typeName) {
+                    case "java.lang.String":
+                        return "generator.writeString(" + accessor + ");";
+                    case "java.lang.Integer":
+                    case "java.lang.Long":
+                    case "java.lang.Short":
+                    case "java.lang.Double":
+                    case "java.lang.Float":
+                        return "writeNumber(generator, " + accessor + ");";
+                    case "java.lang.Boolean":
+                        return "writeBoolean(generator, " + accessor + ");";
+                    default:
+                        break;
+                }
+                break;
+            default:
+                break;
+        }
+        // 日期、集合、BigDecimal等交给Jackson已缓存的序列化器，保证格式与配置一致
+        return "provider.defaultSerializeValue(" + accessor + ", generator);";
+    }
+    
+    private void write(TypeElement entity, List<TypeElement> hierarchy, String packageName,
+                       List<FieldModel> fields, boolean jsonWriter) throws IOException {
+        String binaryName = elements.getBinaryName(entity).toString();
+        String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        String className = simpleBinaryName.replace('$', '_') + METADATA_SUFFIX;
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        String entityName = entity.getQualifiedName().toString();
+        
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/**\n")
+                .append(" * {@link ").append(entityName).append("}的日志实体元数据\n")
+                .append(" * 由LogEntityProcessor生成，请勿修改\n")
+                .append(" */\n")
+                .append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(className)
+                .append(" extends com.diit.common.log.metadata.")
+                .append(jsonWriter ? "GeneratedJsonLogEntityMetadata<" : "GeneratedLogEntityMetadata<")
+                .append(entityName).append("> {\n\n");
+        
+        if (jsonWriter) {
+            int index = 0;
+            for (FieldModel field : fields) {
+                if (!field.jsonIgnored) {
+                    source.append("    private static final com.fasterxml.jackson.core.io.SerializedString F").append(index)
+                            .append(" = new com.fasterxml.jackson.core.io.SerializedString(\"")
+                            .append(escape(field.jsonName)).append("\");\n");
+                }
+                index++;
+            }
+            source.append("\n");
+        }
+        
+        source.append("    public ").append(className).append("() {\n")
+                .append("        super(").append(entityName).append(".class, java.util.List.of(");
+        for (int i = 0; i < fields.size(); i++) {
+            FieldModel field = fields.get(i);
+            source.append(i == 0 ? "\n" : ",\n")
+                    .append("                new com.diit.common.log.metadata.FieldDescriptor(\"")
+                    .append(field.name).append("\", \"").append(field.columnName).append("\", ")
+                    .append(field.typeLiteral).append(")");
+        }
+        source.append("));\n")
+                .append("    }\n\n");
+        
+        if (hasNoArgConstructor(entity)) {
+            source.append("    @Override\n")
+                    .append("    public ").append(entityName).append(" newInstance() {\n")
+                    .append("        return new ").append(entityName).append("();\n")
+                    .append("    }\n\n");
+        }
+        
+        source.append("    @Override\n")
+                .append("    public void bindParameters(").append(entityName).append(" entity, Object[] params, int offset) {\n");
+        for (int i = 0; i < fields.size(); i++) {
+            source.append("        params[offset").append(i == 0 ? "" : " + " + i).append("] = ")
+                    .append(fields.get(i).bindExpression).append(";\n");
+        }
+        source.append("    }\n");
+        
+        if (jsonWriter) {
+            source.append("\n")
+                    .append("    @Override\n")
+                    .append("    protected void writeFields(").append(entityName)
+                    .append(" entity, com.fasterxml.jackson.core.JsonGenerator generator,\n")
+                    .append("            com.fasterxml.jackson.databind.SerializerProvider provider) throws java.io.IOException {\n");
+            for (int i = 0; i < fields.size(); i++) {
+                FieldModel field = fields.get(i);
+                if (field.jsonIgnored) {
+                    continue;
+                }
+                source.append("        generator.writeFieldName(F").append(i).append(");\n")
+                        .append("        ").append(field.writeStatement).append("\n");
+            }
+            source.append("    }\n");
+        }
+        source.append("}\n");
+        
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, hierarchy.toArray(new Element[0]));
+        try (Writer writer = file.openWriter()) {
+            writer.write(source.toString());
+        }
+        if (!jsonWriter) {
+            messager.printMessage(Diagnostic.Kind.NOTE,
+                    entity.getSimpleName() + "的输出结构依赖Jackson注解或额外属性，JSON仍由Jackson序列化", entity);
+        }
+    }
+    
+    /**
+     * 生成类能否直接调用无参构造器，Lombok生成的构造器在本轮可能还不可见，按注解判断
+     */
+    private static boolean hasNoArgConstructor(TypeElement entity) {
+        if (entity.getModifiers().contains(Modifier.ABSTRACT)) {
+            return false;
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(entity.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty()) {
+                return !constructor.getModifiers().contains(Modifier.PRIVATE);
+            }
+        }
+        for (AnnotationMirror mirror : entity.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals("lombok.NoArgsConstructor")) {
+                Object access = annotationValue(mirror, "access");
+                return access == null || !(access.toString().equals("PRIVATE") || access.toString().equals("NONE"));
+            }
+        }
+        if (!constructors.isEmpty() || hasAnnotation(entity, LOMBOK_CONSTRUCTOR_ANNOTATIONS)) {
+            return false;
+        }
+        // 没有显式构造器时为默认构造器；@Data遇到final字段会生成带参构造器
+        for (VariableElement field : ElementFilter.fieldsIn(entity.getEnclosedElements())) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.FINAL) && !modifiers.contains(Modifier.STATIC)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 驼峰命名转下划线命名，与运行时ColumnMapping.columnName一致
+     */
+    static String columnName(String fieldName) {
+        return fieldName.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+    
+    private static String getterName(String fieldName, boolean primitiveBoolean) {
+        if (primitiveBoolean && fieldName.startsWith("is") && fieldName.length() > 2
+                && Character.isUpperCase(fieldName.charAt(2))) {
+            return fieldName;
+        }
+        return (primitiveBoolean ? "is" : "get") + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+    }
+    
+    /**
+     * getter对应的属性名，非getter返回null
+     */
+    private static String propertyOfGetter(ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.STATIC) || !method.getParameters().isEmpty()) {
+            return null;
+        }
+        String name = method.getSimpleName().toString();
+        String suffix;
+        if (name.startsWith("get") && name.length() > 3 && method.getReturnType().getKind() != TypeKind.VOID) {
+            suffix = name.substring(3);
+        } else if (name.startsWith("is") && name.length() > 2 && method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+            suffix = name.substring(2);
+        } else {
+            return null;
+        }
+        return Character.toLowerCase(suffix.charAt(0)) + suffix.substring(1);
+    }
+    
+    private static boolean containsField(Set<String> fieldNames, String property) {
+        return fieldNames.contains(property)
+                || fieldNames.contains("is" + Character.toUpperCase(property.charAt(0)) + property.substring(1));
+    }
+    
+    private boolean hasAccessibleGetter(TypeElement entity, String getter, String packageName) {
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(entity))) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (method.getSimpleName().contentEquals(getter) && method.getParameters().isEmpty()
+                    && !modifiers.contains(Modifier.STATIC) && !modifiers.contains(Modifier.PRIVATE)) {
+                return modifiers.contains(Modifier.PUBLIC)
+                        || samePackage((TypeElement) method.getEnclosingElement(), packageName);
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Lombok在同一轮处理中生成getter，此时可能还看不到方法，按注解判断
+     */
+    private static boolean hasLombokGetter(TypeElement declaringType, VariableElement field) {
+        return hasAnnotation(declaringType, LOMBOK_GETTER_ANNOTATIONS) || hasAnnotation(field, LOMBOK_GETTER_ANNOTATIONS);
+    }
+    
+    private static boolean hasAnnotation(Element element, Set<String> names) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (names.contains(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean hasJacksonAnnotation(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (isJacksonAnnotation(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean isJacksonAnnotation(String annotationName) {
+        return annotationName.startsWith(JACKSON_ANNOTATION_PACKAGE)
+                || annotationName.startsWith(JACKSON_DATABIND_ANNOTATION_PACKAGE);
+    }
+    
+    private static Object annotationValue(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        return null;
+    }
+    
+    private boolean isEnum(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && types.asElement(type).getKind() == ElementKind.ENUM;
+    }
+    
+    private boolean samePackage(TypeElement type, String packageName) {
+        return elements.getPackageOf(type).getQualifiedName().contentEquals(packageName);
+    }
+    
+    /**
+     * 生成类与实体同包，实体及外部类需可访问，嵌套类需为static
+     */
+    private static boolean isAccessible(TypeElement type) {
+        Element current = type;
+        while (!(current instanceof PackageElement)) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (current instanceof TypeElement && ((TypeElement) current).getNestingKind() == NestingKind.MEMBER
+                    && !current.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+    
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+    
+    private void warn(Element element, String message) {
+        messager.printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+    
+    /**
+     * 生成代码所需的字段信息
+     */
+    private static final class FieldModel {
+        String name;
+        String columnName;
+        String typeLiteral;
+        String accessor;
+        String bindExpression;
+        String writeStatement;
+        String jsonName;
+        boolean jsonIgnored;
+        boolean jsonCompatible;
+    }
+}
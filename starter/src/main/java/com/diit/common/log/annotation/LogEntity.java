@@ -0,0 +1,29 @@
+package com.diit.common.log.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 日志实体标记注解
+ * 标注在BaseLogEntity子类上，由common-log-processor在编译期生成{实体类名}_LogMetadata，
+ * 包含字段描述表、数据库列映射、JSON写出器和JDBC参数绑定器，运行时不再反射读取实体字段
+ *
+ * 使用示例：
+ * <pre>
+ * &#64;Data
+ * &#64;LogEntity
+ * &#64;EqualsAndHashCode(callSuper = true)
+ * public class OrderLogEntity extends BaseLogEntity {
+ *     private String orderId;
+ *     private BigDecimal totalAmount;
+ * }
+ * </pre>
+ *
+ * 未启用注解处理器或未标注的实体仍按反射方式处理，行为一致
+ *
+ * @author zzx
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface LogEntity {
+}
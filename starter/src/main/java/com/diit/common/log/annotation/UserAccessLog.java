@@ -1,5 +1,7 @@
 package com.diit.common.log.annotation;
 
+import com.diit.common.log.context.CaptureField;
+
 import java.lang.annotation.*;
 
 /**
@@ -47,4 +49,26 @@ public @interface UserAccessLog {
      * 操作对象
      */
     String target() default "";
+    
+    /**
+     * 发送器类型
+     * 支持的类型：database、kafka、elasticsearch、http
+     * 如果为空，则使用配置文件中的默认发送器
+     */
+    String senderType() default "";
+    
+    /**
+     * 是否异步发送日志
+     * 异步时按storage.batchSize/batchInterval合并批量发送
+     */
+    boolean async() default true;
+    
+    /**
+     * 需要在请求线程上采集的请求信息
+     * 未列出的字段不会读取，如去掉SESSION_ID即不访问会话
+     */
+    CaptureField[] capture() default {
+            CaptureField.CLIENT_IP, CaptureField.USER_AGENT, CaptureField.REQUEST_URI,
+            CaptureField.REQUEST_METHOD, CaptureField.SESSION_ID, CaptureField.AUTHORIZATION
+    };
 }
@@ -0,0 +1,108 @@
+package com.diit.common.log.aot;
+
+import com.diit.common.log.annotation.GenericLog;
+import com.diit.common.log.annotation.OperationLog;
+import com.diit.common.log.annotation.UserAccessLog;
+import com.diit.common.log.entity.BaseLogEntity;
+import org.springframework.aot.hint.ExecutableMode;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 构建期扫描日志注解的AOT处理器
+ * 在所有Bean中查找@GenericLog、@OperationLog、@UserAccessLog标注的方法，注册：
+ * <ul>
+ *     <li>注解方法本身（切面通过MethodSignature反射读取注解和参数）</li>
+ *     <li>@GenericLog指定的实体类及其生成的元数据</li>
+ *     <li>方法参数和返回值类型（SpEL表达式按属性访问）</li>
+ * </ul>
+ *
+ * @author zzx
+ */
+public class LogAnnotationAotProcessor implements BeanFactoryInitializationAotProcessor {
+    
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        Set<Method> methods = new LinkedHashSet<>();
+        Set<Class<? extends BaseLogEntity>> entityTypes = new LinkedHashSet<>();
+        Set<Class<?>> bindingTypes = new LinkedHashSet<>();
+        
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> beanType;
+            try {
+                beanType = beanFactory.getType(beanName, false);
+            } catch (Exception | LinkageError e) {
+                continue;
+            }
+            if (beanType == null) {
+                continue;
+            }
+            Class<?> userClass = ClassUtils.getUserClass(beanType);
+            GenericLog typeAnnotation = AnnotatedElementUtils.findMergedAnnotation(userClass, GenericLog.class);
+            if (typeAnnotation != null) {
+                entityTypes.add(typeAnnotation.entityClass());
+            }
+            ReflectionUtils.doWithMethods(userClass,
+                    method -> collect(method, methods, entityTypes, bindingTypes),
+                    ReflectionUtils.USER_DECLARED_METHODS);
+        }
+        
+        if (methods.isEmpty() && entityTypes.isEmpty()) {
+            return null;
+        }
+        return (generationContext, beanFactoryInitializationCode) -> {
+            RuntimeHints hints = generationContext.getRuntimeHints();
+            for (Method method : methods) {
+                hints.reflection().registerMethod(method, ExecutableMode.INTROSPECT);
+            }
+            for (Class<? extends BaseLogEntity> entityType : entityTypes) {
+                LogRuntimeHints.registerEntity(hints, entityType);
+            }
+            LogRuntimeHints.registerBindingTypes(hints, bindingTypes.toArray(new Class<?>[0]));
+        };
+    }
+    
+    private void collect(Method method, Set<Method> methods, Set<Class<? extends BaseLogEntity>> entityTypes,
+                         Set<Class<?>> bindingTypes) {
+        GenericLog genericLog = AnnotatedElementUtils.findMergedAnnotation(method, GenericLog.class);
+        if (genericLog != null) {
+            entityTypes.add(genericLog.entityClass());
+        } else if (!AnnotatedElementUtils.hasAnnotation(method, OperationLog.class)
+                && !AnnotatedElementUtils.hasAnnotation(method, UserAccessLog.class)) {
+            return;
+        }
+        
+        methods.add(method);
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            addBindingType(parameterType, bindingTypes);
+        }
+        addBindingType(method.getReturnType(), bindingTypes);
+    }
+    
+    /**
+     * 只注册应用自身的类型，JDK、Jakarta和Spring类型由各自的提示覆盖
+     */
+    private void addBindingType(Class<?> type, Set<Class<?>> bindingTypes) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return;
+        }
+        String name = type.getName();
+        if (name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("jakarta.")
+                || name.startsWith("org.springframework.")) {
+            return;
+        }
+        bindingTypes.add(type);
+    }
+}
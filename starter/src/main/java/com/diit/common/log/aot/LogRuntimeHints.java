@@ -0,0 +1,97 @@
+package com.diit.common.log.aot;
+
+import com.diit.common.log.annotation.GenericLog;
+import com.diit.common.log.annotation.LogEntity;
+import com.diit.common.log.annotation.OperationLog;
+import com.diit.common.log.annotation.UserAccessLog;
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.entity.OperationLogEntity;
+import com.diit.common.log.entity.UserAccessLogEntity;
+import com.diit.common.log.metadata.LogEntityMetadataRegistry;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.ReflectionHints;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * 日志Starter的GraalVM运行时提示
+ * 注册内置日志实体、日志注解，以及按类名反射加载的Jackson模块、数据格式和JWT实现
+ *
+ * @author zzx
+ */
+public class LogRuntimeHints implements RuntimeHintsRegistrar {
+    
+    private static final BindingReflectionHintsRegistrar BINDING_REGISTRAR = new BindingReflectionHintsRegistrar();
+    
+    /**
+     * LogSerializer按配置反射实例化的类
+     */
+    private static final String[] SERIALIZATION_TYPES = {
+            "com.fasterxml.jackson.module.blackbird.BlackbirdModule",
+            "com.fasterxml.jackson.module.afterburner.AfterburnerModule",
+            "com.fasterxml.jackson.dataformat.smile.SmileFactory",
+            "com.fasterxml.jackson.dataformat.cbor.CBORFactory"
+    };
+    
+    /**
+     * jjwt按类名加载的实现类
+     */
+    private static final String[] JWT_TYPES = {
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParser",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer"
+    };
+    
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        ReflectionHints reflection = hints.reflection();
+        
+        registerEntity(hints, DefaultLogEntity.class);
+        registerEntity(hints, OperationLogEntity.class);
+        registerEntity(hints, UserAccessLogEntity.class);
+        
+        reflection.registerType(GenericLog.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        reflection.registerType(OperationLog.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        reflection.registerType(UserAccessLog.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        reflection.registerType(LogEntity.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+        
+        for (String type : SERIALIZATION_TYPES) {
+            reflection.registerTypeIfPresent(classLoader, type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+        for (String type : JWT_TYPES) {
+            reflection.registerTypeIfPresent(classLoader, type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        
+        // ObjectMapper.findModules和jjwt通过ServiceLoader发现实现
+        hints.resources().registerPattern("META-INF/services/com.fasterxml.jackson.databind.Module");
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+    }
+    
+    /**
+     * 注册日志实体：Jackson序列化和增强写入所需的属性访问、构造器、反射元数据读取的字段，以及编译期生成的元数据类
+     *
+     * @param hints      运行时提示
+     * @param entityType 日志实体类型
+     */
+    public static void registerEntity(RuntimeHints hints, Class<? extends BaseLogEntity> entityType) {
+        ReflectionHints reflection = hints.reflection();
+        BINDING_REGISTRAR.registerReflectionHints(reflection, entityType);
+        for (Class<?> type = entityType; type != null && type != Object.class; type = type.getSuperclass()) {
+            reflection.registerType(type, MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+        reflection.registerTypeIfPresent(entityType.getClassLoader(),
+                LogEntityMetadataRegistry.metadataClassName(entityType), MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+    }
+    
+    /**
+     * 注册SpEL表达式访问的参数和返回值类型
+     */
+    public static void registerBindingTypes(RuntimeHints hints, Class<?>... types) {
+        BINDING_REGISTRAR.registerReflectionHints(hints.reflection(), types);
+    }
+}
@@ -1,9 +1,14 @@
 package com.diit.common.log.aspect;
 
 import com.diit.common.log.annotation.GenericLog;
+import com.diit.common.log.context.RequestContextCapturer;
+import com.diit.common.log.context.RequestSnapshot;
 import com.diit.common.log.entity.BaseLogEntity;
 import com.diit.common.log.factory.LogEntityFactory;
 
+import com.diit.common.log.service.LogBatchDispatcher;
+import com.diit.common.log.service.LogEnrichmentService;
+import com.diit.common.log.service.LogPipeline;
 import com.diit.common.log.service.LogSenderService;
 import com.diit.common.log.utils.SpelUtils;
 import lombok.extern.slf4j.Slf4j;
@@ -40,6 +45,18 @@ public class GenericLogAspect {
     @Autowired
     private SpelUtils spelUtils;
     
+    @Autowired
+    private RequestContextCapturer requestContextCapturer;
+    
+    @Autowired
+    private LogEnrichmentService logEnrichmentService;
+    
+    @Autowired
+    private LogPipeline logPipeline;
+    
+    @Autowired
+    private LogBatchDispatcher logBatchDispatcher;
+    
     /**
      * 切点：所有标注了@GenericLog的方法
      */
@@ -55,6 +72,9 @@ public class GenericLogAspect {
         Object result = null;
         Throwable exception = null;
         
+        // 只采集实体类型增强计划需要的请求字段
+        RequestSnapshot snapshot = captureSnapshot(joinPoint);
+        
         try {
             // 执行原方法
             result = joinPoint.proceed();
@@ -65,7 +85,7 @@ public class GenericLogAspect {
         } finally {
             // 记录日志
             try {
-                recordLog(joinPoint, result, exception, startTime);
+                recordLog(joinPoint, result, exception, startTime, snapshot);
             } catch (Exception e) {
                 log.error("记录通用日志失败", e);
             }
@@ -80,11 +100,28 @@ public class GenericLogAspect {
         // 异常情况已在around方法中处理，这里不重复处理
     }
     
+    /**
+     * 采集请求快照
+     */
+    private RequestSnapshot captureSnapshot(ProceedingJoinPoint joinPoint) {
+        try {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            GenericLog annotation = method.getAnnotation(GenericLog.class);
+            if (annotation == null) {
+                return null;
+            }
+            return requestContextCapturer.capture(logEnrichmentService.getCaptureMask(annotation.entityClass()));
+        } catch (Exception e) {
+            log.debug("采集请求快照失败", e);
+            return null;
+        }
+    }
+    
     /**
      * 记录日志
      */
     private void recordLog(ProceedingJoinPoint joinPoint, Object result, 
-                          Throwable exception, long startTime) {
+                          Throwable exception, long startTime, RequestSnapshot snapshot) {
         
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
         Method method = signature.getMethod();
@@ -109,7 +146,7 @@ public class GenericLogAspect {
             fillExtendedFields(logEntity, annotation, joinPoint, result, exception, responseTime);
             
             // 发送日志
-            sendLog(logEntity, annotation);
+            sendLog(logEntity, annotation, snapshot);
             
         } catch (Exception e) {
             log.error("处理通用日志记录失败: method={}", method.getName(), e);
@@ -220,13 +257,15 @@ public class GenericLogAspect {
     
     /**
      * 发送日志
+     * 异步模式下增强在流水线工作线程上执行，随后合并批量发送
      */
-    private void sendLog(BaseLogEntity logEntity, GenericLog annotation) {
+    private void sendLog(BaseLogEntity logEntity, GenericLog annotation, RequestSnapshot snapshot) {
         try {
+            String senderType = annotation.senderType();
             if (annotation.async()) {
-                logSenderService.sendAsync(logEntity, annotation.senderType());
+                logPipeline.submit(logEntity, snapshot, entity -> logBatchDispatcher.dispatch(entity, senderType));
             } else {
-                logSenderService.send(logEntity, annotation.senderType());
+                logPipeline.process(logEntity, snapshot, entity -> logSenderService.send(entity, senderType));
             }
         } catch (Exception e) {
             log.error("发送日志失败: entityClass={}, senderType={}", 
@@ -1,21 +1,24 @@
 package com.diit.common.log.aspect;
 
 import com.diit.common.log.annotation.OperationLog;
+import com.diit.common.log.context.RequestContextCapturer;
+import com.diit.common.log.context.RequestSnapshot;
 import com.diit.common.log.entity.OperationLogEntity;
 
-import com.diit.common.log.sender.LogSenderFactory;
-import com.diit.common.log.utils.LogWebUtils;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.diit.common.log.service.LogBatchDispatcher;
+import com.diit.common.log.service.LogPipeline;
+import com.diit.common.log.service.LogSenderService;
+import com.diit.common.log.service.LogSerializer;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
 import org.springframework.stereotype.Component;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
-import jakarta.servlet.http.HttpServletRequest;
+import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.UUID;
@@ -31,10 +34,19 @@ import java.util.UUID;
 public class OperationLogAspect {
     
     @Autowired
-    private LogSenderFactory logSenderFactory;
+    private LogBatchDispatcher logBatchDispatcher;
     
     @Autowired
-    private ObjectMapper objectMapper;
+    private LogSenderService logSenderService;
+    
+    @Autowired
+    private RequestContextCapturer requestContextCapturer;
+    
+    @Autowired
+    private LogPipeline logPipeline;
+    
+    @Autowired
+    private LogSerializer logSerializer;
     
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy.MM.dd HH:mm:ss");
     
@@ -43,57 +55,25 @@ public class OperationLogAspect {
         // 记录开始时间
         long startTime = System.currentTimeMillis();
         
-        // 获取请求信息
-        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-        HttpServletRequest request = attributes != null ? attributes.getRequest() : null;
+        // 采集请求快照（只复制原始值，不创建会话，解析留给流水线）
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        RequestSnapshot snapshot = requestContextCapturer.capture(method, operationLog, OperationLog::capture);
         
         // 初始化操作日志信息
+        LocalDateTime now = LocalDateTime.now();
         OperationLogEntity opLog = OperationLogEntity.builder()
-                .id(UUID.randomUUID().toString())
-                .operationTime(LocalDateTime.now().format(DATE_TIME_FORMATTER))
-                .operationTimestamp(LocalDateTime.now())
+                .operationTime(now.format(DATE_TIME_FORMATTER))
+                .operationTimestamp(now)
                 .operationType(operationLog.type())
                 .description(operationLog.description())
                 .module(operationLog.module())
                 .target(operationLog.target())
-                .createTime(LocalDateTime.now())
+                .createTime(now)
                 .build();
-        
-        if (request != null) {
-            // 获取IP地址
-            String ipAddress = LogWebUtils.getClientIpAddress(request);
-            opLog.setClientIp(ipAddress);
-            
-            // 获取IP来源
-            String ipLocation = LogWebUtils.getIpLocation(ipAddress);
-            opLog.setIpLocation(ipLocation);
-            
-            // 获取浏览器信息
-            String userAgent = request.getHeader("User-Agent");
-            opLog.setUserAgent(userAgent);
-            
-            String browser = LogWebUtils.getBrowserInfo(userAgent);
-            opLog.setBrowser(browser);
-            
-            // 获取操作系统信息
-            String operatingSystem = LogWebUtils.getOperatingSystem(userAgent);
-            opLog.setOperatingSystem(operatingSystem);
-            
-            // 获取设备类型
-            String deviceType = LogWebUtils.getDeviceType(userAgent);
-            opLog.setDeviceType(deviceType);
-            
-            // 获取请求信息
-            opLog.setRequestUri(request.getRequestURI());
-            opLog.setRequestMethod(request.getMethod());
-            opLog.setSessionId(request.getSession().getId());
-            
-            // 获取用户信息（从Token中解析）
-            String username = LogWebUtils.getUsernameFromToken(request);
-            if (username != null) {
-                opLog.setUsername(username);
-            }
-        }
+        opLog.setId(UUID.randomUUID().toString());
+        opLog.setTimestamp(now);
+        opLog.setContent(operationLog.description());
+        opLog.setLevel(LogLevel.INFO);
         
         // 记录操作前数据（如果需要）
         Object beforeData = null;
@@ -101,7 +81,7 @@ public class OperationLogAspect {
             try {
                 beforeData = joinPoint.getArgs();
                 if (beforeData != null) {
-                    opLog.setBeforeData(objectMapper.writeValueAsString(beforeData));
+                    opLog.setBeforeData(logSerializer.toJson(beforeData));
                 }
             } catch (Exception e) {
                 log.warn("记录操作前数据失败: {}", e.getMessage());
@@ -118,7 +98,7 @@ public class OperationLogAspect {
             // 记录操作后数据（如果需要）
             if (operationLog.recordDataChange() && result != null) {
                 try {
-                    opLog.setAfterData(objectMapper.writeValueAsString(result));
+                    opLog.setAfterData(logSerializer.toJson(result));
                 } catch (Exception e) {
                     log.warn("记录操作后数据失败: {}", e.getMessage());
                 }
@@ -127,6 +107,7 @@ public class OperationLogAspect {
             return result;
         } catch (Exception e) {
             status = "失败";
+            opLog.setLevel(LogLevel.ERROR);
             if (operationLog.recordStackTrace()) {
                 opLog.setExceptionMessage(e.getMessage());
             }
@@ -138,14 +119,13 @@ public class OperationLogAspect {
             opLog.setStatus(status);
             opLog.setResponseTime(responseTime);
             
-            log.info("用户操作日志: {}", opLog);
-            
-            // 异步发送日志
-            try {
-                logSenderFactory.getOperationLogSender().sendOperationLog(opLog);
-            } catch (Exception e) {
-                log.error("发送操作日志失败: {}", e.getMessage(), e);
+            // 投递到流水线，IP来源、浏览器、用户名等信息在工作线程上补齐后合并批量发送
+            String senderType = operationLog.senderType();
+            if (operationLog.async()) {
+                logPipeline.submit(opLog, snapshot, entity -> logBatchDispatcher.dispatch(entity, senderType));
+            } else {
+                logPipeline.process(opLog, snapshot, entity -> logSenderService.send(entity, senderType));
             }
         }
     }
-}
+}
\ No newline at end of file
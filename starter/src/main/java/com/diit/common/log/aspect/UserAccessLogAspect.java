@@ -0,0 +1,103 @@
+package com.diit.common.log.aspect;
+
+import com.diit.common.log.annotation.UserAccessLog;
+import com.diit.common.log.context.RequestContextCapturer;
+import com.diit.common.log.context.RequestSnapshot;
+import com.diit.common.log.entity.UserAccessLogEntity;
+import com.diit.common.log.service.LogBatchDispatcher;
+import com.diit.common.log.service.LogPipeline;
+import com.diit.common.log.service.LogSenderService;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+/**
+ * 用户访问日志切面
+ * 
+ * @author zzx
+ */
+@Slf4j
+@Aspect
+@Component
+public class UserAccessLogAspect {
+    
+    @Autowired
+    private LogBatchDispatcher logBatchDispatcher;
+    
+    @Autowired
+    private LogSenderService logSenderService;
+    
+    @Autowired
+    private RequestContextCapturer requestContextCapturer;
+    
+    @Autowired
+    private LogPipeline logPipeline;
+    
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy.MM.dd HH:mm:ss");
+    
+    @Around("@annotation(userAccessLog)")
+    public Object logUserAccess(ProceedingJoinPoint joinPoint, UserAccessLog userAccessLog) throws Throwable {
+        // 记录开始时间
+        long startTime = System.currentTimeMillis();
+        
+        // 采集请求快照（只复制原始值，不创建会话，解析留给流水线）
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        RequestSnapshot snapshot = requestContextCapturer.capture(method, userAccessLog, UserAccessLog::capture);
+        
+        // 初始化访问日志信息
+        LocalDateTime now = LocalDateTime.now();
+        UserAccessLogEntity accessLog = UserAccessLogEntity.builder()
+                .accessTime(now.format(DATE_TIME_FORMATTER))
+                .accessTimestamp(now)
+                .accessType(userAccessLog.type())
+                .description(userAccessLog.description())
+                .module(userAccessLog.module())
+                .target(userAccessLog.target())
+                .createTime(now)
+                .build();
+        accessLog.setId(UUID.randomUUID().toString());
+        accessLog.setTimestamp(now);
+        accessLog.setContent(userAccessLog.description());
+        accessLog.setLevel(LogLevel.INFO);
+        
+        Object result;
+        String status = "成功";
+        
+        try {
+            result = joinPoint.proceed();
+            status = "成功";
+            return result;
+        } catch (Exception e) {
+            status = "失败";
+            accessLog.setLevel(LogLevel.ERROR);
+            if (userAccessLog.recordStackTrace()) {
+                accessLog.setExceptionMessage(e.getMessage());
+            }
+            log.error("用户访问失败: {}", e.getMessage(), e);
+            throw e;
+        } finally {
+            // 计算响应时间
+            long responseTime = System.currentTimeMillis() - startTime;
+            accessLog.setStatus(status);
+            accessLog.setResponseTime(responseTime);
+            
+            // 投递到流水线，IP来源、浏览器、用户名等信息在工作线程上补齐后合并批量发送
+            String senderType = userAccessLog.senderType();
+            if (userAccessLog.async()) {
+                logPipeline.submit(accessLog, snapshot, entity -> logBatchDispatcher.dispatch(entity, senderType));
+            } else {
+                logPipeline.process(accessLog, snapshot, entity -> logSenderService.send(entity, senderType));
+            }
+        }
+    }
+}
\ No newline at end of file
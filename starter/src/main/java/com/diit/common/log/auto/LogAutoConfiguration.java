@@ -1,5 +1,6 @@
 package com.diit.common.log.auto;
 
+import com.diit.common.log.aot.LogRuntimeHints;
 import com.diit.common.log.aspect.GenericLogAspect;
 import com.diit.common.log.aspect.OperationLogAspect;
 import com.diit.common.log.aspect.UserAccessLogAspect;
@@ -16,6 +17,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.kafka.core.KafkaTemplate;
 
 /**
@@ -28,6 +30,7 @@ import org.springframework.kafka.core.KafkaTemplate;
 @EnableConfigurationProperties(LogProperties.class)
 @ConditionalOnProperty(prefix = "diit.log", name = "enabled", havingValue = "true", matchIfMissing = true)
 @Import({LogConfiguration.class})
+@ImportRuntimeHints(LogRuntimeHints.class)
 @ComponentScan(basePackages = "com.diit.common.log")
 public class LogAutoConfiguration {
     
@@ -0,0 +1,185 @@
+package com.diit.common.log.config;
+
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.sender.kafka.KafkaProducerPool;
+import com.diit.common.log.utils.CidrTrie;
+import com.diit.common.log.utils.ClientIpResolver;
+import com.diit.common.log.utils.JwtUsernameResolver;
+import com.diit.common.log.utils.LogWebUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.web.client.RestTemplate;
+
+import javax.sql.DataSource;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 日志配置类
+ * 
+ * @author zzx
+ */
+@Slf4j
+@Configuration
+public class LogConfiguration {
+    
+    /**
+     * 配置Kafka生产者工厂
+     */
+    @Bean
+    @ConditionalOnClass(KafkaTemplate.class)
+    @ConditionalOnProperty(prefix = "diit.log.kafka", name = "enabled", havingValue = "true")
+    public ProducerFactory<String, byte[]> kafkaProducerFactory(LogProperties logProperties) {
+        Map<String, Object> configProps = new HashMap<>();
+        
+        // 基础配置
+        configProps.put("bootstrap.servers", logProperties.getKafka().getBootstrapServers());
+        configProps.put("key.serializer", "org.apache.kafka.common.serialization.StringSerializer");
+        // 消息体由LogSerializer直接序列化为UTF-8字节，不再经过String
+        configProps.put("value.serializer", "org.apache.kafka.common.serialization.ByteArraySerializer");
+        
+        // 生产者配置
+        LogProperties.Kafka.Producer producer = logProperties.getKafka().getProducer();
+        configProps.put("retries", producer.getRetries());
+        configProps.put("batch.size", producer.getBatchSize());
+        configProps.put("linger.ms", producer.getLingerMs());
+        configProps.put("buffer.memory", producer.getBufferMemory());
+        configProps.put("compression.type", producer.getCompressionType());
+        int maxInFlight = producer.getMaxInFlightRequestsPerConnection();
+        
+        // 高吞吐模式：加大批量和延迟，启用压缩，让更多消息在累加器中合批
+        LogProperties.Kafka.Throughput throughput = logProperties.getKafka().getThroughput();
+        if (throughput.isEnabled()) {
+            configProps.put("batch.size", throughput.getBatchSize());
+            configProps.put("linger.ms", throughput.getLingerMs());
+            configProps.put("compression.type", throughput.getCompressionType());
+            maxInFlight = throughput.getMaxInFlightRequestsPerConnection();
+        }
+        configProps.put("max.in.flight.requests.per.connection", maxInFlight);
+        
+        // 可靠性配置
+        configProps.put("acks", "all");
+        if (maxInFlight > 5) {
+            // 幂等生产者要求max.in.flight不超过5
+            log.warn("max.in.flight.requests.per.connection={} 大于5，关闭幂等发送，重试时可能乱序或重复", maxInFlight);
+            configProps.put("enable.idempotence", "false");
+        } else {
+            configProps.put("enable.idempotence", "true");
+        }
+        
+        log.info("配置Kafka生产者工厂: {}", configProps);
+        return new DefaultKafkaProducerFactory<>(configProps);
+    }
+    
+    /**
+     * 配置Kafka模板
+     */
+    @Bean
+    @ConditionalOnClass(KafkaTemplate.class)
+    @ConditionalOnProperty(prefix = "diit.log.kafka", name = "enabled", havingValue = "true")
+    public KafkaTemplate<String, byte[]> kafkaTemplate(ProducerFactory<String, byte[]> producerFactory) {
+        log.info("初始化KafkaTemplate");
+        return new KafkaTemplate<>(producerFactory);
+    }
+    
+    /**
+     * 配置Kafka生产者池
+     * 每个生产者复制主生产者工厂的配置，使用独立的client.id，存在MeterRegistry时按producer标签导出客户端指标
+     */
+    @Bean
+    @ConditionalOnClass(KafkaTemplate.class)
+    @ConditionalOnProperty(prefix = "diit.log.kafka", name = {"enabled", "pool.enabled"}, havingValue = "true")
+    public KafkaProducerPool kafkaProducerPool(ProducerFactory<String, byte[]> producerFactory, LogProperties logProperties,
+                                               ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        LogProperties.Kafka.Pool pool = logProperties.getKafka().getPool();
+        int size = pool.getSize() > 0 ? pool.getSize() : Runtime.getRuntime().availableProcessors() / 8 + 1;
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        
+        List<KafkaTemplate<String, byte[]>> templates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> configProps = new HashMap<>(producerFactory.getConfigurationProperties());
+            configProps.put("client.id", pool.getClientIdPrefix() + "-" + i);
+            DefaultKafkaProducerFactory<String, byte[]> factory = new DefaultKafkaProducerFactory<>(configProps);
+            if (meterRegistry != null) {
+                factory.addListener(new MicrometerProducerListener<>(meterRegistry,
+                        Collections.singletonList(Tag.of("producer", String.valueOf(i)))));
+            }
+            templates.add(new KafkaTemplate<>(factory));
+        }
+        return new KafkaProducerPool(templates, pool.getAssignment());
+    }
+    
+    /**
+     * 配置RestTemplate（用于HTTP发送器）
+     * 基于JDK HttpClient，按目标主机复用keep-alive连接，并应用http.connectTimeout/readTimeout
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "diit.log", name = "enabled", havingValue = "true")
+    public RestTemplate restTemplate(LogProperties logProperties) {
+        LogProperties.Http http = logProperties.getHttp();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(http.getConnectTimeout()))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(http.getReadTimeout()));
+        log.info("初始化RestTemplate: connectTimeout={}ms, readTimeout={}ms", http.getConnectTimeout(), http.getReadTimeout());
+        return new RestTemplate(requestFactory);
+    }
+    
+    /**
+     * 配置客户端IP解析器（按可信代理网段预编译前缀树）
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ClientIpResolver clientIpResolver(LogProperties logProperties) {
+        String[] trustedProxies = logProperties.getRecord().getTrustedProxies();
+        log.info("初始化客户端IP解析器，可信代理网段: {}", (Object) trustedProxies);
+        return new ClientIpResolver(CidrTrie.of(trustedProxies));
+    }
+    
+    /**
+     * 配置JWT用户名解析器（验签结果按Token缓存）
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtUsernameResolver jwtUsernameResolver(LogProperties logProperties) {
+        JwtUsernameResolver resolver = new JwtUsernameResolver(logProperties.getJwt());
+        LogWebUtils.setJwtUsernameResolver(resolver);
+        log.info("初始化JWT用户名解析器，验签密钥{}", resolver.isEnabled() ? "已配置" : "未配置，不解析Token");
+        return resolver;
+    }
+    
+    /**
+     * 配置JdbcTemplate（用于数据库发送器）
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(DataSource.class)
+    @ConditionalOnBean(DataSource.class)
+    @ConditionalOnProperty(prefix = "diit.log.database", name = "enabled", havingValue = "true")
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        log.info("初始化JdbcTemplate");
+        return new JdbcTemplate(dataSource);
+    }
+}
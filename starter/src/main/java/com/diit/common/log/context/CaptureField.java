@@ -0,0 +1,48 @@
+package com.diit.common.log.context;
+
+/**
+ * 请求上下文采集字段
+ * 注解通过该枚举声明需要在请求线程上采集的信息，未声明的字段不会读取
+ * 
+ * @author zzx
+ */
+public enum CaptureField {
+    
+    /** 客户端IP（直连地址及转发头） */
+    CLIENT_IP,
+    
+    /** User-Agent请求头 */
+    USER_AGENT,
+    
+    /** 请求URI */
+    REQUEST_URI,
+    
+    /** 请求方法 */
+    REQUEST_METHOD,
+    
+    /** 会话ID（仅在会话已存在时采集，不会创建会话） */
+    SESSION_ID,
+    
+    /** Authorization请求头（用于解析用户名） */
+    AUTHORIZATION;
+    
+    /**
+     * 字段对应的位掩码
+     */
+    public int mask() {
+        return 1 << ordinal();
+    }
+    
+    /**
+     * 计算字段集合的位掩码
+     */
+    public static int maskOf(CaptureField... fields) {
+        int mask = 0;
+        if (fields != null) {
+            for (CaptureField field : fields) {
+                mask |= field.mask();
+            }
+        }
+        return mask;
+    }
+}
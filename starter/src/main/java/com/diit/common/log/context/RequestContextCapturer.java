@@ -0,0 +1,145 @@
+package com.diit.common.log.context;
+
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.utils.ClientIpResolver;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 请求上下文采集器
+ * 按注解声明的字段从当前请求复制原始信息，生成不可变的{@link RequestSnapshot}
+ * 会话ID只在会话已存在时读取，不会为无状态接口创建会话
+ *
+ * @author zzx
+ */
+@Component
+public class RequestContextCapturer {
+    
+    private static final String HEADER_USER_AGENT = "User-Agent";
+    private static final String HEADER_AUTHORIZATION = "Authorization";
+    private static final String HEADER_X_FORWARDED_FOR = "x-forwarded-for";
+    
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    /**
+     * 采集配置缓存
+     * key: 被拦截的方法, value: 采集字段位掩码
+     */
+    private final Map<Method, Integer> profileCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 按方法上注解声明的字段采集当前请求
+     *
+     * @param method 被拦截的方法
+     * @param annotation 方法上的日志注解
+     * @param fieldsResolver 从注解中读取采集字段，仅在首次访问该方法时调用
+     * @param <A> 注解类型
+     * @return 请求快照，不在请求上下文中时返回null
+     */
+    public <A extends Annotation> RequestSnapshot capture(Method method, A annotation,
+                                                          Function<A, CaptureField[]> fieldsResolver) {
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return null;
+        }
+        
+        Integer mask = profileCache.get(method);
+        if (mask == null) {
+            mask = applyGlobalSwitches(CaptureField.maskOf(fieldsResolver.apply(annotation)));
+            profileCache.put(method, mask);
+        }
+        return capture(request, mask);
+    }
+    
+    /**
+     * 按位掩码采集当前请求
+     *
+     * @param mask 采集字段位掩码
+     * @return 请求快照，不在请求上下文中或无需采集时返回null
+     */
+    public RequestSnapshot capture(int mask) {
+        if (mask == 0) {
+            return null;
+        }
+        HttpServletRequest request = currentRequest();
+        return request != null ? capture(request, applyGlobalSwitches(mask)) : null;
+    }
+    
+    /**
+     * 按位掩码采集指定请求
+     *
+     * @param request HTTP请求
+     * @param mask 采集字段位掩码
+     * @return 请求快照
+     */
+    public RequestSnapshot capture(HttpServletRequest request, int mask) {
+        RequestSnapshot.RequestSnapshotBuilder builder = RequestSnapshot.builder().fields(mask);
+        
+        if ((mask & CaptureField.CLIENT_IP.mask()) != 0) {
+            String remoteAddr = request.getRemoteAddr();
+            builder.remoteAddr(remoteAddr);
+            // 转发头只在直连地址为可信代理时才有意义
+            if (clientIpResolver.isTrustedProxy(remoteAddr)) {
+                String forwardedFor = request.getHeader(HEADER_X_FORWARDED_FOR);
+                builder.forwardedFor(forwardedFor);
+                if (forwardedFor == null || forwardedFor.isEmpty()) {
+                    builder.forwardedFallback(ClientIpResolver.firstFallbackHeader(request));
+                }
+            }
+        }
+        if ((mask & CaptureField.USER_AGENT.mask()) != 0) {
+            builder.userAgent(request.getHeader(HEADER_USER_AGENT));
+        }
+        if ((mask & CaptureField.REQUEST_URI.mask()) != 0) {
+            builder.requestUri(request.getRequestURI());
+        }
+        if ((mask & CaptureField.REQUEST_METHOD.mask()) != 0) {
+            builder.requestMethod(request.getMethod());
+        }
+        if ((mask & CaptureField.SESSION_ID.mask()) != 0) {
+            HttpSession session = request.getSession(false);
+            builder.sessionId(session != null ? session.getId() : null);
+        }
+        if ((mask & CaptureField.AUTHORIZATION.mask()) != 0) {
+            builder.authorization(request.getHeader(HEADER_AUTHORIZATION));
+        }
+        
+        return builder.build();
+    }
+    
+    /**
+     * 应用全局记录开关
+     */
+    private int applyGlobalSwitches(int mask) {
+        if (!logProperties.getRecord().isRecordUserAgent()) {
+            mask &= ~CaptureField.USER_AGENT.mask();
+        }
+        return mask;
+    }
+    
+    /**
+     * 获取当前HTTP请求
+     */
+    private HttpServletRequest currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.diit.common.log.context;
+
+import lombok.Builder;
+import lombok.ToString;
+import lombok.Value;
+
+/**
+ * 请求快照
+ * 在请求线程上复制所需的原始请求信息，不持有HttpServletRequest引用，
+ * 不可变，可以安全地交给异步线程做后续解析
+ * 
+ * @author zzx
+ */
+@Value
+@Builder
+public class RequestSnapshot {
+    
+    /** 已采集字段的位掩码 */
+    int fields;
+    
+    /** 直连地址 */
+    String remoteAddr;
+    
+    /** X-Forwarded-For请求头 */
+    String forwardedFor;
+    
+    /** 兼容转发头（X-Real-IP等）中第一个有效值 */
+    String forwardedFallback;
+    
+    /** User-Agent请求头 */
+    String userAgent;
+    
+    /** 请求URI */
+    String requestUri;
+    
+    /** 请求方法 */
+    String requestMethod;
+    
+    /** 会话ID */
+    String sessionId;
+    
+    /** Authorization请求头 */
+    @ToString.Exclude
+    String authorization;
+    
+    /**
+     * 是否采集了指定字段
+     */
+    public boolean has(CaptureField field) {
+        return (fields & field.mask()) != 0;
+    }
+}
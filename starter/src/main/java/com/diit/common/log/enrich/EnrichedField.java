@@ -0,0 +1,53 @@
+package com.diit.common.log.enrich;
+
+/**
+ * 增强字段
+ * 增强器产出的字段，按属性名写入日志实体中同名的String属性
+ * 
+ * @author zzx
+ */
+public enum EnrichedField {
+    
+    /** 客户端IP */
+    CLIENT_IP("clientIp"),
+    
+    /** IP地理位置 */
+    IP_LOCATION("ipLocation"),
+    
+    /** 用户代理 */
+    USER_AGENT("userAgent"),
+    
+    /** 浏览器 */
+    BROWSER("browser"),
+    
+    /** 操作系统 */
+    OPERATING_SYSTEM("operatingSystem"),
+    
+    /** 设备类型 */
+    DEVICE_TYPE("deviceType"),
+    
+    /** 请求URI */
+    REQUEST_URI("requestUri"),
+    
+    /** 请求方法 */
+    REQUEST_METHOD("requestMethod"),
+    
+    /** 会话ID */
+    SESSION_ID("sessionId"),
+    
+    /** 用户名 */
+    USERNAME("username");
+    
+    private final String propertyName;
+    
+    EnrichedField(String propertyName) {
+        this.propertyName = propertyName;
+    }
+    
+    /**
+     * 日志实体中对应的属性名
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+}
@@ -0,0 +1,46 @@
+package com.diit.common.log.enrich;
+
+import com.diit.common.log.context.RequestSnapshot;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 增强上下文
+ * 持有请求快照以及各增强器已产出的字段值，只在单个工作线程内使用
+ * 
+ * @author zzx
+ */
+public class EnrichmentContext {
+    
+    private final RequestSnapshot snapshot;
+    
+    private final Map<EnrichedField, String> values = new EnumMap<>(EnrichedField.class);
+    
+    public EnrichmentContext(RequestSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+    
+    /**
+     * 获取请求快照
+     */
+    public RequestSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * 获取已产出的字段值
+     */
+    public String get(EnrichedField field) {
+        return values.get(field);
+    }
+    
+    /**
+     * 写入字段值，null值忽略
+     */
+    public void put(EnrichedField field, String value) {
+        if (value != null) {
+            values.put(field, value);
+        }
+    }
+}
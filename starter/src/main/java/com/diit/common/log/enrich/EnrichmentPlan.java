@@ -0,0 +1,55 @@
+package com.diit.common.log.enrich;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 增强计划
+ * 针对某一日志实体类型预先计算：需要执行的增强器（已按依赖排序）、各增强器的输入掩码、
+ * 字段写入目标以及需要在请求线程上采集的字段掩码
+ * 
+ * @author zzx
+ */
+public final class EnrichmentPlan {
+    
+    /** 空计划：实体没有任何可增强字段 */
+    public static final EnrichmentPlan EMPTY = new EnrichmentPlan(
+            Collections.emptyList(), new int[0], Collections.emptyMap(), 0);
+    
+    private final List<LogEnricher> enrichers;
+    
+    private final int[] inputMasks;
+    
+    private final Map<EnrichedField, EnrichmentTarget> targets;
+    
+    private final int captureMask;
+    
+    public EnrichmentPlan(List<LogEnricher> enrichers, int[] inputMasks,
+                          Map<EnrichedField, EnrichmentTarget> targets, int captureMask) {
+        this.enrichers = enrichers;
+        this.inputMasks = inputMasks;
+        this.targets = targets;
+        this.captureMask = captureMask;
+    }
+    
+    public List<LogEnricher> getEnrichers() {
+        return enrichers;
+    }
+    
+    public int getInputMask(int index) {
+        return inputMasks[index];
+    }
+    
+    public Map<EnrichedField, EnrichmentTarget> getTargets() {
+        return targets;
+    }
+    
+    public int getCaptureMask() {
+        return captureMask;
+    }
+    
+    public boolean isEmpty() {
+        return enrichers.isEmpty();
+    }
+}
@@ -0,0 +1,84 @@
+package com.diit.common.log.enrich;
+
+import org.springframework.beans.BeanUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * 增强字段写入目标
+ * 通过实体属性的getter/setter读写，方法句柄在生成增强计划时解析一次，
+ * 不需要对私有字段setAccessible
+ *
+ * @author zzx
+ */
+public final class EnrichmentTarget {
+    
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    
+    private final String propertyName;
+    
+    private final MethodHandle getter;
+    
+    private final MethodHandle setter;
+    
+    private EnrichmentTarget(String propertyName, MethodHandle getter, MethodHandle setter) {
+        this.propertyName = propertyName;
+        this.getter = getter;
+        this.setter = setter;
+    }
+    
+    /**
+     * 解析实体类型上可读写的String属性
+     *
+     * @param entityClass  日志实体类型
+     * @param propertyName 属性名
+     * @return 写入目标，属性不存在、不是String、缺少getter/setter或不可访问时返回null
+     */
+    public static EnrichmentTarget of(Class<?> entityClass, String propertyName) {
+        PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(entityClass, propertyName);
+        if (descriptor == null || descriptor.getPropertyType() != String.class
+                || descriptor.getReadMethod() == null || descriptor.getWriteMethod() == null) {
+            return null;
+        }
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            // 统一为(Object)Object和(Object,Object)void，调用时可以用invokeExact
+            MethodHandle getter = lookup.unreflect(descriptor.getReadMethod()).asType(GETTER_TYPE);
+            MethodHandle setter = lookup.unreflect(descriptor.getWriteMethod()).asType(SETTER_TYPE);
+            return new EnrichmentTarget(propertyName, getter, setter);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+    
+    public String getPropertyName() {
+        return propertyName;
+    }
+    
+    /**
+     * 属性为null时写入值
+     *
+     * @param entity 日志实体
+     * @param value  增强值
+     * @return 是否写入
+     */
+    public boolean writeIfAbsent(Object entity, String value) {
+        try {
+            Object current = (Object) getter.invokeExact(entity);
+            if (current != null) {
+                return false;
+            }
+            setter.invokeExact(entity, (Object) value);
+            return true;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException("写入增强字段失败: " + propertyName, e);
+        }
+    }
+}
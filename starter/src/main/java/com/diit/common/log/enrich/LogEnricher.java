@@ -0,0 +1,49 @@
+package com.diit.common.log.enrich;
+
+import com.diit.common.log.context.CaptureField;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 日志增强器
+ * 在流水线工作线程上基于请求快照计算派生字段（IP、User-Agent解析、用户名等）
+ * 增强器声明输入和产出字段，日志实体不需要的产出字段对应的增强器会被跳过
+ * 
+ * 注册为Spring Bean即可生效，执行顺序由{@link #dependsOn()}决定
+ * 
+ * @author zzx
+ */
+public interface LogEnricher {
+    
+    /**
+     * 读取的请求快照字段
+     * 快照中一个都没有采集时跳过该增强器
+     * 
+     * @return 输入字段
+     */
+    Set<CaptureField> inputs();
+    
+    /**
+     * 依赖的其他增强器产出字段
+     * 
+     * @return 依赖字段
+     */
+    default Set<EnrichedField> dependsOn() {
+        return Collections.emptySet();
+    }
+    
+    /**
+     * 产出的字段
+     * 
+     * @return 产出字段
+     */
+    Set<EnrichedField> produces();
+    
+    /**
+     * 执行增强
+     * 
+     * @param context 增强上下文
+     */
+    void enrich(EnrichmentContext context);
+}
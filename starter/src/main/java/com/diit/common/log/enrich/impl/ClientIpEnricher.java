@@ -0,0 +1,46 @@
+package com.diit.common.log.enrich.impl;
+
+import com.diit.common.log.context.CaptureField;
+import com.diit.common.log.context.RequestSnapshot;
+import com.diit.common.log.enrich.EnrichedField;
+import com.diit.common.log.enrich.EnrichmentContext;
+import com.diit.common.log.enrich.LogEnricher;
+import com.diit.common.log.utils.ClientIpResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 客户端IP增强器
+ * 根据快照中的直连地址和转发头解析客户端IP
+ * 
+ * @author zzx
+ */
+@Component
+public class ClientIpEnricher implements LogEnricher {
+    
+    private static final Set<CaptureField> INPUTS = EnumSet.of(CaptureField.CLIENT_IP);
+    private static final Set<EnrichedField> PRODUCES = EnumSet.of(EnrichedField.CLIENT_IP);
+    
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+    
+    @Override
+    public Set<CaptureField> inputs() {
+        return INPUTS;
+    }
+    
+    @Override
+    public Set<EnrichedField> produces() {
+        return PRODUCES;
+    }
+    
+    @Override
+    public void enrich(EnrichmentContext context) {
+        RequestSnapshot snapshot = context.getSnapshot();
+        context.put(EnrichedField.CLIENT_IP, clientIpResolver.resolve(
+                snapshot.getRemoteAddr(), snapshot.getForwardedFor(), snapshot.getForwardedFallback()));
+    }
+}
@@ -0,0 +1,53 @@
+package com.diit.common.log.enrich.impl;
+
+import com.diit.common.log.context.CaptureField;
+import com.diit.common.log.enrich.EnrichedField;
+import com.diit.common.log.enrich.EnrichmentContext;
+import com.diit.common.log.enrich.LogEnricher;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.utils.LogWebUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * IP地理位置增强器
+ * 依赖{@link ClientIpEnricher}产出的客户端IP
+ * 
+ * @author zzx
+ */
+@Component
+public class IpLocationEnricher implements LogEnricher {
+    
+    private static final Set<CaptureField> INPUTS = EnumSet.of(CaptureField.CLIENT_IP);
+    private static final Set<EnrichedField> DEPENDS_ON = EnumSet.of(EnrichedField.CLIENT_IP);
+    private static final Set<EnrichedField> PRODUCES = EnumSet.of(EnrichedField.IP_LOCATION);
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    @Override
+    public Set<CaptureField> inputs() {
+        return INPUTS;
+    }
+    
+    @Override
+    public Set<EnrichedField> dependsOn() {
+        return DEPENDS_ON;
+    }
+    
+    @Override
+    public Set<EnrichedField> produces() {
+        return PRODUCES;
+    }
+    
+    @Override
+    public void enrich(EnrichmentContext context) {
+        if (!logProperties.getRecord().isRecordIpLocation()) {
+            return;
+        }
+        context.put(EnrichedField.IP_LOCATION, LogWebUtils.getIpLocation(context.get(EnrichedField.CLIENT_IP)));
+    }
+}
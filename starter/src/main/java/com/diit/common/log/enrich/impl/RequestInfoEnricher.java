@@ -0,0 +1,44 @@
+package com.diit.common.log.enrich.impl;
+
+import com.diit.common.log.context.CaptureField;
+import com.diit.common.log.context.RequestSnapshot;
+import com.diit.common.log.enrich.EnrichedField;
+import com.diit.common.log.enrich.EnrichmentContext;
+import com.diit.common.log.enrich.LogEnricher;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 请求信息增强器
+ * 将快照中的URI、请求方法和会话ID写入日志实体
+ * 
+ * @author zzx
+ */
+@Component
+public class RequestInfoEnricher implements LogEnricher {
+    
+    private static final Set<CaptureField> INPUTS = EnumSet.of(
+            CaptureField.REQUEST_URI, CaptureField.REQUEST_METHOD, CaptureField.SESSION_ID);
+    private static final Set<EnrichedField> PRODUCES = EnumSet.of(
+            EnrichedField.REQUEST_URI, EnrichedField.REQUEST_METHOD, EnrichedField.SESSION_ID);
+    
+    @Override
+    public Set<CaptureField> inputs() {
+        return INPUTS;
+    }
+    
+    @Override
+    public Set<EnrichedField> produces() {
+        return PRODUCES;
+    }
+    
+    @Override
+    public void enrich(EnrichmentContext context) {
+        RequestSnapshot snapshot = context.getSnapshot();
+        context.put(EnrichedField.REQUEST_URI, snapshot.getRequestUri());
+        context.put(EnrichedField.REQUEST_METHOD, snapshot.getRequestMethod());
+        context.put(EnrichedField.SESSION_ID, snapshot.getSessionId());
+    }
+}
@@ -0,0 +1,63 @@
+package com.diit.common.log.enrich.impl;
+
+import com.diit.common.log.context.CaptureField;
+import com.diit.common.log.enrich.EnrichedField;
+import com.diit.common.log.enrich.EnrichmentContext;
+import com.diit.common.log.enrich.LogEnricher;
+import eu.bitwalker.useragentutils.UserAgent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * User-Agent增强器
+ * 只解析一次User-Agent，同时产出浏览器、操作系统和设备类型
+ * 
+ * @author zzx
+ */
+@Slf4j
+@Component
+public class UserAgentEnricher implements LogEnricher {
+    
+    private static final String UNKNOWN = "未知";
+    
+    private static final Set<CaptureField> INPUTS = EnumSet.of(CaptureField.USER_AGENT);
+    private static final Set<EnrichedField> PRODUCES = EnumSet.of(EnrichedField.USER_AGENT,
+            EnrichedField.BROWSER, EnrichedField.OPERATING_SYSTEM, EnrichedField.DEVICE_TYPE);
+    
+    @Override
+    public Set<CaptureField> inputs() {
+        return INPUTS;
+    }
+    
+    @Override
+    public Set<EnrichedField> produces() {
+        return PRODUCES;
+    }
+    
+    @Override
+    public void enrich(EnrichmentContext context) {
+        String userAgentString = context.getSnapshot().getUserAgent();
+        context.put(EnrichedField.USER_AGENT, userAgentString);
+        
+        String browser = UNKNOWN;
+        String operatingSystem = UNKNOWN;
+        String deviceType = UNKNOWN;
+        if (userAgentString != null && !userAgentString.isEmpty()) {
+            try {
+                UserAgent userAgent = UserAgent.parseUserAgentString(userAgentString);
+                browser = userAgent.getBrowser().getName();
+                operatingSystem = userAgent.getOperatingSystem().getName();
+                deviceType = userAgent.getOperatingSystem().getDeviceType().getName();
+            } catch (Exception e) {
+                log.warn("解析User-Agent失败: {}", e.getMessage());
+            }
+        }
+        
+        context.put(EnrichedField.BROWSER, browser);
+        context.put(EnrichedField.OPERATING_SYSTEM, operatingSystem);
+        context.put(EnrichedField.DEVICE_TYPE, deviceType);
+    }
+}
@@ -0,0 +1,43 @@
+package com.diit.common.log.enrich.impl;
+
+import com.diit.common.log.context.CaptureField;
+import com.diit.common.log.enrich.EnrichedField;
+import com.diit.common.log.enrich.EnrichmentContext;
+import com.diit.common.log.enrich.LogEnricher;
+import com.diit.common.log.utils.JwtUsernameResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 用户名增强器
+ * 从Authorization请求头中解析用户名，验签结果按Token缓存
+ * 
+ * @author zzx
+ */
+@Component
+public class UsernameEnricher implements LogEnricher {
+    
+    private static final Set<CaptureField> INPUTS = EnumSet.of(CaptureField.AUTHORIZATION);
+    private static final Set<EnrichedField> PRODUCES = EnumSet.of(EnrichedField.USERNAME);
+    
+    @Autowired
+    private JwtUsernameResolver jwtUsernameResolver;
+    
+    @Override
+    public Set<CaptureField> inputs() {
+        return INPUTS;
+    }
+    
+    @Override
+    public Set<EnrichedField> produces() {
+        return PRODUCES;
+    }
+    
+    @Override
+    public void enrich(EnrichmentContext context) {
+        context.put(EnrichedField.USERNAME, jwtUsernameResolver.resolve(context.getSnapshot().getAuthorization()));
+    }
+}
@@ -1,5 +1,6 @@
 package com.diit.common.log.entity;
 
+import com.diit.common.log.annotation.LogEntity;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -10,6 +11,7 @@ import lombok.EqualsAndHashCode;
  * @author zzx
  */
 @Data
+@LogEntity
 @EqualsAndHashCode(callSuper = true)
 public class DefaultLogEntity extends BaseLogEntity {
     
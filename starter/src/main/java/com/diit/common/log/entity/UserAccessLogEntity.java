@@ -1,25 +1,29 @@
 package com.diit.common.log.entity;
 
+import com.diit.common.log.annotation.LogEntity;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
 /**
  * 用户访问日志实体
+ * 主键ID、时间戳、日志内容和级别继承自{@link BaseLogEntity}，与@GenericLog实体走同一条发送链路
  * 
  * @author zzx
  */
 @Data
+@LogEntity
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class UserAccessLogEntity {
-    
-    /** 主键ID */
-    private String id;
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+public class UserAccessLogEntity extends BaseLogEntity {
     
     /** 用户名 */
     private String username;
@@ -1,12 +1,12 @@
 package com.diit.common.log.factory;
 
 import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.metadata.LogEntityMetadataRegistry;
 import com.diit.common.log.utils.LogContextUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import jakarta.servlet.http.HttpServletRequest;
-import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -31,10 +31,8 @@ public class LogEntityFactory {
      */
     public <T extends BaseLogEntity> T createLogEntity(Class<T> entityClass, String description) {
         try {
-            // 使用无参构造器创建实例
-            Constructor<T> constructor = entityClass.getDeclaredConstructor();
-            constructor.setAccessible(true);
-            T logEntity = constructor.newInstance();
+            // 使用无参构造器创建实例，标注@LogEntity的实体由生成代码直接构造
+            T logEntity = LogEntityMetadataRegistry.get(entityClass).newInstance();
             
             // 填充基础字段
             fillBaseFields(logEntity, description);
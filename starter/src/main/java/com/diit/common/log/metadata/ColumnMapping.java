@@ -0,0 +1,94 @@
+package com.diit.common.log.metadata;
+
+/**
+ * 实体字段到数据库列的映射规则
+ * 注解处理器生成列名时使用相同的转换规则
+ *
+ * @author zzx
+ */
+public final class ColumnMapping {
+    
+    private ColumnMapping() {
+    }
+    
+    /**
+     * 将字段名转换为数据库列名（驼峰命名转下划线命名）
+     */
+    public static String columnName(String fieldName) {
+        return fieldName.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+    }
+    
+    /**
+     * 根据Java类型获取PostgreSQL数据库列类型
+     */
+    public static String columnType(Class<?> javaType) {
+        if (javaType == String.class) {
+            return "VARCHAR(500)";
+        } else if (javaType == Integer.class || javaType == int.class) {
+            return "INTEGER";
+        } else if (javaType == Long.class || javaType == long.class) {
+            return "BIGINT";
+        } else if (javaType == Boolean.class || javaType == boolean.class) {
+            return "BOOLEAN";
+        } else if (javaType == java.time.LocalDateTime.class) {
+            return "TIMESTAMP";
+        } else if (javaType == java.time.LocalDate.class) {
+            return "DATE";
+        } else if (javaType == java.time.LocalTime.class) {
+            return "TIME";
+        } else if (javaType == Double.class || javaType == double.class) {
+            return "DOUBLE PRECISION";
+        } else if (javaType == Float.class || javaType == float.class) {
+            return "REAL";
+        } else if (javaType == java.math.BigDecimal.class) {
+            return "NUMERIC(19,2)";
+        } else if (javaType == java.util.Date.class) {
+            return "TIMESTAMP";
+        } else if (javaType == java.sql.Timestamp.class) {
+            return "TIMESTAMP";
+        } else if (javaType == java.sql.Date.class) {
+            return "DATE";
+        } else if (javaType == java.sql.Time.class) {
+            return "TIME";
+        } else if (javaType == byte[].class) {
+            return "BYTEA";
+        } else if (javaType.isEnum()) {
+            return "VARCHAR(100)";
+        } else {
+            // 其他类型使用TEXT存储
+            return "TEXT";
+        }
+    }
+    
+    /**
+     * 根据Java类型获取JDBC参数类型（java.sql.Types），与{@link #columnType(Class)}对应
+     * 绑定null时不必再查询参数元数据
+     */
+    public static int sqlType(Class<?> javaType) {
+        if (javaType == Integer.class || javaType == int.class) {
+            return java.sql.Types.INTEGER;
+        } else if (javaType == Long.class || javaType == long.class) {
+            return java.sql.Types.BIGINT;
+        } else if (javaType == Boolean.class || javaType == boolean.class) {
+            return java.sql.Types.BOOLEAN;
+        } else if (javaType == java.time.LocalDateTime.class || javaType == java.util.Date.class
+                || javaType == java.sql.Timestamp.class) {
+            return java.sql.Types.TIMESTAMP;
+        } else if (javaType == java.time.LocalDate.class || javaType == java.sql.Date.class) {
+            return java.sql.Types.DATE;
+        } else if (javaType == java.time.LocalTime.class || javaType == java.sql.Time.class) {
+            return java.sql.Types.TIME;
+        } else if (javaType == Double.class || javaType == double.class) {
+            return java.sql.Types.DOUBLE;
+        } else if (javaType == Float.class || javaType == float.class) {
+            return java.sql.Types.REAL;
+        } else if (javaType == java.math.BigDecimal.class) {
+            return java.sql.Types.NUMERIC;
+        } else if (javaType == byte[].class) {
+            return java.sql.Types.BINARY;
+        } else {
+            // 字符串、枚举（已转为名称）和其他TEXT列
+            return java.sql.Types.VARCHAR;
+        }
+    }
+}
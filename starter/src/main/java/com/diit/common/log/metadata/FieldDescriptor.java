@@ -0,0 +1,50 @@
+package com.diit.common.log.metadata;
+
+/**
+ * 日志实体自定义字段描述
+ * 不包含BaseLogEntity中的基础字段，顺序即插入参数和JSON输出的顺序
+ *
+ * @author zzx
+ */
+public final class FieldDescriptor {
+    
+    /** 字段名 */
+    private final String name;
+    
+    /** 数据库列名 */
+    private final String columnName;
+    
+    /** 字段类型（已擦除泛型） */
+    private final Class<?> javaType;
+    
+    /** 数据库列类型 */
+    private final String columnType;
+    
+    public FieldDescriptor(String name, String columnName, Class<?> javaType) {
+        this.name = name;
+        this.columnName = columnName;
+        this.javaType = javaType;
+        this.columnType = ColumnMapping.columnType(javaType);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getColumnName() {
+        return columnName;
+    }
+    
+    public Class<?> getJavaType() {
+        return javaType;
+    }
+    
+    public String getColumnType() {
+        return columnType;
+    }
+    
+    @Override
+    public String toString() {
+        return name + "(" + columnName + " " + columnType + ")";
+    }
+}
@@ -0,0 +1,104 @@
+package com.diit.common.log.metadata;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 带JSON写出器的生成元数据基类
+ * 基础字段由本类写出，生成的子类只负责实体声明的字段，字段名均为预编码的SerializedString
+ *
+ * @author zzx
+ */
+public abstract class GeneratedJsonLogEntityMetadata<T extends BaseLogEntity> extends GeneratedLogEntityMetadata<T>
+        implements LogEntityJsonWriter<T> {
+    
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TIMESTAMP = new SerializedString("timestamp");
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString LEVEL = new SerializedString("level");
+    
+    private final Optional<LogEntityJsonWriter<T>> jsonWriter = Optional.of(this);
+    
+    protected GeneratedJsonLogEntityMetadata(Class<T> entityType, List<FieldDescriptor> fields) {
+        super(entityType, fields);
+    }
+    
+    @Override
+    public Optional<LogEntityJsonWriter<T>> getJsonWriter() {
+        return jsonWriter;
+    }
+    
+    @Override
+    public void writeJson(T entity, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(entity);
+        generator.writeFieldName(ID);
+        generator.writeString(entity.getId());
+        generator.writeFieldName(TIMESTAMP);
+        provider.defaultSerializeValue(entity.getTimestamp(), generator);
+        generator.writeFieldName(CONTENT);
+        generator.writeString(entity.getContent());
+        generator.writeFieldName(LEVEL);
+        provider.defaultSerializeValue(entity.getLevel(), generator);
+        writeFields(entity, generator, provider);
+        generator.writeEndObject();
+    }
+    
+    /**
+     * 写出实体声明的字段，由注解处理器生成
+     */
+    protected abstract void writeFields(T entity, JsonGenerator generator, SerializerProvider provider) throws IOException;
+    
+    protected static void writeNumber(JsonGenerator generator, Integer value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.intValue());
+        }
+    }
+    
+    protected static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+    
+    protected static void writeNumber(JsonGenerator generator, Short value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.shortValue());
+        }
+    }
+    
+    protected static void writeNumber(JsonGenerator generator, Double value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.doubleValue());
+        }
+    }
+    
+    protected static void writeNumber(JsonGenerator generator, Float value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.floatValue());
+        }
+    }
+    
+    protected static void writeBoolean(JsonGenerator generator, Boolean value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeBoolean(value);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.diit.common.log.metadata;
+
+import com.diit.common.log.entity.BaseLogEntity;
+
+import java.lang.reflect.Constructor;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 注解处理器生成的元数据基类
+ * 生成的子类提供字段描述和参数绑定；需要JSON写出器时继承{@link GeneratedJsonLogEntityMetadata}
+ *
+ * @author zzx
+ */
+public abstract class GeneratedLogEntityMetadata<T extends BaseLogEntity> implements LogEntityMetadata<T> {
+    
+    private final Class<T> entityType;
+    
+    private final List<FieldDescriptor> fields;
+    
+    /**
+     * 实体没有可直接调用的无参构造器时使用
+     */
+    private volatile Constructor<T> constructor;
+    
+    protected GeneratedLogEntityMetadata(Class<T> entityType, List<FieldDescriptor> fields) {
+        this.entityType = entityType;
+        this.fields = fields;
+    }
+    
+    @Override
+    public Class<T> getEntityType() {
+        return entityType;
+    }
+    
+    @Override
+    public List<FieldDescriptor> getFields() {
+        return fields;
+    }
+    
+    @Override
+    public boolean isGenerated() {
+        return true;
+    }
+    
+    /**
+     * 实体有可访问的无参构造器时由生成类覆盖为直接调用
+     */
+    @Override
+    public T newInstance() {
+        try {
+            Constructor<T> ctor = constructor;
+            if (ctor == null) {
+                ctor = entityType.getDeclaredConstructor();
+                ctor.setAccessible(true);
+                constructor = ctor;
+            }
+            return ctor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Failed to instantiate log entity: " + entityType.getName(), e);
+        }
+    }
+    
+    /**
+     * 输出结构依赖Jackson注解时不生成写出器，由{@link GeneratedJsonLogEntityMetadata}的子类提供
+     */
+    @Override
+    public Optional<LogEntityJsonWriter<T>> getJsonWriter() {
+        return Optional.empty();
+    }
+    
+    protected static String enumName(Enum<?> value) {
+        return value != null ? value.name() : null;
+    }
+}
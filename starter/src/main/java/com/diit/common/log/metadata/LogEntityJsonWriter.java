@@ -0,0 +1,25 @@
+package com.diit.common.log.metadata;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.io.IOException;
+
+/**
+ * 日志实体的JSON写出器
+ * 由注解处理器为输出结构可在编译期确定的实体生成，通过{@link LogEntityMetadata#getJsonWriter()}获取
+ *
+ * @author zzx
+ */
+public interface LogEntityJsonWriter<T extends BaseLogEntity> {
+    
+    /**
+     * 将实体写为一个JSON对象，字段顺序与Jackson默认输出一致
+     *
+     * @param entity    日志实体
+     * @param generator JSON生成器
+     * @param provider  序列化上下文，用于非基础类型的字段值
+     */
+    void writeJson(T entity, JsonGenerator generator, SerializerProvider provider) throws IOException;
+}
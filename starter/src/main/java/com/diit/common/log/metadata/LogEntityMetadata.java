@@ -0,0 +1,50 @@
+package com.diit.common.log.metadata;
+
+import com.diit.common.log.entity.BaseLogEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 日志实体元数据
+ * 描述实体在BaseLogEntity之外声明的字段，供各发送器建表、插入和序列化使用
+ *
+ * @author zzx
+ */
+public interface LogEntityMetadata<T extends BaseLogEntity> {
+    
+    /**
+     * 实体类型
+     */
+    Class<T> getEntityType();
+    
+    /**
+     * 自定义字段描述（不含id、timestamp、content、level），按父类到子类、声明顺序排列
+     */
+    List<FieldDescriptor> getFields();
+    
+    /**
+     * 是否由注解处理器在编译期生成
+     */
+    boolean isGenerated();
+    
+    /**
+     * 创建实体实例，生成的元数据直接调用无参构造器
+     */
+    T newInstance();
+    
+    /**
+     * 将自定义字段值按{@link #getFields()}的顺序写入JDBC参数数组，枚举写入其名称
+     *
+     * @param entity 日志实体
+     * @param params 参数数组
+     * @param offset 第一个自定义字段的下标
+     */
+    void bindParameters(T entity, Object[] params, int offset);
+    
+    /**
+     * JSON写出器
+     * 实体带有Jackson注解等无法在编译期确定输出结构，或元数据不是生成的时为空，由Jackson按常规方式序列化
+     */
+    Optional<LogEntityJsonWriter<T>> getJsonWriter();
+}
@@ -0,0 +1,85 @@
+package com.diit.common.log.metadata;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.Serializers;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+
+/**
+ * 将编译期生成的JSON写出器注册到Jackson
+ * 只在输出结果与Jackson默认Bean序列化一致时接管（默认包含null、无MixIn、无命名策略、不按字母排序），
+ * 其余情况仍交给Jackson处理
+ *
+ * @author zzx
+ */
+public class LogEntityMetadataModule extends Module {
+    
+    @Override
+    public String getModuleName() {
+        return "LogEntityMetadataModule";
+    }
+    
+    @Override
+    public Version version() {
+        return Version.unknownVersion();
+    }
+    
+    @Override
+    public void setupModule(SetupContext context) {
+        context.addSerializers(new Serializers.Base() {
+            @Override
+            public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc) {
+                Class<?> rawClass = type.getRawClass();
+                if (!BaseLogEntity.class.isAssignableFrom(rawClass) || Modifier.isAbstract(rawClass.getModifiers())
+                        || !isDefaultBeanOutput(config, rawClass)) {
+                    return null;
+                }
+                @SuppressWarnings("unchecked")
+                LogEntityMetadata<BaseLogEntity> metadata =
+                        LogEntityMetadataRegistry.get((Class<BaseLogEntity>) rawClass);
+                return metadata.getJsonWriter()
+                        .map(writer -> new GeneratedWriterSerializer(metadata.getEntityType(), writer))
+                        .orElse(null);
+            }
+        });
+    }
+    
+    private static boolean isDefaultBeanOutput(SerializationConfig config, Class<?> rawClass) {
+        JsonInclude.Include inclusion = config.getDefaultPropertyInclusion().getValueInclusion();
+        return (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS)
+                && config.getPropertyNamingStrategy() == null
+                && !config.isEnabled(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                && config.findMixInClassFor(rawClass) == null
+                && config.findMixInClassFor(BaseLogEntity.class) == null;
+    }
+    
+    /**
+     * 委托给生成的JSON写出器写出实体
+     */
+    private static final class GeneratedWriterSerializer extends StdSerializer<BaseLogEntity> {
+        
+        private final LogEntityJsonWriter<BaseLogEntity> writer;
+        
+        GeneratedWriterSerializer(Class<BaseLogEntity> entityType, LogEntityJsonWriter<BaseLogEntity> writer) {
+            super(entityType, false);
+            this.writer = writer;
+        }
+        
+        @Override
+        public void serialize(BaseLogEntity value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            writer.writeJson(value, generator, provider);
+        }
+    }
+}
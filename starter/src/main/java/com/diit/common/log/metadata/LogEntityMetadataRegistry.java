@@ -0,0 +1,78 @@
+package com.diit.common.log.metadata;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 日志实体元数据注册表
+ * 优先加载注解处理器生成的{实体类名}_LogMetadata，不存在时回退为反射解析，结果按实体类型缓存
+ *
+ * @author zzx
+ */
+@Slf4j
+public final class LogEntityMetadataRegistry {
+    
+    /**
+     * 生成类的名称后缀
+     */
+    public static final String METADATA_SUFFIX = "_LogMetadata";
+    
+    /**
+     * 元数据缓存
+     * key: 实体类型, value: 元数据
+     */
+    private static final Map<Class<?>, LogEntityMetadata<?>> CACHE = new ConcurrentHashMap<>();
+    
+    private LogEntityMetadataRegistry() {
+    }
+    
+    /**
+     * 获取实体类型的元数据
+     *
+     * @param entityType 日志实体类型
+     * @return 元数据，不会为null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends BaseLogEntity> LogEntityMetadata<T> get(Class<T> entityType) {
+        LogEntityMetadata<?> metadata = CACHE.get(entityType);
+        if (metadata == null) {
+            metadata = load(entityType);
+            CACHE.put(entityType, metadata);
+        }
+        return (LogEntityMetadata<T>) metadata;
+    }
+    
+    /**
+     * 获取实体对象的元数据
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends BaseLogEntity> LogEntityMetadata<T> of(T entity) {
+        return get((Class<T>) entity.getClass());
+    }
+    
+    /**
+     * 生成的元数据类全名，嵌套类的'$'替换为'_'
+     */
+    public static String metadataClassName(Class<?> entityType) {
+        return entityType.getName().replace('$', '_') + METADATA_SUFFIX;
+    }
+    
+    private static <T extends BaseLogEntity> LogEntityMetadata<T> load(Class<T> entityType) {
+        String className = metadataClassName(entityType);
+        try {
+            Class<?> metadataClass = Class.forName(className, true, entityType.getClassLoader());
+            @SuppressWarnings("unchecked")
+            LogEntityMetadata<T> metadata = (LogEntityMetadata<T>) metadataClass.getDeclaredConstructor().newInstance();
+            log.debug("加载编译期生成的日志实体元数据: {}", className);
+            return metadata;
+        } catch (ClassNotFoundException e) {
+            log.debug("日志实体未生成元数据，使用反射解析: {}", entityType.getName());
+        } catch (Exception | LinkageError e) {
+            log.warn("加载日志实体元数据失败，使用反射解析: {}", className, e);
+        }
+        return new ReflectiveLogEntityMetadata<>(entityType);
+    }
+}
@@ -0,0 +1,107 @@
+package com.diit.common.log.metadata;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 基于反射的元数据
+ * 实体未标注@LogEntity或未启用注解处理器时使用，字段在首次访问时解析一次并缓存，
+ * 字段范围和顺序与生成的元数据一致；不提供JSON写出器
+ *
+ * @author zzx
+ */
+@Slf4j
+public class ReflectiveLogEntityMetadata<T extends BaseLogEntity> implements LogEntityMetadata<T> {
+    
+    private final Class<T> entityType;
+    
+    private final List<FieldDescriptor> fields;
+    
+    private final Field[] accessors;
+    
+    private volatile Constructor<T> constructor;
+    
+    public ReflectiveLogEntityMetadata(Class<T> entityType) {
+        this.entityType = entityType;
+        
+        // 从BaseLogEntity的直接子类开始，依次收集各层声明的实例字段
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> type = entityType; type != null && type != BaseLogEntity.class; type = type.getSuperclass()) {
+            hierarchy.add(0, type);
+        }
+        
+        List<FieldDescriptor> descriptors = new ArrayList<>();
+        List<Field> fieldList = new ArrayList<>();
+        for (Class<?> type : hierarchy) {
+            for (Field field : type.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()) {
+                    continue;
+                }
+                field.setAccessible(true);
+                fieldList.add(field);
+                descriptors.add(new FieldDescriptor(field.getName(),
+                        ColumnMapping.columnName(field.getName()), field.getType()));
+            }
+        }
+        this.fields = Collections.unmodifiableList(descriptors);
+        this.accessors = fieldList.toArray(new Field[0]);
+    }
+    
+    @Override
+    public Class<T> getEntityType() {
+        return entityType;
+    }
+    
+    @Override
+    public List<FieldDescriptor> getFields() {
+        return fields;
+    }
+    
+    @Override
+    public boolean isGenerated() {
+        return false;
+    }
+    
+    @Override
+    public T newInstance() {
+        try {
+            Constructor<T> ctor = constructor;
+            if (ctor == null) {
+                ctor = entityType.getDeclaredConstructor();
+                ctor.setAccessible(true);
+                constructor = ctor;
+            }
+            return ctor.newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Failed to instantiate log entity: " + entityType.getName(), e);
+        }
+    }
+    
+    @Override
+    public void bindParameters(T entity, Object[] params, int offset) {
+        for (int i = 0; i < accessors.length; i++) {
+            Object value;
+            try {
+                value = accessors[i].get(entity);
+            } catch (IllegalAccessException e) {
+                log.warn("无法访问字段 {}: {}", accessors[i].getName(), e.getMessage());
+                value = null;
+            }
+            params[offset + i] = value instanceof Enum<?> ? ((Enum<?>) value).name() : value;
+        }
+    }
+    
+    @Override
+    public Optional<LogEntityJsonWriter<T>> getJsonWriter() {
+        return Optional.empty();
+    }
+}
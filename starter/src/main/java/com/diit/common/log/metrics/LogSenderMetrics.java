@@ -0,0 +1,143 @@
+package com.diit.common.log.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 发送器指标
+ * 按发送器类型统计发送成功、失败条数、消息字节数和批量耗时，替代逐条的控制台日志；
+ * 容器中存在MeterRegistry时同时注册为Micrometer指标（diit.log.sender.*，标签sender）
+ *
+ * @author zzx
+ */
+@Slf4j
+@Component
+public class LogSenderMetrics {
+    
+    private static final String PREFIX = "diit.log.sender.";
+    
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+    
+    private MeterRegistry meterRegistry;
+    
+    /**
+     * 指标缓存
+     * key: 发送器类型, value: 该类型的指标
+     */
+    private final Map<String, SenderMeters> meters = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        meterRegistry = meterRegistryProvider.getIfAvailable();
+        log.info("发送器指标初始化完成，Micrometer: {}", meterRegistry != null ? "已启用" : "未启用");
+    }
+    
+    /**
+     * 记录发送成功
+     *
+     * @param senderType 发送器类型
+     * @param count      日志条数
+     * @param bytes      消息字节数
+     */
+    public void recordSuccess(String senderType, int count, long bytes) {
+        SenderMeters m = metersFor(senderType);
+        m.success.add(count);
+        m.bytes.add(bytes);
+        if (m.successCounter != null) {
+            m.successCounter.increment(count);
+            m.bytesCounter.increment(bytes);
+        }
+    }
+    
+    /**
+     * 记录发送失败
+     */
+    public void recordFailure(String senderType, int count) {
+        SenderMeters m = metersFor(senderType);
+        m.failure.add(count);
+        if (m.failureCounter != null) {
+            m.failureCounter.increment(count);
+        }
+    }
+    
+    /**
+     * 记录一次批量发送的条数和耗时（从提交到全部确认）
+     */
+    public void recordBatch(String senderType, int size, long elapsedNanos) {
+        SenderMeters m = metersFor(senderType);
+        if (m.batchSize != null) {
+            m.batchSize.record(size);
+            m.batchLatency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    public long getSuccessCount(String senderType) {
+        return metersFor(senderType).success.sum();
+    }
+    
+    public long getFailureCount(String senderType) {
+        return metersFor(senderType).failure.sum();
+    }
+    
+    public long getBytes(String senderType) {
+        return metersFor(senderType).bytes.sum();
+    }
+    
+    private SenderMeters metersFor(String senderType) {
+        SenderMeters m = meters.get(senderType);
+        if (m == null) {
+            m = meters.computeIfAbsent(senderType, type -> new SenderMeters(meterRegistry, type));
+        }
+        return m;
+    }
+    
+    /**
+     * 单个发送器类型的指标
+     */
+    private static final class SenderMeters {
+        
+        final LongAdder success = new LongAdder();
+        final LongAdder failure = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        
+        final Counter successCounter;
+        final Counter failureCounter;
+        final Counter bytesCounter;
+        final DistributionSummary batchSize;
+        final Timer batchLatency;
+        
+        SenderMeters(MeterRegistry registry, String senderType) {
+            if (registry == null) {
+                successCounter = null;
+                failureCounter = null;
+                bytesCounter = null;
+                batchSize = null;
+                batchLatency = null;
+                return;
+            }
+            successCounter = Counter.builder(PREFIX + "sent").tag("sender", senderType)
+                    .description("发送成功的日志条数").register(registry);
+            failureCounter = Counter.builder(PREFIX + "failed").tag("sender", senderType)
+                    .description("发送失败的日志条数").register(registry);
+            bytesCounter = Counter.builder(PREFIX + "bytes").tag("sender", senderType).baseUnit("bytes")
+                    .description("发送成功的消息字节数").register(registry);
+            batchSize = DistributionSummary.builder(PREFIX + "batch.size").tag("sender", senderType)
+                    .description("每批日志条数").register(registry);
+            batchLatency = Timer.builder(PREFIX + "batch.latency").tag("sender", senderType)
+                    .description("批量发送从提交到全部确认的耗时").register(registry);
+        }
+    }
+}
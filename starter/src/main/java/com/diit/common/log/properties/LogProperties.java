@@ -0,0 +1,843 @@
+package com.diit.common.log.properties;
+
+import com.diit.common.log.utils.ClientIpResolver;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 日志配置属性
+ * 
+ * @author zzx
+ */
+@Data
+@ConfigurationProperties(prefix = "diit.log")
+public class LogProperties {
+    
+    /**
+     * 是否启用日志功能
+     */
+    private boolean enabled = true;
+    
+    /**
+     * 日志存储配置
+     */
+    private Storage storage = new Storage();
+    
+    /**
+     * Kafka配置
+     */
+    private Kafka kafka = new Kafka();
+    
+    /**
+     * Elasticsearch配置
+     */
+    private Elasticsearch elasticsearch = new Elasticsearch();
+    
+    /**
+     * 数据库配置
+     */
+    private Database database = new Database();
+    
+    /**
+     * HTTP配置
+     */
+    private Http http = new Http();
+    
+    /**
+     * 日志记录配置
+     */
+    private Record record = new Record();
+    
+    /**
+     * 日志处理流水线配置
+     */
+    private Pipeline pipeline = new Pipeline();
+    
+    /**
+     * JWT用户名解析配置
+     */
+    private Jwt jwt = new Jwt();
+    
+    /**
+     * 日志序列化配置
+     */
+    private Serialization serialization = new Serialization();
+    
+    @Data
+    public static class Storage {
+        /**
+         * 存储类型：kafka, elasticsearch, database, http
+         */
+        private String type = "kafka";
+        
+        /**
+         * 是否异步发送
+         */
+        private boolean async = true;
+        
+        /**
+         * 批量发送大小
+         */
+        private int batchSize = 100;
+        
+        /**
+         * 批量发送间隔（毫秒）
+         */
+        private long batchInterval = 1000;
+    }
+    
+    @Data
+    public static class Kafka {
+        /**
+         * 是否启用Kafka
+         */
+        private boolean enabled = true;
+        
+        /**
+         * 访问日志Topic
+         */
+        private String accessLogTopic = "access-log";
+        
+        /**
+         * 操作日志Topic
+         */
+        private String operationLogTopic = "operation-log";
+        
+        /**
+         * 服务器地址
+         */
+        private String bootstrapServers = "localhost:9092";
+        
+        /**
+         * 生产者配置
+         */
+        private Producer producer = new Producer();
+        
+        @Data
+        public static class Producer {
+            /**
+             * 重试次数
+             */
+            private int retries = 3;
+            
+            /**
+             * 批量大小
+             */
+            private int batchSize = 16384;
+            
+            /**
+             * 延迟时间
+             */
+            private int lingerMs = 1;
+            
+            /**
+             * 缓冲区大小
+             */
+            private int bufferMemory = 33554432;
+            
+            /**
+             * 压缩算法：none, gzip, snappy, lz4, zstd
+             */
+            private String compressionType = "none";
+            
+            /**
+             * 每个连接未确认的最大请求数（大于5时关闭幂等）
+             */
+            private int maxInFlightRequestsPerConnection = 5;
+        }
+        
+        /**
+         * 消息Key配置
+         */
+        private Key key = new Key();
+        
+        /**
+         * 消息Key
+         * 决定日志的分区归属，同一Key的日志在分区内有序
+         */
+        @Data
+        public static class Key {
+            /**
+             * Key策略：id, module, user, session, entity-type, expression, none
+             * Topic按实体类型划分，entity-type在同一Topic内是常量，所有日志写入同一分区
+             */
+            private String strategy = "id";
+            
+            /**
+             * SpEL表达式（strategy为expression时使用），以日志实体为根对象，例如 module + ':' + username
+             */
+            private String expression;
+            
+            /**
+             * 是否预计算分区号（与默认分区器的murmur2算法一致，Key哈希按Key缓存）
+             * 生产者配置了partitioner.class或partitioner.ignore.keys时不生效
+             */
+            private boolean precomputePartition = false;
+            
+            /**
+             * Topic分区数刷新间隔（毫秒）
+             */
+            private long partitionRefreshInterval = 60000;
+        }
+        
+        /**
+         * 生产者池配置
+         */
+        private Pool pool = new Pool();
+        
+        /**
+         * 生产者池
+         * 多个独立的KafkaProducer分摊累加器锁和I/O线程，适用于大量请求线程并发发送的多核节点
+         */
+        @Data
+        public static class Pool {
+            /**
+             * 是否启用生产者池
+             */
+            private boolean enabled = false;
+            
+            /**
+             * 生产者数量（0表示按CPU核数计算：核数/8+1）
+             */
+            private int size = 0;
+            
+            /**
+             * 分配方式：key（同一Key固定到同一生产者，无Key时轮询）, thread（按发送线程）
+             * 日志由少数流水线线程发送，thread只会用到与发送线程数相同的生产者
+             */
+            private String assignment = "key";
+            
+            /**
+             * client.id前缀，实际为 {前缀}-{下标}
+             */
+            private String clientIdPrefix = "diit-log-producer";
+        }
+        
+        /**
+         * 高吞吐模式配置
+         */
+        private Throughput throughput = new Throughput();
+        
+        /**
+         * 高吞吐模式
+         * 启用后覆盖生产者的批量、延迟、压缩配置，逐条发送不再输出控制台日志，改为记录发送器指标
+         */
+        @Data
+        public static class Throughput {
+            /**
+             * 是否启用高吞吐模式
+             */
+            private boolean enabled = false;
+            
+            /**
+             * 批量大小
+             */
+            private int batchSize = 262144;
+            
+            /**
+             * 延迟时间
+             */
+            private int lingerMs = 20;
+            
+            /**
+             * 压缩算法
+             */
+            private String compressionType = "lz4";
+            
+            /**
+             * 每个连接未确认的最大请求数
+             */
+            private int maxInFlightRequestsPerConnection = 5;
+            
+            /**
+             * 批量发送等待全部确认的超时时间（毫秒）
+             */
+            private long sendTimeout = 30000;
+        }
+    }
+    
+    @Data
+    public static class Elasticsearch {
+        /**
+         * 是否启用Elasticsearch
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 服务器地址
+         */
+        private String hosts = "localhost:9200";
+        
+        /**
+         * 索引前缀
+         */
+        private String indexPrefix = "log";
+        
+        /**
+         * 用户名
+         */
+        private String username;
+        
+        /**
+         * 密码
+         */
+        private String password;
+        
+        /**
+         * 连接超时时间
+         */
+        private int connectTimeout = 5000;
+        
+        /**
+         * 读取超时时间
+         */
+        private int readTimeout = 30000;
+        
+        /**
+         * 单个_bulk请求的最大字节数
+         */
+        private int bulkMaxBytes = 5 * 1024 * 1024;
+        
+        /**
+         * 单个_bulk请求的最大文档数
+         */
+        private int bulkMaxDocuments = 1000;
+        
+        /**
+         * 失败文档的最大重试次数（仅重试429和5xx）
+         */
+        private int maxRetries = 3;
+        
+        /**
+         * 重试退避基准时间（毫秒），每次重试翻倍
+         */
+        private long retryBackoff = 200;
+        
+        /**
+         * 节点选择配置
+         */
+        private Nodes nodes = new Nodes();
+        
+        /**
+         * 节点选择
+         * hosts中的每个节点（或嗅探到的集群节点）都参与写入，按进行中请求数或耗时选择，连续失败的节点暂时摘除
+         */
+        @Data
+        public static class Nodes {
+            /**
+             * 选择策略：least-outstanding, ewma, round-robin
+             */
+            private String selector = "least-outstanding";
+            
+            /**
+             * 连续失败多少次后摘除节点
+             */
+            private int failureThreshold = 3;
+            
+            /**
+             * 首次摘除时长（毫秒），再次摘除时翻倍
+             */
+            private long ejectTime = 30000;
+            
+            /**
+             * 最长摘除时长（毫秒）
+             */
+            private long maxEjectTime = 300000;
+            
+            /**
+             * 是否定期嗅探集群节点（节点需可从客户端直接访问）
+             */
+            private boolean sniff = false;
+            
+            /**
+             * 嗅探间隔（毫秒）
+             */
+            private long sniffInterval = 300000;
+        }
+        
+        /**
+         * 索引模板配置
+         */
+        private Template template = new Template();
+        
+        /**
+         * 数据流配置
+         */
+        private DataStream dataStream = new DataStream();
+        
+        /**
+         * 索引模板
+         * 启动时及首次写入新实体类型前，按实体字段类型生成并提交索引模板，避免动态映射
+         */
+        @Data
+        public static class Template {
+            /**
+             * 是否自动创建索引模板
+             */
+            private boolean enabled = true;
+            
+            /**
+             * 模板优先级（需高于Elasticsearch内置logs-*-*模板的100）
+             */
+            private int priority = 200;
+            
+            /**
+             * 主分片数
+             */
+            private int numberOfShards = 1;
+            
+            /**
+             * 副本数
+             */
+            private int numberOfReplicas = 1;
+            
+            /**
+             * 刷新间隔
+             */
+            private String refreshInterval = "5s";
+            
+            /**
+             * 未声明字段的处理方式：false（只保存不索引）, true, strict, runtime
+             */
+            private String dynamic = "false";
+            
+            /**
+             * 索引字段总数上限
+             */
+            private int totalFieldsLimit = 1000;
+            
+            /**
+             * 按全文索引（text）的字符串字段，其余字符串字段为keyword
+             */
+            private String[] textFields = {"content", "description", "exceptionMessage", "beforeData", "afterData",
+                    "errorMessage", "stackTrace", "userAgent"};
+            
+            /**
+             * keyword字段超过该长度时不索引
+             */
+            private int keywordIgnoreAbove = 1024;
+        }
+        
+        /**
+         * 数据流
+         * 启用后日志写入数据流 logs-{实体类型}-{namespace}，由ILM策略按大小或时间滚动
+         */
+        @Data
+        public static class DataStream {
+            /**
+             * 是否写入数据流
+             */
+            private boolean enabled = false;
+            
+            /**
+             * 数据流命名空间
+             */
+            private String namespace = "default";
+            
+            /**
+             * ILM策略名称
+             */
+            private String policyName = "diit-logs";
+            
+            /**
+             * 单个主分片达到该大小时滚动
+             */
+            private String rolloverMaxPrimaryShardSize = "50gb";
+            
+            /**
+             * 后备索引达到该时长时滚动
+             */
+            private String rolloverMaxAge = "1d";
+            
+            /**
+             * 滚动后多久删除（为空表示不删除）
+             */
+            private String deleteAfter;
+        }
+    }
+    
+    @Data
+    public static class Database {
+        /**
+         * 是否启用数据库存储
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 表前缀
+         */
+        private String tablePrefix = "log_";
+        
+        /**
+         * 主表名（存储所有日志的表）
+         */
+        private String tableName = "common_logs";
+        
+        /**
+         * 是否自动创建表
+         */
+        private boolean autoCreateTable = true;
+        
+        /**
+         * 批量写入时每次batchUpdate的条数，一批日志的所有分片在同一事务内提交
+         * PostgreSQL建议在JDBC URL中加上reWriteBatchedInserts=true，把分片改写为多值INSERT
+         */
+        private int batchSize = 500;
+        
+        /**
+         * PostgreSQL COPY写入配置
+         */
+        private Copy copy = new Copy();
+        
+        @Data
+        public static class Copy {
+            /**
+             * 是否启用COPY写入；数据库不是PostgreSQL或缺少PostgreSQL驱动时仍使用批量INSERT
+             */
+            private boolean enabled = false;
+            
+            /**
+             * COPY数据格式：csv（兼容任意列类型）或binary（服务端不解析文本，要求列类型与自动建表一致）
+             */
+            private String format = "csv";
+        }
+        
+        /**
+         * 按时间分区配置（PostgreSQL 11+）
+         */
+        private Partition partition = new Partition();
+        
+        @Data
+        public static class Partition {
+            /**
+             * 是否启用按timestamp范围分区，只对自动新建的表生效，已存在的非分区表不会被转换
+             */
+            private boolean enabled = false;
+            
+            /**
+             * 分区粒度：day 或 month
+             */
+            private String interval = "day";
+            
+            /**
+             * 预建的未来分区数量（不含当前分区）
+             */
+            private int premake = 3;
+            
+            /**
+             * 保留天数，整个范围都早于保留期的分区会被删除，0表示不删除
+             */
+            private int retentionDays = 0;
+            
+            /**
+             * 分区维护间隔（毫秒）
+             */
+            private long checkInterval = 3600000;
+        }
+        
+        /**
+         * 混合存储配置（PostgreSQL）
+         */
+        private Hybrid hybrid = new Hybrid();
+        
+        @Data
+        public static class Hybrid {
+            /**
+             * 是否启用混合存储：基础列和promotedFields写入独立列，其余自定义字段合并写入JSONB列attributes，
+             * 实体出现新字段时不再执行ALTER TABLE
+             */
+            private boolean enabled = false;
+            
+            /**
+             * 提升为独立列的字段，字段名或列名均可
+             */
+            private String[] promotedFields = {};
+            
+            /**
+             * attributes列的GIN索引：none；gin（jsonb_ops，支持键存在和包含查询）；path（jsonb_path_ops，只支持@>，索引更小）
+             */
+            private String ginIndex = "none";
+            
+            /**
+             * 建立表达式索引 (attributes->>'key') 的键，用于按单个键等值或范围查询
+             */
+            private String[] indexedKeys = {};
+        }
+    }
+    
+    @Data
+    public static class Http {
+        /**
+         * 是否启用HTTP发送
+         */
+        private boolean enabled = false;
+        
+        /**
+         * 访问日志端点
+         */
+        private String accessLogEndpoint = "http://localhost:8080/api/logs/access";
+        
+        /**
+         * 操作日志端点
+         */
+        private String operationLogEndpoint = "http://localhost:8080/api/logs/operation";
+        
+        /**
+         * 通用日志端点（用于自定义实体类）
+         * 自定义实体类会发送到: {genericEndpoint}/{entityClassName}
+         */
+        private String genericEndpoint = "http://localhost:8080/api/logs/generic";
+        
+        /**
+         * 采集端点列表，逗号分隔；配置后单条日志在这些端点间负载均衡，
+         * 为空时使用accessLogEndpoint（其次operationLogEndpoint）
+         */
+        private String endpoints;
+        
+        /**
+         * 连接超时时间
+         */
+        private int connectTimeout = 5000;
+        
+        /**
+         * 读取超时时间
+         */
+        private int readTimeout = 30000;
+        
+        /**
+         * 多端点负载均衡配置
+         */
+        private Balancer balancer = new Balancer();
+        
+        /**
+         * 多端点负载均衡
+         * 随机取两个端点选负载低的一个（EWMA耗时 ×（进行中请求数 + 1）），连续失败的端点暂时摘除
+         */
+        @Data
+        public static class Balancer {
+            /**
+             * 连续失败多少次后摘除端点
+             */
+            private int failureThreshold = 3;
+            
+            /**
+             * 首次摘除时长（毫秒），再次摘除时翻倍
+             */
+            private long ejectTime = 30000;
+            
+            /**
+             * 最长摘除时长（毫秒）
+             */
+            private long maxEjectTime = 300000;
+            
+            /**
+             * 是否启用对冲请求（仅非阻塞发送），请求超过分位耗时未完成时向另一个端点补发，
+             * 接收端需按日志ID去重
+             */
+            private boolean hedging = false;
+            
+            /**
+             * 触发对冲的耗时分位
+             */
+            private double hedgeQuantile = 0.99;
+            
+            /**
+             * 最短对冲等待时间（毫秒）
+             */
+            private long hedgeMinDelay = 20;
+        }
+        
+        /**
+         * 批量发送配置
+         */
+        private Batch batch = new Batch();
+        
+        /**
+         * 非阻塞发送配置
+         */
+        private Async async = new Async();
+        
+        /**
+         * 非阻塞发送
+         * 启用后单条和批量请求都通过JDK HttpClient.sendAsync发出，发送线程不等待响应
+         */
+        @Data
+        public static class Async {
+            /**
+             * 是否启用非阻塞发送
+             */
+            private boolean enabled = false;
+            
+            /**
+             * 是否优先使用HTTP/2（https通过ALPN协商，http尝试h2c升级，不支持时回退HTTP/1.1）
+             */
+            private boolean http2 = true;
+            
+            /**
+             * 每个端点允许的最大进行中请求数
+             */
+            private int maxInFlightPerEndpoint = 64;
+            
+            /**
+             * 窗口已满时发送线程的最长等待时间（毫秒），超时后该请求记为失败
+             */
+            private long acquireTimeout = 5000;
+            
+            /**
+             * 连接失败、408、429和5xx的最大重试次数
+             */
+            private int maxRetries = 3;
+            
+            /**
+             * 首次重试等待时间（毫秒），之后每次翻倍
+             */
+            private long retryBackoff = 200;
+        }
+        
+        /**
+         * 批量发送
+         * 启用后sendBatch把多条日志编码为一个NDJSON或JSON数组请求体，可选gzip/zstd压缩
+         */
+        @Data
+        public static class Batch {
+            /**
+             * 是否启用批量发送
+             */
+            private boolean enabled = false;
+            
+            /**
+             * 批量接收端点，多个端点用逗号分隔
+             */
+            private String endpoint = "http://localhost:8080/api/logs/batch";
+            
+            /**
+             * 每个请求最多包含的日志条数
+             */
+            private int maxEvents = 500;
+            
+            /**
+             * 请求体格式：ndjson, json-array
+             */
+            private String format = "ndjson";
+            
+            /**
+             * 压缩算法：none, gzip, zstd（zstd需要zstd-jni）
+             */
+            private String compression = "gzip";
+            
+            /**
+             * 压缩级别，0表示算法默认级别
+             */
+            private int compressionLevel = 0;
+        }
+    }
+    
+    @Data
+    public static class Record {
+        /**
+         * 是否记录请求参数
+         */
+        private boolean recordParams = true;
+        
+        /**
+         * 是否记录响应结果
+         */
+        private boolean recordResponse = false;
+        
+        /**
+         * 是否记录异常堆栈
+         */
+        private boolean recordStackTrace = true;
+        
+        /**
+         * 是否记录IP地理位置
+         */
+        private boolean recordIpLocation = true;
+        
+        /**
+         * 是否记录用户代理信息
+         */
+        private boolean recordUserAgent = true;
+        
+        /**
+         * 敏感字段（不记录）
+         */
+        private String[] sensitiveFields = {"password", "token", "secret"};
+        
+        /**
+         * 可信代理网段（CIDR），仅当直连地址属于这些网段时才采信X-Forwarded-For等转发头
+         */
+        private String[] trustedProxies = ClientIpResolver.DEFAULT_TRUSTED_PROXIES.clone();
+    }
+    
+    @Data
+    public static class Pipeline {
+        /**
+         * 工作线程数（增强和发送在工作线程上执行）
+         */
+        private int workerThreads = 2;
+        
+        /**
+         * 队列容量，队列满时由请求线程自行处理
+         */
+        private int queueCapacity = 10000;
+        
+        /**
+         * 关闭时等待队列处理完成的超时时间（毫秒）
+         */
+        private long shutdownTimeout = 5000;
+    }
+    
+    @Data
+    public static class Jwt {
+        /**
+         * HMAC签名密钥，以"base64:"开头时按Base64解码，否则按UTF-8字节使用
+         */
+        private String secret;
+        
+        /**
+         * RSA/EC公钥（PEM或Base64编码的X.509格式），配置后优先于secret
+         */
+        private String publicKey;
+        
+        /**
+         * 用户名所在的声明
+         */
+        private String usernameClaim = "sub";
+        
+        /**
+         * 允许的时钟偏差（秒）
+         */
+        private long allowedClockSkew = 60;
+        
+        /**
+         * 验签结果缓存的最大条数
+         */
+        private int cacheSize = 10000;
+        
+        /**
+         * 验签结果最长缓存时间（毫秒），Token过期时间更早时以过期时间为准
+         */
+        private long cacheTtl = 3600000;
+    }
+    
+    @Data
+    public static class Serialization {
+        /**
+         * 字节码属性访问模块：auto、blackbird、afterburner、none
+         * auto时按blackbird、afterburner的顺序使用类路径上存在的模块
+         */
+        private String accessorModule = "auto";
+        
+        /**
+         * Kafka和HTTP发送器的消息格式：json、smile、cbor、avro
+         * 二进制格式需要引入对应的jackson-dataformat模块，Elasticsearch始终使用JSON
+         */
+        private String format = "json";
+        
+        /**
+         * Avro Schema本地存储目录，按实体类名和Schema版本保存.avsc文件，供消费方解码
+         */
+        private String avroSchemaDir = "./log-schemas";
+    }
+}
@@ -7,7 +7,10 @@ import com.diit.common.log.entity.OperationLogEntity;
  * 日志发送器接口
  * 
  * @author zzx
+ * @deprecated 访问日志和操作日志已继承{@link com.diit.common.log.entity.BaseLogEntity}，
+ * 统一由{@link GenericLogSender}发送，请实现GenericLogSender
  */
+@Deprecated
 public interface LogSender {
     
     /**
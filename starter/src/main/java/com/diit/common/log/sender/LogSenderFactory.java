@@ -20,6 +20,7 @@ import java.util.concurrent.ConcurrentHashMap;
 @Component
 public class LogSenderFactory {
     
+    @SuppressWarnings("deprecation")
     @Autowired(required = false)
     private List<LogSender> logSenders;
     
@@ -29,6 +30,7 @@ public class LogSenderFactory {
     @Autowired
     private LogProperties logProperties;
     
+    @SuppressWarnings("deprecation")
     private final Map<String, LogSender> senderCache = new ConcurrentHashMap<>();
     private final Map<String, GenericLogSender<? extends BaseLogEntity>> genericSenderCache = new ConcurrentHashMap<>();
     
@@ -36,7 +38,9 @@ public class LogSenderFactory {
      * 获取访问日志发送器
      * 
      * @return 访问日志发送器
+     * @deprecated 访问日志已走{@link GenericLogSender}链路
      */
+    @Deprecated
     public LogSender getAccessLogSender() {
         return getLogSender("access");
     }
@@ -45,7 +49,9 @@ public class LogSenderFactory {
      * 获取操作日志发送器
      * 
      * @return 操作日志发送器
+     * @deprecated 操作日志已走{@link GenericLogSender}链路
      */
+    @Deprecated
     public LogSender getOperationLogSender() {
         return getLogSender("operation");
     }
@@ -56,6 +62,7 @@ public class LogSenderFactory {
      * @param logType 日志类型
      * @return 日志发送器
      */
+    @Deprecated
     public LogSender getLogSender(String logType) {
         String storageType = logProperties.getStorage().getType();
         
@@ -123,6 +130,7 @@ public class LogSenderFactory {
      * 
      * @return 日志发送器列表
      */
+    @SuppressWarnings("deprecation")
     public List<LogSender> getAllSenders() {
         return logSenders != null ? logSenders : java.util.Collections.emptyList();
     }
@@ -153,6 +161,7 @@ public class LogSenderFactory {
     /** todo
      * 无操作日志发送器（兜底实现）
      */
+    @SuppressWarnings("deprecation")
     private static class NoOpLogSender implements LogSender {
         @Override
         public void sendAccessLog(com.diit.common.log.entity.UserAccessLogEntity log) {
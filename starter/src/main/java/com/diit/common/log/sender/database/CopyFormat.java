@@ -0,0 +1,294 @@
+package com.diit.common.log.sender.database;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.HexFormat;
+
+/**
+ * PostgreSQL COPY数据格式
+ * 按{@link InsertPlan#getArgTypes()}中的列类型编码每一行：
+ * <ul>
+ *     <li>csv：文本格式，兼容任意可由文本转换的列类型，NULL为不加引号的空值，空字符串写为""</li>
+ *     <li>binary：二进制格式，服务端无需解析文本，但列类型必须与自动建表的类型一致（见ColumnMapping）</li>
+ * </ul>
+ *
+ * @author zzx
+ */
+public enum CopyFormat {
+    
+    /**
+     * CSV文本格式
+     */
+    CSV("csv") {
+        @Override
+        public void writeHeader(DataOutputStream out) {
+        }
+        
+        @Override
+        public void writeRow(Object[] row, int[] types, DataOutputStream out) throws IOException {
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                if (row[i] != null) {
+                    writeCsvValue(text(row[i]).getBytes(StandardCharsets.UTF_8), out);
+                }
+            }
+            out.write('\n');
+        }
+        
+        @Override
+        public void writeTrailer(DataOutputStream out) {
+        }
+    },
+    
+    /**
+     * 二进制格式
+     */
+    BINARY("binary") {
+        @Override
+        public void writeHeader(DataOutputStream out) throws IOException {
+            out.write(BINARY_SIGNATURE);
+            // 标志位和头部扩展区长度
+            out.writeInt(0);
+            out.writeInt(0);
+        }
+        
+        @Override
+        public void writeRow(Object[] row, int[] types, DataOutputStream out) throws IOException {
+            out.writeShort(row.length);
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] == null) {
+                    out.writeInt(-1);
+                } else {
+                    writeBinaryValue(row[i], types[i], out);
+                }
+            }
+        }
+        
+        @Override
+        public void writeTrailer(DataOutputStream out) throws IOException {
+            out.writeShort(-1);
+        }
+    };
+    
+    private static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    
+    /**
+     * PostgreSQL日期时间的纪元 2000-01-01
+     */
+    private static final long PG_EPOCH_SECONDS = LocalDate.of(2000, 1, 1).toEpochDay() * 86400;
+    
+    private static final long PG_EPOCH_DAY = LocalDate.of(2000, 1, 1).toEpochDay();
+    
+    private static final int NUMERIC_NEGATIVE = 0x4000;
+    
+    /**
+     * 配置值，同时是COPY语句中的FORMAT选项
+     */
+    private final String id;
+    
+    CopyFormat(String id) {
+        this.id = id;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * 写出数据头
+     */
+    public abstract void writeHeader(DataOutputStream out) throws IOException;
+    
+    /**
+     * 写出一行
+     *
+     * @param row   按列顺序排列的参数（InsertPlan.bind的结果）
+     * @param types 各列的JDBC类型
+     */
+    public abstract void writeRow(Object[] row, int[] types, DataOutputStream out) throws IOException;
+    
+    /**
+     * 写出数据尾
+     */
+    public abstract void writeTrailer(DataOutputStream out) throws IOException;
+    
+    /**
+     * 根据配置值解析格式，未识别时返回CSV
+     */
+    public static CopyFormat of(String value) {
+        if (value != null) {
+            for (CopyFormat format : values()) {
+                if (format.id.equalsIgnoreCase(value.trim())) {
+                    return format;
+                }
+            }
+        }
+        return CSV;
+    }
+    
+    /**
+     * 参数的文本形式，与PostgreSQL驱动按字符串绑定时一致
+     */
+    private static String text(Object value) {
+        if (value instanceof byte[]) {
+            return "\\x" + HexFormat.of().formatHex((byte[]) value);
+        }
+        if (value instanceof Date && !(value instanceof Timestamp) && !(value instanceof java.sql.Date)
+                && !(value instanceof Time)) {
+            return new Timestamp(((Date) value).getTime()).toString();
+        }
+        return value.toString();
+    }
+    
+    /**
+     * 写出CSV字段：空字符串和包含分隔符、引号、换行、反斜杠的值加引号，引号双写
+     */
+    private static void writeCsvValue(byte[] bytes, DataOutputStream out) throws IOException {
+        boolean quote = bytes.length == 0;
+        for (int i = 0; i < bytes.length && !quote; i++) {
+            byte b = bytes[i];
+            quote = b == ',' || b == '"' || b == '\n' || b == '\r' || b == '\\';
+        }
+        if (!quote) {
+            out.write(bytes);
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '"') {
+                out.write(bytes, start, i + 1 - start);
+                out.write('"');
+                start = i + 1;
+            }
+        }
+        out.write(bytes, start, bytes.length - start);
+        out.write('"');
+    }
+    
+    /**
+     * 按列类型写出二进制字段（4字节长度 + 值）
+     */
+    private static void writeBinaryValue(Object value, int type, DataOutputStream out) throws IOException {
+        switch (type) {
+            case Types.INTEGER:
+                out.writeInt(4);
+                out.writeInt(((Number) value).intValue());
+                break;
+            case Types.BIGINT:
+                out.writeInt(8);
+                out.writeLong(((Number) value).longValue());
+                break;
+            case Types.BOOLEAN:
+                out.writeInt(1);
+                out.writeByte((Boolean) value ? 1 : 0);
+                break;
+            case Types.DOUBLE:
+                out.writeInt(8);
+                out.writeDouble(((Number) value).doubleValue());
+                break;
+            case Types.REAL:
+                out.writeInt(4);
+                out.writeFloat(((Number) value).floatValue());
+                break;
+            case Types.TIMESTAMP:
+                // 距2000-01-01的微秒数，按本地时间（与timestamp without time zone一致）
+                LocalDateTime dateTime = toLocalDateTime(value);
+                out.writeInt(8);
+                out.writeLong((dateTime.toEpochSecond(ZoneOffset.UTC) - PG_EPOCH_SECONDS) * 1_000_000
+                        + dateTime.getNano() / 1000);
+                break;
+            case Types.DATE:
+                LocalDate date = value instanceof java.sql.Date ? ((java.sql.Date) value).toLocalDate() : (LocalDate) value;
+                out.writeInt(4);
+                out.writeInt((int) (date.toEpochDay() - PG_EPOCH_DAY));
+                break;
+            case Types.TIME:
+                LocalTime time = value instanceof Time ? ((Time) value).toLocalTime() : (LocalTime) value;
+                out.writeInt(8);
+                out.writeLong(time.toNanoOfDay() / 1000);
+                break;
+            case Types.NUMERIC:
+                writeNumeric((BigDecimal) value, out);
+                break;
+            case Types.BINARY:
+                byte[] bytes = (byte[]) value;
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                break;
+            case Types.OTHER:
+                // jsonb：版本号1 + JSON文本
+                byte[] json = text(value).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(json.length + 1);
+                out.writeByte(1);
+                out.write(json);
+                break;
+            default:
+                // VARCHAR/TEXT的二进制格式即UTF-8文本
+                byte[] text = text(value).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(text.length);
+                out.write(text);
+        }
+    }
+    
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        return new Timestamp(((Date) value).getTime()).toLocalDateTime();
+    }
+    
+    /**
+     * numeric的二进制格式：位数、权重、符号、小数位数，之后是以10000为基数的各位（整数和小数部分分别按4位十进制对齐）
+     */
+    private static void writeNumeric(BigDecimal value, DataOutputStream out) throws IOException {
+        BigDecimal abs = value.abs();
+        int scale = Math.max(abs.scale(), 0);
+        String digits = abs.setScale(scale).unscaledValue().toString();
+        
+        int integerLength = digits.length() - scale;
+        String integerPart = integerLength > 0 ? digits.substring(0, integerLength) : "";
+        String fractionPart = integerLength > 0 ? digits.substring(integerLength) : "0".repeat(-integerLength) + digits;
+        integerPart = "0".repeat((4 - integerPart.length() % 4) % 4) + integerPart;
+        fractionPart = fractionPart + "0".repeat((4 - fractionPart.length() % 4) % 4);
+        String groups = integerPart + fractionPart;
+        
+        int weight = integerPart.length() / 4 - 1;
+        int start = 0;
+        int end = groups.length() / 4;
+        while (start < end && groups.startsWith("0000", start * 4)) {
+            start++;
+            weight--;
+        }
+        while (end > start && groups.startsWith("0000", (end - 1) * 4)) {
+            end--;
+        }
+        if (start == end) {
+            weight = 0;
+        }
+        
+        out.writeInt(8 + 2 * (end - start));
+        out.writeShort(end - start);
+        out.writeShort(weight);
+        out.writeShort(value.signum() < 0 ? NUMERIC_NEGATIVE : 0);
+        out.writeShort(scale);
+        for (int i = start; i < end; i++) {
+            out.writeShort(Integer.parseInt(groups, i * 4, i * 4 + 4, 10));
+        }
+    }
+}
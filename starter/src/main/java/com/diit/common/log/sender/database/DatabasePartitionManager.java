@@ -0,0 +1,301 @@
+package com.diit.common.log.sender.database;
+
+import com.diit.common.log.properties.LogProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志表分区管理（PostgreSQL 11+ 声明式分区）
+ * 启用后日志表按timestamp范围分区（按天或按月），写入由数据库直接路由到对应分区，发送器不需要计算分区：
+ * <ul>
+ *     <li>建表时创建分区父表、默认分区和timestamp上的BRIN索引，并预建当前及未来的分区</li>
+ *     <li>后台线程定期补建未来分区，超过保留期的分区直接DROP，不执行DELETE</li>
+ *     <li>分区名为 {表名}_p{yyyyMMdd|yyyyMM}，时间落在已建分区之外的日志进入 {表名}_default</li>
+ *     <li>默认分区中已有某个周期的日志时，在一个事务内把这些日志移入新分区后再挂载</li>
+ * </ul>
+ * 已存在的非分区表不会被转换，只记录警告
+ *
+ * @author zzx
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diit.log.database", name = "enabled", havingValue = "true", matchIfMissing = false)
+public class DatabasePartitionManager {
+    
+    public static final String DAY = "day";
+    
+    public static final String MONTH = "month";
+    
+    private static final String DEFAULT_SUFFIX = "_default";
+    
+    private static final DateTimeFormatter DAY_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    private ScheduledExecutorService scheduler;
+    
+    private volatile boolean notPartitionedWarned;
+    
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        LogProperties.Database.Partition config = logProperties.getDatabase().getPartition();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "diit-log-partition");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::maintain, 0, config.getCheckInterval(), TimeUnit.MILLISECONDS);
+        log.info("启用日志表分区，按{}分区，预建{}个分区，保留期: {}", isMonthly() ? "月" : "天", config.getPremake(),
+                config.getRetentionDays() > 0 ? config.getRetentionDays() + "天" : "不限");
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return logProperties.getDatabase().getPartition().isEnabled() && jdbcTemplate != null;
+    }
+    
+    /**
+     * 建表语句：主键包含分区键timestamp，按timestamp范围分区
+     */
+    public String createTableSql(String tableName) {
+        return String.format("""
+            CREATE TABLE IF NOT EXISTS %s (
+                id VARCHAR(50) NOT NULL,
+                timestamp TIMESTAMP NOT NULL,
+                content TEXT,
+                level VARCHAR(20),
+                entity_type VARCHAR(100),
+                PRIMARY KEY (id, timestamp)
+            ) PARTITION BY RANGE (timestamp)""", tableName);
+    }
+    
+    /**
+     * 分区父表创建后调用：创建默认分区、BRIN索引和当前及未来的分区
+     */
+    public void initialize(String tableName) {
+        jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s DEFAULT",
+                tableName + DEFAULT_SUFFIX, tableName));
+        // 日志按时间追加写入，BRIN索引体积小、维护成本低，适合按时间范围查询
+        jdbcTemplate.execute(String.format("CREATE INDEX IF NOT EXISTS %s_timestamp_brin ON %s USING brin (timestamp)",
+                tableName, tableName));
+        createPartitions(tableName, listPartitions(tableName));
+    }
+    
+    /**
+     * 补建未来分区并删除过期分区
+     */
+    public void maintain() {
+        String tableName = logProperties.getDatabase().getTableName();
+        try {
+            String kind = relationKind(tableName);
+            if (kind == null) {
+                // 表尚未创建，首次写入时创建
+                return;
+            }
+            if (!"p".equals(kind)) {
+                if (!notPartitionedWarned) {
+                    notPartitionedWarned = true;
+                    log.warn("表 {} 不是分区表，跳过分区维护；需要分区时请迁移数据后删除原表，由首次写入重新建表", tableName);
+                }
+                return;
+            }
+            Set<String> partitions = listPartitions(tableName);
+            createPartitions(tableName, partitions);
+            dropExpiredPartitions(tableName, partitions);
+        } catch (DataAccessException e) {
+            log.warn("维护表 {} 的分区失败: {}", tableName, e.getMessage());
+        }
+    }
+    
+    private void createPartitions(String tableName, Set<String> partitions) {
+        boolean monthly = isMonthly();
+        LocalDate start = periodStart(LocalDate.now(), monthly);
+        int premake = Math.max(0, logProperties.getDatabase().getPartition().getPremake());
+        for (int i = 0; i <= premake; i++) {
+            LocalDate from = plusPeriods(start, i, monthly);
+            String name = partitionName(tableName, from, monthly);
+            if (partitions.contains(name)) {
+                continue;
+            }
+            LocalDate to = plusPeriods(from, 1, monthly);
+            try {
+                jdbcTemplate.execute(String.format("CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                        name, tableName, from, to));
+                partitions.add(name);
+                log.info("创建分区 {} [{}, {})", name, from, to);
+            } catch (DataAccessException e) {
+                if (hasDefaultRows(tableName, from, to)) {
+                    // 默认分区中已有该范围的数据，直接创建会一直失败
+                    createPartitionFromDefault(tableName, name, from, to, partitions);
+                } else {
+                    // 其他实例已创建
+                    log.warn("创建分区 {} 失败: {}", name, e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private boolean hasDefaultRows(String tableName, LocalDate from, LocalDate to) {
+        try {
+            return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM " + tableName.toLowerCase(Locale.ROOT) + DEFAULT_SUFFIX
+                            + " WHERE timestamp >= ? AND timestamp < ?)",
+                    Boolean.class, Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.atStartOfDay())));
+        } catch (DataAccessException e) {
+            log.debug("查询默认分区失败: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 在一个事务内新建独立表，把默认分区中该范围的日志移入，再挂载为分区；
+     * 挂载期间默认分区被锁定，写入会短暂等待
+     */
+    private void createPartitionFromDefault(String tableName, String name, LocalDate from, LocalDate to,
+                                            Set<String> partitions) {
+        String defaultPartition = tableName.toLowerCase(Locale.ROOT) + DEFAULT_SUFFIX;
+        try {
+            Integer moved = jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(String.format("CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)",
+                            name, tableName));
+                    int rows = statement.executeUpdate(String.format(
+                            "WITH moved AS (DELETE FROM %s WHERE timestamp >= '%s' AND timestamp < '%s' RETURNING *) "
+                                    + "INSERT INTO %s SELECT * FROM moved", defaultPartition, from, to, name));
+                    statement.execute(String.format("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                            tableName, name, from, to));
+                    connection.commit();
+                    return rows;
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            });
+            partitions.add(name);
+            log.info("创建分区 {} [{}, {})，从默认分区移入{}条日志", name, from, to, moved);
+        } catch (DataAccessException e) {
+            log.error("默认分区 {} 中已有 [{}, {}) 的日志，创建分区 {} 失败: {}。请手动在一个事务中新建表 {}，"
+                            + "把默认分区中该范围的日志移入后执行 ALTER TABLE {} ATTACH PARTITION {} FOR VALUES FROM ('{}') TO ('{}')",
+                    defaultPartition, from, to, name, e.getMessage(), name, tableName, name, from, to);
+        }
+    }
+    
+    /**
+     * 删除整个范围都早于保留期的分区；默认分区中的过期日志数量很少，直接删除
+     */
+    private void dropExpiredPartitions(String tableName, Set<String> partitions) {
+        int retentionDays = logProperties.getDatabase().getPartition().getRetentionDays();
+        if (retentionDays <= 0) {
+            return;
+        }
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        String prefix = tableName.toLowerCase(Locale.ROOT) + "_p";
+        for (String partition : partitions) {
+            LocalDate end = partitionEnd(partition, prefix);
+            if (end != null && !end.isAfter(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("删除过期分区 {}（早于 {}）", partition, cutoff);
+            }
+        }
+        String defaultPartition = tableName.toLowerCase(Locale.ROOT) + DEFAULT_SUFFIX;
+        if (partitions.contains(defaultPartition)) {
+            jdbcTemplate.update("DELETE FROM " + defaultPartition + " WHERE timestamp < ?",
+                    Timestamp.valueOf(cutoff.atStartOfDay()));
+        }
+    }
+    
+    /**
+     * 表类型：p 分区表，r 普通表，表不存在时返回null
+     */
+    private String relationKind(String tableName) {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE relname = ? AND pg_table_is_visible(oid)",
+                String.class, tableName.toLowerCase(Locale.ROOT));
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+    
+    private Set<String> listPartitions(String tableName) {
+        return new HashSet<>(jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ? AND pg_table_is_visible(p.oid)""", String.class, tableName.toLowerCase(Locale.ROOT)));
+    }
+    
+    /**
+     * 根据分区名中的日期计算分区上界，按天或按月由后缀长度区分，切换分区粒度后旧分区仍能按保留期删除
+     */
+    static LocalDate partitionEnd(String partition, String prefix) {
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        String suffix = partition.substring(prefix.length());
+        try {
+            if (suffix.length() == 8) {
+                return LocalDate.parse(suffix, DAY_SUFFIX).plusDays(1);
+            }
+            if (suffix.length() == 6) {
+                return LocalDate.parse(suffix + "01", DAY_SUFFIX).plusMonths(1);
+            }
+        } catch (DateTimeParseException e) {
+            log.debug("无法识别分区 {} 的日期", partition);
+        }
+        return null;
+    }
+    
+    static String partitionName(String tableName, LocalDate from, boolean monthly) {
+        return tableName.toLowerCase(Locale.ROOT) + "_p" + from.format(monthly ? MONTH_SUFFIX : DAY_SUFFIX);
+    }
+    
+    static LocalDate periodStart(LocalDate date, boolean monthly) {
+        return monthly ? date.withDayOfMonth(1) : date;
+    }
+    
+    static LocalDate plusPeriods(LocalDate date, int periods, boolean monthly) {
+        return monthly ? date.plusMonths(periods) : date.plusDays(periods);
+    }
+    
+    private boolean isMonthly() {
+        return MONTH.equalsIgnoreCase(logProperties.getDatabase().getPartition().getInterval());
+    }
+}
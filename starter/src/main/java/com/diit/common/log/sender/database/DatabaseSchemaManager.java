@@ -0,0 +1,220 @@
+package com.diit.common.log.sender.database;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.properties.LogProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 日志表结构管理
+ * 每个（表, 实体类型）只校验一次：一次查询读出表的全部列，缺表时建表，缺列时补列，结果缓存在内存中，
+ * 之后的写入不再访问information_schema；插入报出表或列不存在时由发送器调用 {@link #invalidate(String)} 清除缓存重新校验。
+ * 同一张表的建表和ALTER TABLE在表级锁内串行执行，其他实例并发补列导致的"列已存在"错误会重新读取列后忽略
+ *
+ * @author zzx
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diit.log.database", name = "enabled", havingValue = "true", matchIfMissing = false)
+public class DatabaseSchemaManager {
+    
+    /**
+     * 表示表或列不存在的SQLState：PostgreSQL 42P01/42703，MySQL等 42S02/42S22
+     */
+    private static final Set<String> SCHEMA_DRIFT_STATES = Set.of("42P01", "42703", "42S02", "42S22");
+    
+    /**
+     * 表达式索引允许的键名，键名会拼入索引名和SQL
+     */
+    private static final Pattern INDEX_KEY = Pattern.compile("[A-Za-z][A-Za-z0-9_]*");
+    
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    @Autowired
+    private DatabasePartitionManager partitionManager;
+    
+    /**
+     * 已校验的实体类型
+     * key: 表名, value: 该表已校验过的实体类型
+     */
+    private final Map<String, Set<Class<?>>> verified = new ConcurrentHashMap<>();
+    
+    /**
+     * 表的列缓存（小写列名）
+     * key: 表名, value: 列名集合
+     */
+    private final Map<String, Set<String>> tableColumns = new ConcurrentHashMap<>();
+    
+    /**
+     * 表级锁，串行化同一张表的建表和补列
+     */
+    private final Map<String, Object> tableLocks = new ConcurrentHashMap<>();
+    
+    /**
+     * 已创建attributes索引的表
+     */
+    private final Set<String> indexedTables = ConcurrentHashMap.newKeySet();
+    
+    /**
+     * 确保表存在且包含插入计划需要的所有列
+     * 已校验过的（表, 实体类型）直接返回，不访问数据库；hybrid模式下只校验提升的列和attributes列，并创建配置的索引
+     */
+    public void ensureSchema(InsertPlan plan) {
+        String tableName = plan.getTableName();
+        Class<? extends BaseLogEntity> entityType = plan.getEntityType();
+        Set<Class<?>> types = verified.get(tableName);
+        if (types != null && types.contains(entityType)) {
+            return;
+        }
+        synchronized (tableLocks.computeIfAbsent(tableName, key -> new Object())) {
+            types = verified.computeIfAbsent(tableName, key -> ConcurrentHashMap.newKeySet());
+            if (types.contains(entityType)) {
+                return;
+            }
+            Set<String> columns = tableColumns.get(tableName);
+            if (columns == null) {
+                columns = loadColumns(tableName);
+                if (columns.isEmpty()) {
+                    createTable(tableName);
+                    columns = loadColumns(tableName);
+                }
+                tableColumns.put(tableName, columns);
+            }
+            for (Map.Entry<String, String> column : plan.getColumnDefinitions().entrySet()) {
+                if (!columns.contains(column.getKey().toLowerCase(Locale.ROOT))) {
+                    addColumn(tableName, column.getKey(), column.getValue(), columns);
+                }
+            }
+            if (plan.isHybrid() && indexedTables.add(tableName)) {
+                ensureAttributeIndexes(tableName);
+            }
+            types.add(entityType);
+            log.debug("表 {} 已包含实体 {} 的所有列", tableName, entityType.getSimpleName());
+        }
+    }
+    
+    /**
+     * 清除表的结构缓存，下次写入时重新校验
+     */
+    public void invalidate(String tableName) {
+        synchronized (tableLocks.computeIfAbsent(tableName, key -> new Object())) {
+            verified.remove(tableName);
+            tableColumns.remove(tableName);
+            indexedTables.remove(tableName);
+        }
+        log.info("表 {} 结构已变化，清除结构缓存", tableName);
+    }
+    
+    /**
+     * 异常是否表示表或列不存在（表结构被外部修改）
+     */
+    public static boolean isSchemaDrift(DataAccessException e) {
+        Throwable cause = e;
+        while (cause != null) {
+            if (cause instanceof SQLException && SCHEMA_DRIFT_STATES.contains(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return e instanceof BadSqlGrammarException && e.getMessage() != null
+                && e.getMessage().toLowerCase(Locale.ROOT).contains("does not exist");
+    }
+    
+    /**
+     * 一次查询读出表的全部列，表不存在时返回空集合
+     */
+    private Set<String> loadColumns(String tableName) {
+        Set<String> columns = ConcurrentHashMap.newKeySet();
+        for (String column : jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.columns WHERE table_name = ?", String.class, tableName)) {
+            columns.add(column.toLowerCase(Locale.ROOT));
+        }
+        return columns;
+    }
+    
+    /**
+     * 创建表
+     * 只包含基础列，自定义字段列在校验实体类型时补充；启用分区时创建分区父表及其分区
+     */
+    private void createTable(String tableName) {
+        if (!logProperties.getDatabase().isAutoCreateTable()) {
+            log.error("❌ 表 {} 不存在，且未启用自动建表功能", tableName);
+            throw new IllegalStateException("Table '" + tableName + "' does not exist and autoCreateTable is disabled");
+        }
+        log.info("📋 自动创建表: {}...", tableName);
+        if (partitionManager.isEnabled()) {
+            jdbcTemplate.execute(partitionManager.createTableSql(tableName));
+            partitionManager.initialize(tableName);
+            log.info("✅ 分区表 {} 创建成功", tableName);
+            return;
+        }
+        jdbcTemplate.execute(String.format("""
+            CREATE TABLE IF NOT EXISTS %s (
+                id VARCHAR(50) PRIMARY KEY,
+                timestamp TIMESTAMP,
+                content TEXT,
+                level VARCHAR(20),
+                entity_type VARCHAR(100)
+            )""", tableName));
+        log.info("✅ 表 {} 创建成功", tableName);
+    }
+    
+    /**
+     * 创建attributes列的GIN索引和指定键的表达式索引
+     * 新表上立即完成；已有大量数据的表建索引期间会阻塞写入，建议预先以CREATE INDEX CONCURRENTLY手动创建同名索引
+     */
+    private void ensureAttributeIndexes(String tableName) {
+        LogProperties.Database.Hybrid config = logProperties.getDatabase().getHybrid();
+        String ginIndex = config.getGinIndex() != null ? config.getGinIndex().trim().toLowerCase(Locale.ROOT) : "none";
+        if ("gin".equals(ginIndex) || "path".equals(ginIndex)) {
+            createIndex(String.format("CREATE INDEX IF NOT EXISTS %s_attributes_gin ON %s USING gin (%s%s)", tableName,
+                    tableName, InsertPlan.ATTRIBUTES_COLUMN, "path".equals(ginIndex) ? " jsonb_path_ops" : ""));
+        }
+        for (String key : config.getIndexedKeys()) {
+            if (!INDEX_KEY.matcher(key).matches()) {
+                log.warn("忽略无效的attributes索引键: {}", key);
+                continue;
+            }
+            createIndex(String.format("CREATE INDEX IF NOT EXISTS %s_attr_%s_idx ON %s ((%s->>'%s'))", tableName,
+                    key.toLowerCase(Locale.ROOT), tableName, InsertPlan.ATTRIBUTES_COLUMN, key));
+        }
+    }
+    
+    private void createIndex(String sql) {
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (DataAccessException e) {
+            log.warn("创建索引失败: {}, SQL: {}", e.getMessage(), sql);
+        }
+    }
+    
+    private void addColumn(String tableName, String columnName, String columnType, Set<String> columns) {
+        try {
+            jdbcTemplate.execute(String.format("ALTER TABLE %s ADD COLUMN %s %s", tableName, columnName, columnType));
+            log.info("为表 {} 添加新列: {} ({})", tableName, columnName, columnType);
+        } catch (DataAccessException e) {
+            // 其他实例可能刚添加了同一列
+            if (!loadColumns(tableName).contains(columnName.toLowerCase(Locale.ROOT))) {
+                log.error("添加列 {} 失败: {}", columnName, e.getMessage());
+                throw e;
+            }
+        }
+        columns.add(columnName.toLowerCase(Locale.ROOT));
+    }
+}
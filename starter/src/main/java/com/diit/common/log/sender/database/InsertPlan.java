@@ -0,0 +1,254 @@
+package com.diit.common.log.sender.database;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.metadata.ColumnMapping;
+import com.diit.common.log.metadata.FieldDescriptor;
+import com.diit.common.log.metadata.LogEntityMetadata;
+import com.diit.common.log.metadata.LogEntityMetadataRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 实体类型的插入计划
+ * 按实体类型预先生成INSERT语句、列顺序和JDBC参数类型，写入时只需按相同顺序取值。
+ * hybrid模式下只有配置提升的字段写入独立列，其余字段合并为一个JSON对象写入JSONB列attributes
+ *
+ * @author zzx
+ */
+public final class InsertPlan {
+    
+    /**
+     * hybrid模式下存放未提升字段的JSONB列
+     */
+    public static final String ATTRIBUTES_COLUMN = "attributes";
+    
+    /**
+     * 基础列：id, timestamp, content, level, entity_type
+     */
+    private static final String[] BASE_COLUMNS = {"id", "timestamp", "content", "level", "entity_type"};
+    
+    private static final int[] BASE_TYPES = {Types.VARCHAR, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR};
+    
+    private final String tableName;
+    
+    private final Class<? extends BaseLogEntity> type;
+    
+    private final String entityType;
+    
+    private final String sql;
+    
+    private final List<String> columns;
+    
+    private final int[] argTypes;
+    
+    /**
+     * 基础列之外需要的列
+     * key: 列名, value: 列类型
+     */
+    private final Map<String, String> columnDefinitions;
+    
+    private final LogEntityMetadata<BaseLogEntity> metadata;
+    
+    /**
+     * hybrid模式：写入独立列的字段下标、写入attributes的字段下标和键名，按列模式写入时为null
+     */
+    private final int[] promotedIndexes;
+    
+    private final int[] attributeIndexes;
+    
+    private final String[] attributeNames;
+    
+    private final ObjectWriter attributesWriter;
+    
+    private InsertPlan(String tableName, Class<? extends BaseLogEntity> type, List<String> columns, int[] argTypes,
+                       Map<String, String> columnDefinitions, LogEntityMetadata<BaseLogEntity> metadata,
+                       int[] promotedIndexes, int[] attributeIndexes, String[] attributeNames,
+                       ObjectWriter attributesWriter) {
+        this.tableName = tableName;
+        this.type = type;
+        this.entityType = type.getSimpleName();
+        this.columns = Collections.unmodifiableList(columns);
+        this.argTypes = argTypes;
+        this.columnDefinitions = Collections.unmodifiableMap(columnDefinitions);
+        this.metadata = metadata;
+        this.promotedIndexes = promotedIndexes;
+        this.attributeIndexes = attributeIndexes;
+        this.attributeNames = attributeNames;
+        this.attributesWriter = attributesWriter;
+        
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
+        StringBuilder values = new StringBuilder(" VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+                values.append(", ");
+            }
+            sql.append(columns.get(i));
+            values.append('?');
+        }
+        this.sql = sql.append(')').append(values).append(')').toString();
+    }
+    
+    /**
+     * 生成插入计划，每个字段一列
+     */
+    public static InsertPlan of(String tableName, Class<? extends BaseLogEntity> type) {
+        LogEntityMetadata<BaseLogEntity> metadata = metadata(type);
+        List<FieldDescriptor> fields = metadata.getFields();
+        
+        List<String> columns = new ArrayList<>(BASE_COLUMNS.length + fields.size());
+        int[] argTypes = new int[BASE_COLUMNS.length + fields.size()];
+        Map<String, String> definitions = new LinkedHashMap<>();
+        Collections.addAll(columns, BASE_COLUMNS);
+        System.arraycopy(BASE_TYPES, 0, argTypes, 0, BASE_TYPES.length);
+        for (int i = 0; i < fields.size(); i++) {
+            FieldDescriptor field = fields.get(i);
+            columns.add(field.getColumnName());
+            argTypes[BASE_COLUMNS.length + i] = ColumnMapping.sqlType(field.getJavaType());
+            definitions.put(field.getColumnName(), field.getColumnType());
+        }
+        return new InsertPlan(tableName, type, columns, argTypes, definitions, metadata, null, null, null, null);
+    }
+    
+    /**
+     * 生成hybrid模式的插入计划
+     *
+     * @param promotedFields   写入独立列的字段，字段名或列名均可
+     * @param attributesWriter attributes列的JSON写出器
+     */
+    public static InsertPlan hybrid(String tableName, Class<? extends BaseLogEntity> type,
+                                    Collection<String> promotedFields, ObjectWriter attributesWriter) {
+        LogEntityMetadata<BaseLogEntity> metadata = metadata(type);
+        List<FieldDescriptor> fields = metadata.getFields();
+        Set<String> promoted = new HashSet<>();
+        for (String name : promotedFields) {
+            promoted.add(name.trim().toLowerCase(Locale.ROOT));
+        }
+        
+        List<String> columns = new ArrayList<>(BASE_COLUMNS.length + 1);
+        List<Integer> argTypes = new ArrayList<>();
+        Map<String, String> definitions = new LinkedHashMap<>();
+        List<Integer> promotedIndexes = new ArrayList<>();
+        List<Integer> attributeIndexes = new ArrayList<>();
+        Collections.addAll(columns, BASE_COLUMNS);
+        for (int baseType : BASE_TYPES) {
+            argTypes.add(baseType);
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            FieldDescriptor field = fields.get(i);
+            if (promoted.contains(field.getName().toLowerCase(Locale.ROOT))
+                    || promoted.contains(field.getColumnName().toLowerCase(Locale.ROOT))) {
+                columns.add(field.getColumnName());
+                argTypes.add(ColumnMapping.sqlType(field.getJavaType()));
+                definitions.put(field.getColumnName(), field.getColumnType());
+                promotedIndexes.add(i);
+            } else {
+                attributeIndexes.add(i);
+            }
+        }
+        // JSON文本以未指定类型发送，由服务端按jsonb解析
+        columns.add(ATTRIBUTES_COLUMN);
+        argTypes.add(Types.OTHER);
+        definitions.put(ATTRIBUTES_COLUMN, "JSONB");
+        
+        String[] attributeNames = new String[attributeIndexes.size()];
+        for (int i = 0; i < attributeNames.length; i++) {
+            attributeNames[i] = fields.get(attributeIndexes.get(i)).getName();
+        }
+        return new InsertPlan(tableName, type, columns, argTypes.stream().mapToInt(Integer::intValue).toArray(),
+                definitions, metadata, promotedIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                attributeIndexes.stream().mapToInt(Integer::intValue).toArray(), attributeNames, attributesWriter);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static LogEntityMetadata<BaseLogEntity> metadata(Class<? extends BaseLogEntity> type) {
+        return (LogEntityMetadata<BaseLogEntity>) LogEntityMetadataRegistry.get(type);
+    }
+    
+    public String getTableName() {
+        return tableName;
+    }
+    
+    public Class<? extends BaseLogEntity> getEntityType() {
+        return type;
+    }
+    
+    public String getSql() {
+        return sql;
+    }
+    
+    public List<String> getColumns() {
+        return columns;
+    }
+    
+    /**
+     * JDBC参数类型，与{@link #getColumns()}顺序一致
+     */
+    public int[] getArgTypes() {
+        return argTypes;
+    }
+    
+    /**
+     * 表中需要存在的非基础列（列名 -> 列类型），由DatabaseSchemaManager校验
+     */
+    public Map<String, String> getColumnDefinitions() {
+        return columnDefinitions;
+    }
+    
+    public boolean isHybrid() {
+        return attributesWriter != null;
+    }
+    
+    /**
+     * 按列顺序取出日志实体的参数
+     */
+    public Object[] bind(BaseLogEntity logEntity) {
+        Object[] params = new Object[argTypes.length];
+        params[0] = logEntity.getId();
+        // 分区表以timestamp为分区键，不能为空
+        params[1] = Timestamp.valueOf(logEntity.getTimestamp() != null ? logEntity.getTimestamp() : LocalDateTime.now());
+        params[2] = logEntity.getContent();
+        params[3] = logEntity.getLevel() != null ? logEntity.getLevel().name() : null;
+        params[4] = entityType;
+        if (attributesWriter == null) {
+            metadata.bindParameters(logEntity, params, BASE_COLUMNS.length);
+            return params;
+        }
+        
+        Object[] values = new Object[metadata.getFields().size()];
+        metadata.bindParameters(logEntity, values, 0);
+        int column = BASE_COLUMNS.length;
+        for (int index : promotedIndexes) {
+            params[column++] = values[index];
+        }
+        Map<String, Object> attributes = null;
+        for (int i = 0; i < attributeIndexes.length; i++) {
+            Object value = values[attributeIndexes[i]];
+            if (value != null) {
+                if (attributes == null) {
+                    attributes = new LinkedHashMap<>();
+                }
+                attributes.put(attributeNames[i], value);
+            }
+        }
+        try {
+            params[column] = attributes != null ? attributesWriter.writeValueAsString(attributes) : null;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize log attributes: " + type.getName(), e);
+        }
+        return params;
+    }
+}
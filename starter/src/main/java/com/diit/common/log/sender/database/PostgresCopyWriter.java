@@ -0,0 +1,178 @@
+package com.diit.common.log.sender.database;
+
+import com.diit.common.log.utils.ReusableByteArrayOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * PostgreSQL COPY写入
+ * 通过驱动的CopyManager以 COPY table (columns) FROM STDIN 流式写入一组日志，列清单取自插入计划（即实体元数据），
+ * 每积累64KB向服务端发送一次，不需要为整批数据分配缓冲区；在JdbcTemplate连接上执行，参与当前事务。
+ * 首次使用时检查数据库是否为PostgreSQL且驱动可用，不满足时由发送器继续使用批量INSERT
+ *
+ * @author zzx
+ */
+@Slf4j
+public class PostgresCopyWriter {
+    
+    private static final boolean DRIVER_PRESENT = ClassUtils.isPresent("org.postgresql.copy.CopyManager",
+            PostgresCopyWriter.class.getClassLoader());
+    
+    /**
+     * 表示列类型与COPY数据不兼容的SQLState：42804 类型不匹配，22P03 二进制格式错误，22P04 COPY数据格式错误，0A000 不支持
+     */
+    private static final Set<String> FORMAT_MISMATCH_STATES = Set.of("42804", "22P03", "22P04", "0A000");
+    
+    /**
+     * 缓冲区达到该大小时发送给服务端
+     */
+    private static final int FLUSH_SIZE = 64 * 1024;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    private final CopyFormat format;
+    
+    /**
+     * 是否可用，null表示尚未成功探测
+     */
+    private volatile Boolean available;
+    
+    public PostgresCopyWriter(JdbcTemplate jdbcTemplate, CopyFormat format) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.format = format;
+    }
+    
+    public CopyFormat getFormat() {
+        return format;
+    }
+    
+    /**
+     * 当前数据库是否可以使用COPY写入
+     * 探测失败（如数据库暂时不可用）时不缓存结果，下一批再探测
+     */
+    public boolean isAvailable() {
+        Boolean result = available;
+        if (result == null) {
+            synchronized (this) {
+                if (available == null) {
+                    available = detect();
+                }
+                result = available;
+            }
+        }
+        return result != null && result;
+    }
+    
+    /**
+     * COPY写入失败且不是数据本身的问题时停用，之后改用批量INSERT
+     */
+    public void disable(DataAccessException cause) {
+        available = Boolean.FALSE;
+        log.warn("PostgreSQL COPY（{}）写入失败，改用批量INSERT: {}", format.getId(), cause.getMessage());
+    }
+    
+    /**
+     * 以COPY写入一组同类型的日志
+     *
+     * @param plan 实体类型的插入计划，提供表名、列清单和列类型
+     * @param rows 按列顺序排列的参数
+     * @return 写入的行数
+     */
+    public long copy(InsertPlan plan, List<Object[]> rows) {
+        String sql = "COPY " + plan.getTableName() + " (" + String.join(", ", plan.getColumns())
+                + ") FROM STDIN WITH (FORMAT " + format.getId() + ")";
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+                PgCopy.copyIn(connection, sql, format, plan.getArgTypes(), rows));
+        return copied != null ? copied : 0;
+    }
+    
+    /**
+     * 异常是否表示表的列类型与COPY数据不兼容（例如预先建好的表使用了其他列类型，二进制格式无法写入）
+     */
+    public static boolean isFormatMismatch(DataAccessException e) {
+        Throwable cause = e;
+        while (cause != null) {
+            if (cause instanceof SQLException && FORMAT_MISMATCH_STATES.contains(((SQLException) cause).getSQLState())) {
+                return true;
+            }
+            cause = cause.getCause();
+        }
+        return false;
+    }
+    
+    private Boolean detect() {
+        if (!DRIVER_PRESENT) {
+            log.warn("classpath中没有PostgreSQL驱动，COPY模式不可用，使用批量INSERT");
+            return Boolean.FALSE;
+        }
+        try {
+            return jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                String product = connection.getMetaData().getDatabaseProductName();
+                if (!"PostgreSQL".equalsIgnoreCase(product) || !PgCopy.isSupported(connection)) {
+                    log.info("当前数据库为{}，COPY模式不可用，使用批量INSERT", product);
+                    return Boolean.FALSE;
+                }
+                log.info("数据库批量写入使用PostgreSQL COPY（{}）", format.getId());
+                return Boolean.TRUE;
+            });
+        } catch (DataAccessException e) {
+            log.warn("检测数据库类型失败，本批使用批量INSERT: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 单独持有PostgreSQL驱动的引用，缺少驱动时不会加载
+     */
+    private static final class PgCopy {
+        
+        private static boolean isSupported(Connection connection) throws SQLException {
+            return connection.isWrapperFor(PGConnection.class);
+        }
+        
+        private static long copyIn(Connection connection, String sql, CopyFormat format, int[] types,
+                                   List<Object[]> rows) throws SQLException {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+            ReusableByteArrayOutputStream buffer = ReusableByteArrayOutputStream.acquire();
+            try {
+                DataOutputStream out = new DataOutputStream(buffer);
+                format.writeHeader(out);
+                for (Object[] row : rows) {
+                    format.writeRow(row, types, out);
+                    if (buffer.size() >= FLUSH_SIZE) {
+                        copyIn.writeToCopy(buffer.buffer(), 0, buffer.size());
+                        buffer.reset();
+                    }
+                }
+                format.writeTrailer(out);
+                if (buffer.size() > 0) {
+                    copyIn.writeToCopy(buffer.buffer(), 0, buffer.size());
+                }
+                return copyIn.endCopy();
+            } catch (IOException e) {
+                throw new SQLException("Failed to encode COPY data", e);
+            } finally {
+                if (copyIn.isActive()) {
+                    try {
+                        copyIn.cancelCopy();
+                    } catch (SQLException e) {
+                        log.debug("取消COPY失败: {}", e.getMessage());
+                    }
+                }
+                buffer.release();
+            }
+        }
+    }
+}
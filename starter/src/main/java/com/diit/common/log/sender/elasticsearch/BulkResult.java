@@ -0,0 +1,61 @@
+package com.diit.common.log.sender.elasticsearch;
+
+/**
+ * _bulk响应结果
+ * 按请求中的文档顺序记录每条的状态码和错误信息
+ *
+ * @author zzx
+ */
+public class BulkResult {
+    
+    private final boolean errors;
+    
+    private final int[] statuses;
+    
+    private final String[] errorReasons;
+    
+    public BulkResult(boolean errors, int[] statuses, String[] errorReasons) {
+        this.errors = errors;
+        this.statuses = statuses;
+        this.errorReasons = errorReasons;
+    }
+    
+    /**
+     * 是否存在失败的文档
+     */
+    public boolean hasErrors() {
+        return errors;
+    }
+    
+    public int size() {
+        return statuses.length;
+    }
+    
+    public int getStatus(int index) {
+        return statuses[index];
+    }
+    
+    public String getErrorReason(int index) {
+        return errorReasons[index];
+    }
+    
+    /**
+     * 文档是否写入成功
+     * create遇到409表示该ID已存在（通常是上一次重试已写入），按成功处理
+     */
+    public boolean isSuccess(int index) {
+        int status = statuses[index];
+        return (status >= 200 && status < 300) || status == 409;
+    }
+    
+    /**
+     * 失败是否可重试：429（队列已满）和5xx
+     */
+    public boolean isRetryable(int index) {
+        return isRetryableStatus(statuses[index]);
+    }
+    
+    public static boolean isRetryableStatus(int status) {
+        return status == 429 || status >= 500;
+    }
+}
@@ -0,0 +1,416 @@
+package com.diit.common.log.sender.elasticsearch;
+
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.service.LogSerializer;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elasticsearch _bulk客户端
+ * 基于JDK HttpClient，按diit.log.elasticsearch.hosts（可选嗅探集群节点）选择节点，节点不可达或返回502/503/504时换下一个；
+ * 请求带filter_path，响应只包含errors标志和每条文档的状态、错误信息
+ *
+ * @author zzx
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diit.log.elasticsearch", name = "enabled", havingValue = "true", matchIfMissing = false)
+public class ElasticsearchBulkClient {
+    
+    private static final String BULK_PATH = "/_bulk?filter_path=errors,items.*.status,items.*.error.type,items.*.error.reason";
+    
+    private static final String NDJSON = "application/x-ndjson";
+    
+    /**
+     * 节点过载或网关转发失败，请求未被处理，可以换节点重试的状态码
+     */
+    private static final Set<Integer> FAILOVER_STATUSES = Set.of(502, 503, 504);
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    @Autowired
+    private LogSerializer logSerializer;
+    
+    /**
+     * 所有节点共用一个HttpClient，JDK按节点维护keep-alive连接池
+     */
+    private HttpClient httpClient;
+    
+    private ElasticsearchNodeSelector nodeSelector;
+    
+    private String authorization;
+    
+    private Duration requestTimeout;
+    
+    private int failureThreshold;
+    
+    private long ejectTime;
+    
+    private long maxEjectTime;
+    
+    private String sniffScheme;
+    
+    private ScheduledExecutorService sniffer;
+    
+    @PostConstruct
+    public void init() {
+        LogProperties.Elasticsearch config = logProperties.getElasticsearch();
+        LogProperties.Elasticsearch.Nodes nodes = config.getNodes();
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(config.getConnectTimeout()))
+                .build();
+        requestTimeout = Duration.ofMillis(config.getReadTimeout());
+        List<URI> uris = parseHosts(config.getHosts());
+        nodeSelector = new ElasticsearchNodeSelector(uris, nodes.getSelector());
+        failureThreshold = Math.max(1, nodes.getFailureThreshold());
+        ejectTime = nodes.getEjectTime();
+        maxEjectTime = Math.max(ejectTime, nodes.getMaxEjectTime());
+        if (StringUtils.hasText(config.getUsername())) {
+            String credentials = config.getUsername() + ":" + (config.getPassword() != null ? config.getPassword() : "");
+            authorization = "Basic " + Base64.getEncoder().encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        if (nodes.isSniff()) {
+            sniffScheme = uris.get(0).getScheme();
+            sniffer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "diit-log-es-sniffer");
+                thread.setDaemon(true);
+                return thread;
+            });
+            sniffer.scheduleWithFixedDelay(this::sniff, 0, nodes.getSniffInterval(), TimeUnit.MILLISECONDS);
+        }
+        log.info("初始化Elasticsearch Bulk客户端，节点: {}, 选择策略: {}, 节点嗅探: {}",
+                uris, nodes.getSelector(), nodes.isSniff() ? "启用" : "关闭");
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        if (sniffer != null) {
+            sniffer.shutdownNow();
+        }
+    }
+    
+    public List<ElasticsearchNode> getNodes() {
+        return nodeSelector.getNodes();
+    }
+    
+    /**
+     * 发送一个_bulk请求
+     *
+     * @param body      NDJSON请求体
+     * @param length    请求体有效长度
+     * @param documents 请求中的文档数
+     * @return 每条文档的写入结果
+     * @throws IOException 所有节点均不可达，或返回非200状态码（502/503/504时为最后一个尝试的节点的响应）
+     */
+    public BulkResult bulk(byte[] body, int length, int documents) throws IOException {
+        HttpResponse<InputStream> response = execute("POST", BULK_PATH, body, length, NDJSON);
+        try (InputStream in = response.body()) {
+            if (response.statusCode() != 200) {
+                String message = new String(in.readNBytes(1024), StandardCharsets.UTF_8);
+                drain(in);
+                throw new BulkRequestException(response.statusCode(), message);
+            }
+            BulkResult result = parseBulkResponse(in, documents);
+            drain(in);
+            return result;
+        }
+    }
+    
+    /**
+     * 发送PUT请求（索引模板、ILM策略等管理接口）
+     *
+     * @param path 请求路径
+     * @param body JSON请求体
+     * @return HTTP状态码
+     */
+    public int putJson(String path, byte[] body) throws IOException {
+        HttpResponse<InputStream> response = execute("PUT", path, body, body.length, "application/json");
+        try (InputStream in = response.body()) {
+            if (response.statusCode() >= 300) {
+                log.warn("Elasticsearch请求 PUT {} 失败 - Status: {}, Response: {}", path, response.statusCode(),
+                        new String(in.readNBytes(1024), StandardCharsets.UTF_8));
+            }
+            drain(in);
+            return response.statusCode();
+        }
+    }
+    
+    /**
+     * 按选择策略挑选节点执行请求，连接失败或返回502/503/504时换下一个未尝试过的节点；
+     * 所有节点都尝试过后，返回最后一个502/503/504响应，没有响应时抛出最后一次连接异常。
+     * 其他5xx计入节点失败，但响应直接交给调用方处理
+     */
+    HttpResponse<InputStream> execute(String method, String path, byte[] body, int length, String contentType)
+            throws IOException {
+        List<ElasticsearchNode> tried = new ArrayList<>(2);
+        IOException lastFailure = null;
+        HttpResponse<InputStream> unavailable = null;
+        ElasticsearchNode node;
+        while ((node = nodeSelector.select(tried)) != null) {
+            tried.add(node);
+            URI baseUri = node.getUri();
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUri + path))
+                    .timeout(requestTimeout)
+                    .method(method, body != null
+                            ? HttpRequest.BodyPublishers.ofByteArray(body, 0, length)
+                            : HttpRequest.BodyPublishers.noBody());
+            if (contentType != null) {
+                builder.header("Content-Type", contentType);
+            }
+            if (authorization != null) {
+                builder.header("Authorization", authorization);
+            }
+            long start = System.nanoTime();
+            node.begin();
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            } catch (InterruptedException e) {
+                node.abort();
+                Thread.currentThread().interrupt();
+                discard(unavailable);
+                throw new IOException("Interrupted while calling Elasticsearch", e);
+            } catch (IOException e) {
+                recordFailure(node);
+                log.warn("Elasticsearch节点 {} 请求失败: {}", baseUri, e.getMessage());
+                lastFailure = e;
+                continue;
+            }
+            if (response.statusCode() < 500) {
+                node.success(System.nanoTime() - start);
+                discard(unavailable);
+                return response;
+            }
+            recordFailure(node);
+            if (!FAILOVER_STATUSES.contains(response.statusCode())) {
+                discard(unavailable);
+                return response;
+            }
+            log.warn("Elasticsearch节点 {} 暂不可用 - Status: {}，尝试下一个节点", baseUri, response.statusCode());
+            discard(unavailable);
+            unavailable = response;
+        }
+        if (unavailable != null) {
+            return unavailable;
+        }
+        throw lastFailure != null ? lastFailure : new IOException("No Elasticsearch node available");
+    }
+    
+    /**
+     * 读完并关闭不再使用的响应体，连接放回连接池
+     */
+    private static void discard(HttpResponse<InputStream> response) {
+        if (response != null) {
+            try (InputStream in = response.body()) {
+                drain(in);
+            } catch (IOException e) {
+                log.debug("关闭Elasticsearch响应失败: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * 读完响应体剩余内容
+     * JDK HttpClient在响应体未读完就关闭时会丢弃连接，下一次请求只能重新建连
+     */
+    private static void drain(InputStream in) {
+        try {
+            in.transferTo(OutputStream.nullOutputStream());
+        } catch (IOException e) {
+            log.debug("读取Elasticsearch响应剩余内容失败: {}", e.getMessage());
+        }
+    }
+    
+    private void recordFailure(ElasticsearchNode node) {
+        if (node.failure(failureThreshold, ejectTime, maxEjectTime)) {
+            log.warn("Elasticsearch节点 {} 连续失败{}次，暂时摘除", node, failureThreshold);
+        }
+    }
+    
+    /**
+     * 嗅探集群中的HTTP节点，替换节点列表
+     * GET /_nodes/http 返回的publish_address形如 host/ip:port 或 ip:port
+     */
+    private void sniff() {
+        try {
+            HttpResponse<InputStream> response = execute("GET",
+                    "/_nodes/http?filter_path=nodes.*.http.publish_address", null, 0, null);
+            Set<URI> uris = new LinkedHashSet<>();
+            try (InputStream in = response.body()) {
+                if (response.statusCode() != 200) {
+                    log.warn("Elasticsearch节点嗅探失败 - Status: {}", response.statusCode());
+                    drain(in);
+                    return;
+                }
+                JsonNode nodes = logSerializer.getObjectMapper().readTree(in.readAllBytes()).path("nodes");
+                for (JsonNode node : nodes) {
+                    String address = node.path("http").path("publish_address").asText(null);
+                    if (address == null) {
+                        continue;
+                    }
+                    int slash = address.lastIndexOf('/');
+                    if (slash >= 0) {
+                        address = address.substring(slash + 1);
+                    }
+                    uris.add(URI.create(sniffScheme + "://" + address));
+                }
+            }
+            if (!uris.isEmpty()) {
+                nodeSelector.updateNodes(uris);
+                log.debug("Elasticsearch节点嗅探完成: {}", uris);
+            }
+        } catch (Exception e) {
+            log.warn("Elasticsearch节点嗅探失败: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 流式解析_bulk响应，errors为false时不再解析items
+     * 解析器关闭时不关闭输入流，剩余内容由调用方读完
+     */
+    private BulkResult parseBulkResponse(InputStream in, int documents) throws IOException {
+        int[] statuses = new int[documents];
+        String[] reasons = new String[documents];
+        boolean errors = false;
+        try (JsonParser parser = logSerializer.getObjectMapper().getFactory().createParser(in)
+                .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Unexpected bulk response");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("errors".equals(field)) {
+                    errors = parser.getBooleanValue();
+                    if (!errors) {
+                        Arrays.fill(statuses, 200);
+                        return new BulkResult(false, statuses, reasons);
+                    }
+                } else if ("items".equals(field)) {
+                    parseItems(parser, statuses, reasons);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return new BulkResult(errors, statuses, reasons);
+    }
+    
+    /**
+     * 解析items：[{"create":{"status":201}}, {"create":{"status":429,"error":{"type":..,"reason":..}}}]
+     */
+    private void parseItems(JsonParser parser, int[] statuses, String[] reasons) throws IOException {
+        int index = 0;
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            // 动作名（create/index）
+            parser.nextToken();
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("status".equals(field) && index < statuses.length) {
+                    statuses[index] = parser.getIntValue();
+                } else if ("error".equals(field) && index < reasons.length) {
+                    reasons[index] = parseError(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            // 结束动作对象和外层对象
+            parser.nextToken();
+            index++;
+        }
+    }
+    
+    private String parseError(JsonParser parser) throws IOException {
+        String type = null;
+        String reason = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("type".equals(field)) {
+                type = parser.getValueAsString();
+            } else if ("reason".equals(field)) {
+                reason = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return type + ": " + reason;
+    }
+    
+    /**
+     * 解析节点地址，支持 host:port 和 http(s)://host:port，多个地址用逗号分隔
+     */
+    static List<URI> parseHosts(String hosts) {
+        List<URI> uris = new ArrayList<>();
+        for (String host : StringUtils.commaDelimitedListToStringArray(hosts)) {
+            String trimmed = host.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!trimmed.startsWith("http://") && !trimmed.startsWith("https://")) {
+                trimmed = "http://" + trimmed;
+            }
+            if (trimmed.endsWith("/")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            }
+            uris.add(URI.create(trimmed));
+        }
+        if (uris.isEmpty()) {
+            uris.add(URI.create("http://localhost:9200"));
+        }
+        return uris;
+    }
+    
+    /**
+     * _bulk请求整体失败（非200状态码）
+     */
+    public static class BulkRequestException extends IOException {
+        
+        private final int status;
+        
+        public BulkRequestException(int status, String message) {
+            super("Elasticsearch bulk request failed with status " + status + ": " + message);
+            this.status = status;
+        }
+        
+        public int getStatus() {
+            return status;
+        }
+        
+        public boolean isRetryable() {
+            return BulkResult.isRetryableStatus(status);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.diit.common.log.sender.elasticsearch;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.entity.OperationLogEntity;
+import com.diit.common.log.entity.UserAccessLogEntity;
+import com.diit.common.log.metadata.FieldDescriptor;
+import com.diit.common.log.metadata.LogEntityMetadataRegistry;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.service.LogSerializer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.YearMonth;
+import java.time.temporal.Temporal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Elasticsearch索引管理
+ * 负责索引名和数据流名，并按实体字段类型生成索引模板：
+ * <ul>
+ *     <li>字符串默认keyword，配置的长文本字段为text；数值、布尔、日期按Java类型映射</li>
+ *     <li>Map和其他对象类型映射为flattened，避免任意键展开成大量字段</li>
+ *     <li>未声明字段按template.dynamic处理，默认只保存不索引</li>
+ * </ul>
+ * 启用数据流时同时创建ILM策略，按主分片大小或时长滚动
+ *
+ * @author zzx
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diit.log.elasticsearch", name = "enabled", havingValue = "true", matchIfMissing = false)
+public class ElasticsearchIndexManager {
+    
+    /**
+     * 数据流要求的时间字段
+     */
+    public static final String TIMESTAMP_FIELD = "@timestamp";
+    
+    /**
+     * 创建失败后的重试间隔（毫秒），避免Elasticsearch不可用时每批都请求模板接口
+     */
+    private static final long RETRY_INTERVAL = 30000;
+    
+    private static final String DATE_FORMAT = "strict_date_optional_time||epoch_millis";
+    
+    @Autowired
+    private ElasticsearchBulkClient bulkClient;
+    
+    @Autowired
+    private LogSerializer logSerializer;
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    /**
+     * 索引类型名缓存
+     * key: 实体类型, value: 索引名中的类型部分
+     */
+    private final Map<Class<?>, String> indexTypeCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 模板状态
+     * key: 实体类型, value: 下次允许尝试的时间（Long.MAX_VALUE表示已创建）
+     */
+    private final Map<Class<?>, Long> templateState = new ConcurrentHashMap<>();
+    
+    private volatile boolean policyReady;
+    
+    /**
+     * 启动完成后为内置实体创建模板，失败时在首次写入前重试
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        if (!logProperties.getElasticsearch().getTemplate().isEnabled()) {
+            return;
+        }
+        ensureTemplate(DefaultLogEntity.class);
+        ensureTemplate(OperationLogEntity.class);
+        ensureTemplate(UserAccessLogEntity.class);
+    }
+    
+    public boolean isDataStream() {
+        return logProperties.getElasticsearch().getDataStream().isEnabled();
+    }
+    
+    /**
+     * 写入目标：数据流模式为 logs-{type}-{namespace}，否则为按月索引 logs-{type}-yyyy-MM
+     */
+    public String resolveIndex(BaseLogEntity logEntity) {
+        String type = indexType(logEntity.getClass());
+        if (isDataStream()) {
+            return "logs-" + type + "-" + logProperties.getElasticsearch().getDataStream().getNamespace();
+        }
+        return "logs-" + type + "-" + YearMonth.now();
+    }
+    
+    /**
+     * 确保实体类型的索引模板已创建，每个类型只成功创建一次
+     */
+    public void ensureTemplate(Class<? extends BaseLogEntity> entityType) {
+        if (!logProperties.getElasticsearch().getTemplate().isEnabled()) {
+            return;
+        }
+        Long nextAttempt = templateState.get(entityType);
+        long now = System.currentTimeMillis();
+        if (nextAttempt != null && nextAttempt > now) {
+            return;
+        }
+        synchronized (this) {
+            nextAttempt = templateState.get(entityType);
+            if (nextAttempt != null && nextAttempt > now) {
+                return;
+            }
+            boolean created = putTemplate(entityType);
+            templateState.put(entityType, created ? Long.MAX_VALUE : now + RETRY_INTERVAL);
+        }
+    }
+    
+    private boolean putTemplate(Class<? extends BaseLogEntity> entityType) {
+        String type = indexType(entityType);
+        String templateName = "diit-logs-" + type;
+        try {
+            if (isDataStream() && !policyReady) {
+                policyReady = putLifecyclePolicy();
+            }
+            byte[] body = logSerializer.getObjectMapper().writeValueAsBytes(buildTemplate(entityType, type));
+            int status = bulkClient.putJson("/_index_template/" + templateName, body);
+            if (status >= 300) {
+                return false;
+            }
+            log.info("Elasticsearch索引模板已创建: {} -> logs-{}-*{}", templateName, type, isDataStream() ? "（数据流）" : "");
+            return true;
+        } catch (Exception e) {
+            log.warn("创建Elasticsearch索引模板 {} 失败: {}", templateName, e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 创建ILM策略：hot阶段按主分片大小或时长滚动，可选delete阶段
+     */
+    private boolean putLifecyclePolicy() throws Exception {
+        LogProperties.Elasticsearch.DataStream config = logProperties.getElasticsearch().getDataStream();
+        Map<String, Object> rollover = new LinkedHashMap<>();
+        if (StringUtils.hasText(config.getRolloverMaxPrimaryShardSize())) {
+            rollover.put("max_primary_shard_size", config.getRolloverMaxPrimaryShardSize());
+        }
+        if (StringUtils.hasText(config.getRolloverMaxAge())) {
+            rollover.put("max_age", config.getRolloverMaxAge());
+        }
+        Map<String, Object> phases = new LinkedHashMap<>();
+        phases.put("hot", Map.of("actions", Map.of("rollover", rollover)));
+        if (StringUtils.hasText(config.getDeleteAfter())) {
+            phases.put("delete", Map.of("min_age", config.getDeleteAfter(), "actions", Map.of("delete", Map.of())));
+        }
+        Map<String, Object> policy = Map.of("policy", Map.of("phases", phases));
+        
+        int status = bulkClient.putJson("/_ilm/policy/" + config.getPolicyName(),
+                logSerializer.getObjectMapper().writeValueAsBytes(policy));
+        return status < 300;
+    }
+    
+    /**
+     * 生成可组合索引模板
+     */
+    Map<String, Object> buildTemplate(Class<? extends BaseLogEntity> entityType, String type) {
+        LogProperties.Elasticsearch.Template config = logProperties.getElasticsearch().getTemplate();
+        
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("number_of_shards", config.getNumberOfShards());
+        settings.put("number_of_replicas", config.getNumberOfReplicas());
+        settings.put("refresh_interval", config.getRefreshInterval());
+        settings.put("mapping.total_fields.limit", config.getTotalFieldsLimit());
+        if (isDataStream()) {
+            settings.put("lifecycle.name", logProperties.getElasticsearch().getDataStream().getPolicyName());
+        }
+        
+        Map<String, Object> mappings = new LinkedHashMap<>();
+        mappings.put("dynamic", config.getDynamic());
+        mappings.put("properties", buildProperties(entityType, config));
+        
+        Map<String, Object> template = new LinkedHashMap<>();
+        template.put("settings", Map.of("index", settings));
+        template.put("mappings", mappings);
+        
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("index_patterns", Collections.singletonList("logs-" + type + "-*"));
+        body.put("priority", config.getPriority());
+        if (isDataStream()) {
+            body.put("data_stream", Map.of());
+        }
+        body.put("template", template);
+        body.put("_meta", Map.of("managed_by", "common-log-starter", "entity", entityType.getName()));
+        return body;
+    }
+    
+    private Map<String, Object> buildProperties(Class<? extends BaseLogEntity> entityType,
+                                                LogProperties.Elasticsearch.Template config) {
+        Set<String> textFields = new HashSet<>(Arrays.asList(config.getTextFields()));
+        Map<String, Object> keyword = Map.of("type", "keyword", "ignore_above", config.getKeywordIgnoreAbove());
+        Map<String, Object> date = Map.of("type", "date", "format", DATE_FORMAT);
+        
+        Map<String, Object> properties = new LinkedHashMap<>();
+        if (isDataStream()) {
+            properties.put(TIMESTAMP_FIELD, date);
+        }
+        properties.put("id", keyword);
+        properties.put("timestamp", date);
+        properties.put("content", Map.of("type", "text"));
+        properties.put("level", keyword);
+        
+        for (FieldDescriptor field : LogEntityMetadataRegistry.get(entityType).getFields()) {
+            Map<String, Object> mapping;
+            if (field.getJavaType() == String.class && textFields.contains(field.getName())) {
+                mapping = Map.of("type", "text");
+            } else if (field.getJavaType() == byte[].class) {
+                mapping = Map.of("type", "binary");
+            } else if (Collection.class.isAssignableFrom(field.getJavaType()) || field.getJavaType().isArray()) {
+                // 数组在Elasticsearch中按元素类型映射
+                mapping = fieldMapping(elementType(entityType, field), keyword, date);
+            } else {
+                mapping = fieldMapping(field.getJavaType(), keyword, date);
+            }
+            properties.put(field.getName(), mapping);
+        }
+        return properties;
+    }
+    
+    /**
+     * Java类型到Elasticsearch字段类型
+     */
+    private static Map<String, Object> fieldMapping(Class<?> type, Map<String, Object> keyword, Map<String, Object> date) {
+        if (type == String.class || type == Character.class || type == char.class || type.isEnum()) {
+            return keyword;
+        }
+        if (type == Integer.class || type == int.class || type == Short.class || type == short.class
+                || type == Byte.class || type == byte.class) {
+            return Map.of("type", "integer");
+        }
+        if (type == Long.class || type == long.class || type == BigInteger.class) {
+            return Map.of("type", "long");
+        }
+        if (type == Double.class || type == double.class || type == BigDecimal.class) {
+            return Map.of("type", "double");
+        }
+        if (type == Float.class || type == float.class) {
+            return Map.of("type", "float");
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return Map.of("type", "boolean");
+        }
+        if (Temporal.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)) {
+            return date;
+        }
+        // Map、嵌套对象等：整体作为一个flattened字段，键不会展开为独立映射
+        return Map.of("type", "flattened");
+    }
+    
+    /**
+     * 读取集合/数组字段的元素类型，无法确定时返回Object
+     */
+    private static Class<?> elementType(Class<?> entityType, FieldDescriptor descriptor) {
+        if (descriptor.getJavaType().isArray()) {
+            return descriptor.getJavaType().getComponentType();
+        }
+        Field field = ReflectionUtils.findField(entityType, descriptor.getName());
+        if (field != null && field.getGenericType() instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) field.getGenericType()).getActualTypeArguments();
+            if (arguments.length == 1 && arguments[0] instanceof Class) {
+                return (Class<?>) arguments[0];
+            }
+        }
+        return Object.class;
+    }
+    
+    private String indexType(Class<?> entityType) {
+        return indexTypeCache.computeIfAbsent(entityType,
+                type -> type.getSimpleName().replaceAll("LogEntity", "").toLowerCase());
+    }
+}
@@ -0,0 +1,28 @@
+package com.diit.common.log.sender.elasticsearch;
+
+import com.diit.common.log.sender.support.EndpointStats;
+
+import java.net.URI;
+
+/**
+ * Elasticsearch节点，健康统计见{@link EndpointStats}
+ *
+ * @author zzx
+ */
+public class ElasticsearchNode extends EndpointStats {
+    
+    private final URI uri;
+    
+    public ElasticsearchNode(URI uri) {
+        this.uri = uri;
+    }
+    
+    public URI getUri() {
+        return uri;
+    }
+    
+    @Override
+    public String toString() {
+        return uri.toString();
+    }
+}
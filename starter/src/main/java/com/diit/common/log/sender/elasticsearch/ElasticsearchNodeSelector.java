@@ -0,0 +1,116 @@
+package com.diit.common.log.sender.elasticsearch;
+
+import com.diit.common.log.sender.support.EndpointStats;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Elasticsearch节点选择器
+ * <ul>
+ *     <li>least-outstanding：进行中请求数最少的节点</li>
+ *     <li>ewma：EWMA耗时 ×（进行中请求数 + 1）最小的节点，慢节点自动少分流量，
+ *     没有耗时样本的节点按平均耗时计分</li>
+ *     <li>round-robin：依次轮询</li>
+ * </ul>
+ * 分数相同时从随机位置开始比较，避免所有线程同时涌向第一个节点；被摘除的节点不参与选择，
+ * 全部节点都被摘除时选择最早恢复的节点
+ *
+ * @author zzx
+ */
+public class ElasticsearchNodeSelector {
+    
+    public static final String LEAST_OUTSTANDING = "least-outstanding";
+    
+    public static final String EWMA = "ewma";
+    
+    public static final String ROUND_ROBIN = "round-robin";
+    
+    private final String strategy;
+    
+    private volatile List<ElasticsearchNode> nodes;
+    
+    private int next;
+    
+    public ElasticsearchNodeSelector(List<URI> uris, String strategy) {
+        this.strategy = strategy != null ? strategy.trim().toLowerCase() : LEAST_OUTSTANDING;
+        List<ElasticsearchNode> initial = new ArrayList<>(uris.size());
+        for (URI uri : uris) {
+            initial.add(new ElasticsearchNode(uri));
+        }
+        this.nodes = Collections.unmodifiableList(initial);
+    }
+    
+    public List<ElasticsearchNode> getNodes() {
+        return nodes;
+    }
+    
+    /**
+     * 替换节点列表（嗅探结果），已存在的节点保留其统计
+     */
+    public synchronized void updateNodes(Collection<URI> uris) {
+        if (uris.isEmpty()) {
+            return;
+        }
+        Map<URI, ElasticsearchNode> existing = new LinkedHashMap<>();
+        for (ElasticsearchNode node : nodes) {
+            existing.put(node.getUri(), node);
+        }
+        List<ElasticsearchNode> updated = new ArrayList<>(uris.size());
+        for (URI uri : uris) {
+            ElasticsearchNode node = existing.get(uri);
+            updated.add(node != null ? node : new ElasticsearchNode(uri));
+        }
+        nodes = Collections.unmodifiableList(updated);
+    }
+    
+    /**
+     * 选择一个节点
+     *
+     * @param excluded 本次请求已尝试过的节点
+     * @return 选中的节点，所有节点都已尝试过时返回null
+     */
+    public ElasticsearchNode select(Collection<ElasticsearchNode> excluded) {
+        List<ElasticsearchNode> current = nodes;
+        int size = current.size();
+        long now = System.currentTimeMillis();
+        int start = ROUND_ROBIN.equals(strategy) ? nextIndex(size) : ThreadLocalRandom.current().nextInt(size);
+        
+        double defaultEwma = EWMA.equals(strategy) ? EndpointStats.meanEwmaNanos(current) : 0;
+        ElasticsearchNode best = null;
+        double bestScore = Double.MAX_VALUE;
+        ElasticsearchNode earliestEjected = null;
+        for (int i = 0; i < size; i++) {
+            ElasticsearchNode node = current.get((start + i) % size);
+            if (excluded.contains(node)) {
+                continue;
+            }
+            if (!node.isAvailable(now)) {
+                if (earliestEjected == null || node.getEjectedUntil() < earliestEjected.getEjectedUntil()) {
+                    earliestEjected = node;
+                }
+                continue;
+            }
+            if (ROUND_ROBIN.equals(strategy)) {
+                return node;
+            }
+            double score = EWMA.equals(strategy) ? node.loadScore(defaultEwma) : node.getInFlight();
+            if (score < bestScore) {
+                best = node;
+                bestScore = score;
+            }
+        }
+        return best != null ? best : earliestEjected;
+    }
+    
+    private synchronized int nextIndex(int size) {
+        next = (next + 1) % size;
+        return next;
+    }
+}
@@ -0,0 +1,271 @@
+package com.diit.common.log.sender.http;
+
+import com.diit.common.log.properties.LogProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 非阻塞HTTP日志客户端
+ * 基于JDK HttpClient.sendAsync，接收端支持时走HTTP/2，多个请求复用同一连接；
+ * 每个端点用信号量限制进行中的请求数，窗口满时调用线程最多等待acquireTimeout，以此向上游施加背压；
+ * 连接失败、429和5xx按指数退避重试并换用其他端点，重试在延迟执行器上进行，不占用调用线程；
+ * 端点选择、摘除和对冲时机由 {@link HttpEndpointBalancer} 决定
+ *
+ * @author zzx
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diit.log.http", name = {"enabled", "async.enabled"}, havingValue = "true", matchIfMissing = false)
+public class AsyncHttpLogClient {
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    private HttpClient httpClient;
+    
+    private Duration requestTimeout;
+    
+    /**
+     * 每个端点的进行中请求窗口
+     * key: 端点URL, value: 信号量
+     */
+    private final Map<String, Semaphore> windows = new ConcurrentHashMap<>();
+    
+    private final LongAdder hedgedRequests = new LongAdder();
+    
+    @PostConstruct
+    public void init() {
+        LogProperties.Http http = logProperties.getHttp();
+        LogProperties.Http.Async config = http.getAsync();
+        httpClient = HttpClient.newBuilder()
+                .version(config.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(http.getConnectTimeout()))
+                .build();
+        requestTimeout = Duration.ofMillis(http.getReadTimeout());
+        log.info("初始化非阻塞HTTP日志客户端: http2={}, maxInFlightPerEndpoint={}, maxRetries={}",
+                config.isHttp2(), config.getMaxInFlightPerEndpoint(), config.getMaxRetries());
+    }
+    
+    /**
+     * 异步POST请求体
+     * 由均衡器选择端点；失败重试时换用未使用过的端点，启用对冲时主请求超过分位耗时仍未完成则向另一个端点补发，
+     * 先成功的响应完成结果
+     *
+     * @param balancer 端点均衡器
+     * @param body     请求体
+     * @param headers  请求头
+     * @return 最终响应状态码；重试用尽或不可重试时以 {@link HttpLogException} 异常完成
+     */
+    public CompletableFuture<Integer> post(HttpEndpointBalancer balancer, byte[] body, Map<String, String> headers) {
+        Exchange exchange = new Exchange(balancer, body, headers);
+        attempt(exchange, 0, false);
+        return exchange.result;
+    }
+    
+    private void attempt(Exchange exchange, int retries, boolean hedge) {
+        LogProperties.Http.Async config = logProperties.getHttp().getAsync();
+        HttpEndpoint endpoint;
+        synchronized (exchange.tried) {
+            endpoint = exchange.balancer.select(exchange.tried);
+            if (endpoint == null && !hedge) {
+                // 所有端点都已尝试过，重新从全部端点中选择
+                exchange.tried.clear();
+                endpoint = exchange.balancer.select(exchange.tried);
+            }
+            if (endpoint == null) {
+                if (!hedge) {
+                    exchange.result.completeExceptionally(new HttpLogException("没有可用的HTTP日志端点", 0, false));
+                }
+                return;
+            }
+            exchange.tried.add(endpoint);
+        }
+        Semaphore window = windows.computeIfAbsent(endpoint.getUrl(),
+                key -> new Semaphore(Math.max(1, config.getMaxInFlightPerEndpoint())));
+        
+        if (hedge) {
+            // 对冲请求只在窗口有空位时发出
+            if (!window.tryAcquire()) {
+                return;
+            }
+        } else if (retries > 0) {
+            // 重试运行在公共延迟执行器上，不阻塞等待窗口，窗口已满时退避后再试，并计入重试次数，
+            // 端点一直堵塞时不会无限重排
+            if (!window.tryAcquire()) {
+                if (retries >= config.getMaxRetries()) {
+                    exchange.result.completeExceptionally(
+                            new HttpLogException(endpoint + " 进行中的请求已达上限，重试次数已用尽", 0, true));
+                    return;
+                }
+                long delay = config.getRetryBackoff() << retries;
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                        .execute(() -> attempt(exchange, retries + 1, false));
+                return;
+            }
+        } else {
+            try {
+                if (!window.tryAcquire(config.getAcquireTimeout(), TimeUnit.MILLISECONDS)) {
+                    exchange.result.completeExceptionally(
+                            new HttpLogException(endpoint + " 进行中的请求已达上限", 0, false));
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                exchange.result.completeExceptionally(e);
+                return;
+            }
+        }
+        
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(endpoint.getUrl()))
+                .timeout(requestTimeout)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(exchange.body));
+        exchange.headers.forEach(builder::header);
+        if (hedge) {
+            builder.header("X-Log-Hedged", "true");
+        }
+        
+        HttpEndpoint selected = endpoint;
+        long start = System.nanoTime();
+        selected.begin();
+        exchange.pending.incrementAndGet();
+        if (!hedge && retries == 0) {
+            long hedgeDelay = exchange.balancer.hedgeDelayNanos();
+            if (hedgeDelay > 0) {
+                CompletableFuture.delayedExecutor(hedgeDelay, TimeUnit.NANOSECONDS).execute(() -> {
+                    if (!exchange.result.isDone() && exchange.pending.get() > 0) {
+                        hedgedRequests.increment();
+                        log.debug("HTTP日志请求超过{}ms未完成，向其他端点对冲", hedgeDelay / 1_000_000);
+                        attempt(exchange, 0, true);
+                    }
+                });
+            }
+        }
+        
+        httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, error) -> {
+                    window.release();
+                    exchange.pending.decrementAndGet();
+                    long elapsed = System.nanoTime() - start;
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    int status = response != null ? response.statusCode() : 0;
+                    if (cause != null || status >= 500) {
+                        exchange.balancer.failure(selected);
+                    } else {
+                        exchange.balancer.success(selected, elapsed);
+                    }
+                    
+                    if (cause == null && status < 300) {
+                        exchange.result.complete(status);
+                        return;
+                    }
+                    // 已由另一个请求完成，或对冲的另一个请求仍在进行，由它决定结果
+                    if (exchange.result.isDone() || exchange.pending.get() > 0) {
+                        return;
+                    }
+                    
+                    boolean retryable = cause != null ? cause instanceof IOException : isRetryableStatus(status);
+                    if (retryable && retries < config.getMaxRetries()) {
+                        long delay = config.getRetryBackoff() << retries;
+                        log.debug("HTTP日志请求失败，{}ms后第{}次重试: {}", delay, retries + 1,
+                                cause != null ? cause.getMessage() : "Status " + status);
+                        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                                .execute(() -> attempt(exchange, retries + 1, false));
+                        return;
+                    }
+                    String message = cause != null ? cause.getMessage() : "Status " + status;
+                    exchange.result.completeExceptionally(
+                            new HttpLogException(selected + " 请求失败: " + message, status, retryable));
+                });
+    }
+    
+    /**
+     * 已发出的对冲请求数
+     */
+    public long getHedgedRequests() {
+        return hedgedRequests.sum();
+    }
+    
+    /**
+     * 当前端点进行中的请求数
+     */
+    public int getInFlight(String endpoint) {
+        Semaphore window = windows.get(endpoint);
+        return window != null ? Math.max(1, logProperties.getHttp().getAsync().getMaxInFlightPerEndpoint())
+                - window.availablePermits() : 0;
+    }
+    
+    public static boolean isRetryableStatus(int status) {
+        return status == 408 || status == 429 || status >= 500;
+    }
+    
+    /**
+     * 一次日志投递，包括重试和对冲发出的所有请求
+     */
+    private static final class Exchange {
+        
+        private final HttpEndpointBalancer balancer;
+        
+        private final byte[] body;
+        
+        private final Map<String, String> headers;
+        
+        private final CompletableFuture<Integer> result = new CompletableFuture<>();
+        
+        private final List<HttpEndpoint> tried = new ArrayList<>(2);
+        
+        private final AtomicInteger pending = new AtomicInteger();
+        
+        private Exchange(HttpEndpointBalancer balancer, byte[] body, Map<String, String> headers) {
+            this.balancer = balancer;
+            this.body = body;
+            this.headers = headers;
+        }
+    }
+    
+    /**
+     * HTTP日志请求最终失败
+     */
+    public static class HttpLogException extends IOException {
+        
+        private final int status;
+        
+        private final boolean retryable;
+        
+        public HttpLogException(String message, int status, boolean retryable) {
+            super(message);
+            this.status = status;
+            this.retryable = retryable;
+        }
+        
+        /**
+         * 响应状态码，未收到响应时为0
+         */
+        public int getStatus() {
+            return status;
+        }
+        
+        public boolean isRetryable() {
+            return retryable;
+        }
+    }
+}
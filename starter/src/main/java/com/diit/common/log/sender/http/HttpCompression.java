@@ -0,0 +1,144 @@
+package com.diit.common.log.sender.http;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP批量请求体压缩算法
+ * 压缩后的请求体通过Content-Encoding声明，zstd需要classpath中存在zstd-jni
+ *
+ * @author zzx
+ */
+public enum HttpCompression {
+    
+    /**
+     * 不压缩
+     */
+    NONE("none", null),
+    
+    /**
+     * gzip（JDK自带）
+     */
+    GZIP("gzip", "gzip"),
+    
+    /**
+     * zstd，压缩率接近gzip最高级别，速度快数倍
+     */
+    ZSTD("zstd", "zstd");
+    
+    private static final boolean ZSTD_PRESENT = ClassUtils.isPresent("com.github.luben.zstd.ZstdOutputStream",
+            HttpCompression.class.getClassLoader());
+    
+    /**
+     * 配置值
+     */
+    private final String id;
+    
+    /**
+     * Content-Encoding请求头，不压缩时为null
+     */
+    private final String contentEncoding;
+    
+    HttpCompression(String id, String contentEncoding) {
+        this.id = id;
+        this.contentEncoding = contentEncoding;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+    
+    /**
+     * 当前环境是否可用
+     */
+    public boolean isAvailable() {
+        return this != ZSTD || ZSTD_PRESENT;
+    }
+    
+    /**
+     * 包装输出流，关闭返回的流时写出压缩尾部但不关闭目标流
+     *
+     * @param out   目标流
+     * @param level 压缩级别，小于等于0时使用算法默认级别
+     */
+    public OutputStream wrap(OutputStream out, int level) throws IOException {
+        OutputStream target = new NonClosingOutputStream(out);
+        switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(target, 8192) {
+                    {
+                        def.setLevel(level > 0 ? Math.min(level, 9) : Deflater.DEFAULT_COMPRESSION);
+                    }
+                };
+            case ZSTD:
+                return ZstdSupport.wrap(target, level);
+            default:
+                return target;
+        }
+    }
+    
+    /**
+     * 根据配置值解析算法，未识别时返回NONE
+     */
+    public static HttpCompression of(String value) {
+        if (value != null) {
+            for (HttpCompression compression : values()) {
+                if (compression.id.equalsIgnoreCase(value.trim())) {
+                    return compression;
+                }
+            }
+        }
+        return NONE;
+    }
+    
+    /**
+     * 单独持有zstd-jni的引用，缺少该依赖时只有选择zstd才会加载失败
+     */
+    private static final class ZstdSupport {
+        
+        private static OutputStream wrap(OutputStream out, int level) throws IOException {
+            return level > 0 ? new ZstdOutputStream(out, level) : new ZstdOutputStream(out);
+        }
+    }
+    
+    /**
+     * 压缩流关闭时只刷新目标流，目标缓冲区由调用方继续使用
+     */
+    private static final class NonClosingOutputStream extends OutputStream {
+        
+        private final OutputStream out;
+        
+        private NonClosingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.diit.common.log.sender.http;
+
+import com.diit.common.log.sender.support.EndpointStats;
+
+/**
+ * HTTP采集端点，健康统计见{@link EndpointStats}
+ *
+ * @author zzx
+ */
+public class HttpEndpoint extends EndpointStats {
+    
+    private final String url;
+    
+    public HttpEndpoint(String url) {
+        this.url = url;
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    @Override
+    public String toString() {
+        return url;
+    }
+}
@@ -0,0 +1,201 @@
+package com.diit.common.log.sender.http;
+
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.sender.support.EndpointStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP采集端点负载均衡
+ * <ul>
+ *     <li>选择：随机取两个可用端点（power of two choices），选负载分数低的一个，
+ *     避免所有发送线程同时涌向同一个"最快"端点；没有耗时样本的端点按平均耗时计分</li>
+ *     <li>摘除：连续失败达到阈值的端点暂停使用，全部被摘除时选择最早恢复的端点</li>
+ *     <li>对冲：记录最近的请求耗时，主请求超过分位耗时（默认p99）仍未完成时，可向另一个端点补发</li>
+ * </ul>
+ *
+ * @author zzx
+ */
+@Slf4j
+public class HttpEndpointBalancer {
+    
+    /**
+     * 耗时样本窗口大小（2的幂）
+     */
+    private static final int WINDOW = 1024;
+    
+    /**
+     * 每记录多少个样本重新计算一次分位耗时
+     */
+    private static final int RECOMPUTE_EVERY = 128;
+    
+    /**
+     * 样本不足时不计算分位耗时，也不对冲
+     */
+    private static final int MIN_SAMPLES = 100;
+    
+    private final List<HttpEndpoint> endpoints;
+    
+    private final LogProperties.Http.Balancer config;
+    
+    private final long[] latencies = new long[WINDOW];
+    
+    private final AtomicLong samples = new AtomicLong();
+    
+    private volatile long quantileNanos = Long.MAX_VALUE;
+    
+    public HttpEndpointBalancer(List<String> urls, LogProperties.Http.Balancer config) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("No HTTP log endpoint configured");
+        }
+        List<HttpEndpoint> list = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            list.add(new HttpEndpoint(url));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+        this.config = config;
+    }
+    
+    /**
+     * 解析逗号分隔的端点列表，忽略空白项
+     */
+    public static List<String> parseEndpoints(String value) {
+        List<String> urls = new ArrayList<>();
+        if (value != null) {
+            Arrays.stream(StringUtils.commaDelimitedListToStringArray(value))
+                    .map(String::trim)
+                    .filter(StringUtils::hasText)
+                    .forEach(urls::add);
+        }
+        return urls;
+    }
+    
+    public List<HttpEndpoint> getEndpoints() {
+        return endpoints;
+    }
+    
+    public int size() {
+        return endpoints.size();
+    }
+    
+    /**
+     * 选择一个端点
+     *
+     * @param excluded 本次请求已使用过的端点
+     * @return 选中的端点，所有端点都已使用过时返回null
+     */
+    public HttpEndpoint select(Collection<HttpEndpoint> excluded) {
+        if (endpoints.size() == 1) {
+            HttpEndpoint only = endpoints.get(0);
+            return excluded.contains(only) ? null : only;
+        }
+        long now = System.currentTimeMillis();
+        int size = endpoints.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        
+        // 先随机取两个候选，都不可用时再线性扫描
+        HttpEndpoint first = endpoints.get(random.nextInt(size));
+        HttpEndpoint second = endpoints.get(random.nextInt(size));
+        boolean firstUsable = usable(first, excluded, now);
+        boolean secondUsable = second != first && usable(second, excluded, now);
+        if (firstUsable && secondUsable) {
+            double defaultEwma = EndpointStats.meanEwmaNanos(endpoints);
+            return first.loadScore(defaultEwma) <= second.loadScore(defaultEwma) ? first : second;
+        }
+        if (firstUsable || secondUsable) {
+            // 另一个候选不可用时从随机位置补找一个，仍保持两两比较
+            HttpEndpoint candidate = firstUsable ? first : second;
+            HttpEndpoint other = scan(excluded, now, random.nextInt(size), candidate);
+            if (other == null) {
+                return candidate;
+            }
+            double defaultEwma = EndpointStats.meanEwmaNanos(endpoints);
+            return other.loadScore(defaultEwma) < candidate.loadScore(defaultEwma) ? other : candidate;
+        }
+        HttpEndpoint any = scan(excluded, now, random.nextInt(size), null);
+        if (any != null) {
+            return any;
+        }
+        
+        // 未使用过的端点都被摘除，选择最早恢复的
+        HttpEndpoint earliest = null;
+        for (HttpEndpoint endpoint : endpoints) {
+            if (!excluded.contains(endpoint)
+                    && (earliest == null || endpoint.getEjectedUntil() < earliest.getEjectedUntil())) {
+                earliest = endpoint;
+            }
+        }
+        return earliest;
+    }
+    
+    private HttpEndpoint scan(Collection<HttpEndpoint> excluded, long now, int start, HttpEndpoint skip) {
+        int size = endpoints.size();
+        for (int i = 0; i < size; i++) {
+            HttpEndpoint endpoint = endpoints.get((start + i) % size);
+            if (endpoint != skip && usable(endpoint, excluded, now)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+    
+    private static boolean usable(HttpEndpoint endpoint, Collection<HttpEndpoint> excluded, long now) {
+        return endpoint.isAvailable(now) && !excluded.contains(endpoint);
+    }
+    
+    /**
+     * 请求成功，记录耗时样本
+     */
+    public void success(HttpEndpoint endpoint, long elapsedNanos) {
+        endpoint.success(elapsedNanos);
+        long n = samples.getAndIncrement();
+        latencies[(int) (n & (WINDOW - 1))] = elapsedNanos;
+        if (n + 1 >= MIN_SAMPLES && (n + 1) % RECOMPUTE_EVERY == 0) {
+            recomputeQuantile(n + 1);
+        }
+    }
+    
+    /**
+     * 请求失败（连接错误或5xx）
+     */
+    public void failure(HttpEndpoint endpoint) {
+        if (endpoint.failure(Math.max(1, config.getFailureThreshold()), config.getEjectTime(),
+                Math.max(config.getEjectTime(), config.getMaxEjectTime()))) {
+            log.warn("HTTP日志端点 {} 连续失败{}次，暂时摘除", endpoint, config.getFailureThreshold());
+        }
+    }
+    
+    /**
+     * 请求被中断，不计入耗时和失败
+     */
+    public void abort(HttpEndpoint endpoint) {
+        endpoint.abort();
+    }
+    
+    private void recomputeQuantile(long total) {
+        int count = (int) Math.min(total, WINDOW);
+        long[] copy = Arrays.copyOf(latencies, count);
+        Arrays.sort(copy);
+        int index = Math.min(count - 1, (int) Math.ceil(config.getHedgeQuantile() * count) - 1);
+        quantileNanos = copy[Math.max(0, index)];
+    }
+    
+    /**
+     * 对冲等待时间（纳秒）：最近请求耗时的分位值，不低于hedgeMinDelay；
+     * 未启用对冲、只有一个端点或样本不足时返回-1
+     */
+    public long hedgeDelayNanos() {
+        if (!config.isHedging() || endpoints.size() < 2 || quantileNanos == Long.MAX_VALUE) {
+            return -1;
+        }
+        return Math.max(quantileNanos, config.getHedgeMinDelay() * 1_000_000L);
+    }
+}
@@ -0,0 +1,291 @@
+package com.diit.common.log.sender.impl;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.metadata.LogEntityMetadataRegistry;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.sender.GenericLogSender;
+import com.diit.common.log.sender.database.CopyFormat;
+import com.diit.common.log.sender.database.DatabaseSchemaManager;
+import com.diit.common.log.sender.database.InsertPlan;
+import com.diit.common.log.sender.database.PostgresCopyWriter;
+import com.diit.common.log.service.LogSerializer;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 统一数据库发送器
+ * 支持任何继承自BaseLogEntity的实体类，包括自定义字段
+ * 使用动态表结构存储自定义字段，表结构由DatabaseSchemaManager校验并缓存；
+ * 启用database.hybrid时未提升的自定义字段合并写入JSONB列attributes，新字段不再触发ALTER TABLE
+ * 
+ * @author zzx
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diit.log.database", name = "enabled", havingValue = "true", matchIfMissing = false)
+public class UnifiedDatabaseSender implements GenericLogSender<BaseLogEntity> {
+    
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    @Autowired
+    private LogSerializer logSerializer;
+    
+    @Autowired
+    private DatabaseSchemaManager schemaManager;
+    
+    @Autowired(required = false)
+    private PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    /**
+     * COPY写入，未启用database.copy时为null
+     */
+    private PostgresCopyWriter copyWriter;
+    
+    /**
+     * hybrid模式下attributes列的JSON写出器（日期输出为ISO-8601字符串），按列存储时为null
+     */
+    private ObjectWriter attributesWriter;
+    
+    /**
+     * 插入计划缓存
+     * key: 实体类型, value: 插入计划
+     */
+    private final Map<Class<?>, InsertPlan> insertPlans = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        if (transactionManager != null) {
+            transactionTemplate = new TransactionTemplate(transactionManager);
+        }
+        LogProperties.Database.Copy copy = logProperties.getDatabase().getCopy();
+        if (copy.isEnabled() && jdbcTemplate != null) {
+            copyWriter = new PostgresCopyWriter(jdbcTemplate, CopyFormat.of(copy.getFormat()));
+        }
+        if (logProperties.getDatabase().getHybrid().isEnabled()) {
+            attributesWriter = logSerializer.getObjectMapper().writer()
+                    .without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        }
+    }
+    
+    /**
+     * 获取配置的表名
+     */
+    private String getTableName() {
+        return logProperties.getDatabase().getTableName();
+    }
+    
+    @Override
+    public void send(BaseLogEntity logEntity) {
+        sendGenericLog(logEntity);
+    }
+    
+    @Override
+    @Async("logExecutor")
+    public void sendAsync(BaseLogEntity logEntity) {
+        send(logEntity);
+    }
+    
+    @Override
+    public void sendBatch(List<BaseLogEntity> logEntities) {
+        if (logEntities == null || logEntities.isEmpty()) {
+            return;
+        }
+        
+        try {
+            log.info("🚀 批量保存{}条日志到数据库", logEntities.size());
+            if (jdbcTemplate == null) {
+                for (BaseLogEntity entity : logEntities) {
+                    send(entity);
+                }
+                return;
+            }
+            batchInsert(logEntities);
+        } catch (Exception e) {
+            log.error("批量保存日志到数据库失败", e);
+            throw new RuntimeException("Failed to batch save logs to database", e);
+        }
+    }
+    
+    @Override
+    public String getSenderType() {
+        return "database";
+    }
+    
+    @Override
+    public boolean supports(Class<? extends BaseLogEntity> entityClass) {
+        // 数据库发送器支持所有继承自BaseLogEntity的实体类
+        return BaseLogEntity.class.isAssignableFrom(entityClass);
+    }
+    
+    /**
+     * 统一的日志发送方法
+     * 支持任何继承自BaseLogEntity的实体类，包括自定义字段
+     */
+    private void sendGenericLog(BaseLogEntity logEntity) {
+        try {
+            if (jdbcTemplate != null) {
+                // 真实插入到数据库（表结构校验结果已缓存）
+                int rowsAffected = insertGenericLog(logEntity);
+                
+                if (rowsAffected > 0) {
+                    log.info("✅ 数据库日志保存成功 - 插入记录ID: {}, 类型: {}", 
+                            logEntity.getId(), logEntity.getClass().getSimpleName());
+                    log.debug("   自定义字段: {}", hasCustomFields(logEntity) ? "是" : "否");
+                } else {
+                    log.warn("⚠️ 数据库日志插入未生效 - ID: {}", logEntity.getId());
+                }
+                
+            } else {
+                // 模拟模式
+                log.warn("⚠️ JdbcTemplate不可用，使用模拟模式:");
+                log.info("   实体类型: {}", logEntity.getClass().getSimpleName());
+                log.info("   自定义字段: {}", hasCustomFields(logEntity) ? "是" : "否");
+                log.info("   ID: {}, Content: {}, Level: {}", 
+                        logEntity.getId(), logEntity.getContent(), logEntity.getLevel());
+            }
+            
+        } catch (Exception e) {
+            log.error("数据库保存日志失败 - ID: {}", logEntity.getId(), e);
+            throw new RuntimeException("Failed to save log to database", e);
+        }
+    }
+    
+    /**
+     * 插入通用日志（支持自定义字段）
+     * 表结构按（表, 实体类型）缓存，正常情况下每条日志只有一次INSERT；
+     * 表或列被外部删除时清除缓存、重新校验后重试一次
+     */
+    private int insertGenericLog(BaseLogEntity logEntity) {
+        String tableName = getTableName();
+        InsertPlan plan = insertPlan(logEntity.getClass());
+        schemaManager.ensureSchema(plan);
+        
+        Object[] params = plan.bind(logEntity);
+        
+        try {
+            return jdbcTemplate.update(plan.getSql(), params, plan.getArgTypes());
+        } catch (DataAccessException e) {
+            if (!DatabaseSchemaManager.isSchemaDrift(e)) {
+                throw e;
+            }
+            schemaManager.invalidate(tableName);
+            schemaManager.ensureSchema(plan);
+            return jdbcTemplate.update(plan.getSql(), params, plan.getArgTypes());
+        }
+    }
+    
+    /**
+     * 批量插入
+     * 按实体类型分组，每组使用同一条预编译INSERT按database.batchSize分片调用batchUpdate，
+     * 启用database.copy且数据库为PostgreSQL时每组改为一次COPY；所有分组在一个事务内提交
+     */
+    private void batchInsert(List<BaseLogEntity> logEntities) {
+        String tableName = getTableName();
+        Map<Class<? extends BaseLogEntity>, List<Object[]>> groups = new LinkedHashMap<>();
+        for (BaseLogEntity logEntity : logEntities) {
+            groups.computeIfAbsent(logEntity.getClass(), type -> new ArrayList<>())
+                    .add(insertPlan(logEntity.getClass()).bind(logEntity));
+        }
+        groups.keySet().forEach(type -> schemaManager.ensureSchema(insertPlan(type)));
+        
+        try {
+            writeGroups(groups);
+        } catch (DataAccessException e) {
+            if (copyWriter != null && copyWriter.isAvailable() && PostgresCopyWriter.isFormatMismatch(e)) {
+                // 表的列类型与COPY数据不兼容，停用COPY后整批改用INSERT
+                copyWriter.disable(e);
+                batchInsert(logEntities);
+                return;
+            }
+            if (e instanceof DataIntegrityViolationException) {
+                // 个别记录（如主键冲突、违反约束）导致整批回滚时逐条写入，只丢弃违反约束的记录
+                log.warn("批量插入违反约束，改为逐条插入: {}", e.getMessage());
+                insertOneByOne(logEntities);
+                return;
+            }
+            if (!DatabaseSchemaManager.isSchemaDrift(e)) {
+                // 连接中断、超时等错误逐条写入也不会成功，整批抛出由调用方重试
+                throw e;
+            }
+            // 事务已回滚，校验表结构后整批重试
+            schemaManager.invalidate(tableName);
+            groups.keySet().forEach(type -> schemaManager.ensureSchema(insertPlan(type)));
+            writeGroups(groups);
+        }
+    }
+    
+    /**
+     * 逐条插入，跳过违反约束的记录，其他错误（连接中断等）直接抛出
+     */
+    private void insertOneByOne(List<BaseLogEntity> logEntities) {
+        for (BaseLogEntity logEntity : logEntities) {
+            try {
+                insertGenericLog(logEntity);
+            } catch (DataIntegrityViolationException e) {
+                log.error("数据库保存日志失败，记录违反约束 - ID: {}, Error: {}", logEntity.getId(), e.getMessage());
+            }
+        }
+    }
+    
+    private void writeGroups(Map<Class<? extends BaseLogEntity>, List<Object[]>> groups) {
+        int batchSize = Math.max(1, logProperties.getDatabase().getBatchSize());
+        boolean copy = copyWriter != null && copyWriter.isAvailable();
+        Runnable write = () -> {
+            for (Map.Entry<Class<? extends BaseLogEntity>, List<Object[]>> group : groups.entrySet()) {
+                InsertPlan plan = insertPlan(group.getKey());
+                List<Object[]> rows = group.getValue();
+                if (copy) {
+                    copyWriter.copy(plan, rows);
+                    continue;
+                }
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    jdbcTemplate.batchUpdate(plan.getSql(), rows.subList(from, Math.min(from + batchSize, rows.size())),
+                            plan.getArgTypes());
+                }
+            }
+        };
+        if (transactionTemplate != null) {
+            transactionTemplate.executeWithoutResult(status -> write.run());
+        } else {
+            write.run();
+        }
+    }
+    
+    private InsertPlan insertPlan(Class<? extends BaseLogEntity> entityType) {
+        return insertPlans.computeIfAbsent(entityType, type -> attributesWriter != null
+                ? InsertPlan.hybrid(getTableName(), entityType,
+                        Arrays.asList(logProperties.getDatabase().getHybrid().getPromotedFields()), attributesWriter)
+                : InsertPlan.of(getTableName(), entityType));
+    }
+    
+    /**
+     * 检查实体是否包含自定义字段
+     */
+    private boolean hasCustomFields(BaseLogEntity logEntity) {
+        return !LogEntityMetadataRegistry.of(logEntity).getFields().isEmpty();
+    }
+}
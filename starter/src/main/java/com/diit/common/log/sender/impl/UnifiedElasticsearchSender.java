@@ -0,0 +1,317 @@
+package com.diit.common.log.sender.impl;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.metrics.LogSenderMetrics;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.sender.GenericLogSender;
+import com.diit.common.log.sender.elasticsearch.BulkResult;
+import com.diit.common.log.sender.elasticsearch.ElasticsearchBulkClient;
+import com.diit.common.log.sender.elasticsearch.ElasticsearchIndexManager;
+import com.diit.common.log.service.LogSerializer;
+import com.diit.common.log.utils.ReusableByteArrayOutputStream;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 统一Elasticsearch发送器
+ * 支持任何继承自BaseLogEntity的实体类，包括自定义字段
+ * 日志以NDJSON的动作行/文档行写入_bulk请求，按字节数和文档数分片；
+ * 只重试返回429或5xx的文档，其余失败记录到发送器指标；
+ * 启用数据流时一律使用create动作，并在文档开头补充@timestamp
+ *
+ * @author zzx
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diit.log.elasticsearch", name = "enabled", havingValue = "true", matchIfMissing = false)
+public class UnifiedElasticsearchSender implements GenericLogSender<BaseLogEntity> {
+    
+    private static final byte[] ACTION_ID = ",\"_id\":\"".getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] ACTION_END_WITH_ID = "\"}}\n".getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] ACTION_END = "}}\n".getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] TIMESTAMP_PREFIX = ("{\"" + ElasticsearchIndexManager.TIMESTAMP_FIELD + "\":\"")
+            .getBytes(StandardCharsets.UTF_8);
+    
+    @Autowired
+    private ElasticsearchBulkClient bulkClient;
+    
+    @Autowired
+    private ElasticsearchIndexManager indexManager;
+    
+    @Autowired
+    private LogSerializer logSerializer;
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    @Autowired
+    private LogSenderMetrics senderMetrics;
+    
+    /**
+     * 动作行前缀缓存
+     * key: 索引名, value: {"create":{"_index":"..." 的UTF-8字节
+     */
+    private final Map<String, byte[]> createPrefixCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 无ID文档的动作行前缀缓存
+     * key: 索引名, value: {"index":{"_index":"..." 的UTF-8字节（数据流为create）
+     */
+    private final Map<String, byte[]> indexPrefixCache = new ConcurrentHashMap<>();
+    
+    private int bulkMaxBytes;
+    
+    private int bulkMaxDocuments;
+    
+    private int maxRetries;
+    
+    private long retryBackoff;
+    
+    private boolean dataStream;
+    
+    @PostConstruct
+    public void init() {
+        LogProperties.Elasticsearch config = logProperties.getElasticsearch();
+        bulkMaxBytes = config.getBulkMaxBytes();
+        bulkMaxDocuments = Math.max(1, config.getBulkMaxDocuments());
+        maxRetries = Math.max(0, config.getMaxRetries());
+        retryBackoff = config.getRetryBackoff();
+        dataStream = indexManager.isDataStream();
+    }
+    
+    @Override
+    public void send(BaseLogEntity logEntity) {
+        try {
+            bulkSend(Collections.singletonList(logEntity));
+        } catch (Exception e) {
+            log.error("Elasticsearch发送日志失败", e);
+            throw new RuntimeException("Failed to send log to Elasticsearch", e);
+        }
+    }
+    
+    @Override
+    @Async("logExecutor")
+    public void sendAsync(BaseLogEntity logEntity) {
+        send(logEntity);
+    }
+    
+    @Override
+    public void sendBatch(List<BaseLogEntity> logEntities) {
+        if (logEntities == null || logEntities.isEmpty()) {
+            return;
+        }
+        
+        try {
+            bulkSend(logEntities);
+        } catch (Exception e) {
+            log.error("批量发送日志到Elasticsearch失败", e);
+            throw new RuntimeException("Failed to batch send logs to Elasticsearch", e);
+        }
+    }
+    
+    @Override
+    public String getSenderType() {
+        return "elasticsearch";
+    }
+    
+    @Override
+    public boolean supports(Class<? extends BaseLogEntity> entityClass) {
+        // ES发送器支持所有继承自BaseLogEntity的实体类
+        return BaseLogEntity.class.isAssignableFrom(entityClass);
+    }
+    
+    /**
+     * 批量写入，失败的可重试文档按退避时间重新组装请求，直到全部成功或用完重试次数
+     */
+    private void bulkSend(List<BaseLogEntity> logEntities) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        for (BaseLogEntity logEntity : logEntities) {
+            applyDefaults(logEntity);
+        }
+        
+        List<BaseLogEntity> pending = logEntities;
+        for (int attempt = 0; ; attempt++) {
+            List<BaseLogEntity> retry = writeBulk(pending);
+            if (retry.isEmpty()) {
+                break;
+            }
+            if (attempt >= maxRetries) {
+                senderMetrics.recordFailure(getSenderType(), retry.size());
+                throw new IOException(retry.size() + " documents still failed after " + maxRetries + " retries");
+            }
+            long backoff = retryBackoff << attempt;
+            log.warn("Elasticsearch有{}条文档写入失败，{}ms后第{}次重试", retry.size(), backoff, attempt + 1);
+            Thread.sleep(backoff);
+            pending = retry;
+        }
+        senderMetrics.recordBatch(getSenderType(), logEntities.size(), System.nanoTime() - start);
+    }
+    
+    /**
+     * 将日志写入一个或多个_bulk请求
+     *
+     * @return 需要重试的日志
+     */
+    private List<BaseLogEntity> writeBulk(List<BaseLogEntity> logEntities) throws IOException {
+        List<BaseLogEntity> retry = new ArrayList<>();
+        List<BaseLogEntity> chunk = new ArrayList<>(Math.min(logEntities.size(), bulkMaxDocuments));
+        ReusableByteArrayOutputStream buffer = ReusableByteArrayOutputStream.acquire();
+        Class<?> lastType = null;
+        try {
+            for (BaseLogEntity logEntity : logEntities) {
+                if (logEntity.getClass() != lastType) {
+                    lastType = logEntity.getClass();
+                    indexManager.ensureTemplate(logEntity.getClass());
+                }
+                int mark = buffer.size();
+                writeAction(buffer, logEntity);
+                writeDocument(buffer, logEntity);
+                buffer.write('\n');
+                
+                // 超过字节上限时先发送之前的文档，当前文档留到下一个请求
+                if (buffer.size() > bulkMaxBytes && !chunk.isEmpty()) {
+                    byte[] tail = Arrays.copyOfRange(buffer.buffer(), mark, buffer.size());
+                    flush(buffer.buffer(), mark, chunk, retry);
+                    chunk.clear();
+                    buffer.reset();
+                    buffer.write(tail);
+                }
+                chunk.add(logEntity);
+                
+                if (chunk.size() >= bulkMaxDocuments) {
+                    flush(buffer.buffer(), buffer.size(), chunk, retry);
+                    chunk.clear();
+                    buffer.reset();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                flush(buffer.buffer(), buffer.size(), chunk, retry);
+            }
+        } finally {
+            buffer.release();
+        }
+        return retry;
+    }
+    
+    /**
+     * 发送一个_bulk请求，按响应中每条文档的状态区分成功、可重试和不可重试
+     */
+    private void flush(byte[] body, int length, List<BaseLogEntity> chunk, List<BaseLogEntity> retry) throws IOException {
+        BulkResult result;
+        try {
+            result = bulkClient.bulk(body, length, chunk.size());
+        } catch (ElasticsearchBulkClient.BulkRequestException e) {
+            if (!e.isRetryable()) {
+                senderMetrics.recordFailure(getSenderType(), chunk.size());
+                throw e;
+            }
+            log.warn("Elasticsearch _bulk请求失败，整批重试: {}", e.getMessage());
+            retry.addAll(chunk);
+            return;
+        } catch (IOException e) {
+            log.warn("Elasticsearch _bulk请求失败，整批重试: {}", e.getMessage());
+            retry.addAll(chunk);
+            return;
+        }
+        
+        if (!result.hasErrors()) {
+            senderMetrics.recordSuccess(getSenderType(), chunk.size(), length);
+            log.debug("Elasticsearch _bulk写入成功 - 文档数: {}, 字节数: {}", chunk.size(), length);
+            return;
+        }
+        
+        int success = 0;
+        int rejected = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            if (result.isSuccess(i)) {
+                success++;
+            } else if (result.isRetryable(i)) {
+                retry.add(chunk.get(i));
+            } else {
+                rejected++;
+                log.error("❌ Elasticsearch文档写入失败 - ID: {}, Status: {}, Error: {}",
+                        chunk.get(i).getId(), result.getStatus(i), result.getErrorReason(i));
+            }
+        }
+        senderMetrics.recordSuccess(getSenderType(), success, (long) length * success / chunk.size());
+        if (rejected > 0) {
+            senderMetrics.recordFailure(getSenderType(), rejected);
+        }
+    }
+    
+    /**
+     * 写入文档行，日期输出为ISO-8601字符串；数据流模式在开头补充@timestamp
+     */
+    private void writeDocument(ReusableByteArrayOutputStream buffer, BaseLogEntity logEntity) throws IOException {
+        if (!dataStream) {
+            logSerializer.writeJsonWithIsoDates(logEntity, buffer);
+            return;
+        }
+        buffer.write(TIMESTAMP_PREFIX);
+        buffer.write(logEntity.getTimestamp().atZone(ZoneId.systemDefault()).toInstant().toString()
+                .getBytes(StandardCharsets.US_ASCII));
+        buffer.write('"');
+        int documentStart = buffer.size();
+        logSerializer.writeJsonWithIsoDates(logEntity, buffer);
+        // 文档的起始'{'改为','接在@timestamp之后；空对象时改为空格
+        byte[] bytes = buffer.buffer();
+        bytes[documentStart] = bytes[documentStart + 1] == '}' ? (byte) ' ' : (byte) ',';
+    }
+    
+    /**
+     * 写入动作行：有ID时用create保证重试幂等，没有ID时用index由Elasticsearch生成ID（数据流只接受create）
+     */
+    private void writeAction(ReusableByteArrayOutputStream buffer, BaseLogEntity logEntity) throws IOException {
+        String indexName = indexManager.resolveIndex(logEntity);
+        String id = logEntity.getId();
+        if (id != null) {
+            buffer.write(createPrefixCache.computeIfAbsent(indexName, name -> actionPrefix("create", name)));
+            buffer.write(ACTION_ID);
+            buffer.write(JsonStringEncoder.getInstance().quoteAsUTF8(id));
+            buffer.write(ACTION_END_WITH_ID);
+        } else {
+            buffer.write(indexPrefixCache.computeIfAbsent(indexName,
+                    name -> actionPrefix(dataStream ? "create" : "index", name)));
+            buffer.write(ACTION_END);
+        }
+    }
+    
+    private static byte[] actionPrefix(String action, String indexName) {
+        return ("{\"" + action + "\":{\"_index\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(indexName)) + "\"")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 确保基础字段被正确设置（只在为null时设置）
+     */
+    private void applyDefaults(BaseLogEntity logEntity) {
+        if (logEntity.getTimestamp() == null) {
+            logEntity.setTimestamp(LocalDateTime.now());
+        }
+        if (logEntity.getContent() == null) {
+            logEntity.setContent("操作记录");
+        }
+        if (logEntity.getLevel() == null) {
+            logEntity.setLevel(org.springframework.boot.logging.LogLevel.INFO);
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.diit.common.log.sender.impl;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.metrics.LogSenderMetrics;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.sender.GenericLogSender;
+import com.diit.common.log.sender.http.AsyncHttpLogClient;
+import com.diit.common.log.sender.http.HttpCompression;
+import com.diit.common.log.sender.http.HttpEndpoint;
+import com.diit.common.log.sender.http.HttpEndpointBalancer;
+import com.diit.common.log.serialize.EncodedPayload;
+import com.diit.common.log.serialize.PayloadFormat;
+import com.diit.common.log.serialize.PayloadHeaders;
+import com.diit.common.log.service.LogSerializer;
+import com.diit.common.log.utils.ReusableByteArrayOutputStream;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 统一HTTP发送器
+ * 支持任何继承自BaseLogEntity的实体类，包括自定义字段
+ * 启用http.batch时，sendBatch把多条日志写成一个NDJSON或JSON数组请求体（可选gzip/zstd压缩）发送到批量端点，
+ * 分摊每条日志的连接和请求开销；批量请求体固定为JSON。
+ * 启用http.async时请求通过AsyncHttpLogClient非阻塞发出，结果在完成回调中计入发送器指标。
+ * 配置多个端点时由HttpEndpointBalancer按负载选择，失败时换用其他端点
+ * 
+ * @author zzx
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diit.log.http", name = "enabled", havingValue = "true", matchIfMissing = false)
+public class UnifiedHttpSender implements GenericLogSender<BaseLogEntity> {
+    
+    @Autowired(required = false)
+    private RestTemplate restTemplate;
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    @Autowired
+    private LogSerializer logSerializer;
+    
+    @Autowired
+    private LogSenderMetrics senderMetrics;
+    
+    @Autowired(required = false)
+    private AsyncHttpLogClient asyncClient;
+    
+    // 默认HTTP端点配置
+    private static final String DEFAULT_GENERIC_LOG_ENDPOINT = "http://localhost:8080/api/logs/receive";
+    
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    
+    private boolean jsonArray;
+    
+    private HttpCompression compression;
+    
+    /**
+     * 单条日志的端点均衡器
+     */
+    private HttpEndpointBalancer endpointBalancer;
+    
+    /**
+     * 批量请求的端点均衡器，未启用批量发送时为null
+     */
+    private HttpEndpointBalancer batchBalancer;
+    
+    @PostConstruct
+    public void init() {
+        LogProperties.Http http = logProperties.getHttp();
+        List<String> endpoints = HttpEndpointBalancer.parseEndpoints(http.getEndpoints());
+        if (endpoints.isEmpty()) {
+            endpoints = List.of(getConfiguredEndpoint());
+        }
+        endpointBalancer = new HttpEndpointBalancer(endpoints, http.getBalancer());
+        log.info("HTTP日志端点: {}", endpoints);
+        
+        LogProperties.Http.Batch batch = http.getBatch();
+        jsonArray = "json-array".equalsIgnoreCase(batch.getFormat());
+        compression = HttpCompression.of(batch.getCompression());
+        if (!compression.isAvailable()) {
+            log.warn("未找到zstd-jni，HTTP批量请求改用gzip压缩");
+            compression = HttpCompression.GZIP;
+        }
+        if (batch.isEnabled()) {
+            batchBalancer = new HttpEndpointBalancer(HttpEndpointBalancer.parseEndpoints(batch.getEndpoint()), http.getBalancer());
+            log.info("HTTP批量发送已启用: endpoint={}, maxEvents={}, format={}, compression={}",
+                    batch.getEndpoint(), batch.getMaxEvents(), jsonArray ? "json-array" : "ndjson", compression.getId());
+        }
+    }
+    
+    @Override
+    public void send(BaseLogEntity logEntity) {
+        sendGenericLog(logEntity);
+    }
+    
+    @Override
+    @Async("logExecutor")
+    public void sendAsync(BaseLogEntity logEntity) {
+        send(logEntity);
+    }
+    
+    @Override
+    public void sendBatch(List<BaseLogEntity> logEntities) {
+        if (logEntities == null || logEntities.isEmpty()) {
+            return;
+        }
+        
+        try {
+            log.debug("批量发送{}条日志到HTTP端点", logEntities.size());
+            if (logProperties.getHttp().getBatch().isEnabled() && (restTemplate != null || asyncClient != null)) {
+                batchSend(logEntities);
+                return;
+            }
+            for (BaseLogEntity entity : logEntities) {
+                send(entity);
+            }
+        } catch (Exception e) {
+            log.error("批量发送日志到HTTP失败", e);
+            throw new RuntimeException("Failed to batch send logs to HTTP", e);
+        }
+    }
+    
+    @Override
+    public String getSenderType() {
+        return "http";
+    }
+    
+    @Override
+    public boolean supports(Class<? extends BaseLogEntity> entityClass) {
+        // HTTP发送器支持所有继承自BaseLogEntity的实体类
+        return BaseLogEntity.class.isAssignableFrom(entityClass);
+    }
+    
+    /**
+     * 统一的日志发送方法
+     * 支持任何继承自BaseLogEntity的实体类，包括自定义字段
+     */
+    private void sendGenericLog(BaseLogEntity logEntity) {
+        try {
+            applyDefaults(logEntity);
+            
+            // 按配置的格式编码日志实体（包含所有自定义字段）
+            EncodedPayload payload = logSerializer.encode(logEntity);
+            
+            if (asyncClient != null) {
+                sendAsyncRequest(payload, logEntity);
+            } else if (restTemplate != null) {
+                // 真实发送HTTP请求
+                sendHttpRequest(payload, logEntity);
+            } else {
+                // 模拟模式
+                log.warn("⚠️ RestTemplate不可用，使用模拟模式:");
+                log.info("   Endpoint: {}", endpointBalancer.getEndpoints());
+                log.info("   实体类型: {}", logEntity.getClass().getSimpleName());
+                log.info("   自定义字段: {}", hasCustomFields(logEntity) ? "是" : "否");
+                log.info("   Payload: {}", payload.getFormat() == PayloadFormat.JSON
+                        ? new String(payload.getBytes(), StandardCharsets.UTF_8)
+                        : payload.getFormat().getId() + ", " + payload.getBytes().length + " bytes");
+            }
+            
+        } catch (Exception e) {
+            log.error("HTTP发送日志失败", e);
+            throw new RuntimeException("Failed to send log to HTTP", e);
+        }
+    }
+    
+    /**
+     * 确保基础字段被正确设置（只在为null时设置）
+     */
+    private void applyDefaults(BaseLogEntity logEntity) {
+        if (logEntity.getTimestamp() == null) {
+            logEntity.setTimestamp(java.time.LocalDateTime.now());
+        }
+        if (logEntity.getContent() == null) {
+            logEntity.setContent("操作记录");
+        }
+        if (logEntity.getLevel() == null) {
+            logEntity.setLevel(org.springframework.boot.logging.LogLevel.INFO);
+        }
+    }
+    
+    /**
+     * 按实体类型分组、按maxEvents分片，每片编码并压缩为一个请求体发送，实体类型写入X-Entity-Type请求头
+     * 某一片失败时继续发送其余分片，最后统一抛出
+     */
+    private void batchSend(List<BaseLogEntity> logEntities) throws IOException {
+        LogProperties.Http.Batch batch = logProperties.getHttp().getBatch();
+        int maxEvents = Math.max(1, batch.getMaxEvents());
+        int failed = 0;
+        Map<Class<?>, List<BaseLogEntity>> groups = new LinkedHashMap<>();
+        for (BaseLogEntity logEntity : logEntities) {
+            groups.computeIfAbsent(logEntity.getClass(), type -> new ArrayList<>()).add(logEntity);
+        }
+        ReusableByteArrayOutputStream buffer = ReusableByteArrayOutputStream.acquire();
+        try {
+            for (Map.Entry<Class<?>, List<BaseLogEntity>> group : groups.entrySet()) {
+                List<BaseLogEntity> entities = group.getValue();
+                for (int from = 0; from < entities.size(); from += maxEvents) {
+                    List<BaseLogEntity> chunk = entities.subList(from, Math.min(from + maxEvents, entities.size()));
+                    buffer.reset();
+                    writeBatch(buffer, chunk, batch.getCompressionLevel());
+                    if (!postBatch(Arrays.copyOf(buffer.buffer(), buffer.size()), chunk.size(), group.getKey())) {
+                        failed += chunk.size();
+                    }
+                }
+            }
+        } finally {
+            buffer.release();
+        }
+        if (failed > 0) {
+            throw new IllegalStateException(failed + " of " + logEntities.size() + " logs failed to send in batch");
+        }
+    }
+    
+    /**
+     * 写入NDJSON（每行一条）或JSON数组请求体
+     */
+    private void writeBatch(OutputStream buffer, List<BaseLogEntity> chunk, int level) throws IOException {
+        try (OutputStream out = compression.wrap(buffer, level)) {
+            if (jsonArray) {
+                out.write('[');
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                BaseLogEntity logEntity = chunk.get(i);
+                applyDefaults(logEntity);
+                if (jsonArray && i > 0) {
+                    out.write(',');
+                }
+                logSerializer.writeJson(logEntity, out);
+                if (!jsonArray) {
+                    out.write('\n');
+                }
+            }
+            if (jsonArray) {
+                out.write(']');
+            }
+        }
+    }
+    
+    /**
+     * 发送一个批量请求
+     *
+     * @return 是否成功
+     */
+    private boolean postBatch(byte[] body, int count, Class<?> entityType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(jsonArray ? MediaType.APPLICATION_JSON : MediaType.parseMediaType(NDJSON_CONTENT_TYPE));
+        if (compression.getContentEncoding() != null) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, compression.getContentEncoding());
+        }
+        headers.set(PayloadHeaders.HTTP_FORMAT, PayloadFormat.JSON.getId());
+        headers.set("X-Log-Count", String.valueOf(count));
+        headers.set("X-Entity-Type", entityType.getSimpleName());
+        headers.set("X-Log-Source", "UnifiedHttpSender");
+        
+        long start = System.nanoTime();
+        if (asyncClient != null) {
+            // 非阻塞发送，失败在回调中计入指标，不影响其余分片
+            asyncClient.post(batchBalancer, body, headers.toSingleValueMap()).whenComplete((status, error) -> {
+                if (error == null) {
+                    senderMetrics.recordBatch(getSenderType(), count, System.nanoTime() - start);
+                    senderMetrics.recordSuccess(getSenderType(), count, body.length);
+                } else {
+                    senderMetrics.recordFailure(getSenderType(), count);
+                    log.error("❌ HTTP批量请求失败 - 条数: {}, Error: {}", count, error.getMessage());
+                }
+            });
+            return true;
+        }
+        try {
+            ResponseEntity<String> response = postBlocking(batchBalancer, new HttpEntity<>(body, headers));
+            senderMetrics.recordBatch(getSenderType(), count, System.nanoTime() - start);
+            senderMetrics.recordSuccess(getSenderType(), count, body.length);
+            log.debug("HTTP批量日志发送成功 - Status: {}, 条数: {}, 字节: {}",
+                    response.getStatusCode(), count, body.length);
+            return true;
+        } catch (Exception e) {
+            senderMetrics.recordFailure(getSenderType(), count);
+            log.error("❌ HTTP批量请求失败 - 条数: {}, Error: {}", count, e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 单条日志的请求头
+     */
+    private HttpHeaders buildHeaders(EncodedPayload payload, BaseLogEntity logEntity) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(payload.getFormat().getContentType()));
+        headers.set(PayloadHeaders.HTTP_FORMAT, payload.getFormat().getId());
+        if (payload.getSchemaVersion() != null) {
+            headers.set(PayloadHeaders.HTTP_SCHEMA, payload.getSchemaName());
+            headers.set(PayloadHeaders.HTTP_SCHEMA_VERSION, payload.getSchemaVersion());
+        }
+        headers.set("X-Entity-Type", logEntity.getClass().getSimpleName());
+        headers.set("X-Log-Source", "UnifiedHttpSender");
+        return headers;
+    }
+    
+    /**
+     * 发送HTTP请求，结果计入发送器指标
+     */
+    private void sendHttpRequest(EncodedPayload payload, BaseLogEntity logEntity) {
+        long start = System.nanoTime();
+        try {
+            HttpHeaders headers = buildHeaders(payload, logEntity);
+            
+            // 字节数组请求体由ByteArrayHttpMessageConverter原样写出，不再二次编码
+            HttpEntity<byte[]> request = new HttpEntity<>(payload.getBytes(), headers);
+            ResponseEntity<String> response = postBlocking(endpointBalancer, request);
+            
+            if (response.getStatusCode().is2xxSuccessful()) {
+                senderMetrics.recordBatch(getSenderType(), 1, System.nanoTime() - start);
+                senderMetrics.recordSuccess(getSenderType(), 1, payload.getBytes().length);
+                log.debug("HTTP日志发送成功 - Status: {}, Entity: {}",
+                        response.getStatusCode(), logEntity.getClass().getSimpleName());
+            } else {
+                senderMetrics.recordFailure(getSenderType(), 1);
+                log.warn("⚠️ HTTP日志发送失败 - Status: {}", response.getStatusCode());
+            }
+            
+        } catch (Exception e) {
+            senderMetrics.recordFailure(getSenderType(), 1);
+            log.error("❌ HTTP请求异常 - Error: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 阻塞发送，由均衡器选择端点，连接失败或5xx时换用下一个未使用过的端点
+     */
+    private ResponseEntity<String> postBlocking(HttpEndpointBalancer balancer, HttpEntity<byte[]> request) {
+        List<HttpEndpoint> tried = new ArrayList<>(2);
+        RestClientException lastFailure = null;
+        HttpEndpoint endpoint;
+        while ((endpoint = balancer.select(tried)) != null) {
+            tried.add(endpoint);
+            long start = System.nanoTime();
+            endpoint.begin();
+            try {
+                ResponseEntity<String> response = restTemplate.postForEntity(endpoint.getUrl(), request, String.class);
+                balancer.success(endpoint, System.nanoTime() - start);
+                return response;
+            } catch (HttpClientErrorException e) {
+                // 4xx说明端点本身正常，换端点也不会成功
+                balancer.success(endpoint, System.nanoTime() - start);
+                throw e;
+            } catch (RestClientException e) {
+                balancer.failure(endpoint);
+                log.warn("HTTP日志端点 {} 请求失败: {}", endpoint, e.getMessage());
+                lastFailure = e;
+            }
+        }
+        throw lastFailure != null ? lastFailure : new IllegalStateException("No HTTP log endpoint available");
+    }
+    
+    /**
+     * 非阻塞发送HTTP请求，响应和重试在HttpClient的线程上完成
+     */
+    private void sendAsyncRequest(EncodedPayload payload, BaseLogEntity logEntity) {
+        long start = System.nanoTime();
+        int bytes = payload.getBytes().length;
+        asyncClient.post(endpointBalancer, payload.getBytes(), buildHeaders(payload, logEntity).toSingleValueMap())
+                .whenComplete((status, error) -> {
+                    if (error == null) {
+                        senderMetrics.recordBatch(getSenderType(), 1, System.nanoTime() - start);
+                        senderMetrics.recordSuccess(getSenderType(), 1, bytes);
+                        log.debug("HTTP日志发送成功 - Status: {}", status);
+                    } else {
+                        senderMetrics.recordFailure(getSenderType(), 1);
+                        log.error("❌ HTTP请求异常 - Error: {}", error.getMessage());
+                    }
+                });
+    }
+    
+    /**
+     * 检查实体是否包含自定义字段
+     */
+    private boolean hasCustomFields(BaseLogEntity logEntity) {
+        // 如果不是DefaultLogEntity，则认为包含自定义字段
+        return !"DefaultLogEntity".equals(logEntity.getClass().getSimpleName());
+    }
+    
+    /**
+     * 获取配置的HTTP端点
+     */
+    private String getConfiguredEndpoint() {
+        if (logProperties != null && logProperties.getHttp() != null) {
+            // 优先使用accessLogEndpoint，如果没有则使用operationLogEndpoint
+            String endpoint = logProperties.getHttp().getAccessLogEndpoint();
+            if (endpoint == null || endpoint.trim().isEmpty()) {
+                endpoint = logProperties.getHttp().getOperationLogEndpoint();
+            }
+            if (endpoint != null && !endpoint.trim().isEmpty()) {
+                log.debug("使用配置的HTTP端点: {}", endpoint);
+                return endpoint;
+            }
+        }
+        
+        log.debug("使用默认HTTP端点: {}", DEFAULT_GENERIC_LOG_ENDPOINT);
+        return DEFAULT_GENERIC_LOG_ENDPOINT;
+    }
+}
@@ -0,0 +1,336 @@
+package com.diit.common.log.sender.impl;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.metrics.LogSenderMetrics;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.sender.GenericLogSender;
+import com.diit.common.log.sender.kafka.KafkaKeyResolver;
+import com.diit.common.log.sender.kafka.KafkaProducerPool;
+import com.diit.common.log.serialize.EncodedPayload;
+import com.diit.common.log.serialize.PayloadFormat;
+import com.diit.common.log.serialize.PayloadHeaders;
+import com.diit.common.log.service.LogSerializer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 统一Kafka发送器
+ * 支持任何继承自BaseLogEntity的实体类，包括自定义字段
+ * 高吞吐模式下逐条发送不输出控制台日志，成功、失败条数和字节数记录到LogSenderMetrics
+ * 
+ * @author zzx
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diit.log.kafka", name = "enabled", havingValue = "true", matchIfMissing = false)
+public class UnifiedKafkaSender implements GenericLogSender<BaseLogEntity> {
+    
+    @Autowired(required = false)
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    
+    @Autowired
+    private LogSerializer logSerializer;
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    @Autowired
+    private LogSenderMetrics senderMetrics;
+    
+    @Autowired
+    private KafkaKeyResolver keyResolver;
+    
+    @Autowired(required = false)
+    private KafkaProducerPool producerPool;
+    
+    /**
+     * Topic缓存
+     * key: 实体类型, value: Topic名称
+     */
+    private final Map<Class<?>, String> topicCache = new ConcurrentHashMap<>();
+    
+    private boolean throughputMode;
+    
+    private long sendTimeoutMs;
+    
+    @PostConstruct
+    public void init() {
+        LogProperties.Kafka.Throughput throughput = logProperties.getKafka().getThroughput();
+        throughputMode = throughput.isEnabled();
+        sendTimeoutMs = throughput.getSendTimeout();
+        if (throughputMode) {
+            log.info("Kafka发送器启用高吞吐模式，批量发送超时: {}ms", sendTimeoutMs);
+        }
+    }
+    
+    // ==================== GenericLogSender接口实现 ====================
+    
+    @Override
+    public void send(BaseLogEntity logEntity) {
+        sendLogEntity(logEntity, "generic");
+    }
+    
+    @Override
+    @Async("logExecutor")
+    public void sendAsync(BaseLogEntity logEntity) {
+        send(logEntity);
+    }
+    
+    @Override
+    public void sendBatch(List<BaseLogEntity> logEntities) {
+        if (logEntities == null || logEntities.isEmpty()) {
+            return;
+        }
+        
+        if (kafkaTemplate == null) {
+            for (BaseLogEntity entity : logEntities) {
+                send(entity);
+            }
+            return;
+        }
+        
+        if (!throughputMode) {
+            log.info("🚀 批量发送{}条日志到Kafka", logEntities.size());
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Void> batchFuture = new CompletableFuture<>();
+        try {
+            // 先编码整批，编码失败不会留下已写入累加器的半批消息
+            List<ProducerRecord<String, byte[]>> records = new ArrayList<>(logEntities.size());
+            for (BaseLogEntity entity : logEntities) {
+                records.add(buildRecord(entity, logSerializer.encode(entity)));
+            }
+            
+            // 启用生产者池时按生产者分组，每组在各自的生产者上连续写入
+            Map<KafkaTemplate<String, byte[]>, List<ProducerRecord<String, byte[]>>> groups = new LinkedHashMap<>();
+            for (ProducerRecord<String, byte[]> record : records) {
+                groups.computeIfAbsent(templateFor(record.key()), t -> new ArrayList<>()).add(record);
+            }
+            
+            // 整批直接写入生产者累加器，由Kafka按linger.ms/batch.size合批，最后只等待一个聚合Future
+            AtomicInteger pending = new AtomicInteger(records.size());
+            AtomicReference<Exception> firstFailure = new AtomicReference<>();
+            for (Map.Entry<KafkaTemplate<String, byte[]>, List<ProducerRecord<String, byte[]>>> group : groups.entrySet()) {
+                group.getKey().execute(producer -> {
+                    for (ProducerRecord<String, byte[]> record : group.getValue()) {
+                        int bytes = record.value().length;
+                        producer.send(record, (metadata, exception) -> {
+                            if (exception != null) {
+                                firstFailure.compareAndSet(null, exception);
+                                senderMetrics.recordFailure(getSenderType(), 1);
+                                keyResolver.onSendFailure(exception);
+                            } else {
+                                senderMetrics.recordSuccess(getSenderType(), 1, bytes);
+                            }
+                            if (pending.decrementAndGet() == 0) {
+                                Exception failure = firstFailure.get();
+                                if (failure != null) {
+                                    batchFuture.completeExceptionally(failure);
+                                } else {
+                                    batchFuture.complete(null);
+                                }
+                            }
+                        });
+                    }
+                    return null;
+                });
+            }
+            
+            batchFuture.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            senderMetrics.recordBatch(getSenderType(), logEntities.size(), System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while batch sending logs to Kafka", e);
+        } catch (ExecutionException e) {
+            log.error("批量发送日志到Kafka失败: {}", e.getCause().getMessage());
+            throw new RuntimeException("Failed to batch send logs to Kafka", e.getCause());
+        } catch (TimeoutException e) {
+            log.error("批量发送{}条日志到Kafka超时（{}ms）", logEntities.size(), sendTimeoutMs);
+            throw new RuntimeException("Timed out batch sending logs to Kafka", e);
+        } catch (Exception e) {
+            // 生产者同步抛出的异常（如分区号超出范围）不会进入回调
+            keyResolver.onSendFailure(e);
+            log.error("批量发送日志到Kafka失败", e);
+            throw new RuntimeException("Failed to batch send logs to Kafka", e);
+        }
+    }
+    
+    @Override
+    public String getSenderType() {
+        return "kafka";
+    }
+    
+    @Override
+    public boolean supports(Class<? extends BaseLogEntity> entityClass) {
+        // 支持所有继承自BaseLogEntity的实体类
+        return BaseLogEntity.class.isAssignableFrom(entityClass);
+    }
+    
+    // ==================== 核心发送逻辑 ====================
+    
+    /**
+     * 统一的日志发送方法
+     * 支持任何日志实体类，包括自定义字段
+     * 
+     * @param logEntity 日志实体
+     * @param logCategory 日志分类（access/operation/generic）
+     */
+    private void sendLogEntity(BaseLogEntity logEntity, String logCategory) {
+        try {
+            // 按配置的格式编码日志实体（包含所有自定义字段）
+            EncodedPayload payload = logSerializer.encode(logEntity);
+            byte[] message = payload.getBytes();
+            
+            if (kafkaTemplate != null && throughputMode) {
+                // 高吞吐模式：只在回调中记录指标
+                ProducerRecord<String, byte[]> record = buildRecord(logEntity, payload);
+                templateFor(record.key()).send(record).whenComplete((result, failure) -> {
+                    if (failure != null) {
+                        senderMetrics.recordFailure(getSenderType(), 1);
+                        keyResolver.onSendFailure(failure);
+                        log.debug("Kafka日志发送失败 - Topic: {}, Error: {}", record.topic(), failure.getMessage());
+                    } else {
+                        senderMetrics.recordSuccess(getSenderType(), 1, message.length);
+                    }
+                });
+                return;
+            }
+            
+            // 生成消息key
+            String key = keyResolver.resolveKey(logEntity);
+            
+            // 确定Topic名称
+            String topic = resolveTopic(logEntity);
+            
+            if (kafkaTemplate != null) {
+                // 真实发送到Kafka
+                ProducerRecord<String, byte[]> record = new ProducerRecord<>(
+                        topic, keyResolver.partitionFor(topic, key), key, message);
+                addPayloadHeaders(record, payload);
+                CompletableFuture<SendResult<String, byte[]>> future = templateFor(key).send(record);
+                
+                future.whenComplete((result, failure) -> {
+                    if (failure != null) {
+                        senderMetrics.recordFailure(getSenderType(), 1);
+                        keyResolver.onSendFailure(failure);
+                        log.error("❌ Kafka日志发送失败 - Topic: {}, Key: {}, Error: {}", 
+                                 topic, key, failure.getMessage());
+                    } else {
+                        senderMetrics.recordSuccess(getSenderType(), 1, message.length);
+                        log.info("✅ Kafka日志发送成功 - Topic: {}, Key: {}, Partition: {}, Offset: {}", 
+                                topic, key, 
+                                result.getRecordMetadata().partition(),
+                                result.getRecordMetadata().offset());
+                    }
+                });
+                
+                // 显示发送详情
+                log.info("🚀 发送日志到Kafka:");
+                log.info("   Topic: {}", topic);
+                log.info("   Key: {}", key);
+                log.info("   Category: {}", logCategory);
+                log.info("   实体类型: {}", logEntity.getClass().getSimpleName());
+                log.info("   自定义字段: {}", hasCustomFields(logEntity) ? "是" : "否");
+                log.debug("   Message: {} bytes, format: {}", message.length, payload.getFormat().getId());
+                
+            } else {
+                // 模拟模式（KafkaTemplate不可用时）
+                log.warn("⚠️ KafkaTemplate不可用，使用模拟模式:");
+                log.info("   Topic: {}", topic);
+                log.info("   Key: {}", key);
+                log.info("   Category: {}", logCategory);
+                log.info("   实体类型: {}", logEntity.getClass().getSimpleName());
+                log.info("   自定义字段: {}", hasCustomFields(logEntity) ? "是" : "否");
+                log.info("   Message: {}", payload.getFormat() == PayloadFormat.JSON
+                        ? new String(message, StandardCharsets.UTF_8)
+                        : payload.getFormat().getId() + ", " + message.length + " bytes");
+            }
+            
+        } catch (Exception e) {
+            keyResolver.onSendFailure(e);
+            log.error("Kafka发送日志失败", e);
+            throw new RuntimeException("Failed to send log to Kafka", e);
+        }
+    }
+    
+    /**
+     * 选择发送用的KafkaTemplate，启用生产者池时按Key或线程分配
+     */
+    private KafkaTemplate<String, byte[]> templateFor(String key) {
+        return producerPool != null ? producerPool.select(key) : kafkaTemplate;
+    }
+    
+    /**
+     * 构建带格式消息头的ProducerRecord
+     */
+    private ProducerRecord<String, byte[]> buildRecord(BaseLogEntity logEntity, EncodedPayload payload) {
+        String topic = resolveTopic(logEntity);
+        String key = keyResolver.resolveKey(logEntity);
+        ProducerRecord<String, byte[]> record = new ProducerRecord<>(
+                topic, keyResolver.partitionFor(topic, key), key, payload.getBytes());
+        addPayloadHeaders(record, payload);
+        return record;
+    }
+    
+    /**
+     * 在消息头中写入格式和Schema版本
+     */
+    private void addPayloadHeaders(ProducerRecord<String, byte[]> record, EncodedPayload payload) {
+        record.headers().add(PayloadHeaders.KAFKA_FORMAT, payload.getFormat().getId().getBytes(StandardCharsets.UTF_8));
+        if (payload.getSchemaVersion() != null) {
+            record.headers().add(PayloadHeaders.KAFKA_SCHEMA, payload.getSchemaName().getBytes(StandardCharsets.UTF_8));
+            record.headers().add(PayloadHeaders.KAFKA_SCHEMA_VERSION, payload.getSchemaVersion().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+    
+    /**
+     * 获取实体类型对应的Topic名称，每个类型只生成一次
+     */
+    private String resolveTopic(BaseLogEntity logEntity) {
+        Class<?> entityClass = logEntity.getClass();
+        String topic = topicCache.get(entityClass);
+        if (topic == null) {
+            topic = topicCache.computeIfAbsent(entityClass, UnifiedKafkaSender::generateTopicName);
+        }
+        return topic;
+    }
+    
+    /**
+     * 根据实体类型生成Topic名称
+     */
+    private static String generateTopicName(Class<?> entityClass) {
+        String entityName = entityClass.getSimpleName();
+        
+        // 对于自定义实体，根据实体类型生成topic
+        String topicName = entityName.replaceAll("([a-z])([A-Z])", "$1_$2").toLowerCase();
+        return "log_" + topicName;
+    }
+    
+    /**
+     * 检查实体是否包含自定义字段
+     */
+    private boolean hasCustomFields(BaseLogEntity logEntity) {
+        // 如果不是DefaultLogEntity，则认为包含自定义字段
+        return !"DefaultLogEntity".equals(logEntity.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,294 @@
+package com.diit.common.log.sender.kafka;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.properties.LogProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.errors.InvalidMetadataException;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Kafka消息Key解析器
+ * 按配置的策略从日志实体中取出分区Key；启用分区预计算时，按Kafka默认分区器相同的
+ * murmur2算法直接算出分区号写入ProducerRecord，Key的哈希值按Key缓存。
+ * 生产者配置了自定义分区器或忽略Key时不预计算；发送因元数据错误失败时清空分区数缓存，下一条消息重新读取
+ *
+ * @author zzx
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "diit.log.kafka", name = "enabled", havingValue = "true", matchIfMissing = false)
+public class KafkaKeyResolver {
+    
+    /**
+     * 哈希缓存上限，超过后不再缓存新Key（用户名等高基数Key直接计算）
+     */
+    private static final int MAX_CACHED_HASHES = 4096;
+    
+    /**
+     * 分区号超出Topic分区数时KafkaProducer抛出的异常没有专门的类型，只能按消息识别
+     */
+    private static final String INVALID_PARTITION_MESSAGE = "Invalid partition given with record";
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    @Autowired(required = false)
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    
+    private KafkaKeyStrategy strategy;
+    
+    /**
+     * 编译后的Key表达式（仅EXPRESSION策略）
+     */
+    private Expression keyExpression;
+    
+    private boolean precomputePartition;
+    
+    private long partitionRefreshInterval;
+    
+    /**
+     * 策略读取的实体属性，按顺序取第一个非空值
+     */
+    private String[] keyProperties = new String[0];
+    
+    /**
+     * 属性读取方法缓存
+     * key: 实体类型, value: keyProperties对应的getter（实体没有该属性时为null）
+     */
+    private final Map<Class<?>, Method[]> readMethodCache = new ConcurrentHashMap<>();
+    
+    /**
+     * Key的murmur2哈希缓存
+     */
+    private final Map<String, Integer> hashCache = new ConcurrentHashMap<>();
+    
+    /**
+     * Topic分区数缓存
+     */
+    private final Map<String, TopicPartitions> partitionCache = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        LogProperties.Kafka.Key config = logProperties.getKafka().getKey();
+        strategy = KafkaKeyStrategy.of(config.getStrategy());
+        precomputePartition = config.isPrecomputePartition() && strategy != KafkaKeyStrategy.NONE;
+        partitionRefreshInterval = config.getPartitionRefreshInterval();
+        if (precomputePartition && kafkaTemplate != null) {
+            Map<String, Object> producerConfig = kafkaTemplate.getProducerFactory().getConfigurationProperties();
+            Object partitioner = producerConfig.get(ProducerConfig.PARTITIONER_CLASS_CONFIG);
+            if (partitioner != null
+                    || Boolean.parseBoolean(String.valueOf(producerConfig.get(ProducerConfig.PARTITIONER_IGNORE_KEYS_CONFIG)))) {
+                // 预计算的分区号会绕过生产者的分区器
+                log.info("生产者配置了自定义分区器或忽略Key（{}），不预计算分区号", partitioner != null ? partitioner : "partitioner.ignore.keys");
+                precomputePartition = false;
+            }
+        }
+        
+        if (strategy == KafkaKeyStrategy.MODULE) {
+            keyProperties = new String[]{"module"};
+        } else if (strategy == KafkaKeyStrategy.USER) {
+            keyProperties = new String[]{"username", "sessionId"};
+        } else if (strategy == KafkaKeyStrategy.SESSION) {
+            keyProperties = new String[]{"sessionId"};
+        }
+        
+        if (strategy == KafkaKeyStrategy.ENTITY_TYPE) {
+            log.warn("Kafka Key策略为entity-type：Topic已按实体类型划分，每个Topic的日志都会写入同一个分区");
+        }
+        
+        if (strategy == KafkaKeyStrategy.EXPRESSION) {
+            if (!StringUtils.hasText(config.getExpression())) {
+                log.warn("Kafka Key策略为expression但未配置表达式，改用日志ID");
+                strategy = KafkaKeyStrategy.ID;
+            } else {
+                // 表达式只解析一次，类型稳定后编译为字节码执行
+                SpelExpressionParser parser = new SpelExpressionParser(
+                        new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader()));
+                keyExpression = parser.parseExpression(config.getExpression());
+            }
+        }
+        log.info("Kafka消息Key策略: {}, 分区预计算: {}", strategy.getId(), precomputePartition ? "启用" : "关闭");
+    }
+    
+    public KafkaKeyStrategy getStrategy() {
+        return strategy;
+    }
+    
+    /**
+     * 解析消息Key
+     *
+     * @param logEntity 日志实体
+     * @return 消息Key，为null时由粘性分区器分配分区
+     */
+    public String resolveKey(BaseLogEntity logEntity) {
+        switch (strategy) {
+            case NONE:
+                return null;
+            case MODULE:
+            case USER:
+            case SESSION:
+                return readProperties(logEntity);
+            case ENTITY_TYPE:
+                return logEntity.getClass().getName();
+            case EXPRESSION:
+                return evaluateExpression(logEntity);
+            case ID:
+            default:
+                return logEntity.getId();
+        }
+    }
+    
+    /**
+     * 预计算分区号
+     * 与Kafka默认分区器一致：toPositive(murmur2(keyBytes)) % 分区数
+     *
+     * @param topic Topic名称
+     * @param key   消息Key
+     * @return 分区号，未启用、Key为空或分区数未知时返回null
+     */
+    public Integer partitionFor(String topic, String key) {
+        if (!precomputePartition || key == null) {
+            return null;
+        }
+        int partitions = partitionCount(topic);
+        if (partitions <= 0) {
+            return null;
+        }
+        return Utils.toPositive(hash(key)) % partitions;
+    }
+    
+    /**
+     * 发送失败时调用，元数据错误（Topic不存在、分区号超出范围、Leader变更等）说明缓存的分区数可能已过期，清空后重新读取
+     *
+     * @param failure 发送异常
+     */
+    public void onSendFailure(Throwable failure) {
+        if (precomputePartition && !partitionCache.isEmpty() && isMetadataError(failure)) {
+            partitionCache.clear();
+            log.debug("Kafka发送出现元数据错误，清空分区数缓存: {}", failure.getMessage());
+        }
+    }
+    
+    private static boolean isMetadataError(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof InvalidMetadataException) {
+                return true;
+            }
+            if (cause instanceof KafkaException && cause.getMessage() != null
+                    && cause.getMessage().startsWith(INVALID_PARTITION_MESSAGE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private int hash(String key) {
+        Integer cached = hashCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        int hash = Utils.murmur2(key.getBytes(StandardCharsets.UTF_8));
+        if (hashCache.size() < MAX_CACHED_HASHES) {
+            hashCache.put(key, hash);
+        }
+        return hash;
+    }
+    
+    /**
+     * 获取Topic分区数，按刷新间隔重新读取生产者元数据
+     */
+    private int partitionCount(String topic) {
+        long now = System.currentTimeMillis();
+        TopicPartitions cached = partitionCache.get(topic);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.count;
+        }
+        int count = 0;
+        if (kafkaTemplate != null) {
+            try {
+                List<PartitionInfo> partitions = kafkaTemplate.partitionsFor(topic);
+                count = partitions != null ? partitions.size() : 0;
+            } catch (Exception e) {
+                log.warn("获取Topic {} 分区信息失败，交由分区器计算: {}", topic, e.getMessage());
+            }
+        }
+        partitionCache.put(topic, new TopicPartitions(count, now + partitionRefreshInterval));
+        return count;
+    }
+    
+    private String evaluateExpression(BaseLogEntity logEntity) {
+        try {
+            Object value = keyExpression.getValue(logEntity);
+            return value != null ? value.toString() : null;
+        } catch (Exception e) {
+            log.debug("Kafka Key表达式求值失败: {}", e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * 依次读取策略属性，返回第一个非空值；实体没有这些属性时返回null
+     */
+    private String readProperties(BaseLogEntity logEntity) {
+        Method[] readMethods = readMethodCache.computeIfAbsent(logEntity.getClass(), this::findReadMethods);
+        for (Method readMethod : readMethods) {
+            if (readMethod == null) {
+                continue;
+            }
+            try {
+                Object value = readMethod.invoke(logEntity);
+                if (value != null) {
+                    return value.toString();
+                }
+            } catch (Exception e) {
+                log.debug("无法读取属性 {}: {}", readMethod.getName(), e.getMessage());
+            }
+        }
+        return null;
+    }
+    
+    private Method[] findReadMethods(Class<?> entityClass) {
+        Method[] readMethods = new Method[keyProperties.length];
+        for (int i = 0; i < keyProperties.length; i++) {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(entityClass, keyProperties[i]);
+            readMethods[i] = descriptor != null ? descriptor.getReadMethod() : null;
+        }
+        return readMethods;
+    }
+    
+    /**
+     * Topic分区数及过期时间
+     */
+    private static final class TopicPartitions {
+        
+        final int count;
+        
+        final long expiresAt;
+        
+        TopicPartitions(int count, long expiresAt) {
+            this.count = count;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.diit.common.log.sender.kafka;
+
+/**
+ * Kafka消息Key策略
+ * Key决定日志落在哪个分区，同一Key的日志在分区内保持顺序
+ *
+ * @author zzx
+ */
+public enum KafkaKeyStrategy {
+    
+    /**
+     * 日志ID（ID为空时不设置Key）
+     */
+    ID("id"),
+    
+    /**
+     * 业务模块，同一模块的日志进入同一分区
+     */
+    MODULE("module"),
+    
+    /**
+     * 用户名，缺失时退回会话ID，消费端可按用户顺序处理
+     */
+    USER("user"),
+    
+    /**
+     * 会话ID
+     */
+    SESSION("session"),
+    
+    /**
+     * 实体类型
+     * Topic已按实体类型划分，同一Topic内Key恒定，所有日志进入同一个分区（启用生产者池按Key分配时也只用一个生产者），
+     * 只适用于需要实体类型内全局有序的场景
+     */
+    ENTITY_TYPE("entity-type"),
+    
+    /**
+     * SpEL表达式，以日志实体为根对象求值
+     */
+    EXPRESSION("expression"),
+    
+    /**
+     * 不设置Key，由粘性分区器按批次分配分区
+     */
+    NONE("none");
+    
+    /**
+     * 配置值
+     */
+    private final String id;
+    
+    KafkaKeyStrategy(String id) {
+        this.id = id;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    /**
+     * 根据配置值解析策略，未识别时返回ID
+     */
+    public static KafkaKeyStrategy of(String value) {
+        if (value != null) {
+            String normalized = value.trim().replace('_', '-');
+            for (KafkaKeyStrategy strategy : values()) {
+                if (strategy.id.equalsIgnoreCase(normalized)) {
+                    return strategy;
+                }
+            }
+        }
+        return ID;
+    }
+}
@@ -0,0 +1,151 @@
+package com.diit.common.log.sender.kafka;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Kafka生产者池
+ * 一个KafkaProducer只有一把累加器锁和一个I/O线程，大量请求线程并发发送时会成为瓶颈；
+ * 池中的每个KafkaTemplate持有独立的生产者，按消息Key（保证同一Key有序）或发送线程分配，无Key的消息轮询分配。
+ * 日志由少数流水线线程发送，按线程分配只会用到与发送线程数相同的生产者
+ *
+ * @author zzx
+ */
+@Slf4j
+public class KafkaProducerPool implements DisposableBean {
+    
+    /**
+     * 按Key分配，Key为空时轮询
+     */
+    public static final String ASSIGNMENT_KEY = "key";
+    
+    /**
+     * 按发送线程分配
+     */
+    public static final String ASSIGNMENT_THREAD = "thread";
+    
+    /**
+     * 单个生产者统计中采集的producer-metrics指标
+     */
+    private static final String[] STAT_METRICS = {
+            "record-send-rate",
+            "batch-size-avg",
+            "records-per-request-avg",
+            "compression-rate-avg",
+            "bufferpool-wait-ratio",
+            "request-latency-avg"
+    };
+    
+    private final List<KafkaTemplate<String, byte[]>> templates;
+    
+    private final boolean assignByKey;
+    
+    /**
+     * 无Key消息的轮询计数
+     */
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    
+    public KafkaProducerPool(List<KafkaTemplate<String, byte[]>> templates, String assignment) {
+        if (templates == null || templates.isEmpty()) {
+            throw new IllegalArgumentException("Kafka producer pool requires at least one template");
+        }
+        this.templates = Collections.unmodifiableList(new ArrayList<>(templates));
+        this.assignByKey = !ASSIGNMENT_THREAD.equalsIgnoreCase(assignment);
+        log.info("初始化Kafka生产者池，生产者数量: {}, 分配方式: {}", templates.size(),
+                assignByKey ? ASSIGNMENT_KEY : ASSIGNMENT_THREAD);
+    }
+    
+    public int size() {
+        return templates.size();
+    }
+    
+    public KafkaTemplate<String, byte[]> getTemplate(int index) {
+        return templates.get(index);
+    }
+    
+    /**
+     * 选择发送用的生产者
+     *
+     * @param key 消息Key
+     * @return 对应的KafkaTemplate
+     */
+    public KafkaTemplate<String, byte[]> select(String key) {
+        return templates.get(indexFor(key));
+    }
+    
+    /**
+     * 计算生产者下标：同一Key总是落到同一个生产者，保持分区内顺序；无Key时轮询，无需保持顺序
+     */
+    public int indexFor(String key) {
+        int size = templates.size();
+        if (size == 1) {
+            return 0;
+        }
+        if (!assignByKey) {
+            return (int) (Thread.currentThread().getId() % size);
+        }
+        if (key == null) {
+            return (roundRobin.getAndIncrement() & 0x7fffffff) % size;
+        }
+        int h = key.hashCode();
+        return ((h ^ (h >>> 16)) & 0x7fffffff) % size;
+    }
+    
+    /**
+     * 采集每个生产者的批量和压缩统计
+     *
+     * @return 按生产者下标排列，每项为指标名到数值的映射
+     */
+    public List<Map<String, Double>> producerStats() {
+        List<Map<String, Double>> stats = new ArrayList<>(templates.size());
+        for (KafkaTemplate<String, byte[]> template : templates) {
+            Map<String, Double> values = new LinkedHashMap<>();
+            Map<MetricName, ? extends Metric> metrics;
+            try {
+                metrics = template.metrics();
+            } catch (Exception e) {
+                log.debug("读取生产者指标失败: {}", e.getMessage());
+                metrics = Collections.emptyMap();
+            }
+            for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+                MetricName name = entry.getKey();
+                if (!"producer-metrics".equals(name.group())) {
+                    continue;
+                }
+                for (String statName : STAT_METRICS) {
+                    if (statName.equals(name.name())) {
+                        Object value = entry.getValue().metricValue();
+                        if (value instanceof Number) {
+                            values.put(statName, ((Number) value).doubleValue());
+                        }
+                    }
+                }
+            }
+            stats.add(values);
+        }
+        return stats;
+    }
+    
+    @Override
+    public void destroy() {
+        for (KafkaTemplate<String, byte[]> template : templates) {
+            ProducerFactory<String, byte[]> factory = template.getProducerFactory();
+            if (factory instanceof DefaultKafkaProducerFactory) {
+                ((DefaultKafkaProducerFactory<String, byte[]>) factory).destroy();
+            }
+        }
+        log.info("Kafka生产者池已关闭");
+    }
+}
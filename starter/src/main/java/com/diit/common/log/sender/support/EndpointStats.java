@@ -0,0 +1,125 @@
+package com.diit.common.log.sender.support;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 远端节点（Elasticsearch节点、HTTP采集端点）的健康统计
+ * 记录进行中的请求数、响应耗时的指数加权移动平均（EWMA）和连续失败次数，
+ * 连续失败达到阈值后在一段时间内不参与选择，时长随再次摘除翻倍，成功一次后恢复
+ *
+ * @author zzx
+ */
+public abstract class EndpointStats {
+    
+    /**
+     * EWMA平滑系数
+     */
+    private static final double ALPHA = 0.3;
+    
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    private double ewmaNanos;
+    
+    private int consecutiveFailures;
+    
+    private int ejections;
+    
+    private volatile long ejectedUntil;
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    public synchronized double getEwmaNanos() {
+        return ewmaNanos;
+    }
+    
+    public boolean isAvailable(long now) {
+        return ejectedUntil <= now;
+    }
+    
+    public long getEjectedUntil() {
+        return ejectedUntil;
+    }
+    
+    /**
+     * 负载分数：EWMA耗时 ×（进行中请求数 + 1）
+     * 没有耗时样本的节点（新节点或从未成功过的节点）按同组节点的平均EWMA计算，
+     * 避免分数只剩进行中请求数、在每次比较中都胜过有样本的节点；整组都没有样本时只看进行中请求数
+     *
+     * @param defaultEwmaNanos 没有耗时样本时使用的EWMA，一般为{@link #meanEwmaNanos(Collection)}
+     */
+    public double loadScore(double defaultEwmaNanos) {
+        double ewma = getEwmaNanos();
+        if (ewma == 0) {
+            ewma = defaultEwmaNanos;
+        }
+        int outstanding = inFlight.get();
+        return ewma > 0 ? ewma * (outstanding + 1) : outstanding;
+    }
+    
+    /**
+     * 有耗时样本的节点的平均EWMA，都没有样本时返回0
+     */
+    public static double meanEwmaNanos(Collection<? extends EndpointStats> endpoints) {
+        double sum = 0;
+        int count = 0;
+        for (EndpointStats endpoint : endpoints) {
+            double ewma = endpoint.getEwmaNanos();
+            if (ewma > 0) {
+                sum += ewma;
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : 0;
+    }
+    
+    /**
+     * 请求开始
+     */
+    public void begin() {
+        inFlight.incrementAndGet();
+    }
+    
+    /**
+     * 请求被中断，不计入耗时和失败
+     */
+    public void abort() {
+        inFlight.decrementAndGet();
+    }
+    
+    /**
+     * 请求完成（包括4xx等节点本身正常的响应），更新耗时并清除失败计数
+     */
+    public void success(long elapsedNanos) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            ewmaNanos = ewmaNanos == 0 ? elapsedNanos : ewmaNanos + ALPHA * (elapsedNanos - ewmaNanos);
+            consecutiveFailures = 0;
+            ejections = 0;
+        }
+    }
+    
+    /**
+     * 请求失败，连续失败达到阈值时摘除
+     *
+     * @param failureThreshold 连续失败阈值
+     * @param ejectTime        首次摘除时长（毫秒）
+     * @param maxEjectTime     最长摘除时长（毫秒）
+     * @return 本次是否触发摘除
+     */
+    public boolean failure(int failureThreshold, long ejectTime, long maxEjectTime) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            if (++consecutiveFailures < failureThreshold) {
+                return false;
+            }
+            long duration = Math.min(maxEjectTime, ejectTime << Math.min(ejections, 20));
+            ejections++;
+            consecutiveFailures = 0;
+            ejectedUntil = System.currentTimeMillis() + duration;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.diit.common.log.serialize;
+
+import com.diit.common.log.utils.ReusableByteArrayOutputStream;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.avro.AvroMapper;
+import com.fasterxml.jackson.dataformat.avro.jsr310.AvroJavaTimeModule;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Avro编码器
+ * Schema由实体类结构生成并保存在本地目录；实体中存在无法映射的字段（如Map&lt;String, Object&gt;）时，
+ * 该实体类型回退为备用编码器，消息头中的格式会如实反映
+ *
+ * @author zzx
+ */
+@Slf4j
+public class AvroPayloadCodec implements PayloadCodec {
+    
+    private final AvroMapper mapper;
+    
+    private final AvroSchemaStore schemaStore;
+    
+    private final PayloadCodec fallback;
+    
+    /**
+     * ObjectWriter缓存
+     * key: 实体类型, value: 绑定该类型Schema的ObjectWriter
+     */
+    private final Map<Class<?>, ObjectWriter> writerCache = new ConcurrentHashMap<>();
+    
+    private final Map<Class<?>, String> versionCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 无法生成Schema的实体类型
+     */
+    private final Set<Class<?>> unsupportedTypes = ConcurrentHashMap.newKeySet();
+    
+    public AvroPayloadCodec(String schemaDir, PayloadCodec fallback) {
+        this.mapper = AvroMapper.builder()
+                .addModule(new AvroJavaTimeModule())
+                .build();
+        this.schemaStore = new AvroSchemaStore(mapper, schemaDir);
+        this.fallback = fallback;
+    }
+    
+    @Override
+    public PayloadFormat getFormat() {
+        return PayloadFormat.AVRO;
+    }
+    
+    @Override
+    public EncodedPayload encode(Object value) throws IOException {
+        if (value == null || unsupportedTypes.contains(value.getClass())) {
+            return fallback.encode(value);
+        }
+        
+        Class<?> type = value.getClass();
+        ObjectWriter writer = writerCache.get(type);
+        if (writer == null) {
+            try {
+                AvroSchemaStore.VersionedSchema schema = schemaStore.getSchema(type);
+                writer = mapper.writerFor(type).with(schema.getSchema());
+                versionCache.put(type, schema.getVersion());
+                writerCache.put(type, writer);
+            } catch (Exception e) {
+                log.warn("实体无法映射为Avro Schema，改用{}编码: {}, {}",
+                        fallback.getFormat().getId(), type.getName(), e.getMessage());
+                unsupportedTypes.add(type);
+                return fallback.encode(value);
+            }
+        }
+        
+        ReusableByteArrayOutputStream buffer = ReusableByteArrayOutputStream.acquire();
+        try {
+            writer.writeValue(buffer, value);
+            return new EncodedPayload(buffer.toByteArray(), PayloadFormat.AVRO, type.getName(), versionCache.get(type));
+        } finally {
+            buffer.release();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.diit.common.log.serialize;
+
+import com.fasterxml.jackson.dataformat.avro.AvroMapper;
+import com.fasterxml.jackson.dataformat.avro.AvroSchema;
+import com.fasterxml.jackson.dataformat.avro.schema.AvroSchemaGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaNormalization;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Avro Schema本地存储
+ * 根据日志实体类结构生成Schema，以规范化Schema的64位指纹作为版本号，
+ * 保存为 {schemaDir}/{实体类全名}/{版本}.avsc，消费方按消息头中的名称和版本读取即可解码，无需注册中心
+ *
+ * @author zzx
+ */
+@Slf4j
+public class AvroSchemaStore {
+    
+    private final AvroMapper mapper;
+    
+    private final Path schemaDir;
+    
+    /**
+     * Schema缓存
+     * key: 实体类型, value: Schema及版本
+     */
+    private final Map<Class<?>, VersionedSchema> schemaCache = new ConcurrentHashMap<>();
+    
+    public AvroSchemaStore(AvroMapper mapper, String schemaDir) {
+        this.mapper = mapper;
+        this.schemaDir = Paths.get(schemaDir);
+    }
+    
+    /**
+     * 获取实体类型的Schema，首次访问时生成并写入本地存储
+     *
+     * @param type 日志实体类型
+     * @return Schema及版本
+     * @throws IOException 实体结构无法映射为Avro Schema
+     */
+    public VersionedSchema getSchema(Class<?> type) throws IOException {
+        VersionedSchema schema = schemaCache.get(type);
+        if (schema == null) {
+            schema = generate(type);
+            schemaCache.put(type, schema);
+        }
+        return schema;
+    }
+    
+    private VersionedSchema generate(Class<?> type) throws IOException {
+        AvroSchemaGenerator generator = new AvroSchemaGenerator().enableLogicalTypes();
+        mapper.acceptJsonFormatVisitor(type, generator);
+        AvroSchema schema = generator.getGeneratedSchema();
+        
+        Schema avroSchema = schema.getAvroSchema();
+        String version = String.format("%016x", SchemaNormalization.parsingFingerprint64(avroSchema));
+        store(type.getName(), version, avroSchema);
+        return new VersionedSchema(schema, version);
+    }
+    
+    /**
+     * 写入Schema文件，已存在相同版本时跳过
+     */
+    private void store(String name, String version, Schema avroSchema) {
+        Path file = schemaDir.resolve(name).resolve(version + ".avsc");
+        if (Files.exists(file)) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, avroSchema.toString(true).getBytes(StandardCharsets.UTF_8));
+            log.info("保存Avro Schema: {} -> {}", name, file.toAbsolutePath());
+        } catch (IOException e) {
+            log.warn("保存Avro Schema失败: {}, {}", file, e.getMessage());
+        }
+    }
+    
+    /**
+     * 带版本的Schema
+     */
+    public static final class VersionedSchema {
+        
+        private final AvroSchema schema;
+        private final String version;
+        
+        VersionedSchema(AvroSchema schema, String version) {
+            this.schema = schema;
+            this.version = version;
+        }
+        
+        public AvroSchema getSchema() {
+            return schema;
+        }
+        
+        public String getVersion() {
+            return version;
+        }
+    }
+}
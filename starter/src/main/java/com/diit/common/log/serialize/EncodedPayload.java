@@ -0,0 +1,34 @@
+package com.diit.common.log.serialize;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 编码后的日志消息
+ *
+ * @author zzx
+ */
+@Getter
+@RequiredArgsConstructor
+public class EncodedPayload {
+    
+    /**
+     * 消息体
+     */
+    private final byte[] bytes;
+    
+    /**
+     * 实际使用的格式
+     */
+    private final PayloadFormat format;
+    
+    /**
+     * Schema名称（实体类全名），无Schema的格式为null
+     */
+    private final String schemaName;
+    
+    /**
+     * Schema版本，无Schema的格式为null
+     */
+    private final String schemaVersion;
+}
@@ -0,0 +1,59 @@
+package com.diit.common.log.serialize;
+
+import com.diit.common.log.utils.ReusableByteArrayOutputStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于Jackson数据格式的编码器
+ * 用于JSON、Smile、CBOR等无需Schema的格式，按实体类型缓存ObjectWriter
+ *
+ * @author zzx
+ */
+public class JacksonPayloadCodec implements PayloadCodec {
+    
+    private final PayloadFormat format;
+    
+    private final ObjectMapper mapper;
+    
+    /**
+     * ObjectWriter缓存
+     * key: 实体类型, value: 绑定该类型的ObjectWriter
+     */
+    private final Map<Class<?>, ObjectWriter> writerCache = new ConcurrentHashMap<>();
+    
+    public JacksonPayloadCodec(PayloadFormat format, ObjectMapper mapper) {
+        this.format = format;
+        this.mapper = mapper;
+    }
+    
+    @Override
+    public PayloadFormat getFormat() {
+        return format;
+    }
+    
+    @Override
+    public EncodedPayload encode(Object value) throws IOException {
+        ObjectWriter writer = value != null ? writerFor(value.getClass()) : mapper.writer();
+        ReusableByteArrayOutputStream buffer = ReusableByteArrayOutputStream.acquire();
+        try {
+            writer.writeValue(buffer, value);
+            return new EncodedPayload(buffer.toByteArray(), format, null, null);
+        } finally {
+            buffer.release();
+        }
+    }
+    
+    private ObjectWriter writerFor(Class<?> type) {
+        ObjectWriter writer = writerCache.get(type);
+        if (writer == null) {
+            writer = mapper.writerFor(type);
+            writerCache.put(type, writer);
+        }
+        return writer;
+    }
+}
@@ -0,0 +1,25 @@
+package com.diit.common.log.serialize;
+
+import java.io.IOException;
+
+/**
+ * 日志消息编码器
+ *
+ * @author zzx
+ */
+public interface PayloadCodec {
+    
+    /**
+     * 编码格式
+     */
+    PayloadFormat getFormat();
+    
+    /**
+     * 编码日志实体
+     *
+     * @param value 日志实体
+     * @return 编码后的消息
+     * @throws IOException 编码失败
+     */
+    EncodedPayload encode(Object value) throws IOException;
+}
@@ -0,0 +1,54 @@
+package com.diit.common.log.serialize;
+
+/**
+ * 日志消息格式
+ *
+ * @author zzx
+ */
+public enum PayloadFormat {
+    
+    JSON("json", "application/json"),
+    
+    SMILE("smile", "application/x-jackson-smile"),
+    
+    CBOR("cbor", "application/cbor"),
+    
+    AVRO("avro", "avro/binary");
+    
+    /**
+     * 消息头中的格式标识
+     */
+    private final String id;
+    
+    /**
+     * HTTP Content-Type
+     */
+    private final String contentType;
+    
+    PayloadFormat(String id, String contentType) {
+        this.id = id;
+        this.contentType = contentType;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getContentType() {
+        return contentType;
+    }
+    
+    /**
+     * 根据配置值解析格式，未识别时返回JSON
+     */
+    public static PayloadFormat of(String value) {
+        if (value != null) {
+            for (PayloadFormat format : values()) {
+                if (format.id.equalsIgnoreCase(value.trim())) {
+                    return format;
+                }
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,31 @@
+package com.diit.common.log.serialize;
+
+/**
+ * 日志消息头名称
+ * 消费方根据格式、Schema名称和版本选择解码方式
+ *
+ * @author zzx
+ */
+public final class PayloadHeaders {
+    
+    /** Kafka消息头：格式 */
+    public static final String KAFKA_FORMAT = "log-format";
+    
+    /** Kafka消息头：Schema名称 */
+    public static final String KAFKA_SCHEMA = "log-schema";
+    
+    /** Kafka消息头：Schema版本 */
+    public static final String KAFKA_SCHEMA_VERSION = "log-schema-version";
+    
+    /** HTTP请求头：格式 */
+    public static final String HTTP_FORMAT = "X-Log-Format";
+    
+    /** HTTP请求头：Schema名称 */
+    public static final String HTTP_SCHEMA = "X-Log-Schema";
+    
+    /** HTTP请求头：Schema版本 */
+    public static final String HTTP_SCHEMA_VERSION = "X-Log-Schema-Version";
+    
+    private PayloadHeaders() {
+    }
+}
@@ -0,0 +1,135 @@
+package com.diit.common.log.service;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.properties.LogProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志批量分发器
+ * 按发送器类型缓冲日志，达到storage.batchSize或每隔storage.batchInterval毫秒调用一次sendBatch
+ * storage.async为false或分发器已关闭时直接逐条发送
+ *
+ * @author zzx
+ */
+@Slf4j
+@Service
+public class LogBatchDispatcher {
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    @Autowired
+    private LogSenderService logSenderService;
+    
+    /**
+     * 批量缓冲区
+     * key: 发送器类型（空字符串表示默认发送器）, value: 缓冲区
+     */
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    
+    private ScheduledExecutorService flusher;
+    
+    private volatile boolean running;
+    
+    @PostConstruct
+    public void start() {
+        long interval = Math.max(1, logProperties.getStorage().getBatchInterval());
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-batch-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAll, interval, interval, TimeUnit.MILLISECONDS);
+        running = true;
+        log.info("日志批量分发器启动完成: batchSize={}, batchInterval={}ms",
+                logProperties.getStorage().getBatchSize(), interval);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        running = false;
+        flusher.shutdown();
+        flushAll();
+    }
+    
+    /**
+     * 分发日志
+     *
+     * @param logEntity 日志实体
+     * @param senderType 发送器类型，为空时使用默认发送器
+     */
+    public void dispatch(BaseLogEntity logEntity, String senderType) {
+        if (!running || !logProperties.getStorage().isAsync()) {
+            logSenderService.send(logEntity, senderType);
+            return;
+        }
+        
+        String key = senderType != null ? senderType : "";
+        List<BaseLogEntity> full = batches.computeIfAbsent(key, k -> new Batch())
+                .add(logEntity, Math.max(1, logProperties.getStorage().getBatchSize()));
+        if (full != null) {
+            logSenderService.sendBatch(full, senderType);
+        }
+    }
+    
+    /**
+     * 发送所有缓冲区中的日志
+     */
+    public void flushAll() {
+        for (Map.Entry<String, Batch> entry : batches.entrySet()) {
+            List<BaseLogEntity> pending = entry.getValue().drain();
+            if (pending != null) {
+                try {
+                    logSenderService.sendBatch(pending, entry.getKey());
+                } catch (Exception e) {
+                    log.error("批量发送日志失败: senderType={}, count={}", entry.getKey(), pending.size(), e);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 单个发送器类型的缓冲区
+     */
+    private static final class Batch {
+        
+        private List<BaseLogEntity> entities = new ArrayList<>();
+        
+        /**
+         * 追加日志，缓冲区满时取出并返回已满的批次
+         */
+        synchronized List<BaseLogEntity> add(BaseLogEntity logEntity, int batchSize) {
+            entities.add(logEntity);
+            if (entities.size() < batchSize) {
+                return null;
+            }
+            List<BaseLogEntity> full = entities;
+            entities = new ArrayList<>(batchSize);
+            return full;
+        }
+        
+        /**
+         * 取出当前缓冲的所有日志，为空时返回null
+         */
+        synchronized List<BaseLogEntity> drain() {
+            if (entities.isEmpty()) {
+                return null;
+            }
+            List<BaseLogEntity> pending = entities;
+            entities = new ArrayList<>();
+            return pending;
+        }
+    }
+}
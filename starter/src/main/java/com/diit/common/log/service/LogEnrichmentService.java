@@ -0,0 +1,190 @@
+package com.diit.common.log.service;
+
+import com.diit.common.log.context.CaptureField;
+import com.diit.common.log.context.RequestSnapshot;
+import com.diit.common.log.enrich.EnrichedField;
+import com.diit.common.log.enrich.EnrichmentContext;
+import com.diit.common.log.enrich.EnrichmentPlan;
+import com.diit.common.log.enrich.EnrichmentTarget;
+import com.diit.common.log.enrich.LogEnricher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 日志增强服务
+ * 按日志实体类型生成并缓存增强计划，只执行产出字段被实体用到的增强器
+ *
+ * @author zzx
+ */
+@Slf4j
+@Service
+public class LogEnrichmentService {
+    
+    @Autowired(required = false)
+    private List<LogEnricher> enrichers;
+    
+    /**
+     * 增强计划缓存
+     * key: 日志实体类型, value: 增强计划
+     */
+    private final Map<Class<?>, EnrichmentPlan> planCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 获取实体类型的增强计划
+     *
+     * @param entityClass 日志实体类型
+     * @return 增强计划
+     */
+    public EnrichmentPlan getPlan(Class<?> entityClass) {
+        EnrichmentPlan plan = planCache.get(entityClass);
+        if (plan == null) {
+            plan = buildPlan(entityClass);
+            planCache.put(entityClass, plan);
+        }
+        return plan;
+    }
+    
+    /**
+     * 获取实体类型需要在请求线程上采集的字段掩码
+     *
+     * @param entityClass 日志实体类型
+     * @return 采集字段位掩码
+     */
+    public int getCaptureMask(Class<?> entityClass) {
+        return getPlan(entityClass).getCaptureMask();
+    }
+    
+    /**
+     * 基于请求快照增强日志实体
+     * 只填充实体中仍为null的字段
+     *
+     * @param logEntity 日志实体
+     * @param snapshot 请求快照
+     */
+    public void enrich(Object logEntity, RequestSnapshot snapshot) {
+        if (logEntity == null || snapshot == null) {
+            return;
+        }
+        
+        EnrichmentPlan plan = getPlan(logEntity.getClass());
+        if (plan.isEmpty()) {
+            return;
+        }
+        
+        EnrichmentContext context = new EnrichmentContext(snapshot);
+        List<LogEnricher> planEnrichers = plan.getEnrichers();
+        for (int i = 0; i < planEnrichers.size(); i++) {
+            if ((snapshot.getFields() & plan.getInputMask(i)) == 0) {
+                continue;
+            }
+            LogEnricher enricher = planEnrichers.get(i);
+            try {
+                enricher.enrich(context);
+            } catch (Exception e) {
+                log.debug("日志增强失败: enricher={}", enricher.getClass().getSimpleName(), e);
+            }
+        }
+        
+        for (Map.Entry<EnrichedField, EnrichmentTarget> target : plan.getTargets().entrySet()) {
+            String value = context.get(target.getKey());
+            if (value == null) {
+                continue;
+            }
+            try {
+                target.getValue().writeIfAbsent(logEntity, value);
+            } catch (Exception e) {
+                log.debug("写入增强字段失败: {}={}", target.getKey().getPropertyName(), value, e);
+            }
+        }
+    }
+    
+    /**
+     * 生成增强计划
+     */
+    private EnrichmentPlan buildPlan(Class<?> entityClass) {
+        Map<EnrichedField, EnrichmentTarget> targets = new EnumMap<>(EnrichedField.class);
+        for (EnrichedField enrichedField : EnrichedField.values()) {
+            EnrichmentTarget target = EnrichmentTarget.of(entityClass, enrichedField.getPropertyName());
+            if (target != null) {
+                targets.put(enrichedField, target);
+            }
+        }
+        
+        if (targets.isEmpty() || enrichers == null || enrichers.isEmpty()) {
+            return EnrichmentPlan.EMPTY;
+        }
+        
+        // 选出产出字段被实体用到的增强器，并补齐它们依赖的增强器
+        Set<EnrichedField> required = EnumSet.copyOf(targets.keySet());
+        List<LogEnricher> selected = new ArrayList<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (LogEnricher enricher : enrichers) {
+                if (!selected.contains(enricher) && !Collections.disjoint(enricher.produces(), required)) {
+                    selected.add(enricher);
+                    required.addAll(enricher.dependsOn());
+                    changed = true;
+                }
+            }
+        }
+        
+        List<LogEnricher> ordered = sortByDependencies(selected);
+        int[] inputMasks = new int[ordered.size()];
+        int captureMask = 0;
+        for (int i = 0; i < ordered.size(); i++) {
+            inputMasks[i] = CaptureField.maskOf(ordered.get(i).inputs().toArray(new CaptureField[0]));
+            captureMask |= inputMasks[i];
+        }
+        
+        log.debug("生成日志增强计划: entityClass={}, enrichers={}, targets={}",
+                entityClass.getSimpleName(), ordered.size(), targets.keySet());
+        return new EnrichmentPlan(Collections.unmodifiableList(ordered), inputMasks,
+                Collections.unmodifiableMap(targets), captureMask);
+    }
+    
+    /**
+     * 按依赖关系排序：依赖字段由其他增强器产出时，排在产出方之后
+     */
+    private List<LogEnricher> sortByDependencies(List<LogEnricher> selected) {
+        List<LogEnricher> remaining = new ArrayList<>(selected);
+        List<LogEnricher> ordered = new ArrayList<>(selected.size());
+        while (!remaining.isEmpty()) {
+            boolean progressed = false;
+            for (Iterator<LogEnricher> it = remaining.iterator(); it.hasNext(); ) {
+                LogEnricher enricher = it.next();
+                if (dependenciesSatisfied(enricher, remaining)) {
+                    ordered.add(enricher);
+                    it.remove();
+                    progressed = true;
+                }
+            }
+            if (!progressed) {
+                log.warn("日志增强器存在循环依赖: {}", remaining);
+                ordered.addAll(remaining);
+                break;
+            }
+        }
+        return ordered;
+    }
+    
+    private boolean dependenciesSatisfied(LogEnricher enricher, List<LogEnricher> remaining) {
+        for (LogEnricher other : remaining) {
+            if (other != enricher && !Collections.disjoint(other.produces(), enricher.dependsOn())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
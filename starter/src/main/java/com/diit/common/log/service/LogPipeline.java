@@ -0,0 +1,104 @@
+package com.diit.common.log.service;
+
+import com.diit.common.log.context.RequestSnapshot;
+import com.diit.common.log.properties.LogProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 日志处理流水线
+ * 请求线程只负责采集快照并投递，增强和发送在流水线工作线程上执行
+ * 队列满时由投递线程自行执行，保证日志不丢失
+ *
+ * @author zzx
+ */
+@Slf4j
+@Service
+public class LogPipeline {
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    @Autowired
+    private LogEnrichmentService logEnrichmentService;
+    
+    private ThreadPoolExecutor executor;
+    
+    @PostConstruct
+    public void start() {
+        LogProperties.Pipeline pipeline = logProperties.getPipeline();
+        int workers = Math.max(1, pipeline.getWorkerThreads());
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, pipeline.getQueueCapacity())),
+                new PipelineThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+        log.info("日志处理流水线启动完成: workers={}, queueCapacity={}", workers, pipeline.getQueueCapacity());
+    }
+    
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(logProperties.getPipeline().getShutdownTimeout(), TimeUnit.MILLISECONDS)) {
+                log.warn("日志处理流水线关闭超时，剩余{}条日志未处理", executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * 投递日志到流水线
+     *
+     * @param logEntity 日志实体
+     * @param snapshot 请求快照，可为null
+     * @param sink 增强完成后的处理（通常为发送）
+     * @param <T> 日志实体类型
+     */
+    public <T> void submit(T logEntity, RequestSnapshot snapshot, Consumer<? super T> sink) {
+        executor.execute(() -> process(logEntity, snapshot, sink));
+    }
+    
+    /**
+     * 在当前线程上增强并处理日志
+     *
+     * @param logEntity 日志实体
+     * @param snapshot 请求快照，可为null
+     * @param sink 增强完成后的处理（通常为发送）
+     * @param <T> 日志实体类型
+     */
+    public <T> void process(T logEntity, RequestSnapshot snapshot, Consumer<? super T> sink) {
+        try {
+            logEnrichmentService.enrich(logEntity, snapshot);
+            sink.accept(logEntity);
+        } catch (Exception e) {
+            log.error("日志流水线处理失败: entityClass={}", logEntity.getClass().getSimpleName(), e);
+        }
+    }
+    
+    /**
+     * 流水线工作线程工厂
+     */
+    private static class PipelineThreadFactory implements ThreadFactory {
+        
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "log-pipeline-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
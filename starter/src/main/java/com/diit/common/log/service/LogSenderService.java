@@ -139,6 +139,30 @@ public class LogSenderService {
         }
     }
     
+    /**
+     * 批量发送日志，失败时抛出异常而不是只记录日志，由调用方重试或计入丢弃（如日志网关）
+     * 
+     * @param logEntities 日志实体列表
+     * @param senderType 发送器类型
+     * @throws IllegalStateException 未找到合适的发送器
+     * @throws RuntimeException 发送器写入失败
+     */
+    @SuppressWarnings("unchecked")
+    public void sendBatchOrThrow(List<? extends BaseLogEntity> logEntities, String senderType) {
+        if (logEntities == null || logEntities.isEmpty()) {
+            return;
+        }
+        
+        BaseLogEntity firstEntity = logEntities.get(0);
+        GenericLogSender<BaseLogEntity> sender = findSender(firstEntity, senderType);
+        if (sender == null) {
+            throw new IllegalStateException("未找到合适的日志发送器: senderType=" + senderType
+                    + ", entityClass=" + firstEntity.getClass().getSimpleName());
+        }
+        sender.sendBatch((List<BaseLogEntity>) logEntities);
+        log.debug("批量日志发送成功: senderType={}, count={}", senderType, logEntities.size());
+    }
+    
     /**
      * 查找合适的发送器
      * 
@@ -0,0 +1,264 @@
+package com.diit.common.log.service;
+
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.entity.OperationLogEntity;
+import com.diit.common.log.entity.UserAccessLogEntity;
+import com.diit.common.log.metadata.LogEntityMetadataModule;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.serialize.AvroPayloadCodec;
+import com.diit.common.log.serialize.EncodedPayload;
+import com.diit.common.log.serialize.JacksonPayloadCodec;
+import com.diit.common.log.serialize.PayloadCodec;
+import com.diit.common.log.serialize.PayloadFormat;
+import com.diit.common.log.utils.ReusableByteArrayOutputStream;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 日志序列化服务
+ * 所有发送器共用一个ObjectMapper，并按实体类型缓存预先解析好序列化器的ObjectWriter
+ * 类路径上存在Blackbird/Afterburner时可启用字节码生成的属性访问，替代反射读取字段
+ *
+ * @author zzx
+ */
+@Slf4j
+@Service
+public class LogSerializer {
+    
+    private static final String BLACKBIRD_MODULE = "com.fasterxml.jackson.module.blackbird.BlackbirdModule";
+    private static final String AFTERBURNER_MODULE = "com.fasterxml.jackson.module.afterburner.AfterburnerModule";
+    private static final String SMILE_FACTORY = "com.fasterxml.jackson.dataformat.smile.SmileFactory";
+    private static final String CBOR_FACTORY = "com.fasterxml.jackson.dataformat.cbor.CBORFactory";
+    private static final String AVRO_MAPPER = "com.fasterxml.jackson.dataformat.avro.AvroMapper";
+    
+    @Autowired
+    private LogProperties logProperties;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    /**
+     * ObjectWriter缓存
+     * key: 实体类型, value: 绑定该类型的ObjectWriter
+     */
+    private final Map<Class<?>, ObjectWriter> writerCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 日期输出为ISO-8601字符串的ObjectWriter缓存（用于Elasticsearch）
+     */
+    private final Map<Class<?>, ObjectWriter> isoDateWriterCache = new ConcurrentHashMap<>();
+    
+    /**
+     * Kafka和HTTP消息使用的编码器
+     */
+    private PayloadCodec payloadCodec;
+    
+    @PostConstruct
+    public void init() {
+        // 属性访问模块由配置决定，不随SPI自动注册
+        for (Module module : ObjectMapper.findModules(getClass().getClassLoader())) {
+            String className = module.getClass().getName();
+            if (!BLACKBIRD_MODULE.equals(className) && !AFTERBURNER_MODULE.equals(className)) {
+                objectMapper.registerModule(module);
+            }
+        }
+        // 标注@LogEntity的实体使用编译期生成的写出器
+        objectMapper.registerModule(new LogEntityMetadataModule());
+        // 写入调用方提供的输出流时不关闭它
+        objectMapper.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        String accessorModule = registerAccessorModule(logProperties.getSerialization().getAccessorModule());
+        
+        // 预解析内置实体的序列化器，避免首条日志承担解析开销
+        writerFor(DefaultLogEntity.class);
+        writerFor(OperationLogEntity.class);
+        writerFor(UserAccessLogEntity.class);
+        
+        payloadCodec = createPayloadCodec(PayloadFormat.of(logProperties.getSerialization().getFormat()));
+        log.info("日志序列化服务初始化完成，属性访问模块: {}, 消息格式: {}",
+                accessorModule, payloadCodec.getFormat().getId());
+    }
+    
+    /**
+     * 获取共享的ObjectMapper
+     */
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+    
+    /**
+     * 获取绑定指定类型的ObjectWriter，首次访问时解析并缓存
+     *
+     * @param type 序列化的类型
+     * @return ObjectWriter
+     */
+    public ObjectWriter writerFor(Class<?> type) {
+        ObjectWriter writer = writerCache.get(type);
+        if (writer == null) {
+            writer = objectMapper.writerFor(type);
+            writerCache.put(type, writer);
+        }
+        return writer;
+    }
+    
+    /**
+     * 序列化为JSON字符串
+     */
+    public String toJson(Object value) throws JsonProcessingException {
+        if (value == null) {
+            return "null";
+        }
+        return writerFor(value.getClass()).writeValueAsString(value);
+    }
+    
+    /**
+     * 序列化为UTF-8编码的JSON字节
+     * 先写入线程复用的缓冲区，再复制出精确长度的数组，不经过String
+     */
+    public byte[] toJsonBytes(Object value) throws IOException {
+        ReusableByteArrayOutputStream buffer = ReusableByteArrayOutputStream.acquire();
+        try {
+            writeJson(value, buffer);
+            return buffer.toByteArray();
+        } finally {
+            buffer.release();
+        }
+    }
+    
+    /**
+     * 以UTF-8编码的JSON写入输出流，不关闭输出流
+     */
+    public void writeJson(Object value, OutputStream out) throws IOException {
+        ObjectWriter writer = value != null ? writerFor(value.getClass()) : objectMapper.writer();
+        writer.writeValue(out, value);
+    }
+    
+    /**
+     * 以UTF-8编码的JSON写入输出流，日期类型输出为ISO-8601字符串而不是数组，不关闭输出流
+     */
+    public void writeJsonWithIsoDates(Object value, OutputStream out) throws IOException {
+        if (value == null) {
+            writeJson(null, out);
+            return;
+        }
+        ObjectWriter writer = isoDateWriterCache.get(value.getClass());
+        if (writer == null) {
+            writer = writerFor(value.getClass()).without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+            isoDateWriterCache.put(value.getClass(), writer);
+        }
+        writer.writeValue(out, value);
+    }
+    
+    /**
+     * 按配置的消息格式编码日志实体（用于Kafka和HTTP）
+     *
+     * @param value 日志实体
+     * @return 编码后的消息，包含实际使用的格式和Schema版本
+     */
+    public EncodedPayload encode(Object value) throws IOException {
+        return payloadCodec.encode(value);
+    }
+    
+    /**
+     * 配置的消息格式
+     */
+    public PayloadFormat getPayloadFormat() {
+        return payloadCodec.getFormat();
+    }
+    
+    /**
+     * 注册字节码属性访问模块
+     *
+     * @return 实际使用的模块名称
+     */
+    private String registerAccessorModule(String accessorModule) {
+        String mode = accessorModule != null ? accessorModule.trim().toLowerCase() : "none";
+        switch (mode) {
+            case "blackbird":
+                return registerModule(BLACKBIRD_MODULE) ? "blackbird" : "none";
+            case "afterburner":
+                return registerModule(AFTERBURNER_MODULE) ? "afterburner" : "none";
+            case "auto":
+                if (registerModule(BLACKBIRD_MODULE)) {
+                    return "blackbird";
+                }
+                return registerModule(AFTERBURNER_MODULE) ? "afterburner" : "none";
+            default:
+                return "none";
+        }
+    }
+    
+    /**
+     * 创建消息编码器，所需的数据格式模块不在类路径上时回退为JSON
+     */
+    private PayloadCodec createPayloadCodec(PayloadFormat format) {
+        PayloadCodec json = new PayloadCodec() {
+            @Override
+            public PayloadFormat getFormat() {
+                return PayloadFormat.JSON;
+            }
+            
+            @Override
+            public EncodedPayload encode(Object value) throws IOException {
+                return new EncodedPayload(toJsonBytes(value), PayloadFormat.JSON, null, null);
+            }
+        };
+        
+        ClassLoader classLoader = getClass().getClassLoader();
+        try {
+            switch (format) {
+                case SMILE:
+                case CBOR:
+                    String factoryClass = format == PayloadFormat.SMILE ? SMILE_FACTORY : CBOR_FACTORY;
+                    if (!ClassUtils.isPresent(factoryClass, classLoader)) {
+                        break;
+                    }
+                    JsonFactory factory = (JsonFactory) ClassUtils.forName(factoryClass, classLoader)
+                            .getDeclaredConstructor().newInstance();
+                    // 复制JSON的配置和已注册模块，保证各格式字段一致
+                    return new JacksonPayloadCodec(format, objectMapper.copyWith(factory));
+                case AVRO:
+                    if (!ClassUtils.isPresent(AVRO_MAPPER, classLoader)) {
+                        break;
+                    }
+                    return new AvroPayloadCodec(logProperties.getSerialization().getAvroSchemaDir(), json);
+                default:
+                    return json;
+            }
+        } catch (Exception | LinkageError e) {
+            log.warn("初始化{}编码器失败，使用JSON", format.getId(), e);
+            return json;
+        }
+        
+        log.warn("类路径上缺少{}数据格式模块，使用JSON", format.getId());
+        return json;
+    }
+    
+    private boolean registerModule(String className) {
+        ClassLoader classLoader = getClass().getClassLoader();
+        if (!ClassUtils.isPresent(className, classLoader)) {
+            return false;
+        }
+        try {
+            Module module = (Module) ClassUtils.forName(className, classLoader).getDeclaredConstructor().newInstance();
+            objectMapper.registerModule(module);
+            return true;
+        } catch (Exception | LinkageError e) {
+            log.warn("注册Jackson模块失败: {}", className, e);
+            return false;
+        }
+    }
+}
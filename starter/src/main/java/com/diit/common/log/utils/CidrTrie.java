@@ -0,0 +1,388 @@
+package com.diit.common.log.utils;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * CIDR网段前缀树
+ * 基于int数组实现的二叉前缀树，同时支持IPv4和IPv6网段
+ * 构建完成后只读，匹配过程直接扫描字符，不分配对象，也不会触发DNS解析
+ *
+ * @author zzx
+ */
+public final class CidrTrie {
+
+    private static final int IPV4_BITS = 32;
+    private static final int IPV6_BITS = 128;
+    private static final int IPV6_GROUPS = 8;
+
+    private final Tree ipv4 = new Tree();
+    private final Tree ipv6 = new Tree();
+
+    private CidrTrie() {
+    }
+
+    /**
+     * 根据CIDR列表构建前缀树
+     * 不带前缀长度的地址按单个主机处理，非法条目直接抛出异常
+     *
+     * @param cidrs CIDR列表，如 10.0.0.0/8、fc00::/7
+     * @return 前缀树
+     */
+    public static CidrTrie of(Collection<String> cidrs) {
+        CidrTrie trie = new CidrTrie();
+        if (cidrs != null) {
+            for (String cidr : cidrs) {
+                if (cidr != null && !cidr.trim().isEmpty()) {
+                    trie.add(cidr.trim());
+                }
+            }
+        }
+        return trie;
+    }
+
+    /**
+     * 根据CIDR数组构建前缀树
+     */
+    public static CidrTrie of(String... cidrs) {
+        return of(cidrs != null ? Arrays.asList(cidrs) : null);
+    }
+
+    /**
+     * 判断IP地址是否落在任一网段内
+     *
+     * @param address IP地址字面量
+     * @return 是否命中
+     */
+    public boolean contains(CharSequence address) {
+        return address != null && contains(address, 0, address.length());
+    }
+
+    /**
+     * 判断字符区间[start, end)表示的IP地址是否落在任一网段内
+     * 支持前后空白、[IPv6]括号、IPv4:端口、IPv6区域标识以及IPv4映射地址；非IP字面量一律返回false
+     */
+    public boolean contains(CharSequence s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return false;
+        }
+
+        if (s.charAt(start) == '[') {
+            int close = indexOf(s, ']', start, end);
+            if (close < 0) {
+                return false;
+            }
+            start++;
+            end = close;
+        }
+
+        int colon = indexOf(s, ':', start, end);
+        if (colon < 0 || indexOf(s, ':', colon + 1, end) < 0) {
+            // IPv4，或带端口的IPv4
+            long v4 = parseIpv4(s, start, colon < 0 ? end : colon);
+            return v4 >= 0 && ipv4.matches(v4 << 32, 0L, IPV4_BITS);
+        }
+
+        int zone = indexOf(s, '%', start, end);
+        if (zone >= 0) {
+            end = zone;
+        }
+        if (!isValidIpv6(s, start, end)) {
+            return false;
+        }
+        long hi = ipv6Half(s, start, end, true);
+        long lo = ipv6Half(s, start, end, false);
+        if (hi == 0L && (lo >>> 32) == 0xFFFFL) {
+            // IPv4映射地址 ::ffff:a.b.c.d 按IPv4网段匹配
+            return ipv4.matches(lo << 32, 0L, IPV4_BITS);
+        }
+        return ipv6.matches(hi, lo, IPV6_BITS);
+    }
+
+    /**
+     * 添加一个CIDR网段
+     */
+    private void add(String cidr) {
+        int slash = cidr.indexOf('/');
+        int end = slash < 0 ? cidr.length() : slash;
+        boolean isIpv6 = cidr.indexOf(':') >= 0;
+        int maxBits = isIpv6 ? IPV6_BITS : IPV4_BITS;
+
+        int prefix;
+        try {
+            prefix = slash < 0 ? maxBits : Integer.parseInt(cidr.substring(slash + 1).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid CIDR prefix: " + cidr, e);
+        }
+        if (prefix < 0 || prefix > maxBits) {
+            throw new IllegalArgumentException("Invalid CIDR prefix: " + cidr);
+        }
+
+        if (!isIpv6) {
+            long v4 = parseIpv4(cidr, 0, end);
+            if (v4 < 0) {
+                throw new IllegalArgumentException("Invalid IPv4 CIDR: " + cidr);
+            }
+            ipv4.add(v4 << 32, 0L, prefix);
+            return;
+        }
+
+        if (!isValidIpv6(cidr, 0, end)) {
+            throw new IllegalArgumentException("Invalid IPv6 CIDR: " + cidr);
+        }
+        ipv6.add(ipv6Half(cidr, 0, end, true), ipv6Half(cidr, 0, end, false), prefix);
+    }
+
+    // ==================== 地址解析 ====================
+
+    /**
+     * 解析点分十进制IPv4地址
+     *
+     * @return 32位无符号地址，非法时返回-1
+     */
+    static long parseIpv4(CharSequence s, int start, int end) {
+        long value = 0;
+        int octets = 0;
+        int octet = 0;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                octet = octet * 10 + (c - '0');
+                if (++digits > 3 || octet > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (digits == 0 || ++octets > 3) {
+                    return -1;
+                }
+                value = (value << 8) | octet;
+                octet = 0;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+        if (digits == 0 || octets != 3) {
+            return -1;
+        }
+        return (value << 8) | octet;
+    }
+
+    /**
+     * 校验IPv6地址字面量
+     */
+    private static boolean isValidIpv6(CharSequence s, int start, int end) {
+        int gap = findGap(s, start, end);
+        if (gap == -2) {
+            return false;
+        }
+        if (gap < 0) {
+            if (countGroups(s, start, end) != IPV6_GROUPS) {
+                return false;
+            }
+        } else if (countGroups(s, start, gap) + countGroups(s, gap + 2, end) > IPV6_GROUPS - 1) {
+            return false;
+        }
+        for (int i = 0; i < IPV6_GROUPS; i++) {
+            if (ipv6Group(s, start, end, gap, i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 取已校验IPv6地址的高64位或低64位
+     */
+    private static long ipv6Half(CharSequence s, int start, int end, boolean high) {
+        int gap = findGap(s, start, end);
+        int from = high ? 0 : IPV6_GROUPS / 2;
+        long value = 0;
+        for (int i = from; i < from + IPV6_GROUPS / 2; i++) {
+            value = (value << 16) | ipv6Group(s, start, end, gap, i);
+        }
+        return value;
+    }
+
+    /**
+     * 取IPv6地址第index个16位分组（已展开"::"）
+     *
+     * @return 分组值，非法时返回-1
+     */
+    private static int ipv6Group(CharSequence s, int start, int end, int gap, int index) {
+        if (gap < 0) {
+            return segmentGroup(s, start, end, index);
+        }
+        int headCount = countGroups(s, start, gap);
+        if (index < headCount) {
+            return segmentGroup(s, start, gap, index);
+        }
+        int tailCount = countGroups(s, gap + 2, end);
+        if (index >= IPV6_GROUPS - tailCount) {
+            return segmentGroup(s, gap + 2, end, index - (IPV6_GROUPS - tailCount));
+        }
+        return 0;
+    }
+
+    /**
+     * 定位"::"的位置
+     *
+     * @return 不存在返回-1，出现多次返回-2
+     */
+    private static int findGap(CharSequence s, int start, int end) {
+        int gap = -1;
+        for (int i = start; i + 1 < end; i++) {
+            if (s.charAt(i) == ':' && s.charAt(i + 1) == ':') {
+                if (gap >= 0) {
+                    return -2;
+                }
+                gap = i;
+                i++;
+            }
+        }
+        return gap;
+    }
+
+    /**
+     * 统计冒号分隔片段中的16位分组数量，内嵌IPv4占两个分组
+     */
+    private static int countGroups(CharSequence s, int start, int end) {
+        if (start >= end) {
+            return 0;
+        }
+        int count = 1;
+        boolean dotted = false;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c == ':') {
+                count++;
+            } else if (c == '.') {
+                dotted = true;
+            }
+        }
+        return dotted ? count + 1 : count;
+    }
+
+    /**
+     * 取冒号分隔片段中第index个16位分组
+     */
+    private static int segmentGroup(CharSequence s, int start, int end, int index) {
+        int logical = 0;
+        int segStart = start;
+        while (segStart <= end) {
+            int segEnd = indexOf(s, ':', segStart, end);
+            if (segEnd < 0) {
+                segEnd = end;
+            }
+            if (indexOf(s, '.', segStart, segEnd) >= 0) {
+                // 内嵌IPv4只允许出现在最后
+                if (segEnd != end) {
+                    return -1;
+                }
+                long v4 = parseIpv4(s, segStart, segEnd);
+                if (v4 < 0) {
+                    return -1;
+                }
+                if (index == logical) {
+                    return (int) (v4 >>> 16);
+                }
+                return index == logical + 1 ? (int) (v4 & 0xFFFF) : -1;
+            }
+            if (index == logical) {
+                return parseHexGroup(s, segStart, segEnd);
+            }
+            logical++;
+            segStart = segEnd + 1;
+        }
+        return -1;
+    }
+
+    private static int parseHexGroup(CharSequence s, int start, int end) {
+        int length = end - start;
+        if (length < 1 || length > 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = Character.digit(s.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static int indexOf(CharSequence s, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ==================== 前缀树 ====================
+
+    /**
+     * 二叉前缀树
+     * children[node * 2]为0分支，children[node * 2 + 1]为1分支，0表示无子节点（根节点不会作为子节点）
+     */
+    private static final class Tree {
+
+        private int[] children = new int[32];
+        private boolean[] terminal = new boolean[16];
+        private int size = 1;
+
+        void add(long hi, long lo, int prefix) {
+            int node = 0;
+            for (int i = 0; i < prefix; i++) {
+                if (terminal[node]) {
+                    // 已被更短的前缀覆盖
+                    return;
+                }
+                int slot = node * 2 + bit(hi, lo, i);
+                int next = children[slot];
+                if (next == 0) {
+                    next = newNode();
+                    children[slot] = next;
+                }
+                node = next;
+            }
+            terminal[node] = true;
+        }
+
+        boolean matches(long hi, long lo, int bits) {
+            int node = 0;
+            for (int i = 0; i < bits; i++) {
+                if (terminal[node]) {
+                    return true;
+                }
+                node = children[node * 2 + bit(hi, lo, i)];
+                if (node == 0) {
+                    return false;
+                }
+            }
+            return terminal[node];
+        }
+
+        private int newNode() {
+            if (size == terminal.length) {
+                terminal = Arrays.copyOf(terminal, size * 2);
+                children = Arrays.copyOf(children, size * 4);
+            }
+            return size++;
+        }
+
+        private static int bit(long hi, long lo, int index) {
+            return (int) (index < 64 ? (hi >>> (63 - index)) & 1L : (lo >>> (127 - index)) & 1L);
+        }
+    }
+}
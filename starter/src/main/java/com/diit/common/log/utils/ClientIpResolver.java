@@ -0,0 +1,158 @@
+package com.diit.common.log.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 客户端IP解析器
+ * 仅当直连地址属于可信代理网段时才采信转发头，并从右向左跳过可信代理跳点，
+ * 取第一个非可信地址作为客户端IP。解析过程只做下标扫描，不拆分字符串，也不做DNS解析
+ *
+ * @author zzx
+ */
+public class ClientIpResolver {
+
+    /**
+     * 默认可信代理网段：回环地址及内网地址
+     */
+    public static final String[] DEFAULT_TRUSTED_PROXIES = {
+            "127.0.0.0/8", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "::1/128", "fc00::/7"
+    };
+
+    private static final String UNKNOWN = "unknown";
+
+    private static final String HEADER_X_FORWARDED_FOR = "x-forwarded-for";
+
+    /**
+     * 无X-Forwarded-For时依次尝试的兼容请求头
+     */
+    private static final String[] FALLBACK_HEADERS = {
+            "x-real-ip", "x-forwarded", "proxy-client-ip", "wl-proxy-client-ip",
+            "http-client-ip", "http-x-forwarded-for"
+    };
+
+    private static final ClientIpResolver DEFAULT = new ClientIpResolver(CidrTrie.of(DEFAULT_TRUSTED_PROXIES));
+
+    private final CidrTrie trustedProxies;
+
+    public ClientIpResolver(CidrTrie trustedProxies) {
+        this.trustedProxies = trustedProxies;
+    }
+
+    /**
+     * 使用默认可信代理网段的解析器
+     */
+    public static ClientIpResolver defaults() {
+        return DEFAULT;
+    }
+
+    /**
+     * 解析请求的客户端IP
+     *
+     * @param request HTTP请求
+     * @return 客户端IP
+     */
+    public String resolve(HttpServletRequest request) {
+        if (request == null) {
+            return UNKNOWN;
+        }
+
+        String remoteAddr = request.getRemoteAddr();
+        if (!isTrustedProxy(remoteAddr)) {
+            return remoteAddr != null ? remoteAddr : UNKNOWN;
+        }
+
+        String ip = walkForwarded(request.getHeader(HEADER_X_FORWARDED_FOR));
+        if (ip != null) {
+            return ip;
+        }
+        return walkForwarded(firstFallbackHeader(request), remoteAddr);
+    }
+
+    /**
+     * 根据已采集的原始值解析客户端IP
+     *
+     * @param remoteAddr 直连地址
+     * @param forwardedFor X-Forwarded-For请求头
+     * @param fallbackHeader 兼容请求头中第一个非空值
+     * @return 客户端IP
+     */
+    public String resolve(String remoteAddr, String forwardedFor, String fallbackHeader) {
+        if (!isTrustedProxy(remoteAddr)) {
+            return remoteAddr != null ? remoteAddr : UNKNOWN;
+        }
+
+        String ip = walkForwarded(forwardedFor);
+        if (ip != null) {
+            return ip;
+        }
+        return walkForwarded(fallbackHeader, remoteAddr);
+    }
+
+    /**
+     * 读取兼容请求头中第一个有效值
+     */
+    public static String firstFallbackHeader(HttpServletRequest request) {
+        for (String header : FALLBACK_HEADERS) {
+            String value = request.getHeader(header);
+            if (value != null && !value.isEmpty() && !UNKNOWN.equalsIgnoreCase(value)) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 判断地址是否属于可信代理
+     */
+    public boolean isTrustedProxy(String ip) {
+        return ip != null && trustedProxies.contains(ip);
+    }
+
+    private String walkForwarded(String value, String defaultIp) {
+        String ip = walkForwarded(value);
+        if (ip != null) {
+            return ip;
+        }
+        return defaultIp != null ? defaultIp : UNKNOWN;
+    }
+
+    /**
+     * 从右向左扫描逗号分隔的转发链
+     * 返回第一个非可信地址；全部为可信代理时返回最左侧地址；没有有效地址时返回null
+     */
+    private String walkForwarded(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        int leftmostStart = -1;
+        int leftmostEnd = -1;
+        int end = value.length();
+        while (end > 0) {
+            int comma = value.lastIndexOf(',', end - 1);
+            int start = comma + 1;
+            int hopEnd = end;
+            while (start < hopEnd && value.charAt(start) <= ' ') {
+                start++;
+            }
+            while (hopEnd > start && value.charAt(hopEnd - 1) <= ' ') {
+                hopEnd--;
+            }
+
+            if (hopEnd > start && !isUnknown(value, start, hopEnd)) {
+                if (!trustedProxies.contains(value, start, hopEnd)) {
+                    return value.substring(start, hopEnd);
+                }
+                leftmostStart = start;
+                leftmostEnd = hopEnd;
+            }
+            end = comma;
+        }
+
+        return leftmostStart >= 0 ? value.substring(leftmostStart, leftmostEnd) : null;
+    }
+
+    private static boolean isUnknown(String value, int start, int end) {
+        return end - start == UNKNOWN.length() && value.regionMatches(true, start, UNKNOWN, 0, UNKNOWN.length());
+    }
+}
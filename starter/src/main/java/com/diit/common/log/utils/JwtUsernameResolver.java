@@ -0,0 +1,210 @@
+package com.diit.common.log.utils;
+
+import com.diit.common.log.properties.LogProperties;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * JWT用户名解析器
+ * 验签通过的用户名按Token的SHA-256摘要缓存，缓存有界且不会超过Token自身的过期时间，
+ * 同一个Token在有效期内只做一次验签
+ *
+ * @author zzx
+ */
+@Slf4j
+public class JwtUsernameResolver {
+    
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String BASE64_PREFIX = "base64:";
+    
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+    
+    /**
+     * 未配置密钥时为null，此时不解析任何Token
+     */
+    private final JwtParser parser;
+    
+    private final String usernameClaim;
+    
+    private final long cacheTtl;
+    
+    /**
+     * 验签结果缓存（按访问顺序淘汰）
+     * key: Token摘要, value: 用户名及缓存截止时间
+     */
+    private final Map<String, CachedPrincipal> cache;
+    
+    public JwtUsernameResolver(LogProperties.Jwt properties) {
+        this(buildParser(properties), properties.getUsernameClaim(), properties.getCacheTtl(),
+                properties.getCacheSize());
+    }
+    
+    JwtUsernameResolver(JwtParser parser, String usernameClaim, long cacheTtl, int maxCacheSize) {
+        this.parser = parser;
+        this.usernameClaim = usernameClaim;
+        this.cacheTtl = cacheTtl;
+        int cacheSize = Math.max(1, maxCacheSize);
+        this.cache = new LinkedHashMap<String, CachedPrincipal>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+    
+    /**
+     * 是否已配置验签密钥
+     */
+    public boolean isEnabled() {
+        return parser != null;
+    }
+    
+    /**
+     * 从Authorization请求头中解析用户名
+     *
+     * @param authorization Authorization请求头
+     * @return 用户名，未配置密钥、非Bearer Token或验签失败时返回null
+     */
+    public String resolve(String authorization) {
+        if (parser == null || authorization == null || !authorization.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        String token = authorization.substring(BEARER_PREFIX.length()).trim();
+        if (token.isEmpty()) {
+            return null;
+        }
+        
+        String cacheKey = digest(token);
+        long now = System.currentTimeMillis();
+        synchronized (cache) {
+            CachedPrincipal cached = cache.get(cacheKey);
+            if (cached != null) {
+                if (cached.expiresAt > now) {
+                    return cached.username;
+                }
+                cache.remove(cacheKey);
+            }
+        }
+        
+        Claims claims;
+        try {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Token验签失败: {}", e.getMessage());
+            return null;
+        }
+        
+        Object value = claims.get(usernameClaim);
+        String username = value != null ? value.toString() : null;
+        if (username == null) {
+            return null;
+        }
+        
+        long expiresAt = now + cacheTtl;
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.getTime());
+        }
+        synchronized (cache) {
+            cache.put(cacheKey, new CachedPrincipal(username, expiresAt));
+        }
+        return username;
+    }
+    
+    /**
+     * 当前缓存条数
+     */
+    public int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+    
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA256.get();
+        sha256.reset();
+        return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+    
+    /**
+     * 根据配置的密钥构建验签器，未配置密钥时返回null
+     */
+    static JwtParser buildParser(LogProperties.Jwt properties) {
+        Key key = resolveKey(properties);
+        if (key == null) {
+            return null;
+        }
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .setAllowedClockSkewSeconds(properties.getAllowedClockSkew())
+                .build();
+    }
+    
+    /**
+     * 解析验签密钥：优先使用公钥，其次使用HMAC密钥
+     */
+    private static Key resolveKey(LogProperties.Jwt properties) {
+        String publicKey = properties.getPublicKey();
+        if (publicKey != null && !publicKey.isBlank()) {
+            return parsePublicKey(publicKey);
+        }
+        
+        String secret = properties.getSecret();
+        if (secret == null || secret.isEmpty()) {
+            return null;
+        }
+        byte[] keyBytes = secret.startsWith(BASE64_PREFIX)
+                ? Base64.getDecoder().decode(secret.substring(BASE64_PREFIX.length()).trim())
+                : secret.getBytes(StandardCharsets.UTF_8);
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+    
+    private static Key parsePublicKey(String pem) {
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        X509EncodedKeySpec spec = new X509EncodedKeySpec(Base64.getDecoder().decode(base64));
+        for (String algorithm : new String[]{"RSA", "EC"}) {
+            try {
+                return KeyFactory.getInstance(algorithm).generatePublic(spec);
+            } catch (Exception e) {
+                // 尝试下一种算法
+            }
+        }
+        throw new IllegalArgumentException("Unsupported JWT public key, expected RSA or EC in X.509 format");
+    }
+    
+    /**
+     * 缓存的验签结果
+     */
+    private static final class CachedPrincipal {
+        
+        private final String username;
+        private final long expiresAt;
+        
+        CachedPrincipal(String username, long expiresAt) {
+            this.username = username;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
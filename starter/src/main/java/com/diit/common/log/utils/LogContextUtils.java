@@ -15,18 +15,13 @@ public class LogContextUtils {
     
     /**
      * 获取当前用户名
-     * 这里提供一个默认实现，实际项目中可以从Security上下文中获取
+     * 从当前请求的Bearer Token中解析，无法解析时返回默认系统用户
      * 
      * @return 用户名
      */
     public static String getCurrentUsername() {
-        // TODO: 从Spring Security或其他认证框架中获取用户名
-        // 示例：
-        // SecurityContext context = SecurityContextHolder.getContext();
-        // Authentication authentication = context.getAuthentication();
-        // return authentication != null ? authentication.getName() : "anonymous";
-        
-        return "system"; // 默认返回系统用户
+        String username = LogWebUtils.getUsernameFromToken(getCurrentRequest());
+        return username != null ? username : "system"; // 默认返回系统用户
     }
     
     /**
@@ -51,33 +46,7 @@ public class LogContextUtils {
      * @return IP地址
      */
     public static String getClientIpAddress(HttpServletRequest request) {
-        if (request == null) {
-            return "unknown";
-        }
-        
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_CLIENT_IP");
-        }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("HTTP_X_FORWARDED_FOR");
-        }
-        if (ip == null || ip.length() == 0 || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        
-        // 处理多个IP的情况
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
-        }
-        
-        return ip;
+        return LogWebUtils.getClientIpAddress(request);
     }
     
     /**
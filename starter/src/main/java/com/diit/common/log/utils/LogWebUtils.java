@@ -4,9 +4,6 @@ import eu.bitwalker.useragentutils.UserAgent;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 
-import java.net.InetAddress;
-import java.net.UnknownHostException;
-
 /**
  * 日志Web工具类
  * 
@@ -15,55 +12,33 @@ import java.net.UnknownHostException;
 @Slf4j
 public class LogWebUtils {
     
-    private static final String UNKNOWN = "unknown";
     private static final String LOCALHOST = "127.0.0.1";
-    private static final String SEPARATOR = ",";
     
-    private static final String HEADER_X_FORWARDED_FOR = "x-forwarded-for";
-    private static final String HEADER_X_REAL_IP = "x-real-ip";
-    private static final String HEADER_X_FORWARDED = "x-forwarded";
-    private static final String HEADER_PROXY_CLIENT_IP = "proxy-client-ip";
-    private static final String HEADER_WL_PROXY_CLIENT_IP = "wl-proxy-client-ip";
-    private static final String HEADER_HTTP_CLIENT_IP = "http-client-ip";
-    private static final String HEADER_HTTP_X_FORWARDED_FOR = "http-x-forwarded-for";
+    /**
+     * 内网地址：回环地址、IPv4私有网段、IPv6站点本地及唯一本地地址
+     */
+    private static final CidrTrie INTERNAL_NETWORKS = CidrTrie.of(
+            "127.0.0.0/8", "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16",
+            "::1/128", "fec0::/10", "fc00::/7");
+    
+    /**
+     * JWT用户名解析器，由自动配置注册；未注册时不解析Token
+     */
+    private static volatile JwtUsernameResolver jwtUsernameResolver;
+    
+    /**
+     * 注册JWT用户名解析器
+     */
+    public static void setJwtUsernameResolver(JwtUsernameResolver resolver) {
+        jwtUsernameResolver = resolver;
+    }
     
     /**
      * 获取客户端IP地址
+     * 使用默认可信代理网段解析，自定义网段请注入{@link ClientIpResolver}
      */
     public static String getClientIpAddress(HttpServletRequest request) {
-        if (request == null) {
-            return UNKNOWN;
-        }
-        
-        String ip = request.getHeader(HEADER_X_FORWARDED_FOR);
-        if (ip == null || ip.length() == 0 || UNKNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getHeader(HEADER_X_REAL_IP);
-        }
-        if (ip == null || ip.length() == 0 || UNKNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getHeader(HEADER_X_FORWARDED);
-        }
-        if (ip == null || ip.length() == 0 || UNKNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getHeader(HEADER_PROXY_CLIENT_IP);
-        }
-        if (ip == null || ip.length() == 0 || UNKNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getHeader(HEADER_WL_PROXY_CLIENT_IP);
-        }
-        if (ip == null || ip.length() == 0 || UNKNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getHeader(HEADER_HTTP_CLIENT_IP);
-        }
-        if (ip == null || ip.length() == 0 || UNKNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getHeader(HEADER_HTTP_X_FORWARDED_FOR);
-        }
-        if (ip == null || ip.length() == 0 || UNKNOWN.equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        
-        // 多个IP时取第一个
-        if (ip != null && ip.contains(SEPARATOR)) {
-            ip = ip.split(SEPARATOR)[0];
-        }
-        
-        return LOCALHOST.equals(ip) ? LOCALHOST : ip;
+        return ClientIpResolver.defaults().resolve(request);
     }
     
     /**
@@ -142,36 +117,35 @@ public class LogWebUtils {
         if (request == null) {
             return null;
         }
+        return getUsernameFromAuthorization(request.getHeader("Authorization"));
+    }
+    
+    /**
+     * 从Authorization请求头中获取用户名
+     * 验签结果按Token缓存，同一Token在有效期内只验签一次
+     */
+    public static String getUsernameFromAuthorization(String authorization) {
+        JwtUsernameResolver resolver = jwtUsernameResolver;
+        if (resolver == null || authorization == null) {
+            return null;
+        }
         
         try {
-            String token = request.getHeader("Authorization");
-            if (token != null && token.startsWith("Bearer ")) {
-                token = token.substring(7);
-                // 这里可以集成JWT解析逻辑
-                // 目前返回null，由具体实现类处理
-                return null;
-            }
+            return resolver.resolve(authorization);
         } catch (Exception e) {
             log.debug("从Token获取用户名失败: {}", e.getMessage());
+            return null;
         }
-        
-        return null;
     }
     
     /**
      * 检查是否为内网IP
+     * 只识别IP字面量，不会触发DNS解析
      */
     public static boolean isInternalIp(String ip) {
         if (ip == null || LOCALHOST.equals(ip)) {
             return true;
         }
-        
-        try {
-            InetAddress addr = InetAddress.getByName(ip);
-            return addr.isSiteLocalAddress() || addr.isLoopbackAddress();
-        } catch (UnknownHostException e) {
-            log.warn("检查IP地址失败: {}", e.getMessage());
-            return false;
-        }
+        return INTERNAL_NETWORKS.contains(ip);
     }
 }
@@ -0,0 +1,64 @@
+package com.diit.common.log.utils;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * 可复用的字节输出流
+ * 每个线程持有一个实例，序列化时直接写入UTF-8字节，避免中间String和char[]；
+ * 使用后只重置写入位置，缓冲区保留给下一次使用，超过上限的缓冲区会被丢弃以免长期占用内存
+ *
+ * @author zzx
+ */
+public final class ReusableByteArrayOutputStream extends ByteArrayOutputStream {
+    
+    private static final int INITIAL_CAPACITY = 4096;
+    
+    /**
+     * 归还时允许保留的最大缓冲区容量
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+    
+    private static final ThreadLocal<ReusableByteArrayOutputStream> LOCAL =
+            ThreadLocal.withInitial(ReusableByteArrayOutputStream::new);
+    
+    private boolean inUse;
+    
+    private ReusableByteArrayOutputStream() {
+        super(INITIAL_CAPACITY);
+    }
+    
+    /**
+     * 获取当前线程的缓冲流
+     * 同一线程嵌套使用时返回新的临时实例
+     */
+    public static ReusableByteArrayOutputStream acquire() {
+        ReusableByteArrayOutputStream stream = LOCAL.get();
+        if (stream.inUse) {
+            return new ReusableByteArrayOutputStream();
+        }
+        stream.inUse = true;
+        stream.reset();
+        return stream;
+    }
+    
+    /**
+     * 归还缓冲流
+     */
+    public void release() {
+        if (LOCAL.get() != this) {
+            return;
+        }
+        inUse = false;
+        reset();
+        if (buf.length > MAX_RETAINED_CAPACITY) {
+            LOCAL.remove();
+        }
+    }
+    
+    /**
+     * 直接访问内部缓冲区，有效数据为[0, size())
+     */
+    public byte[] buffer() {
+        return buf;
+    }
+}
@@ -1,10 +1,11 @@
 package com.diit.common.log.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.diit.common.log.service.LogSerializer;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
@@ -26,7 +27,9 @@ import java.lang.reflect.Parameter;
 public class SpelUtils {
     
     private final ExpressionParser parser = new SpelExpressionParser();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Autowired
+    private LogSerializer logSerializer;
     
     /**
      * 解析SpEL表达式
@@ -128,7 +131,7 @@ public class SpelUtils {
             }
             
             // 对于复杂对象，转换为JSON
-            return objectMapper.writeValueAsString(obj);
+            return logSerializer.toJson(obj);
         } catch (JsonProcessingException e) {
             log.debug("对象转JSON失败: {}", obj.getClass(), e);
             return obj.toString();
@@ -0,0 +1,132 @@
+package com.diit.common.log.aot;
+
+import com.diit.common.log.annotation.GenericLog;
+import com.diit.common.log.annotation.OperationLog;
+import com.diit.common.log.annotation.UserAccessLog;
+import com.diit.common.log.entity.OperationLogEntity;
+import com.diit.common.log.entity.UserAccessLogEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.generate.GenerationContext;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * LogAnnotationAotProcessor构建期扫描测试
+ *
+ * @author zzx
+ */
+class LogAnnotationAotProcessorTest {
+    
+    private final LogAnnotationAotProcessor processor = new LogAnnotationAotProcessor();
+    
+    @Test
+    void registersAnnotatedMethodsEntitiesAndBindingTypes() throws Exception {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("orderService", new RootBeanDefinition(OrderService.class));
+        beanFactory.registerBeanDefinition("auditService", new RootBeanDefinition(AuditService.class));
+        
+        RuntimeHints hints = apply(processor.processAheadOfTime(beanFactory));
+        
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(OrderService.class.getMethod("update", OrderCommand.class)).introspect()).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(OrderService.class.getMethod("login", String.class)).introspect()).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(OrderService.class.getMethod("export", String.class)).introspect()).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection()
+                .onMethod(OrderService.class.getMethod("plain")).introspect()).rejects(hints);
+        
+        // 方法上和类上@GenericLog指定的实体
+        assertThat(RuntimeHintsPredicates.reflection().onType(UserAccessLogEntity.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(OperationLogEntity.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS)).accepts(hints);
+        
+        // SpEL按属性访问参数和返回值
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(OrderCommand.class, "getOrderNo").invoke()).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(OrderResult.class, "getStatus").invoke()).accepts(hints);
+    }
+    
+    @Test
+    void noContributionWithoutLogAnnotations() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("plainService", new RootBeanDefinition(PlainService.class));
+        
+        assertThat(processor.processAheadOfTime(beanFactory)).isNull();
+    }
+    
+    private static RuntimeHints apply(BeanFactoryInitializationAotContribution contribution) {
+        assertThat(contribution).isNotNull();
+        RuntimeHints hints = new RuntimeHints();
+        GenerationContext generationContext = mock(GenerationContext.class);
+        when(generationContext.getRuntimeHints()).thenReturn(hints);
+        contribution.applyTo(generationContext, null);
+        return hints;
+    }
+    
+    public static class OrderService {
+        
+        @OperationLog(type = "UPDATE")
+        public OrderResult update(OrderCommand command) {
+            return new OrderResult();
+        }
+        
+        @UserAccessLog(type = "LOGIN")
+        public void login(String username) {
+        }
+        
+        @GenericLog(entityClass = UserAccessLogEntity.class)
+        public void export(String format) {
+        }
+        
+        public void plain() {
+        }
+    }
+    
+    @GenericLog(entityClass = OperationLogEntity.class)
+    public static class AuditService {
+        
+        public void audit() {
+        }
+    }
+    
+    public static class PlainService {
+        
+        public void run() {
+        }
+    }
+    
+    public static class OrderCommand {
+        
+        private String orderNo;
+        
+        public String getOrderNo() {
+            return orderNo;
+        }
+        
+        public void setOrderNo(String orderNo) {
+            this.orderNo = orderNo;
+        }
+    }
+    
+    public static class OrderResult {
+        
+        private String status;
+        
+        public String getStatus() {
+            return status;
+        }
+        
+        public void setStatus(String status) {
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.diit.common.log.aot;
+
+import com.diit.common.log.annotation.GenericLog;
+import com.diit.common.log.annotation.LogEntity;
+import com.diit.common.log.annotation.OperationLog;
+import com.diit.common.log.annotation.UserAccessLog;
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.entity.OperationLogEntity;
+import com.diit.common.log.entity.UserAccessLogEntity;
+import com.diit.common.log.metadata.LogEntityMetadataRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LogRuntimeHints注册结果测试
+ * 用RuntimeHintsPredicates核对原生镜像需要的反射和资源提示，原生构建本身需要GraalVM
+ *
+ * @author zzx
+ */
+class LogRuntimeHintsTest {
+    
+    private final RuntimeHints hints = new RuntimeHints();
+    
+    @BeforeEach
+    void setUp() {
+        new LogRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+    
+    @Test
+    void registersBuiltInEntities() {
+        for (Class<?> entityType : List.of(DefaultLogEntity.class, OperationLogEntity.class, UserAccessLogEntity.class)) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(entityType)
+                    .withMemberCategories(MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                    .accepts(hints);
+            // 编译期生成的元数据类按类名加载
+            assertThat(RuntimeHintsPredicates.reflection()
+                    .onType(TypeReference.of(LogEntityMetadataRegistry.metadataClassName(entityType)))
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+                    .accepts(hints);
+        }
+        assertThat(RuntimeHintsPredicates.reflection().onType(BaseLogEntity.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS)).accepts(hints);
+        
+        // Jackson序列化和增强写入通过属性访问器
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(UserAccessLogEntity.class, "getClientIp").invoke())
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(UserAccessLogEntity.class, "setClientIp").invoke())
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(BaseLogEntity.class, "getTimestamp").invoke())
+                .accepts(hints);
+    }
+    
+    @Test
+    void registersLogAnnotations() {
+        for (Class<?> annotationType : List.of(GenericLog.class, OperationLog.class, UserAccessLog.class, LogEntity.class)) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(annotationType)
+                    .withMemberCategory(MemberCategory.INVOKE_PUBLIC_METHODS)).accepts(hints);
+        }
+    }
+    
+    @Test
+    void registersReflectivelyLoadedJacksonTypes() {
+        for (String type : List.of("com.fasterxml.jackson.module.blackbird.BlackbirdModule",
+                "com.fasterxml.jackson.module.afterburner.AfterburnerModule",
+                "com.fasterxml.jackson.dataformat.smile.SmileFactory",
+                "com.fasterxml.jackson.dataformat.cbor.CBORFactory")) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(type))
+                    .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS)).accepts(hints);
+        }
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/com.fasterxml.jackson.databind.Module"))
+                .accepts(hints);
+    }
+    
+    @Test
+    void registersJwtImplementations() {
+        for (String type : List.of("io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+                "io.jsonwebtoken.impl.DefaultJwtParser",
+                "io.jsonwebtoken.impl.DefaultJwtBuilder",
+                "io.jsonwebtoken.jackson.io.JacksonSerializer",
+                "io.jsonwebtoken.jackson.io.JacksonDeserializer")) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(TypeReference.of(type))
+                    .withMemberCategories(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS))
+                    .accepts(hints);
+        }
+        assertThat(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer"))
+                .accepts(hints);
+    }
+}
@@ -0,0 +1,111 @@
+package com.diit.common.log.metadata;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.entity.OperationLogEntity;
+import com.diit.common.log.entity.UserAccessLogEntity;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.BeanSerializer;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.logging.LogLevel;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 内置实体生成的JSON写出器与Jackson默认Bean序列化的输出对比测试
+ *
+ * @author zzx
+ */
+class LogEntityJsonWriterTest {
+    
+    private static final LocalDateTime TIME = LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6_000_000);
+    
+    @Test
+    void builtInEntitiesUseGeneratedWriters() throws Exception {
+        ObjectMapper generated = mapper(true);
+        
+        for (Class<?> entityType : List.of(DefaultLogEntity.class, OperationLogEntity.class, UserAccessLogEntity.class)) {
+            assertThat(LogEntityMetadataRegistry.get(entityType.asSubclass(BaseLogEntity.class)).getJsonWriter())
+                    .as(entityType.getSimpleName()).isPresent();
+            assertThat(generated.getSerializerProviderInstance().findValueSerializer(entityType))
+                    .as(entityType.getSimpleName()).isNotInstanceOf(BeanSerializer.class);
+        }
+    }
+    
+    @Test
+    void outputMatchesJacksonForPopulatedAndEmptyEntities() throws Exception {
+        for (boolean datesAsTimestamps : new boolean[]{true, false}) {
+            ObjectMapper jackson = mapper(false).configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, datesAsTimestamps);
+            ObjectMapper generated = mapper(true).configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, datesAsTimestamps);
+            
+            for (BaseLogEntity entity : List.of(operationLog(), accessLog(), defaultLog(),
+                    new OperationLogEntity(), new UserAccessLogEntity(), new DefaultLogEntity())) {
+                assertThat(generated.writeValueAsString(entity)).as(entity.getClass().getSimpleName())
+                        .isEqualTo(jackson.writeValueAsString(entity));
+            }
+        }
+    }
+    
+    @Test
+    void defersToJacksonWhenInclusionIsCustomized() throws Exception {
+        ObjectMapper jackson = mapper(false).setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        ObjectMapper generated = mapper(true).setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        
+        assertThat(generated.getSerializerProviderInstance().findValueSerializer(OperationLogEntity.class))
+                .isInstanceOf(BeanSerializer.class);
+        assertThat(generated.writeValueAsString(operationLog())).isEqualTo(jackson.writeValueAsString(operationLog()));
+    }
+    
+    private static ObjectMapper mapper(boolean generatedWriters) {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        return generatedWriters ? mapper.registerModule(new LogEntityMetadataModule()) : mapper;
+    }
+    
+    private static void fillBase(BaseLogEntity entity) {
+        entity.setId("log-1");
+        entity.setTimestamp(TIME);
+        entity.setContent("内容 \"quoted\" \\ \n");
+        entity.setLevel(LogLevel.ERROR);
+    }
+    
+    private static OperationLogEntity operationLog() {
+        OperationLogEntity entity = OperationLogEntity.builder()
+                .username("alice")
+                .realName("爱丽丝")
+                .operationType("UPDATE")
+                .operationTimestamp(TIME)
+                .clientIp("10.0.0.1")
+                .responseTime(120L)
+                .requestUri("/api/orders/1")
+                .beforeData("{\"status\":\"NEW\"}")
+                .createTime(TIME)
+                .build();
+        fillBase(entity);
+        return entity;
+    }
+    
+    private static UserAccessLogEntity accessLog() {
+        UserAccessLogEntity entity = new UserAccessLogEntity();
+        fillBase(entity);
+        entity.setUsername("bob");
+        entity.setAccessType("LOGIN");
+        entity.setAccessTimestamp(TIME);
+        entity.setResponseTime(0L);
+        entity.setUserAgent("Mozilla/5.0");
+        return entity;
+    }
+    
+    private static DefaultLogEntity defaultLog() {
+        DefaultLogEntity entity = new DefaultLogEntity();
+        fillBase(entity);
+        entity.setModule("order");
+        entity.setExceptionMessage("boom");
+        return entity;
+    }
+}
@@ -0,0 +1,330 @@
+package com.diit.common.log.metadata;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.processor.LogEntityProcessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.logging.LogLevel;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LogEntityProcessor编译测试
+ * 用javac加上处理器编译示例实体，核对生成的_LogMetadata源码，并加载生成类验证参数绑定和JSON输出
+ *
+ * @author zzx
+ */
+class LogEntityProcessorTest {
+    
+    private static final String ORDER_ENTITY = """
+            package sample;
+            
+            import com.diit.common.log.annotation.LogEntity;
+            import com.diit.common.log.entity.BaseLogEntity;
+            
+            import java.math.BigDecimal;
+            import java.time.LocalDateTime;
+            
+            @LogEntity
+            public class OrderLogEntity extends BaseLogEntity {
+                public enum Channel { WEB, APP }
+                private static final String IGNORED = "ignored";
+                private transient String cache;
+                private String orderNo;
+                private Integer quantity;
+                private long totalCents;
+                private boolean paid;
+                private Boolean refunded;
+                private BigDecimal amount;
+                private LocalDateTime paidAt;
+                private Channel channel;
+                public String getOrderNo() { return orderNo; }
+                public void setOrderNo(String orderNo) { this.orderNo = orderNo; }
+                public Integer getQuantity() { return quantity; }
+                public void setQuantity(Integer quantity) { this.quantity = quantity; }
+                public long getTotalCents() { return totalCents; }
+                public void setTotalCents(long totalCents) { this.totalCents = totalCents; }
+                public boolean isPaid() { return paid; }
+                public void setPaid(boolean paid) { this.paid = paid; }
+                public Boolean getRefunded() { return refunded; }
+                public void setRefunded(Boolean refunded) { this.refunded = refunded; }
+                public BigDecimal getAmount() { return amount; }
+                public void setAmount(BigDecimal amount) { this.amount = amount; }
+                public LocalDateTime getPaidAt() { return paidAt; }
+                public void setPaidAt(LocalDateTime paidAt) { this.paidAt = paidAt; }
+                public Channel getChannel() { return channel; }
+                public void setChannel(Channel channel) { this.channel = channel; }
+            }
+            """;
+    
+    @TempDir
+    Path workDir;
+    
+    @Test
+    void generatesMetadataWithJsonWriter() throws Exception {
+        Compilation compilation = compile("sample.OrderLogEntity", ORDER_ENTITY);
+        
+        assertThat(compilation.errors()).isEmpty();
+        String source = compilation.generatedSource("sample.OrderLogEntity_LogMetadata");
+        assertThat(source)
+                .contains("public final class OrderLogEntity_LogMetadata extends "
+                        + "com.diit.common.log.metadata.GeneratedJsonLogEntityMetadata<sample.OrderLogEntity>")
+                .contains("new com.diit.common.log.metadata.FieldDescriptor(\"totalCents\", \"total_cents\", long.class)")
+                .contains("new com.diit.common.log.metadata.FieldDescriptor(\"paidAt\", \"paid_at\", java.time.LocalDateTime.class)")
+                .contains("params[offset + 7] = enumName(entity.getChannel());")
+                .contains("generator.writeBoolean(entity.isPaid());")
+                .contains("writeNumber(generator, entity.getQuantity());")
+                .contains("provider.defaultSerializeValue(entity.getAmount(), generator);")
+                .doesNotContain("IGNORED")
+                .doesNotContain("cache");
+        
+        try (URLClassLoader loader = compilation.classLoader()) {
+            Class<? extends BaseLogEntity> entityType = loader.loadClass("sample.OrderLogEntity")
+                    .asSubclass(BaseLogEntity.class);
+            LogEntityMetadata<BaseLogEntity> metadata = metadata(entityType);
+            
+            assertThat(metadata.isGenerated()).isTrue();
+            assertThat(metadata.getClass().getName()).isEqualTo("sample.OrderLogEntity_LogMetadata");
+            assertThat(metadata.getFields()).extracting(FieldDescriptor::getColumnName).containsExactly(
+                    "order_no", "quantity", "total_cents", "paid", "refunded", "amount", "paid_at", "channel");
+            assertThat(metadata.getJsonWriter()).isPresent();
+            
+            BaseLogEntity entity = populate(metadata.newInstance());
+            Object[] params = new Object[10];
+            metadata.bindParameters(entity, params, 2);
+            assertThat(params).containsExactly(null, null, "SO-1", 3, 4200L, true, null, new BigDecimal("42.00"),
+                    LocalDateTime.of(2024, 5, 6, 7, 8, 9), "APP");
+            
+            assertSameJsonAsJackson(entity);
+        }
+    }
+    
+    @Test
+    void skipsJsonWriterWhenJacksonAnnotationsShapeOutput() throws Exception {
+        Compilation compilation = compile("sample.AuditLogEntity", """
+                package sample;
+                
+                import com.diit.common.log.annotation.LogEntity;
+                import com.diit.common.log.entity.BaseLogEntity;
+                import com.fasterxml.jackson.annotation.JsonFormat;
+                
+                import java.time.LocalDateTime;
+                
+                @LogEntity
+                public class AuditLogEntity extends BaseLogEntity {
+                    @JsonFormat(pattern = "yyyy-MM-dd")
+                    private LocalDateTime auditedAt;
+                    public LocalDateTime getAuditedAt() { return auditedAt; }
+                    public void setAuditedAt(LocalDateTime auditedAt) { this.auditedAt = auditedAt; }
+                }
+                """);
+        
+        assertThat(compilation.errors()).isEmpty();
+        assertThat(compilation.generatedSource("sample.AuditLogEntity_LogMetadata"))
+                .contains("extends com.diit.common.log.metadata.GeneratedLogEntityMetadata<sample.AuditLogEntity>")
+                .doesNotContain("writeFields");
+        assertThat(compilation.messages(Diagnostic.Kind.NOTE)).anyMatch(message -> message.contains("AuditLogEntity"));
+        
+        try (URLClassLoader loader = compilation.classLoader()) {
+            LogEntityMetadata<BaseLogEntity> metadata = metadata(loader.loadClass("sample.AuditLogEntity")
+                    .asSubclass(BaseLogEntity.class));
+            assertThat(metadata.isGenerated()).isTrue();
+            assertThat(metadata.getJsonWriter()).isEmpty();
+        }
+    }
+    
+    @Test
+    void renamesJsonPropertiesAndSkipsIgnoredFields() throws Exception {
+        Compilation compilation = compile("sample.TraceLogEntity", """
+                package sample;
+                
+                import com.diit.common.log.annotation.LogEntity;
+                import com.diit.common.log.entity.BaseLogEntity;
+                import com.fasterxml.jackson.annotation.JsonIgnore;
+                import com.fasterxml.jackson.annotation.JsonProperty;
+                
+                @LogEntity
+                public class TraceLogEntity extends BaseLogEntity {
+                    @JsonProperty("trace_id")
+                    private String traceId;
+                    @JsonIgnore
+                    private String secret;
+                    public String getTraceId() { return traceId; }
+                    public void setTraceId(String traceId) { this.traceId = traceId; }
+                    public String getSecret() { return secret; }
+                    public void setSecret(String secret) { this.secret = secret; }
+                }
+                """);
+        
+        assertThat(compilation.errors()).isEmpty();
+        assertThat(compilation.generatedSource("sample.TraceLogEntity_LogMetadata"))
+                .contains("new com.fasterxml.jackson.core.io.SerializedString(\"trace_id\")")
+                .doesNotContain("entity.getSecret(), generator");
+        
+        try (URLClassLoader loader = compilation.classLoader()) {
+            Class<? extends BaseLogEntity> entityType = loader.loadClass("sample.TraceLogEntity")
+                    .asSubclass(BaseLogEntity.class);
+            BaseLogEntity entity = metadata(entityType).newInstance();
+            entityType.getMethod("setTraceId", String.class).invoke(entity, "t-1");
+            entityType.getMethod("setSecret", String.class).invoke(entity, "s3cr3t");
+            assertSameJsonAsJackson(entity);
+        }
+    }
+    
+    @Test
+    void warnsAndFallsBackWhenFieldHasNoGetter() throws Exception {
+        Compilation compilation = compile("sample.OpaqueLogEntity", """
+                package sample;
+                
+                import com.diit.common.log.annotation.LogEntity;
+                import com.diit.common.log.entity.BaseLogEntity;
+                
+                @LogEntity
+                public class OpaqueLogEntity extends BaseLogEntity {
+                    private String hidden;
+                }
+                """);
+        
+        assertThat(compilation.errors()).isEmpty();
+        assertThat(compilation.messages(Diagnostic.Kind.WARNING)).anyMatch(message -> message.contains("hidden"));
+        assertThat(Files.exists(compilation.sourceFile("sample.OpaqueLogEntity_LogMetadata"))).isFalse();
+        
+        try (URLClassLoader loader = compilation.classLoader()) {
+            LogEntityMetadata<BaseLogEntity> metadata = metadata(loader.loadClass("sample.OpaqueLogEntity")
+                    .asSubclass(BaseLogEntity.class));
+            assertThat(metadata.isGenerated()).isFalse();
+            assertThat(metadata.getFields()).extracting(FieldDescriptor::getName).containsExactly("hidden");
+        }
+    }
+    
+    @Test
+    void rejectsEntitiesOutsideBaseLogEntity() throws Exception {
+        Compilation compilation = compile("sample.PlainEntity", """
+                package sample;
+                
+                @com.diit.common.log.annotation.LogEntity
+                public class PlainEntity {
+                }
+                """);
+        
+        assertThat(compilation.errors()).anyMatch(message -> message.contains("BaseLogEntity"));
+    }
+    
+    private static BaseLogEntity populate(BaseLogEntity entity) throws ReflectiveOperationException {
+        Class<?> type = entity.getClass();
+        entity.setId("log-1");
+        entity.setTimestamp(LocalDateTime.of(2024, 5, 6, 7, 8, 0));
+        entity.setContent("下单");
+        entity.setLevel(LogLevel.WARN);
+        type.getMethod("setOrderNo", String.class).invoke(entity, "SO-1");
+        type.getMethod("setQuantity", Integer.class).invoke(entity, 3);
+        type.getMethod("setTotalCents", long.class).invoke(entity, 4200L);
+        type.getMethod("setPaid", boolean.class).invoke(entity, true);
+        type.getMethod("setAmount", BigDecimal.class).invoke(entity, new BigDecimal("42.00"));
+        type.getMethod("setPaidAt", LocalDateTime.class).invoke(entity, LocalDateTime.of(2024, 5, 6, 7, 8, 9));
+        Class<?> channel = type.getClassLoader().loadClass("sample.OrderLogEntity$Channel");
+        type.getMethod("setChannel", channel).invoke(entity, channel.getEnumConstants()[1]);
+        return entity;
+    }
+    
+    /**
+     * 生成的写出器与Jackson默认Bean序列化的输出逐字节一致
+     */
+    private static void assertSameJsonAsJackson(BaseLogEntity entity) throws IOException {
+        ObjectMapper jackson = new ObjectMapper().registerModule(new JavaTimeModule());
+        ObjectMapper generated = new ObjectMapper().registerModule(new JavaTimeModule())
+                .registerModule(new LogEntityMetadataModule());
+        
+        assertThat(generated.writeValueAsString(entity)).isEqualTo(jackson.writeValueAsString(entity));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static LogEntityMetadata<BaseLogEntity> metadata(Class<? extends BaseLogEntity> entityType) {
+        return LogEntityMetadataRegistry.get((Class<BaseLogEntity>) entityType);
+    }
+    
+    private Compilation compile(String className, String source) throws IOException {
+        Path sources = Files.createDirectories(workDir.resolve("src"));
+        Path generated = Files.createDirectories(workDir.resolve("generated"));
+        Path classes = Files.createDirectories(workDir.resolve("classes"));
+        Path file = sources.resolve(className.replace('.', File.separatorChar) + ".java");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, source, StandardCharsets.UTF_8);
+        
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, Locale.ROOT,
+                StandardCharsets.UTF_8)) {
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(classes));
+            fileManager.setLocationFromPaths(StandardLocation.SOURCE_OUTPUT, List.of(generated));
+            fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, testClassPath());
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    List.of("-implicit:class"), null, fileManager.getJavaFileObjects(file));
+            task.setProcessors(List.of(new LogEntityProcessor()));
+            task.call();
+        }
+        return new Compilation(generated, classes, diagnostics.getDiagnostics());
+    }
+    
+    private static List<Path> testClassPath() {
+        return Stream.of(System.getProperty("java.class.path").split(File.pathSeparator))
+                .map(Path::of)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * 一次编译的生成目录、输出目录和诊断信息
+     */
+    private record Compilation(Path generated, Path classes, List<Diagnostic<? extends JavaFileObject>> diagnostics) {
+        
+        List<String> errors() {
+            return messages(Diagnostic.Kind.ERROR);
+        }
+        
+        List<String> messages(Diagnostic.Kind kind) {
+            List<String> messages = new ArrayList<>();
+            for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics) {
+                if (diagnostic.getKind() == kind) {
+                    messages.add(diagnostic.getMessage(Locale.ROOT));
+                }
+            }
+            return messages;
+        }
+        
+        Path sourceFile(String className) {
+            return generated.resolve(className.replace('.', File.separatorChar) + ".java");
+        }
+        
+        String generatedSource(String className) throws IOException {
+            return Files.readString(sourceFile(className), StandardCharsets.UTF_8);
+        }
+        
+        URLClassLoader classLoader() throws IOException {
+            return new URLClassLoader(new URL[]{classes.toUri().toURL()}, LogEntityProcessorTest.class.getClassLoader());
+        }
+    }
+}
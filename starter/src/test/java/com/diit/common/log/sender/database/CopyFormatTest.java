@@ -0,0 +1,126 @@
+package com.diit.common.log.sender.database;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CopyFormat编码测试
+ * CSV按PostgreSQL的引号规则写出，binary按COPY二进制格式逐字段读回核对
+ *
+ * @author zzx
+ */
+class CopyFormatTest {
+    
+    @Test
+    void csvQuotesOnlyWhenNeeded() throws IOException {
+        Object[] row = {"a,b", "", null, "x\"y", Timestamp.valueOf(LocalDateTime.of(2024, 1, 2, 3, 4, 5)),
+                new byte[]{1, (byte) 0xFF}, "中文"};
+        int[] types = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.TIMESTAMP, Types.BINARY,
+                Types.VARCHAR};
+        
+        String csv = new String(write(CopyFormat.CSV, row, types), StandardCharsets.UTF_8);
+        
+        assertThat(csv).isEqualTo("\"a,b\",\"\",,\"x\"\"y\",2024-01-02 03:04:05.0,\"\\x01ff\",中文\n");
+    }
+    
+    @Test
+    void binaryWritesSignatureRowsAndTrailer() throws IOException {
+        Object[] row = {"log", null, 42, 7L, true, Timestamp.valueOf(LocalDateTime.of(2000, 1, 1, 0, 0, 1)),
+                LocalDate.of(2000, 1, 3), "{\"k\":1}"};
+        int[] types = {Types.VARCHAR, Types.VARCHAR, Types.INTEGER, Types.BIGINT, Types.BOOLEAN, Types.TIMESTAMP,
+                Types.DATE, Types.OTHER};
+        
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(write(CopyFormat.BINARY, row, types)));
+        
+        byte[] signature = new byte[11];
+        in.readFully(signature);
+        assertThat(signature).containsExactly('P', 'G', 'C', 'O', 'P', 'Y', '\n', 0xFF, '\r', '\n', 0);
+        assertThat(in.readInt()).isZero();
+        assertThat(in.readInt()).isZero();
+        
+        assertThat(in.readShort()).isEqualTo((short) row.length);
+        assertThat(readText(in)).isEqualTo("log");
+        assertThat(in.readInt()).isEqualTo(-1);
+        assertThat(in.readInt()).isEqualTo(4);
+        assertThat(in.readInt()).isEqualTo(42);
+        assertThat(in.readInt()).isEqualTo(8);
+        assertThat(in.readLong()).isEqualTo(7L);
+        assertThat(in.readInt()).isEqualTo(1);
+        assertThat(in.readByte()).isEqualTo((byte) 1);
+        // timestamp和date以2000-01-01为纪元，分别为微秒数和天数
+        assertThat(in.readInt()).isEqualTo(8);
+        assertThat(in.readLong()).isEqualTo(1_000_000L);
+        assertThat(in.readInt()).isEqualTo(4);
+        assertThat(in.readInt()).isEqualTo(2);
+        // jsonb以版本号1开头
+        assertThat(in.readInt()).isEqualTo(8);
+        assertThat(in.readByte()).isEqualTo((byte) 1);
+        byte[] json = new byte[7];
+        in.readFully(json);
+        assertThat(new String(json, StandardCharsets.UTF_8)).isEqualTo("{\"k\":1}");
+        
+        assertThat(in.readShort()).isEqualTo((short) -1);
+        assertThat(in.available()).isZero();
+    }
+    
+    @Test
+    void binaryNumericUsesBase10000Digits() throws IOException {
+        assertThat(numeric(new BigDecimal("12345.67"))).containsExactly(3, 1, 0, 2, 1, 2345, 6700);
+        assertThat(numeric(new BigDecimal("-0.0001"))).containsExactly(1, -1, 0x4000, 4, 1);
+        assertThat(numeric(new BigDecimal("100000000"))).containsExactly(1, 2, 0, 0, 1);
+        assertThat(numeric(BigDecimal.ZERO)).containsExactly(0, 0, 0, 0);
+    }
+    
+    @Test
+    void parsesConfiguredFormat() {
+        assertThat(CopyFormat.of("binary")).isEqualTo(CopyFormat.BINARY);
+        assertThat(CopyFormat.of(" BINARY ")).isEqualTo(CopyFormat.BINARY);
+        assertThat(CopyFormat.of("csv")).isEqualTo(CopyFormat.CSV);
+        assertThat(CopyFormat.of("text")).isEqualTo(CopyFormat.CSV);
+        assertThat(CopyFormat.of(null)).isEqualTo(CopyFormat.CSV);
+    }
+    
+    private static byte[] write(CopyFormat format, Object[] row, int[] types) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        format.writeHeader(out);
+        format.writeRow(row, types, out);
+        format.writeTrailer(out);
+        return bytes.toByteArray();
+    }
+    
+    private static String readText(DataInputStream in) throws IOException {
+        byte[] text = new byte[in.readInt()];
+        in.readFully(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 读回numeric字段：位数、权重、符号、小数位数和各位
+     */
+    private static int[] numeric(BigDecimal value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CopyFormat.BINARY.writeRow(new Object[]{value}, new int[]{Types.NUMERIC}, new DataOutputStream(bytes));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        in.readShort();
+        int length = in.readInt();
+        int[] values = new int[length / 2];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readShort();
+        }
+        return values;
+    }
+}
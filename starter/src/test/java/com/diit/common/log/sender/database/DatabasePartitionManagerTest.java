@@ -0,0 +1,225 @@
+package com.diit.common.log.sender.database;
+
+import com.diit.common.log.properties.LogProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * DatabasePartitionManager分区命名、周期计算、保留期和默认分区数据迁移测试
+ * 用Mockito模拟JdbcTemplate，只校验执行的SQL
+ *
+ * @author zzx
+ */
+class DatabasePartitionManagerTest {
+    
+    private static final String TABLE = "app_log";
+    
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    
+    private final LogProperties properties = new LogProperties();
+    
+    private final DatabasePartitionManager manager = new DatabasePartitionManager();
+    
+    private final List<String> partitions = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        properties.getDatabase().setTableName(TABLE);
+        properties.getDatabase().getPartition().setEnabled(true);
+        ReflectionTestUtils.setField(manager, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(manager, "logProperties", properties);
+        
+        when(jdbcTemplate.queryForList(contains("relkind"), eq(String.class), any()))
+                .thenReturn(List.of("p"));
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), any()))
+                .thenReturn(partitions);
+    }
+    
+    @Test
+    void dailyPeriods() {
+        LocalDate leapDay = LocalDate.of(2024, 2, 29);
+        
+        assertThat(DatabasePartitionManager.periodStart(leapDay, false)).isEqualTo(leapDay);
+        assertThat(DatabasePartitionManager.plusPeriods(leapDay, 1, false)).isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(DatabasePartitionManager.plusPeriods(LocalDate.of(2023, 12, 31), 1, false))
+                .isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(DatabasePartitionManager.partitionName("App_Log", leapDay, false)).isEqualTo("app_log_p20240229");
+    }
+    
+    @Test
+    void monthlyPeriods() {
+        LocalDate start = DatabasePartitionManager.periodStart(LocalDate.of(2024, 1, 31), true);
+        
+        assertThat(start).isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(DatabasePartitionManager.plusPeriods(start, 1, true)).isEqualTo(LocalDate.of(2024, 2, 1));
+        assertThat(DatabasePartitionManager.plusPeriods(LocalDate.of(2023, 12, 1), 1, true))
+                .isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(DatabasePartitionManager.partitionName("App_Log", start, true)).isEqualTo("app_log_p202401");
+    }
+    
+    @Test
+    void partitionEndFromName() {
+        assertThat(DatabasePartitionManager.partitionEnd("app_log_p20240229", "app_log_p"))
+                .isEqualTo(LocalDate.of(2024, 3, 1));
+        assertThat(DatabasePartitionManager.partitionEnd("app_log_p202312", "app_log_p"))
+                .isEqualTo(LocalDate.of(2024, 1, 1));
+        assertThat(DatabasePartitionManager.partitionEnd("app_log_default", "app_log_p")).isNull();
+        assertThat(DatabasePartitionManager.partitionEnd("app_log_p20241301", "app_log_p")).isNull();
+        assertThat(DatabasePartitionManager.partitionEnd("app_log_p2024011", "app_log_p")).isNull();
+        assertThat(DatabasePartitionManager.partitionEnd("other_p20240101", "app_log_p")).isNull();
+    }
+    
+    @Test
+    void dailyMaintenanceCreatesFuturePartitionsAndDropsExpired() {
+        LocalDate today = LocalDate.now();
+        properties.getDatabase().getPartition().setPremake(1);
+        properties.getDatabase().getPartition().setRetentionDays(30);
+        partitions.addAll(List.of(day(today), day(today.minusDays(100)), day(today.minusDays(31)),
+                day(today.minusDays(30)), "app_log_p" + month(today.minusYears(2)), "app_log_default"));
+        
+        manager.maintain();
+        
+        LocalDate tomorrow = today.plusDays(1);
+        verify(jdbcTemplate).execute(String.format(
+                "CREATE TABLE IF NOT EXISTS %s PARTITION OF app_log FOR VALUES FROM ('%s') TO ('%s')",
+                day(tomorrow), tomorrow, tomorrow.plusDays(1)));
+        verify(jdbcTemplate, never()).execute(startsWith("CREATE TABLE IF NOT EXISTS " + day(today)));
+        // 上界不晚于保留期起点的分区整个删除，切换粒度前的按月分区同样按上界判断
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS " + day(today.minusDays(100)));
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS " + day(today.minusDays(31)));
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS app_log_p" + month(today.minusYears(2)));
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS " + day(today.minusDays(30)));
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS " + day(today));
+        verify(jdbcTemplate).update("DELETE FROM app_log_default WHERE timestamp < ?",
+                Timestamp.valueOf(today.minusDays(30).atStartOfDay()));
+    }
+    
+    @Test
+    void monthlyMaintenanceCreatesCurrentAndFutureMonths() {
+        properties.getDatabase().getPartition().setInterval("month");
+        properties.getDatabase().getPartition().setPremake(2);
+        LocalDate start = LocalDate.now().withDayOfMonth(1);
+        
+        manager.maintain();
+        
+        for (int i = 0; i <= 2; i++) {
+            LocalDate from = start.plusMonths(i);
+            verify(jdbcTemplate).execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS app_log_p%s PARTITION OF app_log FOR VALUES FROM ('%s') TO ('%s')",
+                    month(from), from, from.plusMonths(1)));
+        }
+        verify(jdbcTemplate, never()).execute(startsWith("DROP TABLE"));
+    }
+    
+    @Test
+    void movesDefaultPartitionRowsIntoNewPartition() throws SQLException {
+        LocalDate today = LocalDate.now();
+        properties.getDatabase().getPartition().setPremake(0);
+        partitions.add("app_log_default");
+        doThrow(new DataIntegrityViolationException("updated partition constraint for default partition would be violated"))
+                .when(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS " + day(today)));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), any(), any())).thenReturn(true);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeUpdate(anyString())).thenReturn(5);
+        runCallbacksOn(connection);
+        
+        manager.maintain();
+        
+        InOrder order = inOrder(connection, statement);
+        order.verify(connection).setAutoCommit(false);
+        order.verify(statement).execute(
+                "CREATE TABLE " + day(today) + " (LIKE app_log INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        order.verify(statement).executeUpdate(String.format(
+                "WITH moved AS (DELETE FROM app_log_default WHERE timestamp >= '%s' AND timestamp < '%s' RETURNING *) "
+                        + "INSERT INTO %s SELECT * FROM moved", today, today.plusDays(1), day(today)));
+        order.verify(statement).execute(String.format(
+                "ALTER TABLE app_log ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')",
+                day(today), today, today.plusDays(1)));
+        order.verify(connection).commit();
+        order.verify(connection).setAutoCommit(true);
+        verify(connection, never()).rollback();
+    }
+    
+    @Test
+    void rollsBackWhenMovingDefaultRowsFails() throws SQLException {
+        LocalDate today = LocalDate.now();
+        properties.getDatabase().getPartition().setPremake(0);
+        doThrow(new DataIntegrityViolationException("updated partition constraint for default partition would be violated"))
+                .when(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS " + day(today)));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), any(), any())).thenReturn(true);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.execute(startsWith("ALTER TABLE"))).thenThrow(new SQLException("lock timeout", "55P03"));
+        runCallbacksOn(connection);
+        
+        manager.maintain();
+        
+        verify(connection).rollback();
+        verify(connection, never()).commit();
+        verify(connection).setAutoCommit(true);
+    }
+    
+    @Test
+    void skipsMoveWhenDefaultPartitionHasNoRowsForPeriod() {
+        LocalDate today = LocalDate.now();
+        properties.getDatabase().getPartition().setPremake(0);
+        doThrow(new DataIntegrityViolationException("relation already exists"))
+                .when(jdbcTemplate).execute(startsWith("CREATE TABLE IF NOT EXISTS " + day(today)));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT EXISTS"), eq(Boolean.class), any(), any())).thenReturn(false);
+        
+        manager.maintain();
+        
+        verify(jdbcTemplate, never()).execute(any(ConnectionCallback.class));
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void runCallbacksOn(Connection connection) {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenAnswer(invocation -> {
+            try {
+                return invocation.<ConnectionCallback<Object>>getArgument(0).doInConnection(connection);
+            } catch (SQLException e) {
+                throw new UncategorizedSQLException("partition", null, e);
+            }
+        });
+    }
+    
+    private static String day(LocalDate date) {
+        return DatabasePartitionManager.partitionName(TABLE, date, false);
+    }
+    
+    private static String month(LocalDate date) {
+        return String.format("%04d%02d", date.getYear(), date.getMonthValue());
+    }
+}
@@ -0,0 +1,109 @@
+package com.diit.common.log.sender.database;
+
+import com.diit.common.log.entity.OperationLogEntity;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.logging.LogLevel;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * InsertPlan列顺序、INSERT语句和参数绑定测试
+ *
+ * @author zzx
+ */
+class InsertPlanTest {
+    
+    private static final String TABLE = "log_operation";
+    
+    @Test
+    void columnPlanBindsEveryField() {
+        InsertPlan plan = InsertPlan.of(TABLE, OperationLogEntity.class);
+        
+        List<String> columns = plan.getColumns();
+        assertThat(columns).startsWith("id", "timestamp", "content", "level", "entity_type", "username", "real_name");
+        assertThat(columns).contains("response_time", "request_uri").doesNotContain(InsertPlan.ATTRIBUTES_COLUMN);
+        assertThat(plan.getArgTypes()).hasSize(columns.size());
+        assertThat(plan.getArgTypes()[columns.indexOf("timestamp")]).isEqualTo(Types.TIMESTAMP);
+        assertThat(plan.getArgTypes()[columns.indexOf("response_time")]).isEqualTo(Types.BIGINT);
+        assertThat(plan.getSql())
+                .startsWith("INSERT INTO " + TABLE + " (id, timestamp, content, level, entity_type, username, ")
+                .endsWith("?, ?)");
+        assertThat(plan.getColumnDefinitions()).containsEntry("response_time", "BIGINT")
+                .doesNotContainKey("id");
+        assertThat(plan.isHybrid()).isFalse();
+        
+        Object[] params = plan.bind(sample());
+        assertThat(params).hasSize(columns.size());
+        assertThat(params[0]).isEqualTo("log-1");
+        assertThat(params[1]).isEqualTo(Timestamp.valueOf(LocalDateTime.of(2024, 1, 2, 3, 4, 5)));
+        assertThat(params[3]).isEqualTo("INFO");
+        assertThat(params[4]).isEqualTo("OperationLogEntity");
+        assertThat(params[columns.indexOf("username")]).isEqualTo("alice");
+        assertThat(params[columns.indexOf("response_time")]).isEqualTo(120L);
+        assertThat(params[columns.indexOf("email")]).isNull();
+    }
+    
+    @Test
+    void bindFillsMissingTimestamp() {
+        OperationLogEntity entity = sample();
+        entity.setTimestamp(null);
+        
+        Object[] params = InsertPlan.of(TABLE, OperationLogEntity.class).bind(entity);
+        
+        assertThat(params[1]).isInstanceOf(Timestamp.class);
+    }
+    
+    @Test
+    void hybridPlanMovesOtherFieldsIntoAttributes() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        InsertPlan plan = InsertPlan.hybrid(TABLE, OperationLogEntity.class, List.of("username", " REQUEST_URI "),
+                mapper.writer());
+        
+        assertThat(plan.isHybrid()).isTrue();
+        assertThat(plan.getColumns()).containsExactly("id", "timestamp", "content", "level", "entity_type",
+                "username", "request_uri", InsertPlan.ATTRIBUTES_COLUMN);
+        assertThat(plan.getArgTypes()[7]).isEqualTo(Types.OTHER);
+        assertThat(plan.getColumnDefinitions()).containsEntry(InsertPlan.ATTRIBUTES_COLUMN, "JSONB");
+        
+        Object[] params = plan.bind(sample());
+        assertThat(params[5]).isEqualTo("alice");
+        assertThat(params[6]).isEqualTo("/api/orders");
+        // 只写出非空的未提升字段
+        JsonNode attributes = mapper.readTree((String) params[7]);
+        assertThat(attributes.fieldNames()).toIterable().containsExactly("operationType", "responseTime");
+        assertThat(attributes.get("responseTime").asLong()).isEqualTo(120L);
+    }
+    
+    @Test
+    void hybridPlanWritesNullAttributesWhenNothingRemains() {
+        OperationLogEntity entity = new OperationLogEntity();
+        entity.setId("log-2");
+        entity.setUsername("bob");
+        
+        Object[] params = InsertPlan.hybrid(TABLE, OperationLogEntity.class, List.of("username"),
+                new ObjectMapper().writer()).bind(entity);
+        
+        assertThat(params[5]).isEqualTo("bob");
+        assertThat(params[6]).isNull();
+    }
+    
+    private static OperationLogEntity sample() {
+        OperationLogEntity entity = new OperationLogEntity();
+        entity.setId("log-1");
+        entity.setTimestamp(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+        entity.setContent("更新订单");
+        entity.setLevel(LogLevel.INFO);
+        entity.setUsername("alice");
+        entity.setOperationType("UPDATE");
+        entity.setResponseTime(120L);
+        entity.setRequestUri("/api/orders");
+        return entity;
+    }
+}
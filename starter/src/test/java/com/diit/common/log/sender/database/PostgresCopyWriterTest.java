@@ -0,0 +1,88 @@
+package com.diit.common.log.sender.database;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * PostgresCopyWriter可用性探测测试
+ * 用Mockito模拟数据源，非PostgreSQL数据库和探测失败时都应回退到批量INSERT
+ *
+ * @author zzx
+ */
+class PostgresCopyWriterTest {
+    
+    @Test
+    void unavailableForOtherDatabases() throws SQLException {
+        DataSource dataSource = dataSource("H2");
+        PostgresCopyWriter writer = new PostgresCopyWriter(new JdbcTemplate(dataSource), CopyFormat.BINARY);
+        
+        assertThat(writer.isAvailable()).isFalse();
+        assertThat(writer.isAvailable()).isFalse();
+        // 探测结果被缓存
+        verify(dataSource, times(1)).getConnection();
+    }
+    
+    @Test
+    void unavailableWhenConnectionIsNotPgConnection() throws SQLException {
+        PostgresCopyWriter writer = new PostgresCopyWriter(new JdbcTemplate(dataSource("PostgreSQL")), CopyFormat.CSV);
+        
+        assertThat(writer.isAvailable()).isFalse();
+        assertThat(writer.getFormat()).isEqualTo(CopyFormat.CSV);
+    }
+    
+    @Test
+    void failedDetectionIsRetried() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("connection refused", "08001"));
+        PostgresCopyWriter writer = new PostgresCopyWriter(new JdbcTemplate(dataSource), CopyFormat.CSV);
+        
+        assertThat(writer.isAvailable()).isFalse();
+        assertThat(writer.isAvailable()).isFalse();
+        verify(dataSource, times(2)).getConnection();
+    }
+    
+    @Test
+    void disableStopsCopy() throws SQLException {
+        DataSource dataSource = dataSource("H2");
+        PostgresCopyWriter writer = new PostgresCopyWriter(new JdbcTemplate(dataSource), CopyFormat.BINARY);
+        
+        writer.disable(new DataAccessResourceFailureException("copy failed"));
+        
+        assertThat(writer.isAvailable()).isFalse();
+        verify(dataSource, times(0)).getConnection();
+    }
+    
+    @Test
+    void recognizesFormatMismatchStates() {
+        assertThat(PostgresCopyWriter.isFormatMismatch(
+                new UncategorizedSQLException("COPY", "COPY", new SQLException("incorrect binary data format", "22P03"))))
+                .isTrue();
+        assertThat(PostgresCopyWriter.isFormatMismatch(
+                new UncategorizedSQLException("COPY", "COPY", new SQLException("duplicate key", "23505"))))
+                .isFalse();
+        assertThat(PostgresCopyWriter.isFormatMismatch(new DataAccessResourceFailureException("closed"))).isFalse();
+    }
+    
+    private static DataSource dataSource(String productName) throws SQLException {
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getDatabaseProductName()).thenReturn(productName);
+        Connection connection = mock(Connection.class);
+        when(connection.getMetaData()).thenReturn(metaData);
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
@@ -0,0 +1,170 @@
+package com.diit.common.log.sender.elasticsearch;
+
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.service.LogSerializer;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * ElasticsearchBulkClient节点故障转移测试
+ * 用JDK内置HttpServer模拟节点，按round-robin选择，第一次请求落在第二个节点，第二次请求落在第一个节点
+ *
+ * @author zzx
+ */
+class ElasticsearchBulkClientTest {
+    
+    private static final byte[] BODY = "{\"create\":{}}\n{\"content\":\"test\"}\n".getBytes(StandardCharsets.UTF_8);
+    
+    private final List<HttpServer> servers = new ArrayList<>();
+    
+    /**
+     * 节点收到请求的客户端端口，端口数即客户端建立的TCP连接数
+     */
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    
+    @AfterEach
+    void tearDown() {
+        servers.forEach(server -> server.stop(0));
+    }
+    
+    @Test
+    void failsOverToNextNodeOnServiceUnavailable() throws IOException {
+        AtomicInteger unavailableHits = new AtomicInteger();
+        AtomicInteger healthyHits = new AtomicInteger();
+        String unavailable = node(503, "{\"error\":\"unavailable\"}", unavailableHits);
+        String healthy = node(200, "{\"errors\":false}", healthyHits);
+        ElasticsearchBulkClient client = client(unavailable + "," + healthy);
+        
+        for (int i = 0; i < 2; i++) {
+            BulkResult result = client.bulk(BODY, BODY.length, 1);
+            assertThat(result.hasErrors()).isFalse();
+            assertThat(result.isSuccess(0)).isTrue();
+        }
+        assertThat(unavailableHits).hasValue(1);
+        assertThat(healthyHits).hasValue(2);
+    }
+    
+    @Test
+    void returnsLastUnavailableResponseWhenAllNodesFail() throws IOException {
+        AtomicInteger firstHits = new AtomicInteger();
+        AtomicInteger secondHits = new AtomicInteger();
+        ElasticsearchBulkClient client = client(node(502, "bad gateway", firstHits) + ","
+                + node(504, "gateway timeout", secondHits));
+        
+        assertThatThrownBy(() -> client.bulk(BODY, BODY.length, 1))
+                .isInstanceOfSatisfying(ElasticsearchBulkClient.BulkRequestException.class, e -> {
+                    assertThat(e.getStatus()).isIn(502, 504);
+                    assertThat(e.isRetryable()).isTrue();
+                });
+        assertThat(firstHits).hasValue(1);
+        assertThat(secondHits).hasValue(1);
+    }
+    
+    @Test
+    void doesNotFailOverOnInternalServerError() throws IOException {
+        AtomicInteger failingHits = new AtomicInteger();
+        AtomicInteger healthyHits = new AtomicInteger();
+        ElasticsearchBulkClient client = client(node(500, "internal error", failingHits) + ","
+                + node(200, "{\"errors\":false}", healthyHits));
+        
+        // 第一次落在正常节点，第二次落在返回500的节点，不换节点
+        assertThat(client.bulk(BODY, BODY.length, 1).hasErrors()).isFalse();
+        assertThatThrownBy(() -> client.bulk(BODY, BODY.length, 1))
+                .isInstanceOfSatisfying(ElasticsearchBulkClient.BulkRequestException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(500));
+        assertThat(failingHits).hasValue(1);
+        assertThat(healthyHits).hasValue(1);
+    }
+    
+    @Test
+    void reusesConnectionAfterSuccessfulBulk() throws IOException {
+        // errors为false时响应里仍带有items.*.status，客户端读完errors后要把剩余内容读完才能复用连接
+        StringBuilder response = new StringBuilder("{\"errors\":false,\"items\":[");
+        for (int i = 0; i < 2000; i++) {
+            response.append(i == 0 ? "" : ",").append("{\"create\":{\"status\":201}}");
+        }
+        response.append("]}");
+        ElasticsearchBulkClient client = client(node(200, response.toString(), new AtomicInteger()));
+        
+        for (int i = 0; i < 10; i++) {
+            BulkResult result = client.bulk(BODY, BODY.length, 2000);
+            assertThat(result.hasErrors()).isFalse();
+            assertThat(result.isSuccess(1999)).isTrue();
+        }
+        assertThat(clientPorts).hasSize(1);
+    }
+    
+    @Test
+    void reusesConnectionAfterPartialFailureAndRejectedRequest() throws IOException {
+        AtomicInteger hits = new AtomicInteger();
+        String partial = "{\"errors\":true,\"items\":[{\"create\":{\"status\":201}},"
+                + "{\"create\":{\"status\":429,\"error\":{\"type\":\"es_rejected_execution_exception\","
+                + "\"reason\":\"queue full\"}}}],\"took\":3}";
+        ElasticsearchBulkClient client = client(node(200, partial, hits));
+        
+        for (int i = 0; i < 3; i++) {
+            BulkResult result = client.bulk(BODY, BODY.length, 2);
+            assertThat(result.hasErrors()).isTrue();
+            assertThat(result.isSuccess(0)).isTrue();
+            assertThat(result.isSuccess(1)).isFalse();
+        }
+        assertThat(hits).hasValue(3);
+        assertThat(clientPorts).hasSize(1);
+        
+        clientPorts.clear();
+        ElasticsearchBulkClient rejecting = client(node(400, "x".repeat(8192), new AtomicInteger()));
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> rejecting.bulk(BODY, BODY.length, 1))
+                    .isInstanceOf(ElasticsearchBulkClient.BulkRequestException.class);
+        }
+        assertThat(clientPorts).hasSize(1);
+    }
+    
+    private String node(int status, String response, AtomicInteger hits) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/_bulk", exchange -> {
+            hits.incrementAndGet();
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.getRequestBody().readAllBytes();
+            byte[] bytes = response.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        servers.add(server);
+        return "127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    private static ElasticsearchBulkClient client(String hosts) {
+        LogProperties properties = new LogProperties();
+        properties.getElasticsearch().setHosts(hosts);
+        properties.getElasticsearch().getNodes().setSelector(ElasticsearchNodeSelector.ROUND_ROBIN);
+        
+        LogSerializer serializer = new LogSerializer();
+        ReflectionTestUtils.setField(serializer, "logProperties", properties);
+        serializer.init();
+        
+        ElasticsearchBulkClient client = new ElasticsearchBulkClient();
+        ReflectionTestUtils.setField(client, "logProperties", properties);
+        ReflectionTestUtils.setField(client, "logSerializer", serializer);
+        client.init();
+        return client;
+    }
+}
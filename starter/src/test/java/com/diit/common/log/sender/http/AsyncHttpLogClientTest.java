@@ -0,0 +1,241 @@
+package com.diit.common.log.sender.http;
+
+import com.diit.common.log.properties.LogProperties;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * AsyncHttpLogClient重试、对冲和进行中请求窗口测试
+ * 用JDK内置HttpServer模拟采集端点
+ *
+ * @author zzx
+ */
+class AsyncHttpLogClientTest {
+    
+    private static final byte[] BODY = "{\"content\":\"test\"}".getBytes(StandardCharsets.UTF_8);
+    
+    private static final Map<String, String> HEADERS = Map.of("Content-Type", "application/json");
+    
+    private final LogProperties properties = new LogProperties();
+    
+    private final List<HttpServer> servers = new ArrayList<>();
+    
+    /**
+     * 阻塞中的处理器在测试结束时放行
+     */
+    private final CountDownLatch release = new CountDownLatch(1);
+    
+    @BeforeEach
+    void setUp() {
+        LogProperties.Http.Async async = properties.getHttp().getAsync();
+        async.setEnabled(true);
+        async.setHttp2(false);
+        async.setRetryBackoff(20);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        servers.forEach(server -> server.stop(0));
+    }
+    
+    @Test
+    void retriesServerErrorThenSucceeds() throws Exception {
+        AtomicInteger hits = new AtomicInteger();
+        String url = endpoint(exchange -> respond(exchange, hits.incrementAndGet() == 1 ? 503 : 202));
+        
+        int status = client().post(balancer(url), BODY, HEADERS).get(5, TimeUnit.SECONDS);
+        
+        assertThat(status).isEqualTo(202);
+        assertThat(hits).hasValue(2);
+    }
+    
+    @Test
+    void givesUpAfterMaxRetriesAndDoesNotRetryClientErrors() throws Exception {
+        properties.getHttp().getAsync().setMaxRetries(2);
+        AtomicInteger unavailableHits = new AtomicInteger();
+        AtomicInteger rejectedHits = new AtomicInteger();
+        AsyncHttpLogClient client = client();
+        String unavailable = endpoint(exchange -> {
+            unavailableHits.incrementAndGet();
+            respond(exchange, 503);
+        });
+        String rejected = endpoint(exchange -> {
+            rejectedHits.incrementAndGet();
+            respond(exchange, 400);
+        });
+        
+        assertFailure(client.post(balancer(unavailable), BODY, HEADERS), 503, true);
+        assertThat(unavailableHits).hasValue(3);
+        
+        assertFailure(client.post(balancer(rejected), BODY, HEADERS), 400, false);
+        assertThat(rejectedHits).hasValue(1);
+    }
+    
+    @Test
+    void hedgesSlowRequestToAnotherEndpoint() throws Exception {
+        LogProperties.Http.Balancer config = properties.getHttp().getBalancer();
+        config.setHedging(true);
+        config.setHedgeMinDelay(50);
+        AtomicInteger slowHits = new AtomicInteger();
+        List<String> hedgeHeaders = new ArrayList<>();
+        String slow = endpoint(exchange -> {
+            slowHits.incrementAndGet();
+            block(release);
+            respond(exchange, 200);
+        });
+        String fast = endpoint(exchange -> {
+            hedgeHeaders.add(exchange.getRequestHeaders().getFirst("X-Log-Hedged"));
+            respond(exchange, 200);
+        });
+        HttpEndpointBalancer balancer = balancer(slow + "," + fast);
+        // 慢端点的历史耗时更低，主请求一定选中它；样本足够后才计算分位耗时
+        for (int i = 0; i < 128; i++) {
+            HttpEndpoint endpoint = balancer.getEndpoints().get(i % 2);
+            endpoint.begin();
+            balancer.success(endpoint, i % 2 == 0 ? 1_000_000 : 10_000_000);
+        }
+        assertThat(balancer.hedgeDelayNanos()).isEqualTo(50_000_000L);
+        AsyncHttpLogClient client = client();
+        
+        long start = System.nanoTime();
+        int status = client.post(balancer, BODY, HEADERS).get(5, TimeUnit.SECONDS);
+        
+        assertThat(status).isEqualTo(200);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2000);
+        assertThat(slowHits).hasValue(1);
+        assertThat(hedgeHeaders).containsExactly("true");
+        assertThat(client.getHedgedRequests()).isEqualTo(1);
+    }
+    
+    @Test
+    void rejectsWhenWindowStaysFull() throws Exception {
+        LogProperties.Http.Async async = properties.getHttp().getAsync();
+        async.setMaxInFlightPerEndpoint(1);
+        async.setAcquireTimeout(100);
+        AtomicInteger hits = new AtomicInteger();
+        CountDownLatch received = new CountDownLatch(1);
+        String url = endpoint(exchange -> {
+            hits.incrementAndGet();
+            received.countDown();
+            block(release);
+            respond(exchange, 200);
+        });
+        AsyncHttpLogClient client = client();
+        HttpEndpointBalancer balancer = balancer(url);
+        
+        CompletableFuture<Integer> first = client.post(balancer, BODY, HEADERS);
+        assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(client.getInFlight(url)).isEqualTo(1);
+        
+        assertThatThrownBy(() -> client.post(balancer, BODY, HEADERS).get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(AsyncHttpLogClient.HttpLogException.class)
+                .hasMessageContaining("上限");
+        
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+        assertThat(hits).hasValue(1);
+        assertThat(client.getInFlight(url)).isZero();
+    }
+    
+    @Test
+    void retryWaitingForFullWindowCountsAgainstMaxRetries() throws Exception {
+        LogProperties.Http.Async async = properties.getHttp().getAsync();
+        async.setMaxInFlightPerEndpoint(1);
+        async.setAcquireTimeout(2000);
+        async.setMaxRetries(3);
+        AtomicInteger hits = new AtomicInteger();
+        String url = endpoint(exchange -> {
+            if (hits.incrementAndGet() == 1) {
+                respond(exchange, 503);
+                return;
+            }
+            block(release);
+            respond(exchange, 200);
+        });
+        AsyncHttpLogClient client = client();
+        HttpEndpointBalancer balancer = balancer(url);
+        
+        // 第一个请求返回503后释放窗口，第二个请求立即占满窗口并一直挂起，第一个请求的重试只能等待窗口
+        CompletableFuture<Integer> retried = client.post(balancer, BODY, HEADERS);
+        CompletableFuture<Integer> blocking = client.post(balancer, BODY, HEADERS);
+        
+        assertFailure(retried, 0, true);
+        assertThat(hits).hasValue(2);
+        
+        release.countDown();
+        assertThat(blocking.get(5, TimeUnit.SECONDS)).isEqualTo(200);
+    }
+    
+    private static void assertFailure(CompletableFuture<Integer> future, int status, boolean retryable) {
+        assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .cause()
+                .isInstanceOfSatisfying(AsyncHttpLogClient.HttpLogException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(status);
+                    assertThat(e.isRetryable()).isEqualTo(retryable);
+                });
+    }
+    
+    private AsyncHttpLogClient client() {
+        AsyncHttpLogClient client = new AsyncHttpLogClient();
+        ReflectionTestUtils.setField(client, "logProperties", properties);
+        client.init();
+        return client;
+    }
+    
+    private HttpEndpointBalancer balancer(String urls) {
+        return new HttpEndpointBalancer(HttpEndpointBalancer.parseEndpoints(urls), properties.getHttp().getBalancer());
+    }
+    
+    private String endpoint(Handler handler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/logs", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                handler.handle(exchange);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        servers.add(server);
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/logs";
+    }
+    
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+    
+    private static void block(CountDownLatch latch) throws InterruptedException {
+        latch.await(10, TimeUnit.SECONDS);
+    }
+    
+    @FunctionalInterface
+    private interface Handler {
+        
+        void handle(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,142 @@
+package com.diit.common.log.sender.http;
+
+import com.diit.common.log.properties.LogProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HttpEndpointBalancer选择、摘除和对冲等待时间测试
+ *
+ * @author zzx
+ */
+class HttpEndpointBalancerTest {
+    
+    private final LogProperties.Http.Balancer config = new LogProperties.Http.Balancer();
+    
+    @Test
+    void prefersEndpointWithLowerLoadScore() {
+        HttpEndpointBalancer balancer = balancer("http://a", "http://b");
+        HttpEndpoint fast = balancer.getEndpoints().get(0);
+        HttpEndpoint slow = balancer.getEndpoints().get(1);
+        record(balancer, fast, 1_000_000);
+        record(balancer, slow, 10_000_000);
+        
+        // 只有两个端点时，随机取到同一个端点也会补找另一个比较
+        for (int i = 0; i < 200; i++) {
+            assertThat(balancer.select(Set.of())).isSameAs(fast);
+        }
+        
+        // 进行中请求数放大快端点的分数后，流量转向慢端点
+        for (int i = 0; i < 10; i++) {
+            fast.begin();
+        }
+        assertThat(balancer.select(Set.of())).isSameAs(slow);
+        assertThat(balancer.select(Set.of(slow))).isSameAs(fast);
+        assertThat(balancer.select(Set.of(fast, slow))).isNull();
+    }
+    
+    @Test
+    void unsampledEndpointIsScoredWithMeanLatency() {
+        config.setEjectTime(1);
+        HttpEndpointBalancer balancer = balancer("http://healthy", "http://dead");
+        HttpEndpoint healthy = balancer.getEndpoints().get(0);
+        HttpEndpoint dead = balancer.getEndpoints().get(1);
+        record(balancer, healthy, 1_000_000);
+        
+        // 从未成功过的端点被摘除又恢复后，还挂着一个未完成的请求，不应再赢得每次比较
+        for (int i = 0; i < config.getFailureThreshold(); i++) {
+            dead.begin();
+            balancer.failure(dead);
+        }
+        dead.begin();
+        long until = dead.getEjectedUntil();
+        while (System.currentTimeMillis() < until) {
+            Thread.onSpinWait();
+        }
+        for (int i = 0; i < 200; i++) {
+            assertThat(balancer.select(Set.of())).isSameAs(healthy);
+        }
+    }
+    
+    @Test
+    void choosesEarliestRecoveringEndpointWhenAllEjected() {
+        HttpEndpointBalancer balancer = balancer("http://a", "http://b");
+        HttpEndpoint first = balancer.getEndpoints().get(0);
+        HttpEndpoint second = balancer.getEndpoints().get(1);
+        eject(balancer, first);
+        config.setEjectTime(60000);
+        eject(balancer, second);
+        
+        assertThat(first.getEjectedUntil()).isLessThan(second.getEjectedUntil());
+        assertThat(balancer.select(Set.of())).isSameAs(first);
+        assertThat(balancer.select(Set.of(first))).isSameAs(second);
+    }
+    
+    @Test
+    void recomputesQuantileOverSlidingWindow() {
+        config.setHedging(true);
+        config.setHedgeMinDelay(0);
+        HttpEndpointBalancer balancer = balancer("http://a", "http://b");
+        HttpEndpoint endpoint = balancer.getEndpoints().get(0);
+        
+        // 每128个样本重新计算一次，之前没有分位耗时
+        for (int i = 1; i < 128; i++) {
+            record(balancer, endpoint, i * 1_000_000L);
+        }
+        assertThat(balancer.hedgeDelayNanos()).isEqualTo(-1);
+        record(balancer, endpoint, 128_000_000L);
+        // p99：128个样本中第127个
+        assertThat(balancer.hedgeDelayNanos()).isEqualTo(127_000_000L);
+        
+        // 1024个新样本覆盖整个窗口后，旧的慢样本不再影响分位耗时
+        for (int i = 0; i < 1024; i++) {
+            record(balancer, endpoint, 2_000_000L);
+        }
+        assertThat(balancer.hedgeDelayNanos()).isEqualTo(2_000_000L);
+        
+        config.setHedgeMinDelay(5);
+        assertThat(balancer.hedgeDelayNanos()).isEqualTo(5_000_000L);
+        config.setHedging(false);
+        assertThat(balancer.hedgeDelayNanos()).isEqualTo(-1);
+    }
+    
+    @Test
+    void doesNotHedgeWithSingleEndpoint() {
+        config.setHedging(true);
+        HttpEndpointBalancer balancer = balancer("http://only");
+        HttpEndpoint only = balancer.getEndpoints().get(0);
+        for (int i = 0; i < 256; i++) {
+            record(balancer, only, 1_000_000L);
+        }
+        
+        assertThat(balancer.hedgeDelayNanos()).isEqualTo(-1);
+        assertThat(balancer.select(Set.of())).isSameAs(only);
+        assertThat(balancer.select(Set.of(only))).isNull();
+    }
+    
+    @Test
+    void parsesCommaSeparatedEndpoints() {
+        assertThat(HttpEndpointBalancer.parseEndpoints(" http://a , ,http://b,")).containsExactly("http://a", "http://b");
+        assertThat(HttpEndpointBalancer.parseEndpoints(null)).isEmpty();
+    }
+    
+    private HttpEndpointBalancer balancer(String... urls) {
+        return new HttpEndpointBalancer(List.of(urls), config);
+    }
+    
+    private static void record(HttpEndpointBalancer balancer, HttpEndpoint endpoint, long nanos) {
+        endpoint.begin();
+        balancer.success(endpoint, nanos);
+    }
+    
+    private void eject(HttpEndpointBalancer balancer, HttpEndpoint endpoint) {
+        for (int i = 0; i < config.getFailureThreshold(); i++) {
+            endpoint.begin();
+            balancer.failure(endpoint);
+        }
+    }
+}
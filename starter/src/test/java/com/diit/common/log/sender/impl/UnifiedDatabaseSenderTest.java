@@ -0,0 +1,106 @@
+package com.diit.common.log.sender.impl;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.sender.database.DatabaseSchemaManager;
+import com.diit.common.log.service.LogSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * UnifiedDatabaseSender批量插入失败处理测试
+ *
+ * @author zzx
+ */
+class UnifiedDatabaseSenderTest {
+    
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    
+    private UnifiedDatabaseSender sender;
+    
+    @BeforeEach
+    void setUp() {
+        LogProperties properties = new LogProperties();
+        LogSerializer serializer = new LogSerializer();
+        ReflectionTestUtils.setField(serializer, "logProperties", properties);
+        serializer.init();
+        
+        sender = new UnifiedDatabaseSender();
+        ReflectionTestUtils.setField(sender, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(sender, "logProperties", properties);
+        ReflectionTestUtils.setField(sender, "logSerializer", serializer);
+        ReflectionTestUtils.setField(sender, "schemaManager", mock(DatabaseSchemaManager.class));
+        sender.init();
+    }
+    
+    @Test
+    void insertsOneByOneOnConstraintViolation() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+                .thenThrow(new DuplicateKeyException("duplicate key value violates unique constraint"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class), any(int[].class)))
+                .thenReturn(1)
+                .thenThrow(new DuplicateKeyException("duplicate key value violates unique constraint"))
+                .thenReturn(1);
+        
+        sender.sendBatch(entities(3));
+        
+        // 只跳过违反约束的一条
+        verify(jdbcTemplate, times(3)).update(anyString(), any(Object[].class), any(int[].class));
+    }
+    
+    @Test
+    void rethrowsTransientBatchFailureWithoutFallback() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+        
+        assertThatThrownBy(() -> sender.sendBatch(entities(3)))
+                .isInstanceOf(RuntimeException.class)
+                .hasRootCauseInstanceOf(DataAccessResourceFailureException.class);
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class), any(int[].class));
+    }
+    
+    @Test
+    void rethrowsConnectionFailureDuringOneByOneFallback() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), any(int[].class)))
+                .thenThrow(new DuplicateKeyException("duplicate key value violates unique constraint"));
+        when(jdbcTemplate.update(anyString(), any(Object[].class), any(int[].class)))
+                .thenReturn(1)
+                .thenThrow(new CannotGetJdbcConnectionException("connection refused"));
+        
+        assertThatThrownBy(() -> sender.sendBatch(entities(3)))
+                .hasRootCauseInstanceOf(CannotGetJdbcConnectionException.class);
+        // 连接失败后不再继续写剩余记录
+        verify(jdbcTemplate, times(2)).update(anyString(), any(Object[].class), any(int[].class));
+    }
+    
+    private static List<BaseLogEntity> entities(int count) {
+        List<BaseLogEntity> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DefaultLogEntity entity = new DefaultLogEntity();
+            entity.setId(String.valueOf(i));
+            entity.setContent("content-" + i);
+            entities.add(entity);
+        }
+        return entities;
+    }
+}
@@ -0,0 +1,174 @@
+package com.diit.common.log.sender.impl;
+
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.metrics.LogSenderMetrics;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.service.LogSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.RequestMatcher;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * UnifiedHttpSender批量请求、压缩和发送器指标测试
+ * 用MockRestServiceServer替代HTTP端点，检查请求体、请求头和分片
+ *
+ * @author zzx
+ */
+class UnifiedHttpSenderTest {
+    
+    private static final String BATCH_ENDPOINT = "http://localhost:8080/api/logs/batch";
+    
+    private static final String ACCESS_ENDPOINT = "http://localhost:8080/api/logs/access";
+    
+    private final LogProperties properties = new LogProperties();
+    
+    private final LogSenderMetrics metrics = new LogSenderMetrics();
+    
+    private RestTemplate restTemplate;
+    
+    private MockRestServiceServer server;
+    
+    @BeforeEach
+    void setUp() {
+        properties.getHttp().setEnabled(true);
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+    
+    @Test
+    void batchSplitsByMaxEventsAndCompressesNdjson() {
+        LogProperties.Http.Batch batch = properties.getHttp().getBatch();
+        batch.setEnabled(true);
+        batch.setMaxEvents(2);
+        batch.setCompression("gzip");
+        UnifiedHttpSender sender = sender();
+        
+        server.expect(requestTo(BATCH_ENDPOINT))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, "application/x-ndjson"))
+                .andExpect(header("X-Log-Count", "2"))
+                .andExpect(header("X-Entity-Type", "DefaultLogEntity"))
+                .andExpect(ndjsonLines("log-0", "log-1"))
+                .andRespond(withSuccess());
+        server.expect(requestTo(BATCH_ENDPOINT))
+                .andExpect(header("X-Log-Count", "1"))
+                .andExpect(ndjsonLines("log-2"))
+                .andRespond(withSuccess());
+        
+        sender.sendBatch(entities(3));
+        
+        server.verify();
+        assertThat(metrics.getSuccessCount("http")).isEqualTo(3);
+        assertThat(metrics.getFailureCount("http")).isZero();
+        assertThat(metrics.getBytes("http")).isPositive();
+    }
+    
+    @Test
+    void batchWritesJsonArrayWithoutCompression() {
+        LogProperties.Http.Batch batch = properties.getHttp().getBatch();
+        batch.setEnabled(true);
+        batch.setFormat("json-array");
+        batch.setCompression("none");
+        UnifiedHttpSender sender = sender();
+        
+        server.expect(requestTo(BATCH_ENDPOINT))
+                .andExpect(header(HttpHeaders.CONTENT_TYPE, "application/json"))
+                .andExpect(request -> {
+                    assertThat(request.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+                    String body = ((MockClientHttpRequest) request).getBodyAsString();
+                    assertThat(body).startsWith("[{").endsWith("}]").contains("\"content\":\"log-0\"", "\"content\":\"log-1\"");
+                })
+                .andRespond(withSuccess());
+        
+        sender.sendBatch(entities(2));
+        
+        server.verify();
+        assertThat(metrics.getSuccessCount("http")).isEqualTo(2);
+    }
+    
+    @Test
+    void singleSendRecordsMetrics() {
+        UnifiedHttpSender sender = sender();
+        server.expect(requestTo(ACCESS_ENDPOINT))
+                .andExpect(header("X-Entity-Type", "DefaultLogEntity"))
+                .andRespond(withSuccess());
+        server.expect(requestTo(ACCESS_ENDPOINT))
+                .andRespond(withServerError());
+        
+        sender.send(entities(1).get(0));
+        sender.send(entities(1).get(0));
+        
+        server.verify();
+        assertThat(metrics.getSuccessCount("http")).isEqualTo(1);
+        assertThat(metrics.getFailureCount("http")).isEqualTo(1);
+    }
+    
+    private UnifiedHttpSender sender() {
+        LogSerializer serializer = new LogSerializer();
+        ReflectionTestUtils.setField(serializer, "logProperties", properties);
+        serializer.init();
+        
+        UnifiedHttpSender sender = new UnifiedHttpSender();
+        ReflectionTestUtils.setField(sender, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(sender, "logProperties", properties);
+        ReflectionTestUtils.setField(sender, "logSerializer", serializer);
+        ReflectionTestUtils.setField(sender, "senderMetrics", metrics);
+        sender.init();
+        return sender;
+    }
+    
+    private static List<BaseLogEntity> entities(int count) {
+        List<BaseLogEntity> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DefaultLogEntity entity = new DefaultLogEntity();
+            entity.setId("id-" + i);
+            entity.setContent("log-" + i);
+            entity.setModule("test");
+            entities.add(entity);
+        }
+        return entities;
+    }
+    
+    /**
+     * 解压gzip请求体，逐行检查NDJSON中的content
+     */
+    private static RequestMatcher ndjsonLines(String... contents) {
+        return request -> {
+            byte[] body = ((MockClientHttpRequest) request).getBodyAsBytes();
+            String text;
+            try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new AssertionError("Request body is not gzip", e);
+            }
+            String[] lines = text.split("\n");
+            assertThat(lines).hasSize(contents.length);
+            for (int i = 0; i < contents.length; i++) {
+                assertThat(lines[i]).startsWith("{").contains("\"content\":\"" + contents[i] + "\"");
+            }
+        };
+    }
+}
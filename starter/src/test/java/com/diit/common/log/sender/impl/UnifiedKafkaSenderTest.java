@@ -0,0 +1,173 @@
+package com.diit.common.log.sender.impl;
+
+import com.diit.common.log.config.LogConfiguration;
+import com.diit.common.log.entity.BaseLogEntity;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.entity.UserAccessLogEntity;
+import com.diit.common.log.metrics.LogSenderMetrics;
+import com.diit.common.log.properties.LogProperties;
+import com.diit.common.log.sender.kafka.KafkaKeyResolver;
+import com.diit.common.log.service.LogSerializer;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.mock.MockProducerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * UnifiedKafkaSender批量发送测试
+ * 用MockProducerFactory替代真实生产者，关闭自动完成时由测试逐条完成或失败，检查整批只等待一个聚合Future
+ *
+ * @author zzx
+ */
+class UnifiedKafkaSenderTest {
+    
+    private final LogProperties properties = new LogProperties();
+    
+    private final LogSenderMetrics metrics = new LogSenderMetrics();
+    
+    /**
+     * KafkaTemplate每次执行都会创建并关闭一个生产者，按创建顺序记录
+     */
+    private final List<MockProducer<String, byte[]>> producers = new CopyOnWriteArrayList<>();
+    
+    @Test
+    void batchWaitsForOneAggregateFuture() throws Exception {
+        UnifiedKafkaSender sender = sender(false);
+        
+        CompletableFuture<Void> batch = CompletableFuture.runAsync(() -> sender.sendBatch(entities(3)));
+        await().atMost(Duration.ofSeconds(5)).until(() -> producers.size() == 1 && producers.get(0).history().size() == 3);
+        MockProducer<String, byte[]> producer = producers.get(0);
+        
+        assertThat(producer.completeNext()).isTrue();
+        assertThat(producer.completeNext()).isTrue();
+        assertThat(batch).isNotDone();
+        assertThat(producer.completeNext()).isTrue();
+        batch.get(5, TimeUnit.SECONDS);
+        
+        // 整批在一次execute中写入同一个生产者
+        assertThat(producers).hasSize(1);
+        assertThat(metrics.getSuccessCount("kafka")).isEqualTo(3);
+        assertThat(metrics.getFailureCount("kafka")).isZero();
+        assertThat(metrics.getBytes("kafka")).isPositive();
+    }
+    
+    @Test
+    void failedRecordFailsBatch() {
+        UnifiedKafkaSender sender = sender(false);
+        
+        CompletableFuture<Void> batch = CompletableFuture.runAsync(() -> sender.sendBatch(entities(3)));
+        await().atMost(Duration.ofSeconds(5)).until(() -> producers.size() == 1 && producers.get(0).history().size() == 3);
+        MockProducer<String, byte[]> producer = producers.get(0);
+        producer.completeNext();
+        producer.errorNext(new IllegalStateException("broker down"));
+        producer.completeNext();
+        
+        assertThatThrownBy(() -> batch.get(5, TimeUnit.SECONDS))
+                .hasRootCauseInstanceOf(IllegalStateException.class)
+                .hasRootCauseMessage("broker down");
+        assertThat(metrics.getSuccessCount("kafka")).isEqualTo(2);
+        assertThat(metrics.getFailureCount("kafka")).isEqualTo(1);
+    }
+    
+    @Test
+    void topicIsResolvedOncePerEntityClass() {
+        UnifiedKafkaSender sender = sender(true);
+        List<BaseLogEntity> entities = entities(2);
+        UserAccessLogEntity access = new UserAccessLogEntity();
+        access.setId("access-0");
+        access.setContent("access");
+        entities.add(access);
+        
+        sender.sendBatch(entities);
+        
+        List<ProducerRecord<String, byte[]>> history = producers.get(0).history();
+        assertThat(history).extracting(ProducerRecord::topic)
+                .containsExactly("log_default_log_entity", "log_default_log_entity", "log_user_access_log_entity");
+        assertThat(history).extracting(ProducerRecord::key).containsExactly("id-0", "id-1", "access-0");
+        Map<?, ?> topicCache = (Map<?, ?>) ReflectionTestUtils.getField(sender, "topicCache");
+        assertThat(topicCache).hasSize(2);
+    }
+    
+    @Test
+    void throughputModeOverridesProducerConfig() {
+        LogProperties.Kafka.Throughput throughput = properties.getKafka().getThroughput();
+        throughput.setEnabled(true);
+        
+        Map<String, Object> config = new LogConfiguration().kafkaProducerFactory(properties).getConfigurationProperties();
+        assertThat(config)
+                .containsEntry("batch.size", throughput.getBatchSize())
+                .containsEntry("linger.ms", throughput.getLingerMs())
+                .containsEntry("compression.type", throughput.getCompressionType())
+                .containsEntry("max.in.flight.requests.per.connection", throughput.getMaxInFlightRequestsPerConnection())
+                .containsEntry("acks", "all")
+                .containsEntry("enable.idempotence", "true");
+        
+        // 幂等生产者要求max.in.flight不超过5
+        throughput.setMaxInFlightRequestsPerConnection(10);
+        config = new LogConfiguration().kafkaProducerFactory(properties).getConfigurationProperties();
+        assertThat(config).containsEntry("enable.idempotence", "false");
+        
+        throughput.setEnabled(false);
+        LogProperties.Kafka.Producer producer = properties.getKafka().getProducer();
+        config = new LogConfiguration().kafkaProducerFactory(properties).getConfigurationProperties();
+        assertThat(config)
+                .containsEntry("batch.size", producer.getBatchSize())
+                .containsEntry("linger.ms", producer.getLingerMs())
+                .containsEntry("compression.type", producer.getCompressionType());
+    }
+    
+    private UnifiedKafkaSender sender(boolean autoComplete) {
+        ProducerFactory<String, byte[]> producerFactory = new MockProducerFactory<>(() -> {
+            MockProducer<String, byte[]> producer = new MockProducer<>(autoComplete, new StringSerializer(), new ByteArraySerializer());
+            producers.add(producer);
+            return producer;
+        });
+        KafkaTemplate<String, byte[]> kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        
+        LogSerializer serializer = new LogSerializer();
+        ReflectionTestUtils.setField(serializer, "logProperties", properties);
+        serializer.init();
+        
+        KafkaKeyResolver keyResolver = new KafkaKeyResolver();
+        ReflectionTestUtils.setField(keyResolver, "logProperties", properties);
+        keyResolver.init();
+        
+        UnifiedKafkaSender sender = new UnifiedKafkaSender();
+        ReflectionTestUtils.setField(sender, "kafkaTemplate", kafkaTemplate);
+        ReflectionTestUtils.setField(sender, "logSerializer", serializer);
+        ReflectionTestUtils.setField(sender, "logProperties", properties);
+        ReflectionTestUtils.setField(sender, "senderMetrics", metrics);
+        ReflectionTestUtils.setField(sender, "keyResolver", keyResolver);
+        sender.init();
+        return sender;
+    }
+    
+    private static List<BaseLogEntity> entities(int count) {
+        List<BaseLogEntity> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DefaultLogEntity entity = new DefaultLogEntity();
+            entity.setId("id-" + i);
+            entity.setContent("log-" + i);
+            entity.setModule("test");
+            entities.add(entity);
+        }
+        return entities;
+    }
+}
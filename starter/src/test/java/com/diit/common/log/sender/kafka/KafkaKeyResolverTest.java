@@ -0,0 +1,153 @@
+package com.diit.common.log.sender.kafka;
+
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.properties.LogProperties;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.apache.kafka.common.utils.Utils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * KafkaKeyResolver分区预计算测试
+ * 用Mockito模拟KafkaTemplate提供分区元数据和生产者配置
+ *
+ * @author zzx
+ */
+class KafkaKeyResolverTest {
+    
+    private static final String TOPIC = "log_default_log_entity";
+    
+    private final LogProperties properties = new LogProperties();
+    
+    private final Map<String, Object> producerConfig = new HashMap<>();
+    
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ProducerFactory<String, byte[]> producerFactory = mock(ProducerFactory.class);
+        when(producerFactory.getConfigurationProperties()).thenReturn(producerConfig);
+        kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.getProducerFactory()).thenReturn(producerFactory);
+        when(kafkaTemplate.partitionsFor(TOPIC)).thenReturn(partitions(6));
+    }
+    
+    @Test
+    void precomputeIsDisabledByDefault() {
+        KafkaKeyResolver resolver = resolver();
+        
+        assertThat(resolver.partitionFor(TOPIC, "order")).isNull();
+        verify(kafkaTemplate, times(0)).partitionsFor(TOPIC);
+    }
+    
+    @Test
+    void precomputeMatchesDefaultPartitioner() {
+        properties.getKafka().getKey().setPrecomputePartition(true);
+        KafkaKeyResolver resolver = resolver();
+        
+        int expected = Utils.toPositive(Utils.murmur2("order".getBytes(StandardCharsets.UTF_8))) % 6;
+        assertThat(resolver.partitionFor(TOPIC, "order")).isEqualTo(expected);
+        assertThat(resolver.partitionFor(TOPIC, null)).isNull();
+        
+        // 分区数在刷新间隔内只读取一次
+        resolver.partitionFor(TOPIC, "user");
+        verify(kafkaTemplate, times(1)).partitionsFor(TOPIC);
+    }
+    
+    @Test
+    void precomputeIsSkippedWithCustomPartitioner() {
+        properties.getKafka().getKey().setPrecomputePartition(true);
+        producerConfig.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, "com.example.CustomPartitioner");
+        KafkaKeyResolver resolver = resolver();
+        
+        assertThat(resolver.partitionFor(TOPIC, "order")).isNull();
+        verify(kafkaTemplate, times(0)).partitionsFor(TOPIC);
+    }
+    
+    @Test
+    void precomputeIsSkippedWhenKeysAreIgnored() {
+        properties.getKafka().getKey().setPrecomputePartition(true);
+        producerConfig.put(ProducerConfig.PARTITIONER_IGNORE_KEYS_CONFIG, "true");
+        KafkaKeyResolver resolver = resolver();
+        
+        assertThat(resolver.partitionFor(TOPIC, "order")).isNull();
+    }
+    
+    @Test
+    void metadataErrorInvalidatesPartitionCount() {
+        properties.getKafka().getKey().setPrecomputePartition(true);
+        KafkaKeyResolver resolver = resolver();
+        resolver.partitionFor(TOPIC, "order");
+        
+        // Topic扩容后，元数据错误触发重新读取分区数
+        when(kafkaTemplate.partitionsFor(TOPIC)).thenReturn(partitions(12));
+        resolver.onSendFailure(new ExecutionException(new UnknownTopicOrPartitionException("unknown")));
+        
+        int expected = Utils.toPositive(Utils.murmur2("order".getBytes(StandardCharsets.UTF_8))) % 12;
+        assertThat(resolver.partitionFor(TOPIC, "order")).isEqualTo(expected);
+        verify(kafkaTemplate, times(2)).partitionsFor(TOPIC);
+        
+        resolver.onSendFailure(new KafkaException("Invalid partition given with record: 11 is not in the range [0...6)."));
+        resolver.partitionFor(TOPIC, "order");
+        verify(kafkaTemplate, times(3)).partitionsFor(TOPIC);
+    }
+    
+    @Test
+    void unrelatedErrorKeepsPartitionCount() {
+        properties.getKafka().getKey().setPrecomputePartition(true);
+        KafkaKeyResolver resolver = resolver();
+        resolver.partitionFor(TOPIC, "order");
+        
+        resolver.onSendFailure(new RecordTooLargeException("too large"));
+        resolver.partitionFor(TOPIC, "order");
+        verify(kafkaTemplate, times(1)).partitionsFor(TOPIC);
+    }
+    
+    @Test
+    void moduleStrategyReadsModuleProperty() {
+        properties.getKafka().getKey().setStrategy("module");
+        KafkaKeyResolver resolver = resolver();
+        DefaultLogEntity entity = new DefaultLogEntity();
+        entity.setModule("order");
+        
+        assertThat(resolver.resolveKey(entity)).isEqualTo("order");
+    }
+    
+    private KafkaKeyResolver resolver() {
+        KafkaKeyResolver resolver = new KafkaKeyResolver();
+        ReflectionTestUtils.setField(resolver, "logProperties", properties);
+        ReflectionTestUtils.setField(resolver, "kafkaTemplate", kafkaTemplate);
+        resolver.init();
+        return resolver;
+    }
+    
+    private static List<PartitionInfo> partitions(int count) {
+        List<PartitionInfo> partitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            partitions.add(new PartitionInfo(TOPIC, i, Node.noNode(), new Node[0], new Node[0]));
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,132 @@
+package com.diit.common.log.sender.kafka;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * KafkaProducerPool生产者分配和关闭测试
+ *
+ * @author zzx
+ */
+class KafkaProducerPoolTest {
+    
+    @Test
+    void sameKeyAlwaysSelectsSameProducer() {
+        KafkaProducerPool pool = new KafkaProducerPool(templates(4), KafkaProducerPool.ASSIGNMENT_KEY);
+        
+        for (int i = 0; i < 100; i++) {
+            String key = "user-" + i;
+            int index = pool.indexFor(key);
+            assertThat(index).isBetween(0, 3);
+            assertThat(pool.indexFor(key)).isEqualTo(index);
+            assertThat(pool.select(key)).isSameAs(pool.getTemplate(index));
+        }
+    }
+    
+    @Test
+    void keysSpreadAcrossProducers() {
+        KafkaProducerPool pool = new KafkaProducerPool(templates(4), KafkaProducerPool.ASSIGNMENT_KEY);
+        
+        int[] counts = new int[pool.size()];
+        for (int i = 0; i < 1000; i++) {
+            counts[pool.indexFor("user-" + i)]++;
+        }
+        for (int count : counts) {
+            assertThat(count).isGreaterThan(150);
+        }
+    }
+    
+    @Test
+    void nullKeysRotateAcrossAllProducers() throws Exception {
+        KafkaProducerPool pool = new KafkaProducerPool(templates(8), KafkaProducerPool.ASSIGNMENT_KEY);
+        
+        // 只有少数发送线程时也要用到全部生产者
+        int[] counts = new int[pool.size()];
+        ExecutorService senders = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                futures.add(senders.submit(() -> {
+                    for (int i = 0; i < 800; i++) {
+                        int index = pool.indexFor(null);
+                        synchronized (counts) {
+                            counts[index]++;
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            senders.shutdown();
+        }
+        assertThat(counts).containsOnly(300);
+    }
+    
+    @Test
+    void threadAssignmentIgnoresKey() throws Exception {
+        KafkaProducerPool pool = new KafkaProducerPool(templates(4), KafkaProducerPool.ASSIGNMENT_THREAD);
+        
+        int expected = (int) (Thread.currentThread().getId() % 4);
+        assertThat(pool.indexFor("a")).isEqualTo(expected);
+        assertThat(pool.indexFor("b")).isEqualTo(expected);
+        assertThat(pool.indexFor(null)).isEqualTo(expected);
+        
+        Thread[] worker = new Thread[1];
+        int index = CompletableFuture.supplyAsync(() -> {
+            worker[0] = Thread.currentThread();
+            return pool.indexFor("a");
+        }).get();
+        assertThat(index).isEqualTo((int) (worker[0].getId() % 4));
+    }
+    
+    @Test
+    void singleProducerAndEmptyPool() {
+        KafkaProducerPool pool = new KafkaProducerPool(templates(1), KafkaProducerPool.ASSIGNMENT_KEY);
+        assertThat(pool.indexFor("any")).isZero();
+        assertThat(pool.indexFor(null)).isZero();
+        
+        assertThatThrownBy(() -> new KafkaProducerPool(Collections.emptyList(), KafkaProducerPool.ASSIGNMENT_KEY))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+    
+    @Test
+    @SuppressWarnings("unchecked")
+    void destroyClosesProducerFactories() {
+        DefaultKafkaProducerFactory<String, byte[]> first = mock(DefaultKafkaProducerFactory.class);
+        DefaultKafkaProducerFactory<String, byte[]> second = mock(DefaultKafkaProducerFactory.class);
+        List<KafkaTemplate<String, byte[]>> templates = templates(2);
+        when(templates.get(0).getProducerFactory()).thenReturn(first);
+        when(templates.get(1).getProducerFactory()).thenReturn(second);
+        
+        new KafkaProducerPool(templates, KafkaProducerPool.ASSIGNMENT_KEY).destroy();
+        
+        verify(first).destroy();
+        verify(second).destroy();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static List<KafkaTemplate<String, byte[]>> templates(int count) {
+        List<KafkaTemplate<String, byte[]>> templates = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            templates.add(mock(KafkaTemplate.class));
+        }
+        return templates;
+    }
+}
@@ -0,0 +1,78 @@
+package com.diit.common.log.sender.support;
+
+import com.diit.common.log.sender.http.HttpEndpoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EndpointStats摘除、恢复和负载分数测试
+ *
+ * @author zzx
+ */
+class EndpointStatsTest {
+    
+    @Test
+    void ejectsAfterConsecutiveFailuresAndDoublesEjectTime() {
+        EndpointStats stats = new HttpEndpoint("http://localhost:1");
+        
+        assertThat(fail(stats, 3, 1000)).isFalse();
+        assertThat(fail(stats, 3, 1000)).isFalse();
+        long before = System.currentTimeMillis();
+        assertThat(fail(stats, 3, 1000)).isTrue();
+        assertThat(stats.isAvailable(before)).isFalse();
+        assertThat(stats.getEjectedUntil() - before).isBetween(1000L, 2000L);
+        
+        // 再次摘除时长翻倍，不超过最长摘除时长
+        fail(stats, 3, 1000);
+        fail(stats, 3, 1000);
+        before = System.currentTimeMillis();
+        assertThat(fail(stats, 3, 1000)).isTrue();
+        assertThat(stats.getEjectedUntil() - before).isBetween(2000L, 3000L);
+        assertThat(stats.getInFlight()).isZero();
+    }
+    
+    @Test
+    void successResetsFailureCount() {
+        EndpointStats stats = new HttpEndpoint("http://localhost:1");
+        
+        fail(stats, 2, 1000);
+        stats.begin();
+        stats.success(1_000_000);
+        assertThat(fail(stats, 2, 1000)).isFalse();
+        assertThat(stats.isAvailable(System.currentTimeMillis())).isTrue();
+    }
+    
+    @Test
+    void loadScoreWeighsLatencyByOutstandingRequests() {
+        EndpointStats fresh = new HttpEndpoint("http://localhost:1");
+        EndpointStats sampled = new HttpEndpoint("http://localhost:2");
+        
+        fresh.begin();
+        assertThat(fresh.loadScore(0)).isEqualTo(1.0);
+        
+        sampled.begin();
+        sampled.success(1_000_000);
+        assertThat(sampled.getEwmaNanos()).isEqualTo(1_000_000.0);
+        sampled.begin();
+        sampled.begin();
+        assertThat(sampled.loadScore(0)).isEqualTo(3_000_000.0);
+        assertThat(sampled.loadScore(5_000_000)).isEqualTo(3_000_000.0);
+        
+        // 没有样本的节点按同组平均EWMA计分
+        double mean = EndpointStats.meanEwmaNanos(List.of(fresh, sampled));
+        assertThat(mean).isEqualTo(1_000_000.0);
+        assertThat(fresh.loadScore(mean)).isEqualTo(2_000_000.0);
+        
+        // 新样本按0.3的权重平滑
+        sampled.success(2_000_000);
+        assertThat(sampled.getEwmaNanos()).isEqualTo(1_300_000.0);
+    }
+    
+    private static boolean fail(EndpointStats stats, int threshold, long ejectTime) {
+        stats.begin();
+        return stats.failure(threshold, ejectTime, 10 * ejectTime);
+    }
+}
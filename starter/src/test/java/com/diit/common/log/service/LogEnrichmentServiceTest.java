@@ -0,0 +1,67 @@
+package com.diit.common.log.service;
+
+import com.diit.common.log.context.CaptureField;
+import com.diit.common.log.context.RequestSnapshot;
+import com.diit.common.log.enrich.EnrichedField;
+import com.diit.common.log.enrich.EnrichmentPlan;
+import com.diit.common.log.enrich.EnrichmentTarget;
+import com.diit.common.log.enrich.LogEnricher;
+import com.diit.common.log.enrich.impl.RequestInfoEnricher;
+import com.diit.common.log.entity.DefaultLogEntity;
+import com.diit.common.log.entity.UserAccessLogEntity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LogEnrichmentService增强计划和字段写入测试
+ *
+ * @author zzx
+ */
+class LogEnrichmentServiceTest {
+    
+    private final LogEnrichmentService service = new LogEnrichmentService();
+    
+    @BeforeEach
+    void setUp() {
+        List<LogEnricher> enrichers = List.of(new RequestInfoEnricher());
+        ReflectionTestUtils.setField(service, "enrichers", enrichers);
+    }
+    
+    @Test
+    void writesOnlyNullProperties() {
+        UserAccessLogEntity entity = new UserAccessLogEntity();
+        entity.setSessionId("existing");
+        RequestSnapshot snapshot = RequestSnapshot.builder()
+                .fields(CaptureField.maskOf(CaptureField.REQUEST_URI, CaptureField.REQUEST_METHOD, CaptureField.SESSION_ID))
+                .requestUri("/api/orders")
+                .requestMethod("POST")
+                .sessionId("snapshot")
+                .build();
+        
+        service.enrich(entity, snapshot);
+        
+        assertThat(entity.getRequestUri()).isEqualTo("/api/orders");
+        assertThat(entity.getRequestMethod()).isEqualTo("POST");
+        assertThat(entity.getSessionId()).isEqualTo("existing");
+    }
+    
+    @Test
+    void planTargetsOnlyStringProperties() {
+        EnrichmentPlan plan = service.getPlan(UserAccessLogEntity.class);
+        
+        assertThat(plan.getTargets()).containsKeys(EnrichedField.REQUEST_URI, EnrichedField.SESSION_ID,
+                EnrichedField.CLIENT_IP, EnrichedField.USERNAME);
+        assertThat(plan.getEnrichers()).hasSize(1);
+        assertThat(service.getPlan(UserAccessLogEntity.class)).isSameAs(plan);
+        
+        // 没有可增强属性的实体不执行任何增强器
+        assertThat(service.getPlan(DefaultLogEntity.class).isEmpty()).isTrue();
+        assertThat(EnrichmentTarget.of(UserAccessLogEntity.class, "responseTime")).isNull();
+        assertThat(EnrichmentTarget.of(UserAccessLogEntity.class, "missing")).isNull();
+    }
+}
@@ -0,0 +1,99 @@
+package com.diit.common.log.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * CidrTrie地址解析和网段匹配测试
+ *
+ * @author zzx
+ */
+class CidrTrieTest {
+    
+    private final CidrTrie trie = CidrTrie.of("10.0.0.0/8", "192.168.1.0/24", "203.0.113.7", "fc00::/7",
+            "2001:db8::/32", "::1");
+    
+    @Test
+    void matchesIpv4Prefixes() {
+        assertThat(trie.contains("10.255.0.1")).isTrue();
+        assertThat(trie.contains("192.168.1.200")).isTrue();
+        assertThat(trie.contains("192.168.2.1")).isFalse();
+        assertThat(trie.contains("203.0.113.7")).isTrue();
+        assertThat(trie.contains("203.0.113.8")).isFalse();
+        assertThat(trie.contains("11.0.0.1")).isFalse();
+    }
+    
+    @Test
+    void acceptsWhitespacePortsAndBrackets() {
+        assertThat(trie.contains("  10.1.2.3 ")).isTrue();
+        assertThat(trie.contains("10.1.2.3:8080")).isTrue();
+        assertThat(trie.contains("[::1]")).isTrue();
+        assertThat(trie.contains("[::1]:443")).isTrue();
+        assertThat(trie.contains("[2001:db8::1]:8443")).isTrue();
+        assertThat(trie.contains("[2001:db8::1")).isFalse();
+    }
+    
+    @Test
+    void matchesIpv6WithCompressionAndZoneIds() {
+        assertThat(trie.contains("fd12:3456::1")).isTrue();
+        assertThat(trie.contains("FD12:3456:0:0:0:0:0:1")).isTrue();
+        assertThat(trie.contains("fe80::1%eth0")).isFalse();
+        assertThat(trie.contains("fd00::1%eth0")).isTrue();
+        assertThat(trie.contains("2001:db8:ffff::")).isTrue();
+        assertThat(trie.contains("2001:db9::1")).isFalse();
+        assertThat(trie.contains("::")).isFalse();
+        assertThat(trie.contains("0:0:0:0:0:0:0:1")).isTrue();
+    }
+    
+    @Test
+    void matchesIpv4MappedAddressesAgainstIpv4Prefixes() {
+        assertThat(trie.contains("::ffff:10.0.0.1")).isTrue();
+        assertThat(trie.contains("::FFFF:192.168.1.5")).isTrue();
+        assertThat(trie.contains("::ffff:8.8.8.8")).isFalse();
+        assertThat(trie.contains("::ffff:a00:1")).isTrue();
+    }
+    
+    @Test
+    void rejectsMalformedLiterals() {
+        assertThat(trie.contains("")).isFalse();
+        assertThat(trie.contains((String) null)).isFalse();
+        assertThat(trie.contains("10.0.0")).isFalse();
+        assertThat(trie.contains("10.0.0.256")).isFalse();
+        assertThat(trie.contains("10.0.0.0001")).isFalse();
+        assertThat(trie.contains("10..0.1")).isFalse();
+        assertThat(trie.contains("localhost")).isFalse();
+        assertThat(trie.contains("fd00::1::2")).isFalse();
+        assertThat(trie.contains("fd00:1:2:3:4:5:6:7:8")).isFalse();
+        assertThat(trie.contains("fd00:12345::1")).isFalse();
+        assertThat(trie.contains("fd00::g")).isFalse();
+        assertThat(trie.contains("::1.2.3.4:5")).isFalse();
+    }
+    
+    @Test
+    void matchesSubRange() {
+        String header = "1.1.1.1, 10.0.0.5";
+        assertThat(trie.contains(header, 9, header.length())).isTrue();
+        assertThat(trie.contains(header, 0, 7)).isFalse();
+    }
+    
+    @Test
+    void shorterPrefixCoversLongerOnes() {
+        CidrTrie nested = CidrTrie.of("10.1.0.0/16", "10.0.0.0/8", "0.0.0.0/0");
+        
+        assertThat(nested.contains("10.1.2.3")).isTrue();
+        assertThat(nested.contains("8.8.8.8")).isTrue();
+        assertThat(nested.contains("::1")).isFalse();
+        assertThat(CidrTrie.of((String[]) null).contains("10.0.0.1")).isFalse();
+    }
+    
+    @Test
+    void rejectsInvalidCidrs() {
+        assertThatThrownBy(() -> CidrTrie.of("10.0.0.0/33")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CidrTrie.of("10.0.0.0/x")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CidrTrie.of("10.0.0/8")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CidrTrie.of("fc00::/129")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> CidrTrie.of("fc00:::1/64")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
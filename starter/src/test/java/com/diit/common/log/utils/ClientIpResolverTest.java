@@ -0,0 +1,70 @@
+package com.diit.common.log.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ClientIpResolver转发链解析测试
+ *
+ * @author zzx
+ */
+class ClientIpResolverTest {
+    
+    private final ClientIpResolver resolver = ClientIpResolver.defaults();
+    
+    @Test
+    void ignoresForwardedHeadersFromUntrustedPeers() {
+        assertThat(resolver.resolve("8.8.8.8", "1.2.3.4", "5.6.7.8")).isEqualTo("8.8.8.8");
+        assertThat(resolver.resolve(null, "1.2.3.4", null)).isEqualTo("unknown");
+    }
+    
+    @Test
+    void walksForwardedForFromRightToLeft() {
+        // 最右侧的可信代理被跳过，左侧伪造的地址不会被采信
+        assertThat(resolver.resolve("10.0.0.1", "6.6.6.6, 1.2.3.4, 192.168.0.9", null)).isEqualTo("1.2.3.4");
+        assertThat(resolver.resolve("10.0.0.1", " 1.2.3.4 ,unknown,  10.0.0.2 ", null)).isEqualTo("1.2.3.4");
+        assertThat(resolver.resolve("127.0.0.1", "2001:db8::1, ::1", null)).isEqualTo("2001:db8::1");
+        assertThat(resolver.resolve("::1", "[2001:db8::1]:443", null)).isEqualTo("[2001:db8::1]:443");
+    }
+    
+    @Test
+    void returnsLeftmostHopWhenWholeChainIsTrusted() {
+        assertThat(resolver.resolve("10.0.0.1", "192.168.1.2, 10.0.0.3, 127.0.0.1", null)).isEqualTo("192.168.1.2");
+        assertThat(resolver.resolve("10.0.0.1", "::ffff:10.0.0.7", null)).isEqualTo("::ffff:10.0.0.7");
+    }
+    
+    @Test
+    void fallsBackToCompatibilityHeadersAndRemoteAddr() {
+        assertThat(resolver.resolve("10.0.0.1", null, "1.2.3.4")).isEqualTo("1.2.3.4");
+        assertThat(resolver.resolve("10.0.0.1", " , unknown", "1.2.3.4")).isEqualTo("1.2.3.4");
+        assertThat(resolver.resolve("10.0.0.1", "", null)).isEqualTo("10.0.0.1");
+    }
+    
+    @Test
+    void resolvesFromServletRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("172.16.5.5");
+        request.addHeader("X-Forwarded-For", "9.9.9.9, 172.20.0.1");
+        assertThat(resolver.resolve(request)).isEqualTo("9.9.9.9");
+        
+        MockHttpServletRequest fallback = new MockHttpServletRequest();
+        fallback.setRemoteAddr("172.16.5.5");
+        fallback.addHeader("X-Real-IP", "unknown");
+        fallback.addHeader("Proxy-Client-IP", "4.4.4.4");
+        assertThat(ClientIpResolver.firstFallbackHeader(fallback)).isEqualTo("4.4.4.4");
+        assertThat(resolver.resolve(fallback)).isEqualTo("4.4.4.4");
+        
+        assertThat(resolver.resolve((MockHttpServletRequest) null)).isEqualTo("unknown");
+    }
+    
+    @Test
+    void customTrustedProxies() {
+        ClientIpResolver custom = new ClientIpResolver(CidrTrie.of("100.64.0.0/10"));
+        
+        assertThat(custom.isTrustedProxy("100.100.1.1")).isTrue();
+        assertThat(custom.isTrustedProxy("10.0.0.1")).isFalse();
+        assertThat(custom.resolve("100.64.0.1", "10.0.0.1, 100.64.0.2", null)).isEqualTo("10.0.0.1");
+    }
+}
@@ -0,0 +1,165 @@
+package com.diit.common.log.utils;
+
+import com.diit.common.log.properties.LogProperties;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * JwtUsernameResolver验签、缓存和淘汰测试
+ *
+ * @author zzx
+ */
+class JwtUsernameResolverTest {
+    
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+    
+    @Test
+    void resolvesHmacTokens() {
+        JwtUsernameResolver resolver = new JwtUsernameResolver(hmac(SECRET));
+        
+        assertThat(resolver.isEnabled()).isTrue();
+        assertThat(resolver.resolve(token("alice"))).isEqualTo("alice");
+        
+        // base64:前缀的密钥按Base64解码
+        String encoded = "base64:" + Base64.getEncoder().encodeToString(SECRET.getBytes());
+        assertThat(new JwtUsernameResolver(hmac(encoded)).resolve(token("bob"))).isEqualTo("bob");
+    }
+    
+    @Test
+    void resolvesRsaAndEcTokensWithPemPublicKeys() {
+        for (SignatureAlgorithm algorithm : new SignatureAlgorithm[]{SignatureAlgorithm.RS256, SignatureAlgorithm.ES256}) {
+            KeyPair keyPair = Keys.keyPairFor(algorithm);
+            LogProperties.Jwt properties = new LogProperties.Jwt();
+            properties.setSecret(SECRET);
+            properties.setPublicKey("-----BEGIN PUBLIC KEY-----\n"
+                    + Base64.getMimeEncoder().encodeToString(keyPair.getPublic().getEncoded())
+                    + "\n-----END PUBLIC KEY-----");
+            properties.setUsernameClaim("preferred_username");
+            JwtUsernameResolver resolver = new JwtUsernameResolver(properties);
+            
+            assertThat(resolver.resolve(bearer(Jwts.builder().claim("preferred_username", "carol")
+                    .signWith(keyPair.getPrivate(), algorithm)))).as(algorithm.name()).isEqualTo("carol");
+            // 配置公钥后不再接受HMAC签名
+            assertThat(resolver.resolve(token("mallory"))).isNull();
+        }
+    }
+    
+    @Test
+    void rejectsBadSignaturesExpiredAndMalformedTokens() {
+        JwtUsernameResolver resolver = new JwtUsernameResolver(hmac(SECRET));
+        
+        assertThat(resolver.resolve(bearer(Jwts.builder().setSubject("mallory")
+                .signWith(Keys.hmacShaKeyFor("fedcba9876543210fedcba9876543210".getBytes()))))).isNull();
+        assertThat(resolver.resolve(bearer(Jwts.builder().setSubject("alice")
+                .setExpiration(new Date(System.currentTimeMillis() - 120_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()))))).isNull();
+        assertThat(resolver.resolve("Bearer not.a.jwt")).isNull();
+        assertThat(resolver.resolve("Bearer ")).isNull();
+        assertThat(resolver.resolve("Basic YWxpY2U6c2VjcmV0")).isNull();
+        assertThat(resolver.resolve(null)).isNull();
+        assertThat(resolver.cacheSize()).isZero();
+    }
+    
+    @Test
+    void disabledWithoutKey() {
+        JwtUsernameResolver resolver = new JwtUsernameResolver(new LogProperties.Jwt());
+        
+        assertThat(resolver.isEnabled()).isFalse();
+        assertThat(resolver.resolve(token("alice"))).isNull();
+    }
+    
+    @Test
+    void cachedTokenIsVerifiedOnce() {
+        JwtParser parser = countingParser();
+        JwtUsernameResolver resolver = new JwtUsernameResolver(parser, "sub", 60_000, 16);
+        String token = token("alice");
+        
+        assertThat(resolver.resolve(token)).isEqualTo("alice");
+        assertThat(resolver.resolve(token)).isEqualTo("alice");
+        assertThat(resolver.resolve(token + " ")).isEqualTo("alice");
+        
+        verify(parser, times(1)).parseClaimsJws(anyString());
+        assertThat(resolver.cacheSize()).isEqualTo(1);
+    }
+    
+    @Test
+    void cacheEntryNeverOutlivesTokenExpiry() throws InterruptedException {
+        JwtParser parser = countingParser();
+        JwtUsernameResolver resolver = new JwtUsernameResolver(parser, "sub", 60_000, 16);
+        // exp精确到秒
+        long expiration = (System.currentTimeMillis() / 1000 + 2) * 1000;
+        String token = bearer(Jwts.builder().setSubject("alice").setExpiration(new Date(expiration))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes())));
+        
+        assertThat(resolver.resolve(token)).isEqualTo("alice");
+        assertThat(resolver.resolve(token)).isEqualTo("alice");
+        verify(parser, times(1)).parseClaimsJws(anyString());
+        
+        Thread.sleep(expiration - System.currentTimeMillis() + 50);
+        
+        // 缓存截止于exp，过期后重新验签并拒绝
+        assertThat(resolver.resolve(token)).isNull();
+        verify(parser, times(2)).parseClaimsJws(anyString());
+        assertThat(resolver.cacheSize()).isZero();
+    }
+    
+    @Test
+    void evictsLeastRecentlyUsedToken() {
+        JwtParser parser = countingParser();
+        JwtUsernameResolver resolver = new JwtUsernameResolver(parser, "sub", 60_000, 2);
+        String first = token("u1");
+        String second = token("u2");
+        String third = token("u3");
+        
+        resolver.resolve(first);
+        resolver.resolve(second);
+        // 访问first后second成为最久未使用的条目
+        resolver.resolve(first);
+        resolver.resolve(third);
+        assertThat(resolver.cacheSize()).isEqualTo(2);
+        verify(parser, times(3)).parseClaimsJws(anyString());
+        
+        assertThat(resolver.resolve(first)).isEqualTo("u1");
+        assertThat(resolver.resolve(third)).isEqualTo("u3");
+        verify(parser, times(3)).parseClaimsJws(anyString());
+        assertThat(resolver.resolve(second)).isEqualTo("u2");
+        verify(parser, times(4)).parseClaimsJws(anyString());
+    }
+    
+    private static LogProperties.Jwt hmac(String secret) {
+        LogProperties.Jwt properties = new LogProperties.Jwt();
+        properties.setSecret(secret);
+        properties.setAllowedClockSkew(0);
+        return properties;
+    }
+    
+    /**
+     * 委托给真实验签器的Mock，用于统计验签次数
+     */
+    private static JwtParser countingParser() {
+        return mock(JwtParser.class, delegatesTo(JwtUsernameResolver.buildParser(hmac(SECRET))));
+    }
+    
+    private static String token(String subject) {
+        return bearer(Jwts.builder().setSubject(subject).signWith(Keys.hmacShaKeyFor(SECRET.getBytes())));
+    }
+    
+    private static String bearer(JwtBuilder builder) {
+        return "Bearer " + builder.compact();
+    }
+}